@@ -0,0 +1,261 @@
+package com.n26.challenge.api.controller;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.n26.challenge.api.model.ApiTransaction;
+import com.n26.challenge.api.model.BatchResult;
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.jfr.IngestEvent;
+import com.n26.challenge.service.IStatisticsService;
+import com.n26.challenge.service.StatisticsVersionTracker;
+import com.n26.challenge.service.capacity.CapacityExceededException;
+import com.n26.challenge.timing.RequestTimer;
+
+/**
+ * The base of the Statistics Rest API Controllers: the service calls they
+ * share and their exception handlers. {@link StatisticsController} answers
+ * with futures completed by the space call executor, and
+ * {@link DirectStatisticsController} with plain values, on the request
+ * thread.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public abstract class AbstractStatisticsController {
+
+	/**
+	 * The statistics service
+	 */
+	protected final IStatisticsService statisticsService;
+
+	/**
+	 * The tracker of the statistics version, null to disable the conditional
+	 * requests
+	 */
+	protected final StatisticsVersionTracker versionTracker;
+
+	/**
+	 * Controller constructor
+	 *
+	 * @param statisticsService
+	 *            an {@link IStatisticsService}
+	 * @param versionTracker
+	 *            the {@link StatisticsVersionTracker} of the statistics, null
+	 *            to disable the conditional requests
+	 */
+	protected AbstractStatisticsController(final IStatisticsService statisticsService,
+			final StatisticsVersionTracker versionTracker) {
+
+		this.statisticsService = statisticsService;
+		this.versionTracker = versionTracker;
+	}
+
+	/**
+	 * IllegalArgumentException handler method that returns a
+	 * {@link HttpStatus#NO_CONTENT} status and empty body
+	 */
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	@ExceptionHandler(IllegalArgumentException.class)
+	public void exceptionHandler() {
+		// Empty body should be returned and HTTP status code 204
+	}
+
+	/**
+	 * RejectedExecutionException handler method that returns a
+	 * {@link HttpStatus#SERVICE_UNAVAILABLE} status when there are too many
+	 * service calls in flight
+	 *
+	 * @param exception
+	 *            the exception
+	 * @return A {@link String} with the exception message
+	 */
+	@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	@ExceptionHandler(RejectedExecutionException.class)
+	public String exceptionHandler(final RejectedExecutionException exception) {
+
+		return "Too many requests in flight, please retry later";
+	}
+
+	/**
+	 * CapacityExceededException handler method that returns a
+	 * {@link HttpStatus#SERVICE_UNAVAILABLE} status when the space holds the
+	 * maximum number of transactions
+	 *
+	 * @param exception
+	 *            the exception
+	 * @return A {@link String} with the exception message
+	 */
+	@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	@ExceptionHandler(CapacityExceededException.class)
+	public String exceptionHandler(final CapacityExceededException exception) {
+
+		return exception.getMessage();
+	}
+
+	/**
+	 * Exception handler method
+	 *
+	 * @param exception
+	 *            the exception
+	 * @return A {@link String} with the exception message
+	 */
+	@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+	@ExceptionHandler(Exception.class)
+	public String exceptionHandler(final Exception exception) {
+
+		return exception.getMessage();
+	}
+
+	/**
+	 * Validates a transaction has all its fields
+	 *
+	 * @param transaction the transaction to validate
+	 */
+	protected static void validate(final ApiTransaction transaction) {
+
+		validateNotNull(transaction, "The transaction can not be null");
+		validateNotNull(transaction.getAmount(), "The transaction's amount can not be null");
+		validateNotNull(transaction.getTimestamp(), "The transaction's time stamp can not be null");
+	}
+
+	/**
+	 * Registers a validated transaction in the statistics service
+	 *
+	 * @param transaction the transaction to register
+	 */
+	protected void register(final ApiTransaction transaction) {
+
+		final IngestEvent event = new IngestEvent();
+		event.begin();
+		statisticsService.createTransaction(transaction.getTimestamp(), transaction.getAmount());
+		event.commit(IngestEvent.HTTP, 1, 1);
+	}
+
+	/**
+	 * Registers a batch of transactions in the statistics service, rejecting
+	 * the invalid ones and the ones out of the window without failing the
+	 * rest.
+	 *
+	 * @param transactions the transactions to register
+	 * @return the {@link BatchResult}
+	 */
+	protected BatchResult register(final ApiTransaction[] transactions) {
+
+		final IngestEvent event = new IngestEvent();
+		event.begin();
+		int accepted = 0;
+		for (final ApiTransaction transaction : transactions) {
+			try {
+				validate(transaction);
+				statisticsService.createTransaction(transaction.getTimestamp(), transaction.getAmount());
+				accepted++;
+			} catch (final IllegalArgumentException | CapacityExceededException exception) {
+				// Counted as rejected
+			}
+		}
+		event.commit(IngestEvent.BATCH, transactions.length, accepted);
+		return new BatchResult(accepted, transactions.length - accepted);
+	}
+
+	/**
+	 * Returns the ETag of a statistics version
+	 *
+	 * @param version the statistics version
+	 * @return the quoted tag
+	 */
+	protected String toETag(final long version) {
+
+		RequestTimer.mark("version");
+		return "\"" + versionTracker.toTag(version) + "\"";
+	}
+
+	/**
+	 * Returns whether the client already knows the statistics of a version,
+	 * so they can be answered as {@link HttpStatus#NOT_MODIFIED}
+	 *
+	 * @param version the current statistics version
+	 * @param eTag the ETag of the current version
+	 * @param ifNoneMatch the ETag known by the client
+	 * @param sinceVersion the version known by the client
+	 * @return true if the client knows the version
+	 */
+	protected static boolean isKnown(final long version, final String eTag, final String ifNoneMatch,
+			final Long sinceVersion) {
+
+		return matches(ifNoneMatch, eTag) || sinceVersion != null && sinceVersion == version;
+	}
+
+	/**
+	 * Returns the not modified response of a version
+	 *
+	 * @param eTag the ETag of the version
+	 * @return the response without body
+	 */
+	protected static ResponseEntity<StatisticsResult> notModified(final String eTag) {
+
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+	}
+
+	/**
+	 * Relays the outcome of a stage, unwrapping its exception so the
+	 * exception handlers get the original one.
+	 *
+	 * @param stage the stage
+	 * @return the future completed with the stage's outcome
+	 */
+	protected static <T> CompletableFuture<T> relay(final CompletionStage<T> stage) {
+
+		final CompletableFuture<T> relayed = new CompletableFuture<>();
+		stage.whenComplete((value, exception) -> {
+			if (exception == null) {
+				relayed.complete(value);
+			} else {
+				relayed.completeExceptionally(exception instanceof CompletionException && exception.getCause() != null
+						? exception.getCause() : exception);
+			}
+		});
+		return relayed;
+	}
+
+	/**
+	 * Returns whether an If-None-Match header matches the given ETag
+	 *
+	 * @param ifNoneMatch the header value, may be null or a list of ETags
+	 * @param eTag the current ETag
+	 * @return true if the ETag is in the list
+	 */
+	private static boolean matches(final String ifNoneMatch, final String eTag) {
+
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (final String candidate : ifNoneMatch.split(",")) {
+			final String trimmed = candidate.trim();
+			if (trimmed.equals(eTag) || trimmed.equals("W/" + eTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Validates the object in the paremeter is not null
+	 *
+	 * @param object the object to validate
+	 * @param message the exception message if required
+	 */
+	public static void validateNotNull(final Object object, final String message) {
+        if (object == null) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.n26.challenge.api.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.n26.challenge.api.model.ClusterStatisticsResult;
+import com.n26.challenge.api.model.NodeSummary;
+import com.n26.challenge.service.cluster.ClusterStatisticsService;
+
+/**
+ * The Cluster Statistics Rest API Controller, available only when the
+ * cluster mode is enabled.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@RestController
+@ConditionalOnProperty(name = "statistics.cluster.enabled", havingValue = "true")
+public class ClusterController {
+
+	/**
+	 * The cluster statistics service
+	 */
+	private final ClusterStatisticsService clusterService;
+
+	/**
+	 * Default {@link ClusterController} constructor
+	 *
+	 * @param clusterService
+	 *            a {@link ClusterStatisticsService}
+	 */
+	@Autowired
+	public ClusterController(final ClusterStatisticsService clusterService) {
+
+		this.clusterService = clusterService;
+	}
+
+	/**
+	 * Receives the window summary published by a peer
+	 *
+	 * @param summary the peer summary
+	 */
+	@RequestMapping(method = RequestMethod.POST, path = "cluster/summaries")
+	@ResponseStatus(HttpStatus.ACCEPTED)
+	public void receiveSummary(@RequestBody final NodeSummary summary) {
+
+		clusterService.receive(summary);
+	}
+
+	/**
+	 * Query the statistical information of the transactions of all the nodes
+	 * for the last 60 seconds
+	 *
+	 * @return a {@link ClusterStatisticsResult}
+	 */
+	@RequestMapping(method = RequestMethod.GET, path = "statistics/cluster")
+	public ClusterStatisticsResult queryClusterStats() {
+
+		return clusterService.getClusterStatistics();
+	}
+
+	/**
+	 * IllegalArgumentException handler method for invalid summaries
+	 *
+	 * @param exception
+	 *            the exception
+	 * @return A {@link String} with the exception message
+	 */
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	@ExceptionHandler(IllegalArgumentException.class)
+	public String exceptionHandler(final IllegalArgumentException exception) {
+
+		return exception.getMessage();
+	}
+
+}
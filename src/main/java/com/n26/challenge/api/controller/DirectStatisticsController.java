@@ -0,0 +1,170 @@
+package com.n26.challenge.api.controller;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.n26.challenge.api.model.ApiTransaction;
+import com.n26.challenge.api.model.BatchResult;
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.service.IStatisticsService;
+import com.n26.challenge.service.StatisticsVersionTracker;
+import com.n26.challenge.timing.RequestTimer;
+
+/**
+ * The Statistics Rest API Controller of the direct execution mode, where the
+ * service calls run on the request thread: it answers with plain values, so
+ * the requests aren't dispatched asynchronously. Only the long polling
+ * requests (with a sinceVersion parameter), which wait for the version to
+ * change, are answered with a future.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@RestController
+@ConditionalOnExpression("'${statistics.execution.mode}'.trim().equalsIgnoreCase('direct')")
+public class DirectStatisticsController extends AbstractStatisticsController {
+
+	/**
+	 * {@link DirectStatisticsController} constructor without conditional
+	 * requests
+	 *
+	 * @param statisticsService
+	 *            an {@link IStatisticsService}
+	 */
+	public DirectStatisticsController(final IStatisticsService statisticsService) {
+
+		this(statisticsService, null);
+	}
+
+	/**
+	 * Default {@link DirectStatisticsController} constructor
+	 *
+	 * @param statisticsService
+	 *            an {@link IStatisticsService}
+	 * @param versionTracker
+	 *            the {@link StatisticsVersionTracker} of the statistics
+	 */
+	@Autowired
+	public DirectStatisticsController(final IStatisticsService statisticsService,
+			final StatisticsVersionTracker versionTracker) {
+
+		super(statisticsService, versionTracker);
+	}
+
+	/**
+	 * Register a new transaction
+	 *
+	 * @param transaction the transaction to register
+	 */
+	@RequestMapping(method = RequestMethod.POST, path = "transactions")
+	@ResponseStatus(HttpStatus.CREATED)
+	public void registerTransaction(@RequestBody final ApiTransaction transaction) {
+
+		RequestTimer.mark("binding");
+		validate(transaction);
+		RequestTimer.mark("validation");
+		register(transaction);
+	}
+
+	/**
+	 * Register a batch of transactions in a single request. The invalid
+	 * transactions and the ones out of the window are rejected without
+	 * failing the rest of the batch.
+	 *
+	 * @param transactions the transactions to register
+	 * @return the {@link BatchResult}
+	 */
+	@RequestMapping(method = RequestMethod.POST, path = "transactions/batch")
+	@ResponseStatus(HttpStatus.CREATED)
+	public BatchResult registerTransactions(@RequestBody final ApiTransaction[] transactions) {
+
+		RequestTimer.mark("binding");
+		validateNotNull(transactions, "The transactions can not be null");
+		return register(transactions);
+	}
+
+	/**
+	 * Query the statistical information of transactions for the last 60 seconds.
+	 * <p>
+	 * The response carries the statistics version tag as its ETag. When this
+	 * instance is the single writer of the statistics and the tag matches the
+	 * If-None-Match header, the statistics are neither computed nor sent
+	 * ({@link HttpStatus#NOT_MODIFIED}).
+	 *
+	 * @param ifNoneMatch the ETag of the statistics known by the client
+	 * @return a {@link StatisticsResult}
+	 */
+	@RequestMapping(method = RequestMethod.GET, path = "statistics")
+	public ResponseEntity<StatisticsResult> queryStats(
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
+
+		RequestTimer.mark("binding");
+		if (versionTracker == null) {
+			return ResponseEntity.ok(statisticsService.getStatistics());
+		}
+		// Other nodes write to a shared space unknown to the tracker, so a 304 could hide their transactions
+		return respond(versionTracker.getVersion(), versionTracker.isExclusive() ? ifNoneMatch : null, null);
+	}
+
+	/**
+	 * Query the statistical information of transactions for the last 60
+	 * seconds once their version is a different one from the given tag (long
+	 * polling), or answer {@link HttpStatus#NOT_MODIFIED} when the maximum
+	 * wait time is over. With a shared space, or a tag of another instance,
+	 * the statistics are answered right away.
+	 *
+	 * @param ifNoneMatch the ETag of the statistics known by the client
+	 * @param sinceVersion the version tag to wait to change
+	 * @return the future with a {@link StatisticsResult}
+	 */
+	@RequestMapping(method = RequestMethod.GET, path = "statistics", params = "sinceVersion")
+	public CompletableFuture<ResponseEntity<StatisticsResult>> pollStats(
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch,
+			@RequestParam("sinceVersion") final String sinceVersion) {
+
+		RequestTimer.mark("binding");
+		final long knownVersion = versionTracker == null || !versionTracker.isExclusive() ? -1
+				: versionTracker.fromTag(sinceVersion);
+		if (knownVersion < 0) {
+			// No wait: no tracker, a shared space, or a tag of another node or of a previous run
+			return CompletableFuture.completedFuture(queryStats(ifNoneMatch));
+		}
+		// Computed asynchronously, so the thread completing the wait isn't the one computing
+		return relay(versionTracker.awaitChange(knownVersion)
+				.thenApplyAsync(version -> respond(version, ifNoneMatch, knownVersion)));
+	}
+
+	/**
+	 * Answers the statistics of the given version, unless the client already
+	 * knows it.
+	 *
+	 * @param version the current statistics version
+	 * @param ifNoneMatch the ETag known by the client
+	 * @param sinceVersion the version known by the client
+	 * @return the response
+	 */
+	private ResponseEntity<StatisticsResult> respond(final long version, final String ifNoneMatch,
+			final Long sinceVersion) {
+
+		final String eTag = toETag(version);
+		if (isKnown(version, eTag, ifNoneMatch, sinceVersion)) {
+			return notModified(eTag);
+		}
+		// The version is read before computing, so a concurrent change is never hidden
+		return ResponseEntity.ok().eTag(eTag).body(statisticsService.getStatistics());
+	}
+
+}
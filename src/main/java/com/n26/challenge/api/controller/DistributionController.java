@@ -0,0 +1,89 @@
+package com.n26.challenge.api.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.n26.challenge.api.model.RangeStatisticsResult;
+import com.n26.challenge.service.distribution.RangeStatisticsService;
+
+/**
+ * The Rest API Controller exposing the statistics of the transactions whose
+ * amount is in a range, available only when they are enabled.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@RestController
+@ConditionalOnProperty(name = "statistics.range.enabled", havingValue = "true")
+public class DistributionController {
+
+	/**
+	 * The amount range statistics service
+	 */
+	private final RangeStatisticsService rangeService;
+
+	/**
+	 * Default {@link DistributionController} constructor
+	 *
+	 * @param rangeService
+	 *            a {@link RangeStatisticsService}
+	 */
+	@Autowired
+	public DistributionController(final RangeStatisticsService rangeService) {
+
+		this.rangeService = rangeService;
+	}
+
+	/**
+	 * Query the statistical information of the transactions of the last 60
+	 * seconds whose amount is in a range. It's mapped when the minimum amount
+	 * is given, or only the maximum one.
+	 *
+	 * @param minAmount the minimum amount (inclusive), unbounded if missing
+	 * @param maxAmount the maximum amount (inclusive), unbounded if missing
+	 * @return a {@link RangeStatisticsResult}
+	 */
+	@RequestMapping(method = RequestMethod.GET, path = "statistics", params = "minAmount")
+	public RangeStatisticsResult queryRangeStats(
+			@RequestParam(value = "minAmount", required = false) final Double minAmount,
+			@RequestParam(value = "maxAmount", required = false) final Double maxAmount) {
+
+		return rangeService.getStatistics(minAmount, maxAmount);
+	}
+
+	/**
+	 * Query the statistical information of the transactions of the last 60
+	 * seconds whose amount is not greater than the given one
+	 *
+	 * @param maxAmount the maximum amount (inclusive)
+	 * @return a {@link RangeStatisticsResult}
+	 */
+	@RequestMapping(method = RequestMethod.GET, path = "statistics", params = { "!minAmount", "maxAmount" })
+	public RangeStatisticsResult queryMaxAmountStats(@RequestParam("maxAmount") final Double maxAmount) {
+
+		return rangeService.getStatistics(null, maxAmount);
+	}
+
+	/**
+	 * IllegalArgumentException handler method for invalid ranges
+	 *
+	 * @param exception
+	 *            the exception
+	 * @return A {@link String} with the exception message
+	 */
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	@ExceptionHandler(IllegalArgumentException.class)
+	public String exceptionHandler(final IllegalArgumentException exception) {
+
+		return exception.getMessage();
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.n26.challenge.api.controller;
+
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.n26.challenge.api.converter.TransactionExportWriter;
+import com.n26.challenge.api.converter.TransactionExportWriter.Format;
+import com.n26.challenge.service.store.RawTransactionStore;
+
+/**
+ * The Rest API Controller exporting the raw transactions of the window,
+ * available only when the off-heap transaction store is enabled.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@RestController
+@ConditionalOnProperty(name = "statistics.store.enabled", havingValue = "true")
+public class ExportController {
+
+	/**
+	 * The raw transaction store
+	 */
+	private final RawTransactionStore store;
+
+	/**
+	 * Default {@link ExportController} constructor
+	 *
+	 * @param store
+	 *            a {@link RawTransactionStore}
+	 */
+	@Autowired
+	public ExportController(final RawTransactionStore store) {
+
+		this.store = store;
+	}
+
+	/**
+	 * Streams the transactions of the last 60 seconds, as of the start of the
+	 * request, as newline delimited JSON or CSV. The body is written
+	 * incrementally on an asynchronous thread, while the transactions keep
+	 * being registered.
+	 *
+	 * @param format the export format: ndjson (default) or csv
+	 * @return the streamed response
+	 */
+	@RequestMapping(method = RequestMethod.GET, path = "transactions/export")
+	public ResponseEntity<StreamingResponseBody> exportTransactions(
+			@RequestParam(value = "format", required = false, defaultValue = "ndjson") final String format) {
+
+		final Format exportFormat = toFormat(format);
+		final StreamingResponseBody body = output -> {
+			final TransactionExportWriter writer = new TransactionExportWriter(output, exportFormat);
+			try {
+				store.forEach(writer);
+			} catch (final UncheckedIOException e) {
+				throw e.getCause();
+			}
+			writer.finish();
+		};
+		return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(body);
+	}
+
+	/**
+	 * IllegalArgumentException handler method for unknown formats
+	 *
+	 * @param exception
+	 *            the exception
+	 * @return A {@link String} with the exception message
+	 */
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	@ExceptionHandler(IllegalArgumentException.class)
+	public String exceptionHandler(final IllegalArgumentException exception) {
+
+		return exception.getMessage();
+	}
+
+	/**
+	 * Returns the export format of a name
+	 *
+	 * @param name the format name, case insensitive
+	 * @return the format
+	 */
+	private static Format toFormat(final String name) {
+
+		for (final Format format : Format.values()) {
+			if (format.name().equals(name.toUpperCase(Locale.ROOT))) {
+				return format;
+			}
+		}
+		throw new IllegalArgumentException("Unknown export format " + name + ", expected ndjson or csv");
+	}
+
+}
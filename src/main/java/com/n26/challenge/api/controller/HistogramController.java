@@ -0,0 +1,53 @@
+package com.n26.challenge.api.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.n26.challenge.api.model.HistogramResult;
+import com.n26.challenge.service.distribution.HistogramService;
+
+/**
+ * The Rest API Controller exposing the histogram of the transactions'
+ * amounts, available only when the histogram is enabled.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@RestController
+@ConditionalOnProperty(name = "statistics.histogram.enabled", havingValue = "true")
+public class HistogramController {
+
+	/**
+	 * The histogram service
+	 */
+	private final HistogramService histogramService;
+
+	/**
+	 * Default {@link HistogramController} constructor
+	 *
+	 * @param histogramService
+	 *            a {@link HistogramService}
+	 */
+	@Autowired
+	public HistogramController(final HistogramService histogramService) {
+
+		this.histogramService = histogramService;
+	}
+
+	/**
+	 * Query the number of transactions of the last 60 seconds in each
+	 * log-scale amount bucket
+	 *
+	 * @return a {@link HistogramResult}
+	 */
+	@RequestMapping(method = RequestMethod.GET, path = "statistics/histogram")
+	public HistogramResult queryHistogram() {
+
+		return histogramService.getHistogram();
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.n26.challenge.api.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.n26.challenge.api.model.HistoryStatisticsResult;
+import com.n26.challenge.service.history.HistoryQueryService;
+
+/**
+ * The Rest API Controller exposing the statistics of the transaction history
+ * beyond the 60 seconds window, available only when the history is enabled.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@RestController
+@ConditionalOnProperty(name = "statistics.history.enabled", havingValue = "true")
+public class HistoryController {
+
+	/**
+	 * The history query service
+	 */
+	private final HistoryQueryService historyService;
+
+	/**
+	 * Default {@link HistoryController} constructor
+	 *
+	 * @param historyService
+	 *            a {@link HistoryQueryService}
+	 */
+	@Autowired
+	public HistoryController(final HistoryQueryService historyService) {
+
+		this.historyService = historyService;
+	}
+
+	/**
+	 * Query the statistical information of the transactions of a time range
+	 *
+	 * @param from the range start (inclusive), in epoch milliseconds
+	 * @param to the range end (exclusive), in epoch milliseconds
+	 * @return a {@link HistoryStatisticsResult}
+	 */
+	@RequestMapping(method = RequestMethod.GET, path = "statistics/history")
+	public HistoryStatisticsResult queryHistoryStats(@RequestParam("from") final long from,
+			@RequestParam("to") final long to) {
+
+		return historyService.getStatistics(from, to);
+	}
+
+	/**
+	 * IllegalArgumentException handler method for invalid ranges
+	 *
+	 * @param exception
+	 *            the exception
+	 * @return A {@link String} with the exception message
+	 */
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	@ExceptionHandler(IllegalArgumentException.class)
+	public String exceptionHandler(final IllegalArgumentException exception) {
+
+		return exception.getMessage();
+	}
+
+}
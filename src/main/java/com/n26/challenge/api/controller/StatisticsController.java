@@ -1,105 +1,187 @@
 package com.n26.challenge.api.controller;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.n26.challenge.api.model.ApiTransaction;
+import com.n26.challenge.api.model.BatchResult;
 import com.n26.challenge.api.model.StatisticsResult;
 import com.n26.challenge.service.IStatisticsService;
+import com.n26.challenge.service.SpaceCallExecutor;
+import com.n26.challenge.service.StatisticsVersionTracker;
+import com.n26.challenge.timing.RequestTimer;
 
 /**
- * The Statistics Rest API Controller
+ * The Statistics Rest API Controller of the executor and virtual execution
+ * modes, answering with the futures of the {@link SpaceCallExecutor}, so the
+ * request threads are released while the service calls run. In direct mode
+ * the calls run on the request thread, and {@link DirectStatisticsController}
+ * answers instead, without the asynchronous dispatch of a future.
  *
  * @author Santiago Alzate S.
  * @version 1.0.0
  * @since 1.0.0
  */
 @RestController
-public class StatisticsController {
+@ConditionalOnExpression("!'${statistics.execution.mode}'.trim().equalsIgnoreCase('direct')")
+public class StatisticsController extends AbstractStatisticsController {
+
+	/**
+	 * The executor of the (blocking) statistics service calls
+	 */
+	private final SpaceCallExecutor executor;
+
+	/**
+	 * {@link StatisticsController} constructor running the service calls on
+	 * the request thread
+	 *
+	 * @param balanceService
+	 *            an {@link IStatisticsService}
+	 */
+	public StatisticsController(final IStatisticsService balanceService) {
+
+		this(balanceService, SpaceCallExecutor.direct());
+	}
 
 	/**
-	 * The statistics service
+	 * {@link StatisticsController} constructor without conditional requests
+	 *
+	 * @param balanceService
+	 *            an {@link IStatisticsService}
+	 * @param executor
+	 *            the {@link SpaceCallExecutor} running the service calls
 	 */
-	private final IStatisticsService statisticsService;
+	public StatisticsController(final IStatisticsService balanceService, final SpaceCallExecutor executor) {
+
+		this(balanceService, executor, null);
+	}
 
 	/**
 	 * Default {@link StatisticsController} constructor
 	 *
 	 * @param balanceService
 	 *            an {@link IStatisticsService}
+	 * @param executor
+	 *            the {@link SpaceCallExecutor} running the service calls
+	 * @param versionTracker
+	 *            the {@link StatisticsVersionTracker} of the statistics
 	 */
 	@Autowired
-	public StatisticsController(final IStatisticsService balanceService) {
+	public StatisticsController(final IStatisticsService balanceService, final SpaceCallExecutor executor,
+			final StatisticsVersionTracker versionTracker) {
 
-		this.statisticsService = balanceService;
+		super(balanceService, versionTracker);
+		this.executor = executor;
 	}
 
 	/**
 	 * Register a new transaction
 	 *
 	 * @param transaction the transaction to register
+	 * @return the future completed once the transaction is registered
 	 */
 	@RequestMapping(method = RequestMethod.POST, path = "transactions")
 	@ResponseStatus(HttpStatus.CREATED)
-	public void registerTransaction(@RequestBody final ApiTransaction transaction) {
+	public CompletableFuture<Void> registerTransaction(@RequestBody final ApiTransaction transaction) {
 
-		validateNotNull(transaction, "The transaction can not be null");
-		validateNotNull(transaction.getAmount(), "The transaction's amount can not be null");
-		validateNotNull(transaction.getTimestamp(), "The transaction's time stamp can not be null");
+		RequestTimer.mark("binding");
+		validate(transaction);
+		RequestTimer.mark("validation");
 
-		statisticsService.createTransaction(transaction.getTimestamp(), transaction.getAmount());
+		return executor.submit(() -> {
+			register(transaction);
+			return null;
+		});
 	}
 
 	/**
-	 * Query the statistical information of transactions for the last 60 seconds
+	 * Register a batch of transactions in a single request. The invalid
+	 * transactions and the ones out of the window are rejected without
+	 * failing the rest of the batch.
 	 *
-	 * @return a {@link StatisticsResult}
+	 * @param transactions the transactions to register
+	 * @return the future with the {@link BatchResult}
 	 */
-	@RequestMapping(method = RequestMethod.GET, path = "statistics")
-	public StatisticsResult queryStats() {
+	@RequestMapping(method = RequestMethod.POST, path = "transactions/batch")
+	@ResponseStatus(HttpStatus.CREATED)
+	public CompletableFuture<BatchResult> registerTransactions(@RequestBody final ApiTransaction[] transactions) {
 
-		return statisticsService.getStatistics();
-	}
+		RequestTimer.mark("binding");
+		validateNotNull(transactions, "The transactions can not be null");
 
-	/**
-	 * IllegalArgumentException handler method that returns a
-	 * {@link HttpStatus#NO_CONTENT} status and empty body
-	 */
-	@ResponseStatus(HttpStatus.NO_CONTENT)
-	@ExceptionHandler(IllegalArgumentException.class)
-	public void exceptionHandler() {
-		// Empty body should be returned and HTTP status code 204
+		return executor.submit(() -> register(transactions));
 	}
 
 	/**
-	 * Exception handler method
+	 * Query the statistical information of transactions for the last 60 seconds.
+	 * <p>
+	 * The response carries the statistics version tag as its ETag. When this
+	 * instance is the single writer of the statistics and the tag matches the
+	 * If-None-Match header, the statistics are neither computed nor sent
+	 * ({@link HttpStatus#NOT_MODIFIED}). With a sinceVersion parameter (a tag),
+	 * the response is held until the version is a different one, or answered
+	 * with {@link HttpStatus#NOT_MODIFIED} when the maximum wait time is over.
+	 * With a shared space, or a tag of another instance, the statistics are
+	 * always answered right away.
 	 *
-	 * @param exception
-	 *            the exception
-	 * @return A {@link String} with the exception message
+	 * @param ifNoneMatch the ETag of the statistics known by the client
+	 * @param sinceVersion the version tag to wait to change (long polling)
+	 * @return the future with a {@link StatisticsResult}
 	 */
-	@ResponseStatus(value = HttpStatus.BAD_REQUEST)
-	@ExceptionHandler(Exception.class)
-	public String exceptionHandler(final Exception exception) {
+	@RequestMapping(method = RequestMethod.GET, path = "statistics")
+	public CompletableFuture<ResponseEntity<StatisticsResult>> queryStats(
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch,
+			@RequestParam(value = "sinceVersion", required = false) final String sinceVersion) {
 
-		return exception.getMessage();
+		RequestTimer.mark("binding");
+		if (versionTracker == null) {
+			return relay(executor.submit(statisticsService::getStatistics).thenApply(ResponseEntity::ok));
+		}
+		if (!versionTracker.isExclusive()) {
+			// Other nodes write to the shared space unknown to the tracker, so a 304 could hide their transactions
+			return respond(versionTracker.getVersion(), null, null);
+		}
+		final long knownVersion = sinceVersion == null ? -1 : versionTracker.fromTag(sinceVersion);
+		if (knownVersion < 0) {
+			// No wait, or a tag of another node or of a previous run
+			return respond(versionTracker.getVersion(), ifNoneMatch, null);
+		}
+		// Composed asynchronously, so the thread completing the wait isn't the one computing
+		return relay(versionTracker.awaitChange(knownVersion)
+				.thenComposeAsync(version -> respond(version, ifNoneMatch, knownVersion)));
 	}
 
 	/**
-	 * Validates the object in the paremeter is not null
+	 * Answers the statistics of the given version, unless the client already
+	 * knows it.
 	 *
-	 * @param object the object to validate
-	 * @param message the exception message if required
+	 * @param version the current statistics version
+	 * @param ifNoneMatch the ETag known by the client
+	 * @param sinceVersion the version known by the client
+	 * @return the future with the response
 	 */
-	public static void validateNotNull(final Object object, final String message) {
-        if (object == null) {
-            throw new IllegalArgumentException(message);
-        }
-    }
+	private CompletableFuture<ResponseEntity<StatisticsResult>> respond(final long version, final String ifNoneMatch,
+			final Long sinceVersion) {
+
+		final String eTag = toETag(version);
+		if (isKnown(version, eTag, ifNoneMatch, sinceVersion)) {
+			return CompletableFuture.completedFuture(notModified(eTag));
+		}
+		// The version is read before computing, so a concurrent change is never hidden
+		return relay(executor.submit(statisticsService::getStatistics)
+				.thenApply(statistics -> ResponseEntity.ok().eTag(eTag).body(statistics)));
+	}
+
 }
@@ -0,0 +1,47 @@
+package com.n26.challenge.api.converter;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * HTTP message converter reading and writing the API models as CBOR
+ * (Concise Binary Object Representation), with the same Jackson mapping as
+ * the JSON representation.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class CborHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+	/**
+	 * The CBOR media type
+	 */
+	public static final MediaType APPLICATION_CBOR = new MediaType("application", "cbor");
+
+	/**
+	 * Creates the converter.
+	 */
+	public CborHttpMessageConverter() {
+
+		super(objectMapper(), APPLICATION_CBOR);
+	}
+
+	/**
+	 * Creates a CBOR object mapper with the same configuration as the JSON
+	 * one
+	 *
+	 * @return the object mapper
+	 */
+	private static ObjectMapper objectMapper() {
+
+		final ObjectMapper objectMapper = new ObjectMapper(new CBORFactory());
+		Jackson2ObjectMapperBuilder.json().configure(objectMapper);
+		return objectMapper;
+	}
+
+}
@@ -0,0 +1,227 @@
+package com.n26.challenge.api.converter;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.n26.challenge.api.model.ApiTransaction;
+import com.n26.challenge.api.model.BatchResult;
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.service.window.ExactSlidingWindow;
+
+/**
+ * HTTP message converter reading and writing the API models as fixed-layout
+ * big-endian binary records, with no field names nor separators:
+ * <ul>
+ * <li>{@link ApiTransaction}: time stamp (int64, epoch milliseconds) and
+ * amount (int64, cents), 16 bytes. A batch of transactions is a sequence of
+ * records.</li>
+ * <li>{@link StatisticsResult}: count (int64) followed by the average,
+ * maximum, minimum, sum, variance and standard deviation (float64), then the
+ * flags (int64, bit 0 set when the statistics are exact) and the confidence
+ * (float64), 72 bytes.</li>
+ * <li>{@link BatchResult}: accepted and rejected counts (int64), 16
+ * bytes.</li>
+ * </ul>
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class FixedRecordHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+	/**
+	 * The fixed record media type
+	 */
+	public static final MediaType APPLICATION_FIXED_RECORD = new MediaType("application", "x-fixed-record");
+
+	/**
+	 * The size of a transaction record in bytes
+	 */
+	public static final int TRANSACTION_RECORD_SIZE = 16;
+
+	/**
+	 * The size of a statistics record in bytes
+	 */
+	public static final int STATISTICS_RECORD_SIZE = 72;
+
+	/**
+	 * The flag of a statistics record set when the statistics are exact
+	 */
+	public static final long EXACT_FLAG = 1L;
+
+	/**
+	 * Creates the converter.
+	 */
+	public FixedRecordHttpMessageConverter() {
+
+		super(APPLICATION_FIXED_RECORD);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see AbstractHttpMessageConverter#supports(Class)
+	 */
+	@Override
+	protected boolean supports(final Class<?> clazz) {
+
+		return ApiTransaction.class == clazz || ApiTransaction[].class == clazz || StatisticsResult.class == clazz
+				|| BatchResult.class == clazz;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see AbstractHttpMessageConverter#canRead(Class, MediaType)
+	 */
+	@Override
+	public boolean canRead(final Class<?> clazz, final MediaType mediaType) {
+
+		return (ApiTransaction.class == clazz || ApiTransaction[].class == clazz) && canRead(mediaType);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see AbstractHttpMessageConverter#getContentLength(Object, MediaType)
+	 */
+	@Override
+	protected Long getContentLength(final Object object, final MediaType contentType) {
+
+		if (object instanceof ApiTransaction[]) {
+			return (long) ((ApiTransaction[]) object).length * TRANSACTION_RECORD_SIZE;
+		}
+		return (long) (object instanceof StatisticsResult ? STATISTICS_RECORD_SIZE : TRANSACTION_RECORD_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see AbstractHttpMessageConverter#readInternal(Class, HttpInputMessage)
+	 */
+	@Override
+	protected Object readInternal(final Class<?> clazz, final HttpInputMessage inputMessage) throws IOException {
+
+		final InputStream input = inputMessage.getBody();
+		if (ApiTransaction.class == clazz) {
+			final ApiTransaction transaction = readTransaction(input);
+			if (transaction == null) {
+				throw new HttpMessageNotReadableException("A transaction record is expected");
+			}
+			return transaction;
+		}
+
+		final List<ApiTransaction> transactions = new ArrayList<>();
+		ApiTransaction transaction;
+		while ((transaction = readTransaction(input)) != null) {
+			transactions.add(transaction);
+		}
+		return transactions.toArray(new ApiTransaction[transactions.size()]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see AbstractHttpMessageConverter#writeInternal(Object, HttpOutputMessage)
+	 */
+	@Override
+	protected void writeInternal(final Object object, final HttpOutputMessage outputMessage) throws IOException {
+
+		final DataOutputStream output = new DataOutputStream(outputMessage.getBody());
+		if (object instanceof StatisticsResult) {
+			final StatisticsResult statistics = (StatisticsResult) object;
+			output.writeLong(statistics.getCount());
+			output.writeDouble(statistics.getAvg());
+			output.writeDouble(statistics.getMax());
+			output.writeDouble(statistics.getMin());
+			output.writeDouble(statistics.getSum());
+			output.writeDouble(statistics.getVariance());
+			output.writeDouble(statistics.getStdDev());
+			output.writeLong(statistics.isExact() ? EXACT_FLAG : 0L);
+			output.writeDouble(statistics.getConfidence());
+		} else if (object instanceof BatchResult) {
+			output.writeLong(((BatchResult) object).getAccepted());
+			output.writeLong(((BatchResult) object).getRejected());
+		} else if (object instanceof ApiTransaction[]) {
+			for (final ApiTransaction transaction : (ApiTransaction[]) object) {
+				writeTransaction(output, transaction);
+			}
+		} else {
+			writeTransaction(output, (ApiTransaction) object);
+		}
+		output.flush();
+	}
+
+	/**
+	 * Writes a transaction record
+	 *
+	 * @param output the output stream
+	 * @param transaction the transaction
+	 * @throws IOException if the stream can't be written
+	 */
+	private static void writeTransaction(final DataOutputStream output, final ApiTransaction transaction)
+			throws IOException {
+
+		output.writeLong(transaction.getTimestamp());
+		output.writeLong(ExactSlidingWindow.toCents(transaction.getAmount()));
+	}
+
+	/**
+	 * Reads a transaction record
+	 *
+	 * @param input the input stream
+	 * @return the transaction, or null at the end of the stream
+	 * @throws IOException if the stream ends in the middle of a record
+	 */
+	private static ApiTransaction readTransaction(final InputStream input) throws IOException {
+
+		final byte[] record = new byte[TRANSACTION_RECORD_SIZE];
+		final int read = readFully(input, record);
+		if (read == 0) {
+			return null;
+		}
+		if (read < TRANSACTION_RECORD_SIZE) {
+			throw new HttpMessageNotReadableException(
+					"Incomplete transaction record, the records must be " + TRANSACTION_RECORD_SIZE + " bytes long");
+		}
+
+		final ByteBuffer buffer = ByteBuffer.wrap(record);
+		final ApiTransaction transaction = new ApiTransaction();
+		transaction.setTimestamp(buffer.getLong());
+		transaction.setAmount(BigDecimal.valueOf(buffer.getLong(), 2).doubleValue());
+		return transaction;
+	}
+
+	/**
+	 * Reads bytes until the buffer is full or the stream ends
+	 *
+	 * @param input the input stream
+	 * @param buffer the buffer
+	 * @return the number of bytes read
+	 * @throws IOException if the stream can't be read
+	 */
+	private static int readFully(final InputStream input, final byte[] buffer) throws IOException {
+
+		int read = 0;
+		while (read < buffer.length) {
+			final int count = input.read(buffer, read, buffer.length - read);
+			if (count < 0) {
+				break;
+			}
+			read += count;
+		}
+		return read;
+	}
+
+}
@@ -0,0 +1,244 @@
+package com.n26.challenge.api.converter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.MediaType;
+
+import com.n26.challenge.service.store.IRecordVisitor;
+
+/**
+ * Writes transaction records as they are visited, as newline delimited JSON
+ * or CSV, through a fixed-size byte buffer, so an export of any size takes
+ * constant memory and no allocation per record.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class TransactionExportWriter implements IRecordVisitor {
+
+	/**
+	 * The newline delimited JSON media type
+	 */
+	public static final MediaType APPLICATION_NDJSON = new MediaType("application", "x-ndjson");
+
+	/**
+	 * The CSV media type
+	 */
+	public static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+	/**
+	 * The size of the output buffer in bytes
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The longest line written, in bytes
+	 */
+	private static final int MAX_LINE = 64;
+
+	/**
+	 * The export formats
+	 */
+	public enum Format {
+
+		/**
+		 * One JSON object per line
+		 */
+		NDJSON(APPLICATION_NDJSON, "", "{\"timestamp\":", ",\"amount\":", "}\n"),
+
+		/**
+		 * Comma separated values, with a header
+		 */
+		CSV(TEXT_CSV, "timestamp,amount\n", "", ",", "\n");
+
+		/**
+		 * The format media type
+		 */
+		private final MediaType mediaType;
+
+		/**
+		 * The bytes written before the first record
+		 */
+		private final byte[] header;
+
+		/**
+		 * The bytes written before the time stamp of each record
+		 */
+		private final byte[] prefix;
+
+		/**
+		 * The bytes written between the time stamp and the amount
+		 */
+		private final byte[] separator;
+
+		/**
+		 * The bytes written after the amount of each record
+		 */
+		private final byte[] suffix;
+
+		/**
+		 * Creates a format.
+		 *
+		 * @param mediaType the format media type
+		 * @param header the text written before the first record
+		 * @param prefix the text written before the time stamp
+		 * @param separator the text written between the time stamp and the amount
+		 * @param suffix the text written after the amount
+		 */
+		Format(final MediaType mediaType, final String header, final String prefix, final String separator,
+				final String suffix) {
+
+			this.mediaType = mediaType;
+			this.header = header.getBytes(StandardCharsets.US_ASCII);
+			this.prefix = prefix.getBytes(StandardCharsets.US_ASCII);
+			this.separator = separator.getBytes(StandardCharsets.US_ASCII);
+			this.suffix = suffix.getBytes(StandardCharsets.US_ASCII);
+		}
+
+		/**
+		 * Returns the format media type
+		 *
+		 * @return the media type
+		 */
+		public MediaType getMediaType() {
+
+			return mediaType;
+		}
+
+	}
+
+	/**
+	 * The stream the export is written to
+	 */
+	private final OutputStream output;
+
+	/**
+	 * The export format
+	 */
+	private final Format format;
+
+	/**
+	 * The bytes not written to the stream yet
+	 */
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	/**
+	 * The digits of the number being written, from the last one
+	 */
+	private final byte[] digits = new byte[20];
+
+	/**
+	 * The number of bytes in the buffer
+	 */
+	private int length;
+
+	/**
+	 * The number of records written
+	 */
+	private long records;
+
+	/**
+	 * Creates a writer, writing the format header.
+	 *
+	 * @param output the stream the export is written to
+	 * @param format the export format
+	 */
+	public TransactionExportWriter(final OutputStream output, final Format format) {
+
+		this.output = output;
+		this.format = format;
+		append(format.header);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws UncheckedIOException if the stream can't be written
+	 * @see IRecordVisitor#visit(long, long)
+	 */
+	@Override
+	public void visit(final long timeStamp, final long cents) {
+
+		if (length + MAX_LINE > BUFFER_SIZE) {
+			drain();
+		}
+		append(format.prefix);
+		appendNumber(timeStamp);
+		append(format.separator);
+		if (cents < 0) {
+			buffer[length++] = '-';
+		}
+		final long absolute = Math.abs(cents);
+		appendNumber(absolute / 100);
+		buffer[length++] = '.';
+		buffer[length++] = (byte) ('0' + absolute % 100 / 10);
+		buffer[length++] = (byte) ('0' + absolute % 10);
+		append(format.suffix);
+		records++;
+	}
+
+	/**
+	 * Writes the buffered bytes and flushes the stream
+	 *
+	 * @return the number of records written
+	 * @throws IOException if the stream can't be written
+	 */
+	public long finish() throws IOException {
+
+		output.write(buffer, 0, length);
+		length = 0;
+		output.flush();
+		return records;
+	}
+
+	/**
+	 * Writes the buffered bytes to the stream
+	 */
+	private void drain() {
+
+		try {
+			output.write(buffer, 0, length);
+			length = 0;
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Appends bytes to the buffer
+	 *
+	 * @param bytes the bytes
+	 */
+	private void append(final byte[] bytes) {
+
+		System.arraycopy(bytes, 0, buffer, length, bytes.length);
+		length += bytes.length;
+	}
+
+	/**
+	 * Appends the decimal digits of a number to the buffer
+	 *
+	 * @param number the number, not negative unless it's a time stamp
+	 */
+	private void appendNumber(final long number) {
+
+		if (number < 0) {
+			append(Long.toString(number).getBytes(StandardCharsets.US_ASCII));
+			return;
+		}
+		int count = 0;
+		long remaining = number;
+		do {
+			digits[count++] = (byte) ('0' + remaining % 10);
+			remaining /= 10;
+		} while (remaining > 0);
+		while (count > 0) {
+			buffer[length++] = digits[--count];
+		}
+	}
+
+}
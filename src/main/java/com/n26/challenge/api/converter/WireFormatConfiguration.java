@@ -0,0 +1,34 @@
+package com.n26.challenge.api.converter;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+/**
+ * Registers the binary wire formats (CBOR and fixed-layout records) of the
+ * API. They are appended after the default converters, so JSON is still
+ * used when the request has no Accept header or accepts any media type, and
+ * the binary formats only when the client asks for them explicitly.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Configuration
+public class WireFormatConfiguration extends WebMvcConfigurerAdapter {
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see WebMvcConfigurerAdapter#extendMessageConverters(List)
+	 */
+	@Override
+	public void extendMessageConverters(final List<HttpMessageConverter<?>> converters) {
+
+		converters.add(new CborHttpMessageConverter());
+		converters.add(new FixedRecordHttpMessageConverter());
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.n26.challenge.api.model;
+
+/**
+ * The outcome of a batch of transactions: how many were registered and how
+ * many were rejected (invalid or out of the window). <br/>
+ * The objects created by this class should be immutable, hence no
+ * 'set' methods are implemented.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class BatchResult {
+
+	/**
+	 * The number of registered transactions
+	 */
+	private long accepted;
+
+	/**
+	 * The number of rejected transactions
+	 */
+	private long rejected;
+
+	/**
+	 * Default class constructor
+	 */
+	public BatchResult() {
+		super();
+	}
+
+	/**
+	 * Creates the result with the given counts.
+	 *
+	 * @param accepted the number of registered transactions
+	 * @param rejected the number of rejected transactions
+	 */
+	public BatchResult(final long accepted, final long rejected) {
+
+		this.accepted = accepted;
+		this.rejected = rejected;
+	}
+
+	/**
+	 * Returns the number of registered transactions
+	 *
+	 * @return the accepted count
+	 */
+	public long getAccepted() {
+
+		return accepted;
+	}
+
+	/**
+	 * Returns the number of rejected transactions
+	 *
+	 * @return the rejected count
+	 */
+	public long getRejected() {
+
+		return rejected;
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.n26.challenge.api.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The statistical information of the transactions registered on all the
+ * nodes of the cluster, with the information about how stale it is. <br/>
+ * The objects created by this class should be immutable, hence no
+ * 'set' methods are implemented.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ClusterStatisticsResult extends StatisticsResult {
+
+	/**
+	 * The number of nodes included in the statistics
+	 */
+	private int nodes;
+
+	/**
+	 * The age (in milliseconds) of the oldest summary included
+	 */
+	private long staleness;
+
+	/**
+	 * The nodes excluded because their last summary is too old
+	 */
+	private List<String> staleNodes = Collections.emptyList();
+
+	/**
+	 * Default class constructor
+	 */
+	public ClusterStatisticsResult() {
+		super();
+	}
+
+	/**
+	 * Creates the cluster statistics result with the given information.
+	 *
+	 * @param statistics the merged statistics
+	 * @param nodes the number of nodes included
+	 * @param staleness the age of the oldest summary included
+	 * @param staleNodes the nodes excluded for being too old
+	 */
+	public ClusterStatisticsResult(final StatisticsResult statistics, final int nodes, final long staleness,
+			final List<String> staleNodes) {
+
+		super(statistics.getAvg(), statistics.getCount(), statistics.getMax(), statistics.getMin(),
+				statistics.getSum(), statistics.getVariance(), statistics.getStdDev(), statistics.isExact(),
+				statistics.getConfidence());
+		this.nodes = nodes;
+		this.staleness = staleness;
+		this.staleNodes = Collections.unmodifiableList(staleNodes);
+	}
+
+	/**
+	 * Returns the number of nodes included in the statistics
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNodes() {
+
+		return nodes;
+	}
+
+	/**
+	 * Returns the age (in milliseconds) of the oldest summary included
+	 *
+	 * @return the staleness
+	 */
+	public long getStaleness() {
+
+		return staleness;
+	}
+
+	/**
+	 * Returns the nodes excluded because their last summary is too old
+	 *
+	 * @return the stale nodes
+	 */
+	public List<String> getStaleNodes() {
+
+		return staleNodes;
+	}
+
+}
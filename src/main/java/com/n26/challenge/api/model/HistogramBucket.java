@@ -0,0 +1,81 @@
+package com.n26.challenge.api.model;
+
+/**
+ * The number of transactions whose amount falls into a bucket of the
+ * histogram. <br/>
+ * The objects created by this class should be immutable, hence no
+ * 'set' methods are implemented.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class HistogramBucket {
+
+	/**
+	 * The lower bound (inclusive) of the bucket, null if unbounded
+	 */
+	private Double from;
+
+	/**
+	 * The upper bound (exclusive) of the bucket, null if unbounded
+	 */
+	private Double to;
+
+	/**
+	 * The number of transactions in the bucket
+	 */
+	private long count;
+
+	/**
+	 * Default class constructor
+	 */
+	public HistogramBucket() {
+		super();
+	}
+
+	/**
+	 * Creates the bucket with the given information.
+	 *
+	 * @param from the lower bound (inclusive), null if unbounded
+	 * @param to the upper bound (exclusive), null if unbounded
+	 * @param count the number of transactions
+	 */
+	public HistogramBucket(final Double from, final Double to, final long count) {
+
+		this.from = from;
+		this.to = to;
+		this.count = count;
+	}
+
+	/**
+	 * Returns the lower bound (inclusive) of the bucket
+	 *
+	 * @return the lower bound, null if unbounded
+	 */
+	public Double getFrom() {
+
+		return from;
+	}
+
+	/**
+	 * Returns the upper bound (exclusive) of the bucket
+	 *
+	 * @return the upper bound, null if unbounded
+	 */
+	public Double getTo() {
+
+		return to;
+	}
+
+	/**
+	 * Returns the number of transactions in the bucket
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+
+		return count;
+	}
+
+}
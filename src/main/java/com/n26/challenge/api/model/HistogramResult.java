@@ -0,0 +1,67 @@
+package com.n26.challenge.api.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The distribution of the transactions' amounts of the last 60 seconds, in
+ * log-scale buckets. <br/>
+ * The objects created by this class should be immutable, hence no
+ * 'set' methods are implemented.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class HistogramResult {
+
+	/**
+	 * The number of transactions
+	 */
+	private long count;
+
+	/**
+	 * The buckets, ascending by amount
+	 */
+	private List<HistogramBucket> buckets = Collections.emptyList();
+
+	/**
+	 * Default class constructor
+	 */
+	public HistogramResult() {
+		super();
+	}
+
+	/**
+	 * Creates the histogram result with the given information.
+	 *
+	 * @param count the number of transactions
+	 * @param buckets the buckets, ascending by amount
+	 */
+	public HistogramResult(final long count, final List<HistogramBucket> buckets) {
+
+		this.count = count;
+		this.buckets = Collections.unmodifiableList(buckets);
+	}
+
+	/**
+	 * Returns the number of transactions
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+
+		return count;
+	}
+
+	/**
+	 * Returns the buckets, ascending by amount
+	 *
+	 * @return the buckets
+	 */
+	public List<HistogramBucket> getBuckets() {
+
+		return buckets;
+	}
+
+}
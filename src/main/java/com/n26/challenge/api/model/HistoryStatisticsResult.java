@@ -0,0 +1,121 @@
+package com.n26.challenge.api.model;
+
+/**
+ * The statistical information of the transactions of a time range of the
+ * history, with how it was computed: the number of segments overlapping the
+ * range, how many of them were read from their summaries and the number of
+ * transactions scanned in the rest. <br/>
+ * The objects created by this class should be immutable, hence no
+ * 'set' methods are implemented.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class HistoryStatisticsResult extends StatisticsResult {
+
+	/**
+	 * The range start (inclusive), in epoch milliseconds
+	 */
+	private long from;
+
+	/**
+	 * The range end (exclusive), in epoch milliseconds
+	 */
+	private long to;
+
+	/**
+	 * The number of segments overlapping the range
+	 */
+	private int segments;
+
+	/**
+	 * The number of segments read from their summaries
+	 */
+	private int summarized;
+
+	/**
+	 * The number of transactions scanned
+	 */
+	private long scanned;
+
+	/**
+	 * Default class constructor
+	 */
+	public HistoryStatisticsResult() {
+		super();
+	}
+
+	/**
+	 * Creates the history statistics result with the given information.
+	 *
+	 * @param statistics the statistics of the range
+	 * @param from the range start (inclusive)
+	 * @param to the range end (exclusive)
+	 * @param segments the number of segments overlapping the range
+	 * @param summarized the number of segments read from their summaries
+	 * @param scanned the number of transactions scanned
+	 */
+	public HistoryStatisticsResult(final StatisticsResult statistics, final long from, final long to,
+			final int segments, final int summarized, final long scanned) {
+
+		super(statistics.getAvg(), statistics.getCount(), statistics.getMax(), statistics.getMin(),
+				statistics.getSum(), statistics.getVariance(), statistics.getStdDev());
+		this.from = from;
+		this.to = to;
+		this.segments = segments;
+		this.summarized = summarized;
+		this.scanned = scanned;
+	}
+
+	/**
+	 * Returns the range start (inclusive)
+	 *
+	 * @return the range start in epoch milliseconds
+	 */
+	public long getFrom() {
+
+		return from;
+	}
+
+	/**
+	 * Returns the range end (exclusive)
+	 *
+	 * @return the range end in epoch milliseconds
+	 */
+	public long getTo() {
+
+		return to;
+	}
+
+	/**
+	 * Returns the number of segments overlapping the range
+	 *
+	 * @return the segments
+	 */
+	public int getSegments() {
+
+		return segments;
+	}
+
+	/**
+	 * Returns the number of segments read from their summaries
+	 *
+	 * @return the summarized segments
+	 */
+	public int getSummarized() {
+
+		return summarized;
+	}
+
+	/**
+	 * Returns the number of transactions scanned
+	 *
+	 * @return the scanned transactions
+	 */
+	public long getScanned() {
+
+		return scanned;
+	}
+
+}
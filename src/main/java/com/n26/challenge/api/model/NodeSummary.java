@@ -0,0 +1,114 @@
+package com.n26.challenge.api.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.n26.challenge.model.SlotSummary;
+
+/**
+ * N26 Java Code Challenge - Summary of the window of one node, published to
+ * its peers. It contains at most one {@link SlotSummary} per second of the
+ * window, so its size doesn't depend on the number of transactions.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class NodeSummary {
+
+	/**
+	 * The identifier of the publishing node
+	 */
+	private String nodeId;
+
+	/**
+	 * The time stamp when the summary was published
+	 */
+	private long publishedAt;
+
+	/**
+	 * The per-second summaries of the node's window
+	 */
+	private List<SlotSummary> slots = new ArrayList<>();
+
+	/**
+	 * Default class constructor
+	 */
+	public NodeSummary() {
+	}
+
+	/**
+	 * Creates the node summary with the given information.
+	 *
+	 * @param nodeId the identifier of the node
+	 * @param publishedAt the publication time stamp
+	 * @param slots the per-second summaries
+	 */
+	public NodeSummary(final String nodeId, final long publishedAt, final List<SlotSummary> slots) {
+
+		this.nodeId = nodeId;
+		this.publishedAt = publishedAt;
+		this.slots = slots;
+	}
+
+	/**
+	 * Returns the identifier of the publishing node
+	 *
+	 * @return the node identifier
+	 */
+	public String getNodeId() {
+
+		return nodeId;
+	}
+
+	/**
+	 * Returns the time stamp when the summary was published
+	 *
+	 * @return the publication time stamp
+	 */
+	public long getPublishedAt() {
+
+		return publishedAt;
+	}
+
+	/**
+	 * Returns the per-second summaries
+	 *
+	 * @return the slots
+	 */
+	public List<SlotSummary> getSlots() {
+
+		return slots;
+	}
+
+	/**
+	 * Sets the identifier of the publishing node
+	 *
+	 * @param nodeId the node identifier to set
+	 */
+	public void setNodeId(final String nodeId) {
+
+		this.nodeId = nodeId;
+	}
+
+	/**
+	 * Sets the publication time stamp
+	 *
+	 * @param publishedAt the time stamp to set
+	 */
+	public void setPublishedAt(final long publishedAt) {
+
+		this.publishedAt = publishedAt;
+	}
+
+	/**
+	 * Sets the per-second summaries
+	 *
+	 * @param slots the slots to set
+	 */
+	public void setSlots(final List<SlotSummary> slots) {
+
+		this.slots = slots;
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.n26.challenge.api.model;
+
+/**
+ * The statistical information of the transactions whose amount is in a
+ * range, with the bounds actually covered once aligned to the amount
+ * buckets. <br/>
+ * The objects created by this class should be immutable, hence no
+ * 'set' methods are implemented.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class RangeStatisticsResult extends StatisticsResult {
+
+	/**
+	 * The lower bound (inclusive) covered, null if unbounded
+	 */
+	private Double from;
+
+	/**
+	 * The upper bound (exclusive) covered, null if unbounded
+	 */
+	private Double to;
+
+	/**
+	 * Default class constructor
+	 */
+	public RangeStatisticsResult() {
+		super();
+	}
+
+	/**
+	 * Creates the range statistics result with the given information.
+	 *
+	 * @param avg the transactions' average amount
+	 * @param count the number of transactions
+	 * @param max the transactions' maximum amount
+	 * @param min the transactions' minimum amount
+	 * @param sum the transactions' total amount
+	 * @param from the lower bound (inclusive) covered, null if unbounded
+	 * @param to the upper bound (exclusive) covered, null if unbounded
+	 */
+	public RangeStatisticsResult(final double avg, final long count, final double max, final double min,
+			final double sum, final Double from, final Double to) {
+
+		super(avg, count, max, min, sum);
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Returns the lower bound (inclusive) covered
+	 *
+	 * @return the lower bound, null if unbounded
+	 */
+	public Double getFrom() {
+
+		return from;
+	}
+
+	/**
+	 * Returns the upper bound (exclusive) covered
+	 *
+	 * @return the upper bound, null if unbounded
+	 */
+	public Double getTo() {
+
+		return to;
+	}
+
+}
@@ -37,6 +37,29 @@ public class StatisticsResult {
 	 */
 	private double sum;
 
+	/**
+	 * The population variance of the transactions' amounts
+	 */
+	private double variance;
+
+	/**
+	 * The population standard deviation of the transactions' amounts
+	 */
+	private double stdDev;
+
+	/**
+	 * Whether the statistics are exact, false when some transactions were
+	 * absorbed by the sampler: their amounts may be estimated from a sample,
+	 * and their seconds expire as a whole
+	 */
+	private boolean exact = true;
+
+	/**
+	 * The fraction of the transactions whose amount is included in the
+	 * estimated statistics, 1 when they are exact
+	 */
+	private double confidence = 1;
+
 	/**
 	 * Default class constructor
 	 */
@@ -63,6 +86,49 @@ public class StatisticsResult {
 		this.sum = sum;
 	}
 
+	/**
+	 * Creates the Statistical Result object with the given information,
+	 * including the spread of the amounts.
+	 *
+	 * @param avg the transactions' average amount
+	 * @param count the number of transactions
+	 * @param max the transactions' maximum amount
+	 * @param min the transactions' minimum amount
+	 * @param sum the transactions' total amount
+	 * @param variance the population variance of the amounts
+	 * @param stdDev the population standard deviation of the amounts
+	 */
+	public StatisticsResult(final double avg, final long count, final double max, final double min,
+			final double sum, final double variance, final double stdDev) {
+
+		this(avg, count, max, min, sum);
+		this.variance = variance;
+		this.stdDev = stdDev;
+	}
+
+	/**
+	 * Creates the Statistical Result object with the given information,
+	 * including the spread of the amounts and whether they are estimated.
+	 *
+	 * @param avg the transactions' average amount
+	 * @param count the number of transactions
+	 * @param max the transactions' maximum amount
+	 * @param min the transactions' minimum amount
+	 * @param sum the transactions' total amount
+	 * @param variance the population variance of the amounts
+	 * @param stdDev the population standard deviation of the amounts
+	 * @param exact whether the statistics are exact
+	 * @param confidence the fraction of the transactions whose amount is included
+	 */
+	public StatisticsResult(final double avg, final long count, final double max, final double min,
+			final double sum, final double variance, final double stdDev, final boolean exact,
+			final double confidence) {
+
+		this(avg, count, max, min, sum, variance, stdDev);
+		this.exact = exact;
+		this.confidence = confidence;
+	}
+
 	/**
 	 * Returns the average amount
 	 *
@@ -113,4 +179,45 @@ public class StatisticsResult {
 		return sum;
 	}
 
+	/**
+	 * Returns the population variance of the amounts
+	 *
+	 * @return the variance
+	 */
+	public double getVariance() {
+
+		return variance;
+	}
+
+	/**
+	 * Returns the population standard deviation of the amounts
+	 *
+	 * @return the standard deviation
+	 */
+	public double getStdDev() {
+
+		return stdDev;
+	}
+
+	/**
+	 * Returns whether the statistics are exact
+	 *
+	 * @return false if some transactions were absorbed by the sampler
+	 */
+	public boolean isExact() {
+
+		return exact;
+	}
+
+	/**
+	 * Returns the fraction of the transactions whose amount is included in
+	 * the statistics
+	 *
+	 * @return the confidence, 1 when every amount is included
+	 */
+	public double getConfidence() {
+
+		return confidence;
+	}
+
 }
@@ -0,0 +1,121 @@
+package com.n26.challenge.application;
+
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.replay.BulkImporter;
+import com.n26.challenge.replay.ImportReport;
+import com.n26.challenge.service.IStatisticsService;
+
+/**
+ * Bulk import tool - imports a captured NDJSON or CSV transaction log into
+ * the statistics engines in-process, without the web server, and reports the
+ * sustained records per second and the resulting statistics.
+ * <p>
+ * Usage: {@code <capture> [--threads=N] [--chunk-size=BYTES]
+ * [--statistics.*=...]}. The rest of the options configure the application as
+ * usual (e.g. {@code --statistics.engine=exact}); unless given, the clock is a
+ * stepped replay one ({@code --statistics.clock.mode=replay
+ * --statistics.replay.speed=0}) and the warm-up is disabled.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class BulkImportApplication {
+
+	/**
+	 * The tool option setting the number of parsing threads
+	 */
+	private static final String THREADS_OPTION = "--threads=";
+
+	/**
+	 * The tool option setting the chunk size
+	 */
+	private static final String CHUNK_SIZE_OPTION = "--chunk-size=";
+
+	/**
+	 * The default chunk size, 8 MB
+	 */
+	private static final long DEFAULT_CHUNK_SIZE = 8L << 20;
+
+	/**
+	 * The application options set unless given
+	 */
+	private static final String[] DEFAULT_OPTIONS = { "--statistics.clock.mode=replay",
+			"--statistics.replay.speed=0", "--statistics.replay.file=", "--statistics.warmup.enabled=false" };
+
+	/**
+	 * Private constructor, not instantiable
+	 */
+	private BulkImportApplication() {
+
+	}
+
+	/**
+	 * Imports a capture and prints the report.
+	 *
+	 * @param args the capture path, the tool options and the application
+	 *            options
+	 * @throws Exception if the capture can't be imported
+	 */
+	public static void main(final String[] args) throws Exception {
+
+		String file = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long chunkSize = DEFAULT_CHUNK_SIZE;
+		final List<String> options = new ArrayList<>();
+		for (final String arg : args) {
+			if (arg.startsWith(THREADS_OPTION)) {
+				threads = Integer.parseInt(arg.substring(THREADS_OPTION.length()));
+			} else if (arg.startsWith(CHUNK_SIZE_OPTION)) {
+				chunkSize = Long.parseLong(arg.substring(CHUNK_SIZE_OPTION.length()));
+			} else if (arg.startsWith("--")) {
+				options.add(arg);
+			} else {
+				file = arg;
+			}
+		}
+		if (file == null) {
+			System.err.println("Usage: <capture> [--threads=N] [--chunk-size=BYTES] [--statistics.*=...]");
+			System.exit(2);
+		}
+		for (final String option : DEFAULT_OPTIONS) {
+			final String name = option.substring(0, option.indexOf('=') + 1);
+			if (options.stream().noneMatch(given -> given.startsWith(name))) {
+				options.add(option);
+			}
+		}
+
+		TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+		final ConfigurableApplicationContext context = new SpringApplicationBuilder(StatisticsApiApplication.class)
+				.web(false).run(options.toArray(new String[options.size()]));
+		final BulkImporter importer = new BulkImporter(context.getBean(IStatisticsService.class),
+				context.getBean(Clock.class), threads, chunkSize);
+		final ImportReport report = importer.importCapture(Paths.get(file));
+
+		final StatisticsResult statistics = report.getStatistics();
+		System.out.println(String.format(Locale.ROOT,
+				"Imported %s: %d accepted, %d rejected, %d malformed, %d chunks of %d bytes on %d threads",
+				file, report.getAccepted(), report.getRejected(), report.getMalformed(), report.getChunks(),
+				chunkSize, threads));
+		System.out.println(String.format(Locale.ROOT, "Sustained %.0f records/s (%d ms, %.1f MB/s)",
+				report.getRecordsPerSecond(), report.getElapsedMillis(),
+				report.getElapsedMillis() == 0 ? 0d : report.getBytes() / 1048.576 / report.getElapsedMillis()));
+		System.out.println(String.format(Locale.ROOT,
+				"Last window: count=%d, sum=%s, avg=%s, min=%s, max=%s, exact=%s", statistics.getCount(),
+				statistics.getSum(), statistics.getAvg(), statistics.getMin(), statistics.getMax(),
+				statistics.isExact()));
+		System.exit(SpringApplication.exit(context));
+	}
+
+}
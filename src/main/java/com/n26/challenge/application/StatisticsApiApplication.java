@@ -14,7 +14,10 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @version 1.0.0
  * @since 1.0.0
  */
-@SpringBootApplication(scanBasePackages = { "com.n26.challenge.api.controller", "com.n26.challenge.service" })
+@SpringBootApplication(scanBasePackages = { "com.n26.challenge.api.controller", "com.n26.challenge.api.converter",
+		"com.n26.challenge.service", "com.n26.challenge.warmup", "com.n26.challenge.ingest",
+		"com.n26.challenge.shm", "com.n26.challenge.timing",
+		"com.n26.challenge.replay", "com.n26.challenge.jfr" })
 public class StatisticsApiApplication {
 
 	/**
@@ -0,0 +1,445 @@
+package com.n26.challenge.ingest;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Clock;
+import java.util.Iterator;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.jfr.IngestEvent;
+import com.n26.challenge.service.IStatisticsService;
+import com.n26.challenge.service.StatisticsService;
+import com.n26.challenge.service.capacity.CapacityExceededException;
+import com.n26.challenge.service.skew.FutureTransactionBuffer;
+
+/**
+ * Non-blocking TCP listener for high-rate producers, running next to the web
+ * server and feeding the same statistics engine, without the HTTP framing.
+ * <p>
+ * The producers send a stream of batches, each one a big-endian int32 with
+ * the length in bytes of the batch followed by its records: the time stamp
+ * (int64, epoch milliseconds) and the amount (int64, cents) of each
+ * transaction, 16 bytes per record as in the fixed record wire format. Each
+ * batch is answered, in order, with the number of accepted and rejected
+ * records (two int64). The records are validated with the same 60 seconds
+ * rule as the HTTP end point, and the ones the engine rejects (invalid or
+ * over the capacity) are counted as rejected; a batch with an invalid length
+ * closes the connection, and so does any other failure of the engine, which
+ * is logged and leaves the batch unacknowledged.
+ * <p>
+ * A single selector thread serves every connection. Each connection reads
+ * into a direct buffer big enough for the largest batch and decodes the
+ * records in place, so there is no allocation per record. While a client
+ * doesn't read its acknowledgements, no more batches are read from it.
+ * With the {@code aggregate} engine the space writes block the selector
+ * thread, so the in-memory engines are the ones fitting this listener.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.ingest.enabled", havingValue = "true")
+public class TcpIngestServer {
+
+	/**
+	 * The class logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(TcpIngestServer.class);
+
+	/**
+	 * The size of the batch length prefix in bytes
+	 */
+	public static final int HEADER_SIZE = 4;
+
+	/**
+	 * The size of a transaction record in bytes
+	 */
+	public static final int RECORD_SIZE = 16;
+
+	/**
+	 * The size of a batch acknowledgement in bytes
+	 */
+	public static final int ACK_SIZE = 16;
+
+	/**
+	 * The number of acknowledgements a connection can have pending to be
+	 * sent
+	 */
+	private static final int PENDING_ACKS = 64;
+
+	/**
+	 * The statistics service fed with the transactions
+	 */
+	private final IStatisticsService statisticsService;
+
+	/**
+	 * The port to listen on, 0 for any free one
+	 */
+	private final int port;
+
+	/**
+	 * The maximum number of records of a batch
+	 */
+	private final int maxBatch;
+
+	/**
+	 * The selector of the connections
+	 */
+	private Selector selector;
+
+	/**
+	 * The listening channel
+	 */
+	private ServerSocketChannel serverChannel;
+
+	/**
+	 * The selector thread
+	 */
+	private Thread thread;
+
+	/**
+	 * The number of accepted records
+	 */
+	private volatile long acceptedRecords;
+
+	/**
+	 * The number of rejected records
+	 */
+	private volatile long rejectedRecords;
+
+	/**
+	 * The time source of the validation
+	 */
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Default TCP ingest server constructor
+	 *
+	 * @param statisticsService the statistics service fed with the transactions
+	 * @param port the port to listen on, 0 for any free one
+	 * @param maxBatch the maximum number of records of a batch
+	 */
+	@Autowired
+	public TcpIngestServer(final IStatisticsService statisticsService,
+			@Value("${statistics.ingest.port}") final int port,
+			@Value("${statistics.ingest.max-batch}") final int maxBatch) {
+
+		if (maxBatch <= 0 || maxBatch > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+			throw new IllegalArgumentException("The maximum batch size must be positive and fit in a buffer");
+		}
+		this.statisticsService = statisticsService;
+		this.port = port;
+		this.maxBatch = maxBatch;
+	}
+
+	/**
+	 * Sets the time source of the validation
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
+	/**
+	 * Binds the listening port and starts the selector thread
+	 *
+	 * @throws IOException if the port can't be bound
+	 */
+	@PostConstruct
+	public void start() throws IOException {
+
+		selector = Selector.open();
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.configureBlocking(false);
+		serverChannel.bind(new InetSocketAddress(port));
+		serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+		thread = new Thread(this::run, "statistics-tcp-ingest");
+		thread.setDaemon(true);
+		thread.start();
+		LOGGER.info("TCP ingest listening on port {} (up to {} records per batch)", getPort(), maxBatch);
+	}
+
+	/**
+	 * Stops the selector thread and closes every connection
+	 */
+	@PreDestroy
+	public void stop() {
+
+		thread.interrupt();
+		selector.wakeup();
+		try {
+			thread.join();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the port the server is listening on
+	 *
+	 * @return the local port
+	 */
+	public int getPort() {
+
+		return serverChannel.socket().getLocalPort();
+	}
+
+	/**
+	 * Returns the number of accepted records since the server started
+	 *
+	 * @return the accepted records
+	 */
+	public long getAcceptedRecords() {
+
+		return acceptedRecords;
+	}
+
+	/**
+	 * Returns the number of rejected records since the server started
+	 *
+	 * @return the rejected records
+	 */
+	public long getRejectedRecords() {
+
+		return rejectedRecords;
+	}
+
+	/**
+	 * Serves the connections until the thread is interrupted
+	 */
+	private void run() {
+
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				selector.select();
+				final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					final SelectionKey key = keys.next();
+					keys.remove();
+					try {
+						if (key.isAcceptable()) {
+							accept();
+						} else if (key.isReadable()) {
+							read(key);
+						} else if (key.isWritable()) {
+							write(key);
+						}
+					} catch (final IOException e) {
+						LOGGER.debug("Closing TCP ingest connection: {}", e.getMessage());
+						close(key);
+					} catch (final RuntimeException e) {
+						// The batch isn't acknowledged, so the producer knows it failed
+						LOGGER.error("Failed to register a TCP ingest batch, closing the connection", e);
+						close(key);
+					}
+				}
+			}
+		} catch (final IOException e) {
+			LOGGER.error("TCP ingest selector failed", e);
+		} finally {
+			for (final SelectionKey key : selector.keys()) {
+				close(key);
+			}
+			try {
+				selector.close();
+			} catch (final IOException e) {
+				LOGGER.debug("Error closing the TCP ingest selector", e);
+			}
+		}
+	}
+
+	/**
+	 * Accepts a new connection
+	 *
+	 * @throws IOException if the connection can't be configured
+	 */
+	private void accept() throws IOException {
+
+		final SocketChannel channel = serverChannel.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		channel.register(selector, SelectionKey.OP_READ, new Connection(maxBatch));
+	}
+
+	/**
+	 * Reads from a connection and registers its complete batches
+	 *
+	 * @param key the connection key
+	 * @throws IOException if the connection fails
+	 */
+	private void read(final SelectionKey key) throws IOException {
+
+		final Connection connection = (Connection) key.attachment();
+		if (((SocketChannel) key.channel()).read(connection.input) < 0) {
+			close(key);
+			return;
+		}
+		process(connection);
+		flush(key);
+	}
+
+	/**
+	 * Sends the pending acknowledgements of a connection, and resumes
+	 * registering its batches once they were sent
+	 *
+	 * @param key the connection key
+	 * @throws IOException if the connection fails
+	 */
+	private void write(final SelectionKey key) throws IOException {
+
+		flush(key);
+		if (key.isValid() && key.interestOps() == SelectionKey.OP_READ) {
+			process((Connection) key.attachment());
+			flush(key);
+		}
+	}
+
+	/**
+	 * Registers the complete batches buffered by a connection, as long as
+	 * there is room for their acknowledgements
+	 *
+	 * @param connection the connection
+	 * @throws ProtocolException if a batch has an invalid length
+	 */
+	private void process(final Connection connection) throws ProtocolException {
+
+		final ByteBuffer input = connection.input;
+		input.flip();
+		while (input.remaining() >= HEADER_SIZE && connection.output.remaining() >= ACK_SIZE) {
+			final int length = input.getInt(input.position());
+			if (length < 0 || length % RECORD_SIZE != 0 || length > maxBatch * RECORD_SIZE) {
+				throw new ProtocolException("Invalid batch length " + length);
+			}
+			if (input.remaining() < HEADER_SIZE + length) {
+				break;
+			}
+			input.position(input.position() + HEADER_SIZE);
+
+			final int records = length / RECORD_SIZE;
+			final IngestEvent event = new IngestEvent();
+			event.begin();
+			final long now = clock.millis();
+			int accepted = 0;
+			for (int i = 0; i < records; i++) {
+				if (register(input.getLong(), input.getLong(), now)) {
+					accepted++;
+				}
+			}
+			event.commit(IngestEvent.TCP, records, accepted);
+			acceptedRecords += accepted;
+			rejectedRecords += records - accepted;
+			connection.output.putLong(accepted).putLong(records - accepted);
+		}
+		input.compact();
+	}
+
+	/**
+	 * Registers a transaction record
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param cents the transaction amount in cents
+	 * @param now the current time stamp
+	 * @return true if the transaction was registered, false if it was
+	 *         rejected
+	 */
+	private boolean register(final long timeStamp, final long cents, final long now) {
+
+		// The ones slightly in the future are left to the service, which may hold them
+		if (!StatisticsService.isInWindow(timeStamp, now)
+				&& (timeStamp < now || timeStamp > now + FutureTransactionBuffer.MAX_TOLERANCE)) {
+			return false;
+		}
+		try {
+			// The division is correctly rounded, so it's the closest double to the amount
+			statisticsService.createTransaction(timeStamp, cents / 100d);
+			return true;
+		} catch (final IllegalArgumentException | CapacityExceededException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Sends the pending acknowledgements of a connection, waiting for the
+	 * client to read them before reading more batches
+	 *
+	 * @param key the connection key
+	 * @throws IOException if the connection fails
+	 */
+	private void flush(final SelectionKey key) throws IOException {
+
+		if (!key.isValid()) {
+			return;
+		}
+		final ByteBuffer output = ((Connection) key.attachment()).output;
+		output.flip();
+		((SocketChannel) key.channel()).write(output);
+		output.compact();
+		key.interestOps(output.position() > 0 ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+	}
+
+	/**
+	 * Closes a connection
+	 *
+	 * @param key the connection key
+	 */
+	private static void close(final SelectionKey key) {
+
+		key.cancel();
+		try {
+			key.channel().close();
+		} catch (final IOException e) {
+			LOGGER.debug("Error closing a TCP ingest connection", e);
+		}
+	}
+
+	/**
+	 * The buffers of a connection
+	 */
+	private static final class Connection {
+
+		/**
+		 * The bytes received and not registered yet
+		 */
+		private final ByteBuffer input;
+
+		/**
+		 * The acknowledgements not sent yet
+		 */
+		private final ByteBuffer output = ByteBuffer.allocateDirect(PENDING_ACKS * ACK_SIZE);
+
+		/**
+		 * Creates the buffers of a connection.
+		 *
+		 * @param maxBatch the maximum number of records of a batch
+		 */
+		private Connection(final int maxBatch) {
+
+			this.input = ByteBuffer.allocateDirect(HEADER_SIZE + maxBatch * RECORD_SIZE);
+		}
+
+	}
+
+}
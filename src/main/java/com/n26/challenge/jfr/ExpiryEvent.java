@@ -0,0 +1,77 @@
+package com.n26.challenge.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event of the transactions leaving the window: a sweep of
+ * an in-memory window or a lease expired in the space.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Name("com.n26.challenge.Expiry")
+@Label("Transaction Expiry")
+@Description("Transactions removed from the window once older than 60 seconds")
+@Category({ "N26", "Statistics" })
+@StackTrace(false)
+public class ExpiryEvent extends Event {
+
+	/**
+	 * The sweeps of the exact engine window
+	 */
+	public static final String EXACT_WINDOW = "exact-window";
+
+	/**
+	 * The sweeps of the statistics version tracker
+	 */
+	public static final String VERSION_TRACKER = "version-tracker";
+
+	/**
+	 * The lease expirations of the incremental engine
+	 */
+	public static final String SPACE_LEASE = "space-lease";
+
+	/**
+	 * The expiring structure
+	 */
+	@Label("Source")
+	private String source;
+
+	/**
+	 * The number of expired transactions
+	 */
+	@Label("Expired")
+	private long expired;
+
+	/**
+	 * The time span swept
+	 */
+	@Label("Swept")
+	@Timespan(Timespan.MILLISECONDS)
+	private long swept;
+
+	/**
+	 * Ends the event and commits it, if it's enabled and over its threshold.
+	 *
+	 * @param source the expiring structure
+	 * @param expired the number of expired transactions
+	 * @param swept the time span swept in milliseconds
+	 */
+	public void commit(final String source, final long expired, final long swept) {
+
+		if (shouldCommit()) {
+			this.source = source;
+			this.expired = expired;
+			this.swept = swept;
+			commit();
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.n26.challenge.jfr;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator end point answering the status of the flight recording
+ * ({@code /actuator/flightrecording}), started, stopped and dumped through
+ * the {@link FlightRecordingMvcEndpoint}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.jfr.enabled", havingValue = "true")
+public class FlightRecordingEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+	/**
+	 * The flight recordings
+	 */
+	private final FlightRecordings recordings;
+
+	/**
+	 * Default flight recording end point constructor, not sensitive and
+	 * enabled whenever the flight recordings are
+	 *
+	 * @param recordings the flight recordings
+	 */
+	@Autowired
+	public FlightRecordingEndpoint(final FlightRecordings recordings) {
+
+		super("flightrecording", false, true);
+		this.recordings = recordings;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see Endpoint#invoke()
+	 */
+	@Override
+	public Map<String, Object> invoke() {
+
+		return recordings.status();
+	}
+
+	/**
+	 * Returns the flight recordings
+	 *
+	 * @return the flight recordings
+	 */
+	FlightRecordings getRecordings() {
+
+		return recordings;
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.n26.challenge.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.mvc.EndpointMvcAdapter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * MVC adapter of the {@link FlightRecordingEndpoint}, adding the operations
+ * on the recording:
+ * <ul>
+ * <li>POST /actuator/flightrecording/start?duration={ms} - Starts a bounded
+ * recording, discarding the previous one.</li>
+ * <li>POST /actuator/flightrecording/stop - Stops the recording.</li>
+ * <li>GET /actuator/flightrecording/dump - Downloads the recording data
+ * ({@code statistics.jfr}), while it runs or once it stopped.</li>
+ * </ul>
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.jfr.enabled", havingValue = "true")
+public class FlightRecordingMvcEndpoint extends EndpointMvcAdapter {
+
+	/**
+	 * The flight recordings
+	 */
+	private final FlightRecordings recordings;
+
+	/**
+	 * Default flight recording MVC end point constructor
+	 *
+	 * @param delegate the flight recording end point
+	 */
+	@Autowired
+	public FlightRecordingMvcEndpoint(final FlightRecordingEndpoint delegate) {
+
+		super(delegate);
+		this.recordings = delegate.getRecordings();
+	}
+
+	/**
+	 * Starts a new recording.
+	 *
+	 * @param duration the recording duration in milliseconds, up to the
+	 *            maximum one (the maximum if 0)
+	 * @return the recording status
+	 */
+	@PostMapping("/start")
+	@ResponseBody
+	public Object start(@RequestParam(defaultValue = "0") final long duration) {
+
+		return getDelegate().isEnabled() ? recordings.start(duration) : getDisabledResponse();
+	}
+
+	/**
+	 * Stops the running recording.
+	 *
+	 * @return the recording status
+	 */
+	@PostMapping("/stop")
+	@ResponseBody
+	public Object stop() {
+
+		return getDelegate().isEnabled() ? recordings.stop() : getDisabledResponse();
+	}
+
+	/**
+	 * Writes the recording data into the response.
+	 *
+	 * @param response the response
+	 * @throws IOException if the dump can't be written
+	 */
+	@GetMapping("/dump")
+	public void dump(final HttpServletResponse response) throws IOException {
+
+		if (!getDelegate().isEnabled()) {
+			response.sendError(HttpStatus.NOT_FOUND.value());
+			return;
+		}
+		final Path file;
+		try {
+			file = recordings.dump();
+		} catch (final IllegalStateException e) {
+			response.sendError(HttpStatus.CONFLICT.value(), e.getMessage());
+			return;
+		}
+		try {
+			response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+			response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+					"attachment; filename=\"" + FlightRecordings.RECORDING_NAME + ".jfr\"");
+			response.setContentLengthLong(Files.size(file));
+			Files.copy(file, response.getOutputStream());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+}
@@ -0,0 +1,172 @@
+package com.n26.challenge.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Keeps a single flight recording started on demand, bounded in duration and
+ * size, with the predefined JFR settings and every statistics event.
+ * <p>
+ * Starting a new recording discards the previous one. The recording can be
+ * dumped while it runs or once it stopped, until the next one starts.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.jfr.enabled", havingValue = "true")
+public class FlightRecordings {
+
+	/**
+	 * The recording name
+	 */
+	static final String RECORDING_NAME = "statistics";
+
+	/**
+	 * The predefined JFR settings, "default" or "profile"
+	 */
+	private final Configuration settings;
+
+	/**
+	 * The maximum recording duration
+	 */
+	private final Duration maxDuration;
+
+	/**
+	 * The maximum recording size in bytes
+	 */
+	private final long maxSize;
+
+	/**
+	 * The last recording, null if none was started
+	 */
+	private Recording recording;
+
+	/**
+	 * Default flight recordings constructor
+	 *
+	 * @param settings the predefined JFR settings, "default" or "profile"
+	 * @param maxDuration the maximum recording duration in milliseconds
+	 * @param maxSize the maximum recording size in bytes
+	 * @throws IOException if the settings can't be read
+	 * @throws ParseException if the settings can't be parsed
+	 */
+	@Autowired
+	public FlightRecordings(@Value("${statistics.jfr.settings}") final String settings,
+			@Value("${statistics.jfr.max-duration}") final long maxDuration,
+			@Value("${statistics.jfr.max-size}") final long maxSize) throws IOException, ParseException {
+
+		if (maxDuration <= 0 || maxSize <= 0) {
+			throw new IllegalArgumentException("The recording must be bounded in duration and size");
+		}
+		this.settings = Configuration.getConfiguration(settings);
+		this.maxDuration = Duration.ofMillis(maxDuration);
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Starts a new recording, discarding the previous one.
+	 *
+	 * @param duration the recording duration in milliseconds, up to the
+	 *            maximum one (the maximum if 0)
+	 * @return the recording status
+	 */
+	public synchronized Map<String, Object> start(final long duration) {
+
+		if (recording != null) {
+			recording.close();
+		}
+		recording = new Recording(settings);
+		recording.setName(RECORDING_NAME);
+		recording.setToDisk(true);
+		recording.setMaxSize(maxSize);
+		recording.setDuration(duration <= 0 || duration > maxDuration.toMillis() ? maxDuration
+				: Duration.ofMillis(duration));
+		recording.enable(IngestEvent.class).withoutThreshold();
+		recording.enable(StatisticsQueryEvent.class).withoutThreshold();
+		recording.enable(ExpiryEvent.class).withoutThreshold();
+		recording.start();
+		return status();
+	}
+
+	/**
+	 * Stops the running recording, keeping its data to be dumped.
+	 *
+	 * @return the recording status
+	 */
+	public synchronized Map<String, Object> stop() {
+
+		if (recording != null && recording.getState() == RecordingState.RUNNING) {
+			recording.stop();
+		}
+		return status();
+	}
+
+	/**
+	 * Dumps the recording data into a temporary file.
+	 *
+	 * @return the dump file, to be deleted by the caller
+	 * @throws IOException if the dump can't be written
+	 * @throws IllegalStateException if no recording was started
+	 */
+	public synchronized Path dump() throws IOException {
+
+		if (recording == null || recording.getState() == RecordingState.NEW
+				|| recording.getState() == RecordingState.CLOSED) {
+			throw new IllegalStateException("There is no recording to dump");
+		}
+		final Path file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+		recording.dump(file);
+		return file;
+	}
+
+	/**
+	 * Returns the recording status
+	 *
+	 * @return the state, start time, duration and size of the recording
+	 */
+	public synchronized Map<String, Object> status() {
+
+		final Map<String, Object> status = new LinkedHashMap<>();
+		if (recording == null) {
+			status.put("state", "NONE");
+			return status;
+		}
+		status.put("state", recording.getState().name());
+		status.put("startTime", recording.getStartTime() == null ? null : recording.getStartTime().toEpochMilli());
+		status.put("duration", recording.getDuration() == null ? null : recording.getDuration().toMillis());
+		status.put("size", recording.getSize());
+		status.put("maxSize", maxSize);
+		return status;
+	}
+
+	/**
+	 * Discards the recording
+	 */
+	@PreDestroy
+	public synchronized void close() {
+
+		if (recording != null) {
+			recording.close();
+			recording = null;
+		}
+	}
+
+}
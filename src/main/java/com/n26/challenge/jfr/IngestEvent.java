@@ -0,0 +1,80 @@
+package com.n26.challenge.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a batch of transactions registered by one of the
+ * ingest paths, lasting from the first transaction to the last one.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Name("com.n26.challenge.Ingest")
+@Label("Transaction Ingest")
+@Description("A batch of transactions registered in the statistics service")
+@Category({ "N26", "Statistics" })
+@StackTrace(false)
+public class IngestEvent extends Event {
+
+	/**
+	 * The single transactions of POST /transactions
+	 */
+	public static final String HTTP = "http";
+
+	/**
+	 * The batches of POST /transactions/batch
+	 */
+	public static final String BATCH = "batch";
+
+	/**
+	 * The batches of the TCP ingest server
+	 */
+	public static final String TCP = "tcp";
+
+	/**
+	 * The chunks of the bulk import tool
+	 */
+	public static final String IMPORT = "import";
+
+	/**
+	 * The ingest path
+	 */
+	@Label("Source")
+	private String source;
+
+	/**
+	 * The number of transactions in the batch
+	 */
+	@Label("Batch Size")
+	private int batchSize;
+
+	/**
+	 * The number of registered transactions
+	 */
+	@Label("Accepted")
+	private int accepted;
+
+	/**
+	 * Ends the event and commits it, if it's enabled and over its threshold.
+	 *
+	 * @param source the ingest path
+	 * @param batchSize the number of transactions in the batch
+	 * @param accepted the number of registered transactions
+	 */
+	public void commit(final String source, final int batchSize, final int accepted) {
+
+		if (shouldCommit()) {
+			this.source = source;
+			this.batchSize = batchSize;
+			this.accepted = accepted;
+			commit();
+		}
+	}
+
+}
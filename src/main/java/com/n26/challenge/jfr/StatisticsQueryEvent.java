@@ -0,0 +1,75 @@
+package com.n26.challenge.jfr;
+
+import com.n26.challenge.api.model.StatisticsResult;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event of a statistics computation by one of the engines,
+ * lasting as long as the computation.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Name("com.n26.challenge.StatisticsQuery")
+@Label("Statistics Query")
+@Description("The statistics of the last 60 seconds computed by an engine")
+@Category({ "N26", "Statistics" })
+@StackTrace(false)
+public class StatisticsQueryEvent extends Event {
+
+	/**
+	 * The window length in milliseconds
+	 */
+	private static final long WINDOW = 60_000;
+
+	/**
+	 * The statistics engine
+	 */
+	@Label("Engine")
+	private String engine;
+
+	/**
+	 * The number of transactions in the window
+	 */
+	@Label("Window Size")
+	private long windowSize;
+
+	/**
+	 * The window length
+	 */
+	@Label("Window Length")
+	@Timespan(Timespan.MILLISECONDS)
+	private long windowLength;
+
+	/**
+	 * Whether the statistics include every transaction
+	 */
+	@Label("Exact")
+	private boolean exact;
+
+	/**
+	 * Ends the event and commits it, if it's enabled and over its threshold.
+	 *
+	 * @param engine the statistics engine
+	 * @param statistics the computed statistics
+	 */
+	public void commit(final String engine, final StatisticsResult statistics) {
+
+		if (shouldCommit()) {
+			this.engine = engine;
+			this.windowSize = statistics.getCount();
+			this.windowLength = WINDOW;
+			this.exact = statistics.isExact();
+			commit();
+		}
+	}
+
+}
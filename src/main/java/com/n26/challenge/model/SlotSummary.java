@@ -0,0 +1,351 @@
+package com.n26.challenge.model;
+
+import java.io.Serializable;
+
+/**
+ * N26 Java Code Challenge - Mergeable summary (count, sum, minimum, maximum,
+ * mean and sum of squared deviations) of the transactions registered during
+ * one second.
+ * <p>
+ * Summaries of the same or different seconds can be merged in constant time,
+ * which allows building the statistics of a window (or of several nodes) out
+ * of compact per-second summaries instead of the raw transactions.
+ * <p>
+ * The mean and the sum of squared deviations from it (the second central
+ * moment times the count) are updated with Welford's algorithm and merged
+ * with Chan's parallel formula, which stay numerically stable over millions
+ * of amounts, unlike a plain sum of squares.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class SlotSummary implements Serializable {
+
+	/**
+	 * The serial version UID
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The epoch second of the summarized transactions
+	 */
+	private long second;
+
+	/**
+	 * The number of transactions
+	 */
+	private long count;
+
+	/**
+	 * The transactions' total amount
+	 */
+	private double sum;
+
+	/**
+	 * The transactions' minimum amount
+	 */
+	private double min;
+
+	/**
+	 * The transactions' maximum amount
+	 */
+	private double max;
+
+	/**
+	 * The transactions' mean amount
+	 */
+	private double mean;
+
+	/**
+	 * The sum of the squared deviations of the amounts from the mean
+	 */
+	private double m2;
+
+	/**
+	 * Default class constructor
+	 */
+	public SlotSummary() {
+	}
+
+	/**
+	 * Creates an empty summary for the given second.
+	 *
+	 * @param second the epoch second
+	 */
+	public SlotSummary(final long second) {
+
+		this.second = second;
+	}
+
+	/**
+	 * Adds a transaction amount to the summary
+	 *
+	 * @param amount the transaction amount
+	 */
+	public void add(final double amount) {
+
+		if (count == 0) {
+			min = amount;
+			max = amount;
+		} else {
+			min = Math.min(min, amount);
+			max = Math.max(max, amount);
+		}
+		sum += amount;
+		count++;
+		final double delta = amount - mean;
+		mean += delta / count;
+		m2 += delta * (amount - mean);
+	}
+
+	/**
+	 * Removes a transaction amount from the summary, reverting the count, sum
+	 * and moments (the minimum and maximum are left untouched, since they can
+	 * only be recomputed from the remaining amounts).
+	 *
+	 * @param amount the transaction amount
+	 */
+	public void remove(final double amount) {
+
+		if (count <= 1) {
+			reset(second);
+			return;
+		}
+		final double delta = amount - mean;
+		count--;
+		sum -= amount;
+		mean -= delta / count;
+		m2 = Math.max(0, m2 - delta * (amount - mean));
+	}
+
+	/**
+	 * Merges another summary into this one
+	 *
+	 * @param other the summary to merge
+	 */
+	public void merge(final SlotSummary other) {
+
+		if (other.count == 0) {
+			return;
+		}
+		if (count == 0) {
+			min = other.min;
+			max = other.max;
+		} else {
+			min = Math.min(min, other.min);
+			max = Math.max(max, other.max);
+		}
+		final long total = count + other.count;
+		final double delta = other.mean - mean;
+		m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+		mean += delta * other.count / total;
+		sum += other.sum;
+		count = total;
+	}
+
+	/**
+	 * Subtracts a summary previously merged into this one, reverting the
+	 * count, sum and moments in constant time (the minimum and maximum are
+	 * left untouched, since they can only be recomputed from the remaining
+	 * amounts).
+	 *
+	 * @param other the summary to subtract
+	 */
+	public void subtract(final SlotSummary other) {
+
+		if (other.count == 0) {
+			return;
+		}
+		if (count <= other.count) {
+			reset(second);
+			return;
+		}
+		final long remaining = count - other.count;
+		final double remainingMean = mean + (mean - other.mean) * other.count / remaining;
+		final double delta = other.mean - remainingMean;
+		m2 = Math.max(0, m2 - other.m2 - delta * delta * ((double) remaining * other.count / count));
+		mean = remainingMean;
+		sum -= other.sum;
+		count = remaining;
+	}
+
+	/**
+	 * Empties the summary and assigns it to a new second
+	 *
+	 * @param newSecond the new epoch second
+	 */
+	public void reset(final long newSecond) {
+
+		second = newSecond;
+		count = 0;
+		sum = 0;
+		min = 0;
+		max = 0;
+		mean = 0;
+		m2 = 0;
+	}
+
+	/**
+	 * Returns a copy of this summary
+	 *
+	 * @return the copy
+	 */
+	public SlotSummary copy() {
+
+		final SlotSummary copy = new SlotSummary(second);
+		copy.merge(this);
+		return copy;
+	}
+
+	/**
+	 * Returns the epoch second of the summarized transactions
+	 *
+	 * @return the second
+	 */
+	public long getSecond() {
+
+		return second;
+	}
+
+	/**
+	 * Returns the number of transactions
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+
+		return count;
+	}
+
+	/**
+	 * Returns the transactions' total amount
+	 *
+	 * @return the sum
+	 */
+	public double getSum() {
+
+		return sum;
+	}
+
+	/**
+	 * Returns the transactions' minimum amount
+	 *
+	 * @return the minimum
+	 */
+	public double getMin() {
+
+		return min;
+	}
+
+	/**
+	 * Returns the transactions' maximum amount
+	 *
+	 * @return the maximum
+	 */
+	public double getMax() {
+
+		return max;
+	}
+
+	/**
+	 * Returns the transactions' mean amount
+	 *
+	 * @return the mean
+	 */
+	public double getMean() {
+
+		return mean;
+	}
+
+	/**
+	 * Returns the sum of the squared deviations of the amounts from the mean
+	 *
+	 * @return the second central moment times the count
+	 */
+	public double getM2() {
+
+		return m2;
+	}
+
+	/**
+	 * Returns the population variance of the amounts
+	 *
+	 * @return the variance, 0 if the summary is empty
+	 */
+	public double variance() {
+
+		return count == 0 ? 0 : m2 / count;
+	}
+
+	/**
+	 * Sets the epoch second
+	 *
+	 * @param second the second to set
+	 */
+	public void setSecond(final long second) {
+
+		this.second = second;
+	}
+
+	/**
+	 * Sets the number of transactions
+	 *
+	 * @param count the count to set
+	 */
+	public void setCount(final long count) {
+
+		this.count = count;
+	}
+
+	/**
+	 * Sets the total amount
+	 *
+	 * @param sum the sum to set
+	 */
+	public void setSum(final double sum) {
+
+		this.sum = sum;
+	}
+
+	/**
+	 * Sets the minimum amount
+	 *
+	 * @param min the minimum to set
+	 */
+	public void setMin(final double min) {
+
+		this.min = min;
+	}
+
+	/**
+	 * Sets the maximum amount
+	 *
+	 * @param max the maximum to set
+	 */
+	public void setMax(final double max) {
+
+		this.max = max;
+	}
+
+	/**
+	 * Sets the mean amount
+	 *
+	 * @param mean the mean to set
+	 */
+	public void setMean(final double mean) {
+
+		this.mean = mean;
+	}
+
+	/**
+	 * Sets the sum of the squared deviations from the mean
+	 *
+	 * @param m2 the second central moment times the count to set
+	 */
+	public void setM2(final double m2) {
+
+		this.m2 = m2;
+	}
+
+}
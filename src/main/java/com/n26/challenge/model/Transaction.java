@@ -4,8 +4,10 @@ import java.math.BigDecimal;
 
 import com.gigaspaces.annotation.pojo.SpaceClass;
 import com.gigaspaces.annotation.pojo.SpaceId;
+import com.gigaspaces.annotation.pojo.SpaceIndex;
 import com.gigaspaces.annotation.pojo.SpaceLeaseExpiration;
 import com.gigaspaces.annotation.pojo.SpaceProperty;
+import com.gigaspaces.metadata.index.SpaceIndexType;
 
 /**
  * N26 Java Code Challenge - Transaction Model
@@ -22,6 +24,11 @@ public class Transaction {
 	 */
 	public static final String AMOUNT_FIELD_NAME = "amount";
 
+	/**
+	 * The name of the time stamp field.
+	 */
+	public static final String TIME_STAMP_FIELD_NAME = "timeStamp";
+
 	/**
 	 * The class identifier.
 	 */
@@ -87,6 +94,7 @@ public class Transaction {
 	 *
 	 * @return the time stamp
 	 */
+	@SpaceIndex(type = SpaceIndexType.EXTENDED)
 	public Long getTimeStamp() {
 
 		return timeStamp;
@@ -0,0 +1,95 @@
+package com.n26.challenge.model;
+
+import com.gigaspaces.annotation.pojo.SpaceClass;
+import com.gigaspaces.annotation.pojo.SpaceId;
+import com.gigaspaces.annotation.pojo.SpaceProperty;
+
+/**
+ * N26 Java Code Challenge - Running summary of the transactions alive in the
+ * space, kept as one {@link SlotSummary} per second of the window (indexed by
+ * epoch second modulo the number of slots) and maintained incrementally when
+ * transactions are written and when they expire.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@SpaceClass
+public class TransactionsSummary {
+
+	/**
+	 * The identifier of the (single) summary object
+	 */
+	public static final String SUMMARY_ID = "transactions-summary";
+
+	/**
+	 * The class identifier.
+	 */
+	private String id;
+
+	/**
+	 * The per-second slots
+	 */
+	private SlotSummary[] slots;
+
+	/**
+	 * Default class constructor
+	 */
+	public TransactionsSummary() {
+	}
+
+	/**
+	 * Class constructor with the required fields.
+	 *
+	 * @param id the summary identifier
+	 * @param slots the per-second slots
+	 */
+	public TransactionsSummary(final String id, final SlotSummary[] slots) {
+
+		this.id = id;
+		this.slots = slots;
+	}
+
+	/**
+	 * Returns the summary identifier
+	 *
+	 * @return the summary identifier
+	 */
+	@SpaceId(autoGenerate = false)
+	public String getId() {
+
+		return id;
+	}
+
+	/**
+	 * Returns the per-second slots
+	 *
+	 * @return the slots
+	 */
+	@SpaceProperty
+	public SlotSummary[] getSlots() {
+
+		return slots;
+	}
+
+	/**
+	 * Sets the summary identifier
+	 *
+	 * @param id the id to set
+	 */
+	public void setId(final String id) {
+
+		this.id = id;
+	}
+
+	/**
+	 * Sets the per-second slots
+	 *
+	 * @param slots the slots to set
+	 */
+	public void setSlots(final SlotSummary[] slots) {
+
+		this.slots = slots;
+	}
+
+}
@@ -0,0 +1,263 @@
+package com.n26.challenge.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.n26.challenge.jfr.IngestEvent;
+import com.n26.challenge.service.IStatisticsService;
+import com.n26.challenge.service.clock.ReplayClock;
+
+/**
+ * Imports a captured transaction log into the statistics service in-process,
+ * measuring the sustained ingestion rate.
+ * <p>
+ * The capture is split into chunks parsed in parallel, a few chunks ahead of
+ * the ingestion, which registers the transactions of each parsed chunk in
+ * batches (see {@link IStatisticsService#createTransactions(long[], double[], int)}),
+ * in the capture order. With a {@link ReplayClock}, the time stamps are
+ * shifted so the first one is the clock's time when the import starts, a
+ * batch spans at most {@link #BATCH_SPAN} milliseconds of them and the clock
+ * is moved to the latest one of the batch before registering it, like the
+ * {@link ReplayRunner} does per transaction: a stepped clock ingests as fast
+ * as the service allows and leaves the statistics of the last 60 seconds of
+ * the capture. With any other clock, the time stamps are registered as they
+ * are.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class BulkImporter {
+
+	/**
+	 * The number of chunks parsed ahead of the ingestion, per parsing thread
+	 */
+	private static final int CHUNKS_AHEAD = 2;
+
+	/**
+	 * The maximum number of transactions registered at once
+	 */
+	private static final int BATCH_SIZE = 4_096;
+
+	/**
+	 * The maximum time (in milliseconds) between the time stamps of a batch
+	 * registered with a replay clock
+	 */
+	private static final long BATCH_SPAN = 1_000;
+
+	/**
+	 * The statistics service fed with the transactions
+	 */
+	private final IStatisticsService statisticsService;
+
+	/**
+	 * The replay clock, null if the time stamps are registered as they are
+	 */
+	private final ReplayClock clock;
+
+	/**
+	 * The number of parsing threads
+	 */
+	private final int threads;
+
+	/**
+	 * The chunk size in bytes
+	 */
+	private final long chunkSize;
+
+	/**
+	 * Default bulk importer constructor
+	 *
+	 * @param statisticsService the statistics service fed with the
+	 *            transactions
+	 * @param clock the service clock
+	 * @param threads the number of parsing threads
+	 * @param chunkSize the chunk size in bytes, up to
+	 *            {@link TransactionCapture#MAX_CHUNK_SIZE}
+	 */
+	public BulkImporter(final IStatisticsService statisticsService, final Clock clock, final int threads,
+			final long chunkSize) {
+
+		if (threads <= 0 || chunkSize <= 0 || chunkSize > TransactionCapture.MAX_CHUNK_SIZE) {
+			throw new IllegalArgumentException("The threads must be positive, and the chunk size between 1 and "
+					+ TransactionCapture.MAX_CHUNK_SIZE);
+		}
+		this.statisticsService = statisticsService;
+		this.clock = clock instanceof ReplayClock ? (ReplayClock) clock : null;
+		this.threads = threads;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Imports a capture file.
+	 *
+	 * @param file the NDJSON or CSV capture
+	 * @return the import report
+	 * @throws IOException if the capture can't be read
+	 * @throws InterruptedException if interrupted while parsing or waiting
+	 *             for the clock
+	 */
+	public ImportReport importCapture(final Path file) throws IOException, InterruptedException {
+
+		final long start = System.nanoTime();
+		final ExecutorService parsers = Executors.newFixedThreadPool(threads, runnable -> {
+			final Thread thread = new Thread(runnable, "statistics-import");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try (final TransactionCapture capture = new TransactionCapture(file)) {
+			final long[] bounds = capture.split(chunkSize);
+			final Deque<Future<CaptureChunk>> pending = new ArrayDeque<>();
+			final Ingestion ingestion = new Ingestion();
+			int next = 0;
+			while (next < bounds.length - 1 || !pending.isEmpty()) {
+				while (next < bounds.length - 1 && pending.size() < threads * CHUNKS_AHEAD) {
+					final long from = bounds[next];
+					final long to = bounds[++next];
+					pending.add(parsers.submit(() -> capture.parse(from, to)));
+				}
+				ingestion.ingest(await(pending.poll()));
+			}
+			return new ImportReport(ingestion.accepted, ingestion.rejected, ingestion.malformed, bounds.length - 1,
+					capture.getSize(), System.nanoTime() - start, statisticsService.getStatistics());
+		} finally {
+			parsers.shutdownNow();
+		}
+	}
+
+	/**
+	 * Waits for a chunk to be parsed.
+	 *
+	 * @param future the parsing future
+	 * @return the parsed chunk
+	 * @throws IOException if the chunk couldn't be mapped
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	private static CaptureChunk await(final Future<CaptureChunk> future) throws IOException, InterruptedException {
+
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IllegalStateException("The capture couldn't be parsed", e.getCause());
+		}
+	}
+
+	/**
+	 * The ingestion state, only used by the importing thread
+	 */
+	private final class Ingestion {
+
+		/**
+		 * The number of registered transactions
+		 */
+		private long accepted;
+
+		/**
+		 * The number of transactions rejected by the service
+		 */
+		private long rejected;
+
+		/**
+		 * The number of lines that couldn't be parsed
+		 */
+		private long malformed;
+
+		/**
+		 * The shift of the time stamps to the clock
+		 */
+		private long offset;
+
+		/**
+		 * Whether the first transaction was registered
+		 */
+		private boolean started;
+
+		/**
+		 * The time stamps of the batch
+		 */
+		private final long[] timeStamps = new long[BATCH_SIZE];
+
+		/**
+		 * The amounts of the batch
+		 */
+		private final double[] amounts = new double[BATCH_SIZE];
+
+		/**
+		 * The number of transactions of the batch
+		 */
+		private int size;
+
+		/**
+		 * The latest time stamp of the batch
+		 */
+		private long latest;
+
+		/**
+		 * Registers the transactions of a chunk.
+		 *
+		 * @param chunk the parsed chunk
+		 * @throws InterruptedException if interrupted while waiting for the
+		 *             clock
+		 */
+		private void ingest(final CaptureChunk chunk) throws InterruptedException {
+
+			final IngestEvent event = new IngestEvent();
+			event.begin();
+			final long registered = accepted;
+			malformed += chunk.getMalformed();
+			for (int i = 0; i < chunk.size(); i++) {
+				long timeStamp = chunk.getTimeStamp(i);
+				if (clock != null) {
+					if (!started) {
+						offset = clock.millis() - timeStamp;
+						started = true;
+					}
+					timeStamp += offset;
+					if (size > 0 && Math.abs(timeStamp - timeStamps[0]) > BATCH_SPAN) {
+						register();
+					}
+				}
+				if (size == BATCH_SIZE) {
+					register();
+				}
+				timeStamps[size] = timeStamp;
+				amounts[size++] = chunk.getAmount(i);
+				latest = size == 1 ? timeStamp : Math.max(latest, timeStamp);
+			}
+			register();
+			event.commit(IngestEvent.IMPORT, chunk.size(), (int) (accepted - registered));
+		}
+
+		/**
+		 * Registers the batch, once the clock reaches its latest time stamp.
+		 *
+		 * @throws InterruptedException if interrupted while waiting for the
+		 *             clock
+		 */
+		private void register() throws InterruptedException {
+
+			if (size == 0) {
+				return;
+			}
+			if (clock != null) {
+				clock.reach(latest);
+			}
+			final int registered = statisticsService.createTransactions(timeStamps, amounts, size);
+			accepted += registered;
+			rejected += size - registered;
+			size = 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.n26.challenge.replay;
+
+import java.util.Arrays;
+
+/**
+ * The transactions parsed from a chunk of a {@link TransactionCapture}, kept
+ * in primitive columns to be handed over to the ingestion as a single batch.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class CaptureChunk {
+
+	/**
+	 * The position of the chunk in the capture
+	 */
+	private final long position;
+
+	/**
+	 * The time stamps
+	 */
+	private long[] timeStamps;
+
+	/**
+	 * The amounts
+	 */
+	private double[] amounts;
+
+	/**
+	 * The number of parsed transactions
+	 */
+	private int size;
+
+	/**
+	 * The number of lines that couldn't be parsed
+	 */
+	private int malformed;
+
+	/**
+	 * Creates an empty chunk.
+	 *
+	 * @param position the position of the chunk in the capture
+	 * @param capacity the expected number of transactions
+	 */
+	CaptureChunk(final long position, final int capacity) {
+
+		this.position = position;
+		this.timeStamps = new long[Math.max(16, capacity)];
+		this.amounts = new double[timeStamps.length];
+	}
+
+	/**
+	 * Adds a parsed transaction.
+	 *
+	 * @param timeStamp the time stamp
+	 * @param amount the amount
+	 */
+	void add(final long timeStamp, final double amount) {
+
+		if (size == timeStamps.length) {
+			timeStamps = Arrays.copyOf(timeStamps, size * 2);
+			amounts = Arrays.copyOf(amounts, size * 2);
+		}
+		timeStamps[size] = timeStamp;
+		amounts[size++] = amount;
+	}
+
+	/**
+	 * Counts a line that couldn't be parsed
+	 */
+	void malformed() {
+
+		malformed++;
+	}
+
+	/**
+	 * Returns the position of the chunk in the capture
+	 *
+	 * @return the byte offset
+	 */
+	public long getPosition() {
+
+		return position;
+	}
+
+	/**
+	 * Returns the number of parsed transactions
+	 *
+	 * @return the size
+	 */
+	public int size() {
+
+		return size;
+	}
+
+	/**
+	 * Returns the time stamp of a transaction
+	 *
+	 * @param index the transaction index
+	 * @return the time stamp
+	 */
+	public long getTimeStamp(final int index) {
+
+		return timeStamps[index];
+	}
+
+	/**
+	 * Returns the amount of a transaction
+	 *
+	 * @param index the transaction index
+	 * @return the amount
+	 */
+	public double getAmount(final int index) {
+
+		return amounts[index];
+	}
+
+	/**
+	 * Returns the number of lines that couldn't be parsed
+	 *
+	 * @return the malformed lines
+	 */
+	public int getMalformed() {
+
+		return malformed;
+	}
+
+}
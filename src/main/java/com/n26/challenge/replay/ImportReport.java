@@ -0,0 +1,154 @@
+package com.n26.challenge.replay;
+
+import com.n26.challenge.api.model.StatisticsResult;
+
+/**
+ * The outcome of a {@link BulkImporter} run: how many transactions were
+ * registered, how fast, and the statistics they left.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ImportReport {
+
+	/**
+	 * The number of registered transactions
+	 */
+	private final long accepted;
+
+	/**
+	 * The number of transactions rejected by the service
+	 */
+	private final long rejected;
+
+	/**
+	 * The number of lines that couldn't be parsed
+	 */
+	private final long malformed;
+
+	/**
+	 * The number of parsed chunks
+	 */
+	private final int chunks;
+
+	/**
+	 * The capture size in bytes
+	 */
+	private final long bytes;
+
+	/**
+	 * The import duration in nanoseconds
+	 */
+	private final long elapsed;
+
+	/**
+	 * The statistics at the end of the import
+	 */
+	private final StatisticsResult statistics;
+
+	/**
+	 * Creates an import report.
+	 *
+	 * @param accepted the number of registered transactions
+	 * @param rejected the number of transactions rejected by the service
+	 * @param malformed the number of lines that couldn't be parsed
+	 * @param chunks the number of parsed chunks
+	 * @param bytes the capture size in bytes
+	 * @param elapsed the import duration in nanoseconds
+	 * @param statistics the statistics at the end of the import
+	 */
+	public ImportReport(final long accepted, final long rejected, final long malformed, final int chunks,
+			final long bytes, final long elapsed, final StatisticsResult statistics) {
+
+		this.accepted = accepted;
+		this.rejected = rejected;
+		this.malformed = malformed;
+		this.chunks = chunks;
+		this.bytes = bytes;
+		this.elapsed = elapsed;
+		this.statistics = statistics;
+	}
+
+	/**
+	 * Returns the number of registered transactions
+	 *
+	 * @return the accepted transactions
+	 */
+	public long getAccepted() {
+
+		return accepted;
+	}
+
+	/**
+	 * Returns the number of transactions rejected by the service (out of the
+	 * window or over the capacity)
+	 *
+	 * @return the rejected transactions
+	 */
+	public long getRejected() {
+
+		return rejected;
+	}
+
+	/**
+	 * Returns the number of lines that couldn't be parsed
+	 *
+	 * @return the malformed lines
+	 */
+	public long getMalformed() {
+
+		return malformed;
+	}
+
+	/**
+	 * Returns the number of parsed chunks
+	 *
+	 * @return the chunks
+	 */
+	public int getChunks() {
+
+		return chunks;
+	}
+
+	/**
+	 * Returns the capture size
+	 *
+	 * @return the size in bytes
+	 */
+	public long getBytes() {
+
+		return bytes;
+	}
+
+	/**
+	 * Returns the import duration
+	 *
+	 * @return the duration in milliseconds
+	 */
+	public long getElapsedMillis() {
+
+		return elapsed / 1_000_000;
+	}
+
+	/**
+	 * Returns the sustained ingestion rate, parsing included
+	 *
+	 * @return the transactions (accepted or rejected) per second
+	 */
+	public double getRecordsPerSecond() {
+
+		return elapsed == 0 ? 0 : (accepted + rejected) * 1e9 / elapsed;
+	}
+
+	/**
+	 * Returns the statistics at the end of the import
+	 *
+	 * @return the statistics
+	 */
+	public StatisticsResult getStatistics() {
+
+		return statistics;
+	}
+
+}
@@ -0,0 +1,169 @@
+package com.n26.challenge.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Clock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.api.model.BatchResult;
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.service.IStatisticsService;
+import com.n26.challenge.service.capacity.CapacityExceededException;
+import com.n26.challenge.service.clock.ReplayClock;
+
+/**
+ * Replays a recorded transaction log against the statistics service once the
+ * application is ready, paced by the {@link ReplayClock}.
+ * <p>
+ * The log has one {@code timestamp,amount} line per transaction, ordered by
+ * time stamp, as exported by GET /transactions/export?format=csv (the header
+ * line is skipped). The time stamps are shifted so the first one is the
+ * clock's time when the replay starts: the statistics only depend on the
+ * amounts and on the distance between the time stamps, so every replay of a
+ * log with a stepped clock gives the same statistics, which can be queried
+ * while it runs and are logged when it ends. Without a log file, the clock is
+ * left to another feeder (the {@link BulkImporter}).
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.clock.mode", havingValue = "replay")
+public class ReplayRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+	/**
+	 * The class logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReplayRunner.class);
+
+	/**
+	 * The statistics service fed with the transactions
+	 */
+	private final IStatisticsService statisticsService;
+
+	/**
+	 * The clock pacing the replay
+	 */
+	private final ReplayClock clock;
+
+	/**
+	 * The path of the transaction log
+	 */
+	private final String file;
+
+	/**
+	 * Default replay runner constructor
+	 *
+	 * @param statisticsService the statistics service fed with the
+	 *            transactions
+	 * @param clock the clock pacing the replay, a {@link ReplayClock}
+	 * @param file the path of the transaction log, none to leave the clock to
+	 *            another feeder
+	 */
+	@Autowired
+	public ReplayRunner(final IStatisticsService statisticsService, final Clock clock,
+			@Value("${statistics.replay.file}") final String file) {
+
+		if (!(clock instanceof ReplayClock)) {
+			throw new IllegalArgumentException("The replay needs the replay clock");
+		}
+		this.statisticsService = statisticsService;
+		this.clock = (ReplayClock) clock;
+		this.file = file == null ? "" : file.trim();
+	}
+
+	/**
+	 * Starts the replay on a dedicated thread once the application is ready,
+	 * if there's a log file
+	 *
+	 * @param event the application ready event
+	 */
+	@Override
+	public void onApplicationEvent(final ApplicationReadyEvent event) {
+
+		if (file.isEmpty()) {
+			LOGGER.info("No transaction log to replay, the clock is left to another feeder");
+			return;
+		}
+		final Thread thread = new Thread(this::replay, "statistics-replay");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Replays the transaction log file, logging the outcome
+	 */
+	void replay() {
+
+		LOGGER.info("Replaying {} at {}x", file, clock.getSpeed() == 0 ? "stepped" : clock.getSpeed());
+		final long start = System.nanoTime();
+		try (final BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.US_ASCII)) {
+			final BatchResult result = replay(reader);
+			final StatisticsResult statistics = statisticsService.getStatistics();
+			LOGGER.info("Replayed {} transactions ({} rejected) in {} ms, last window: count={}, sum={}, avg={}, "
+					+ "min={}, max={}", result.getAccepted(), result.getRejected(),
+					(System.nanoTime() - start) / 1_000_000, statistics.getCount(), statistics.getSum(),
+					statistics.getAvg(), statistics.getMin(), statistics.getMax());
+		} catch (final IOException e) {
+			LOGGER.error("The transaction log {} couldn't be read", file, e);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.warn("The replay of {} was interrupted", file);
+		}
+	}
+
+	/**
+	 * Replays a transaction log, waiting for the clock to reach each
+	 * transaction's (shifted) time stamp before registering it.
+	 *
+	 * @param reader the transaction log
+	 * @return the number of registered and rejected transactions
+	 * @throws IOException if the log can't be read
+	 * @throws InterruptedException if interrupted while waiting for the clock
+	 */
+	BatchResult replay(final Reader reader) throws IOException, InterruptedException {
+
+		final BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader
+				: new BufferedReader(reader);
+		long offset = 0;
+		boolean first = true;
+		long accepted = 0;
+		long rejected = 0;
+		String line;
+		while ((line = lines.readLine()) != null) {
+			final int comma = line.indexOf(',');
+			if (comma < 0 || !Character.isDigit(line.charAt(0)) && line.charAt(0) != '-') {
+				// The header or a blank line
+				continue;
+			}
+			final long timeStamp = Long.parseLong(line.substring(0, comma).trim());
+			final double amount = Double.parseDouble(line.substring(comma + 1).trim());
+			if (first) {
+				offset = clock.millis() - timeStamp;
+				first = false;
+			}
+			clock.reach(timeStamp + offset);
+			try {
+				statisticsService.createTransaction(timeStamp + offset, amount);
+				accepted++;
+			} catch (final IllegalArgumentException | CapacityExceededException e) {
+				rejected++;
+			}
+		}
+		return new BatchResult(accepted, rejected);
+	}
+
+}
@@ -0,0 +1,387 @@
+package com.n26.challenge.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A captured transaction log, read through memory-mapped chunks so several
+ * threads can parse it at once without copying it into the heap.
+ * <p>
+ * The capture is either NDJSON ({@code {"timestamp":...,"amount":...}} per
+ * line) or CSV ({@code timestamp,amount} per line, header optional), as
+ * exported by GET /transactions/export; the format is told by the first
+ * character of the file. The chunks are split at line ends, so each one is
+ * parsed on its own.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class TransactionCapture implements AutoCloseable {
+
+	/**
+	 * The largest chunk, a single mapping
+	 */
+	public static final long MAX_CHUNK_SIZE = 1 << 30;
+
+	/**
+	 * The NDJSON time stamp field
+	 */
+	private static final byte[] TIME_STAMP_FIELD = "\"timestamp\"".getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * The NDJSON amount field
+	 */
+	private static final byte[] AMOUNT_FIELD = "\"amount\"".getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * The powers of 10 exactly represented as doubles
+	 */
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * The largest mantissa exactly represented as a double
+	 */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	/**
+	 * The size of the buffer looking for the line ends
+	 */
+	private static final int SCAN_BUFFER_SIZE = 4096;
+
+	/**
+	 * The capture file channel
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The capture size in bytes
+	 */
+	private final long size;
+
+	/**
+	 * Whether the capture is NDJSON, CSV otherwise
+	 */
+	private final boolean json;
+
+	/**
+	 * Opens a capture file.
+	 *
+	 * @param file the capture file
+	 * @throws IOException if the file can't be read
+	 */
+	public TransactionCapture(final Path file) throws IOException {
+
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.size = channel.size();
+		final ByteBuffer first = ByteBuffer.allocate(1);
+		this.json = channel.read(first, 0) > 0 && first.get(0) == '{';
+	}
+
+	/**
+	 * Splits the capture into chunks of about the given size, ending at line
+	 * ends.
+	 *
+	 * @param chunkSize the chunk size in bytes, up to {@link #MAX_CHUNK_SIZE}
+	 * @return the chunk bounds, each one the start of a chunk and the end of
+	 *         the previous one, ending with the capture size
+	 * @throws IOException if the file can't be read
+	 */
+	public long[] split(final long chunkSize) throws IOException {
+
+		if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+			throw new IllegalArgumentException("The chunk size must be between 1 and " + MAX_CHUNK_SIZE);
+		}
+		final List<Long> bounds = new ArrayList<>();
+		bounds.add(0L);
+		long start = 0;
+		while (size - start > chunkSize) {
+			start = lineEnd(start + chunkSize - 1) + 1;
+			if (start < size) {
+				bounds.add(start);
+			}
+		}
+		bounds.add(size);
+
+		final long[] result = new long[bounds.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = bounds.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Parses a chunk of the capture, mapping it into memory.
+	 *
+	 * @param start the first byte of the chunk, a line start
+	 * @param end the byte after the chunk, a line start or the capture end
+	 * @return the parsed transactions
+	 * @throws IOException if the file can't be mapped
+	 */
+	public CaptureChunk parse(final long start, final long end) throws IOException {
+
+		final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, start, end - start);
+		final CaptureChunk chunk = new CaptureChunk(start, (int) Math.min(Integer.MAX_VALUE, (end - start) / 16 + 1));
+		final int limit = buffer.limit();
+		int lineStart = 0;
+		while (lineStart < limit) {
+			int lineEnd = lineStart;
+			while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			parseLine(buffer, lineStart, lineEnd, start == 0 && lineStart == 0, chunk);
+			lineStart = lineEnd + 1;
+		}
+		return chunk;
+	}
+
+	/**
+	 * Returns the capture format
+	 *
+	 * @return true if it's NDJSON, false if it's CSV
+	 */
+	public boolean isJson() {
+
+		return json;
+	}
+
+	/**
+	 * Returns the capture size
+	 *
+	 * @return the size in bytes
+	 */
+	public long getSize() {
+
+		return size;
+	}
+
+	/**
+	 * Closes the capture file
+	 *
+	 * @throws IOException if the file can't be closed
+	 */
+	@Override
+	public void close() throws IOException {
+
+		channel.close();
+	}
+
+	/**
+	 * Parses a line into the chunk, skipping the blank ones and the CSV
+	 * header.
+	 *
+	 * @param buffer the chunk bytes
+	 * @param from the first byte of the line
+	 * @param to the line end
+	 * @param firstLine whether it's the first line of the capture
+	 * @param chunk the parsed transactions
+	 */
+	private void parseLine(final ByteBuffer buffer, final int from, int to, final boolean firstLine,
+			final CaptureChunk chunk) {
+
+		while (to > from && buffer.get(to - 1) <= ' ') {
+			to--;
+		}
+		if (to == from) {
+			return;
+		}
+		try {
+			final int timeStampStart;
+			final int timeStampEnd;
+			final int amountStart;
+			final int amountEnd;
+			if (json) {
+				timeStampStart = valueStart(buffer, from, to, TIME_STAMP_FIELD);
+				timeStampEnd = valueEnd(buffer, timeStampStart, to);
+				amountStart = valueStart(buffer, from, to, AMOUNT_FIELD);
+				amountEnd = valueEnd(buffer, amountStart, to);
+			} else {
+				final byte first = buffer.get(from);
+				if (firstLine && first != '-' && (first < '0' || first > '9')) {
+					// The header
+					return;
+				}
+				timeStampStart = from;
+				timeStampEnd = indexOf(buffer, from, to, (byte) ',');
+				amountStart = timeStampEnd + 1;
+				amountEnd = to;
+			}
+			chunk.add(parseLong(buffer, timeStampStart, timeStampEnd), parseDouble(buffer, amountStart, amountEnd));
+		} catch (final NumberFormatException e) {
+			chunk.malformed();
+		}
+	}
+
+	/**
+	 * Finds the end of the line the given byte is in.
+	 *
+	 * @param position a byte of the capture
+	 * @return the position of the line end, or of the last byte
+	 * @throws IOException if the file can't be read
+	 */
+	private long lineEnd(final long position) throws IOException {
+
+		final ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		long offset = position;
+		while (offset < size) {
+			scan.clear();
+			final int read = channel.read(scan, offset);
+			for (int i = 0; i < read; i++) {
+				if (scan.get(i) == '\n') {
+					return offset + i;
+				}
+			}
+			offset += read;
+		}
+		return size - 1;
+	}
+
+	/**
+	 * Finds the start of an NDJSON field value.
+	 *
+	 * @param buffer the chunk bytes
+	 * @param from the line start
+	 * @param to the line end
+	 * @param field the quoted field name
+	 * @return the position of the value
+	 */
+	private static int valueStart(final ByteBuffer buffer, final int from, final int to, final byte[] field) {
+
+		for (int i = from; i <= to - field.length; i++) {
+			int matched = 0;
+			while (matched < field.length && buffer.get(i + matched) == field[matched]) {
+				matched++;
+			}
+			if (matched == field.length) {
+				return indexOf(buffer, i + matched, to, (byte) ':') + 1;
+			}
+		}
+		throw new NumberFormatException("Missing field " + new String(field, StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Finds the end of an NDJSON field value.
+	 *
+	 * @param buffer the chunk bytes
+	 * @param from the position of the value
+	 * @param to the line end
+	 * @return the position after the value
+	 */
+	private static int valueEnd(final ByteBuffer buffer, final int from, final int to) {
+
+		int end = from;
+		while (end < to && buffer.get(end) != ',' && buffer.get(end) != '}') {
+			end++;
+		}
+		return end;
+	}
+
+	/**
+	 * Finds a byte.
+	 *
+	 * @param buffer the chunk bytes
+	 * @param from the first position
+	 * @param to the last position (excluded)
+	 * @param value the byte
+	 * @return its position
+	 */
+	private static int indexOf(final ByteBuffer buffer, final int from, final int to, final byte value) {
+
+		for (int i = from; i < to; i++) {
+			if (buffer.get(i) == value) {
+				return i;
+			}
+		}
+		throw new NumberFormatException("Missing '" + (char) value + "'");
+	}
+
+	/**
+	 * Parses a decimal integer, ignoring the surrounding blanks.
+	 *
+	 * @param buffer the chunk bytes
+	 * @param from the first position
+	 * @param to the last position (excluded)
+	 * @return the integer
+	 */
+	static long parseLong(final ByteBuffer buffer, int from, int to) {
+
+		while (from < to && buffer.get(from) <= ' ') {
+			from++;
+		}
+		while (to > from && buffer.get(to - 1) <= ' ') {
+			to--;
+		}
+		final boolean negative = from < to && buffer.get(from) == '-';
+		int i = negative ? from + 1 : from;
+		if (i == to || to - i > 18) {
+			throw new NumberFormatException("Not a time stamp");
+		}
+		long value = 0;
+		for (; i < to; i++) {
+			final int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException("Not a time stamp");
+			}
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Parses a decimal number, ignoring the surrounding blanks. The plain
+	 * decimals are parsed in place, as exactly as {@link Double#parseDouble}
+	 * does; the rest (exponents, long fractions) are left to it.
+	 *
+	 * @param buffer the chunk bytes
+	 * @param from the first position
+	 * @param to the last position (excluded)
+	 * @return the number
+	 */
+	static double parseDouble(final ByteBuffer buffer, int from, int to) {
+
+		while (from < to && buffer.get(from) <= ' ') {
+			from++;
+		}
+		while (to > from && buffer.get(to - 1) <= ' ') {
+			to--;
+		}
+		final boolean negative = from < to && buffer.get(from) == '-';
+		long mantissa = 0;
+		int decimals = -1;
+		int digits = 0;
+		boolean plain = true;
+		for (int i = negative ? from + 1 : from; i < to && plain; i++) {
+			final byte character = buffer.get(i);
+			if (character >= '0' && character <= '9') {
+				mantissa = mantissa * 10 + (character - '0');
+				digits++;
+				if (decimals >= 0) {
+					decimals++;
+				}
+				plain = mantissa <= MAX_EXACT_MANTISSA;
+			} else {
+				plain = character == '.' && decimals < 0;
+				decimals = 0;
+			}
+		}
+		if (plain && digits > 0 && decimals < POWERS_OF_TEN.length) {
+			final double value = decimals > 0 ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+			return negative ? -value : value;
+		}
+		final byte[] text = new byte[to - from];
+		for (int i = 0; i < text.length; i++) {
+			text[i] = buffer.get(from + i);
+		}
+		return Double.parseDouble(new String(text, StandardCharsets.US_ASCII));
+	}
+
+}
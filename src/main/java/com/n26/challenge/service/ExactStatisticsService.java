@@ -0,0 +1,132 @@
+package com.n26.challenge.service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.jfr.StatisticsQueryEvent;
+import com.n26.challenge.service.skew.FutureTransactionBuffer;
+import com.n26.challenge.service.window.ExactSlidingWindow;
+import com.n26.challenge.warmup.WarmUpTraffic;
+
+/**
+ * In-memory statistics service with millisecond precision expiration, backed
+ * by an {@link ExactSlidingWindow}. Registering a transaction in time stamp
+ * order and querying the statistics are amortized constant time operations,
+ * independently of the number of transactions in the window. A transaction
+ * older than the newest one registered costs a binary search plus shifting
+ * the newer entries of the minimum and maximum deques, linear in the number
+ * of transactions of the window in the worst case (monotone amounts).
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.engine", havingValue = "exact")
+public class ExactStatisticsService implements IStatisticsService {
+
+	/**
+	 * The window with the transactions
+	 */
+	private final ExactSlidingWindow window = new ExactSlidingWindow();
+
+	/**
+	 * The observers notified of each registered transaction
+	 */
+	private ITransactionObserver[] observers = new ITransactionObserver[0];
+
+	/**
+	 * The buffer of the transactions slightly in the future, null if they're
+	 * rejected
+	 */
+	private FutureTransactionBuffer futureBuffer;
+
+	/**
+	 * The time source of the window and the validation
+	 */
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Sets the observers notified of each registered transaction
+	 *
+	 * @param observers the transaction observers
+	 */
+	@Autowired(required = false)
+	public void setObservers(final List<ITransactionObserver> observers) {
+
+		this.observers = observers.toArray(new ITransactionObserver[observers.size()]);
+	}
+
+	/**
+	 * Sets the buffer of the transactions slightly in the future, which
+	 * registers them in this service once their time stamp is reached
+	 *
+	 * @param futureBuffer the future transaction buffer
+	 */
+	@Autowired(required = false)
+	public void setFutureBuffer(final FutureTransactionBuffer futureBuffer) {
+
+		this.futureBuffer = futureBuffer;
+		futureBuffer.setTarget(this::createTransaction);
+	}
+
+	/**
+	 * Sets the time source of the window and the validation
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IStatisticsService#createTransaction(long, double)
+	 */
+	@Override
+	public long createTransaction(final long timeStamp, final double amount) {
+
+		final long currentTimeStamp = clock.millis();
+		if (timeStamp > currentTimeStamp && futureBuffer != null && futureBuffer.hold(timeStamp, amount)) {
+			return timeStamp + ExactSlidingWindow.WINDOW;
+		}
+		StatisticsService.validateTimeStamp(timeStamp, currentTimeStamp);
+
+		final long cents = ExactSlidingWindow.toCents(amount);
+		window.record(timeStamp, cents, currentTimeStamp);
+
+		// The synthetic warm-up transactions only go through the storage, they're not observed
+		if (!WarmUpTraffic.isActive()) {
+			final double observedAmount = BigDecimal.valueOf(cents, 2).doubleValue();
+			for (final ITransactionObserver observer : observers) {
+				observer.onTransaction(timeStamp, observedAmount);
+			}
+		}
+		return timeStamp + ExactSlidingWindow.WINDOW;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IStatisticsService#getStatistics()
+	 */
+	@Override
+	public StatisticsResult getStatistics() {
+
+		final StatisticsQueryEvent event = new StatisticsQueryEvent();
+		event.begin();
+		final StatisticsResult statistics = window.getStatistics(clock.millis());
+		event.commit("exact", statistics);
+		return statistics;
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.n26.challenge.service;
+
+import java.util.Locale;
+
+/**
+ * The ways the (blocking) space operations of the statistics service can be
+ * executed on behalf of the web layer.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public enum ExecutionMode {
+
+	/**
+	 * The operations run on the request (Tomcat) thread
+	 */
+	DIRECT,
+
+	/**
+	 * The operations run on a dedicated, bounded thread pool and the request
+	 * completes asynchronously
+	 */
+	EXECUTOR,
+
+	/**
+	 * The operations run on virtual threads (when the runtime supports them,
+	 * otherwise as {@link #EXECUTOR}) and the request completes asynchronously
+	 */
+	VIRTUAL;
+
+	/**
+	 * Returns the mode with the given name, ignoring the case.
+	 *
+	 * @param name the mode name
+	 * @return the execution mode
+	 */
+	public static ExecutionMode fromName(final String name) {
+
+		return valueOf(name.trim().toUpperCase(Locale.ROOT));
+	}
+
+}
@@ -1,6 +1,7 @@
 package com.n26.challenge.service;
 
 import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.service.capacity.CapacityExceededException;
 
 /**
  * Service that exposes functionalities to manage statistics information.
@@ -20,6 +21,30 @@ public interface IStatisticsService {
 	 */
 	long createTransaction(long timeStamp, double amount);
 
+	/**
+	 * Creates the records of a batch of transactions. The transactions out of
+	 * the window or over the capacity are rejected without failing the rest
+	 * of the batch. By default they're registered one by one.
+	 *
+	 * @param timeStamps the transactions time stamps
+	 * @param amounts the transactions amounts
+	 * @param count the number of transactions, from the start of the arrays
+	 * @return the number of registered transactions
+	 */
+	default int createTransactions(final long[] timeStamps, final double[] amounts, final int count) {
+
+		int accepted = 0;
+		for (int i = 0; i < count; i++) {
+			try {
+				createTransaction(timeStamps[i], amounts[i]);
+				accepted++;
+			} catch (final IllegalArgumentException | CapacityExceededException e) {
+				// Counted as rejected
+			}
+		}
+		return accepted;
+	}
+
 	/**
 	 * Returns the statistical information of the transactions
 	 *
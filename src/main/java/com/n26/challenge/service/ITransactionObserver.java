@@ -0,0 +1,22 @@
+package com.n26.challenge.service;
+
+/**
+ * Observer notified each time a transaction is registered by an
+ * {@link IStatisticsService}, used to keep additional (local) views of the
+ * transactions without querying the space.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public interface ITransactionObserver {
+
+	/**
+	 * Notifies a new transaction that was successfully registered.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param amount the transaction amount (already rounded to 2 decimals)
+	 */
+	void onTransaction(long timeStamp, double amount);
+
+}
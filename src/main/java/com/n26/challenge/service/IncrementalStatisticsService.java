@@ -0,0 +1,320 @@
+package com.n26.challenge.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.openspaces.core.GigaSpace;
+import org.openspaces.events.SpaceDataEventListener;
+import org.openspaces.events.notify.SimpleNotifyContainerConfigurer;
+import org.openspaces.events.notify.SimpleNotifyEventListenerContainer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.gigaspaces.query.aggregators.AggregationResult;
+import com.gigaspaces.query.aggregators.AggregationSet;
+import com.j_spaces.core.client.SQLQuery;
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.jfr.ExpiryEvent;
+import com.n26.challenge.jfr.StatisticsQueryEvent;
+import com.n26.challenge.model.SlotSummary;
+import com.n26.challenge.model.Transaction;
+import com.n26.challenge.model.TransactionsSummary;
+import com.n26.challenge.service.capacity.CapacityExceededException;
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Statistics service that keeps a running {@link TransactionsSummary} in the
+ * space instead of aggregating all the transactions on every query.
+ * <p>
+ * The summary has one slot (count, sum, minimum, maximum and moments) per
+ * second of the window. It's updated when a transaction is written and,
+ * through a notify container, when a transaction expires (or is taken), in
+ * constant time since the moments can be reverted. When the expired
+ * amount was the minimum or maximum of its slot, the extrema of that slot (and
+ * only that slot) are recomputed from the space, so they stay exact.
+ * <p>
+ * A query reads the summary by id and merges its slots. Since the expiration
+ * notifications may arrive some time after the lease expires, the oldest
+ * second of the window, the only one that can be partially expired, is
+ * aggregated from the space for its alive part. The summary updates are
+ * serialized with a local lock, so this mode expects a single instance
+ * writing to the space (the embedded space mode).
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.engine", havingValue = "incremental")
+public class IncrementalStatisticsService extends StatisticsService {
+
+	/**
+	 * The query of the transactions of a time stamp range
+	 */
+	private static final String RANGE_QUERY = Transaction.TIME_STAMP_FIELD_NAME + " >= ? and "
+			+ Transaction.TIME_STAMP_FIELD_NAME + " < ?";
+
+	/**
+	 * The lock serializing the summary updates
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * The container notifying the expired transactions
+	 */
+	private SimpleNotifyEventListenerContainer expirationContainer;
+
+	/**
+	 * Default service constructor
+	 */
+	@Autowired
+	public IncrementalStatisticsService(final GigaSpace gigaSpace) {
+
+		super(gigaSpace);
+	}
+
+	/**
+	 * Starts listening to the expired (and taken) transactions
+	 */
+	@PostConstruct
+	public void start() {
+
+		final SpaceDataEventListener<Transaction> listener = (data, space, txStatus, source) -> onRemoval(data);
+		expirationContainer = new SimpleNotifyContainerConfigurer(getGigaSpace()).name("transactionsExpiration")
+				.template(new Transaction()).notifyWrite(false).notifyTake(true).notifyLeaseExpire(true)
+				.eventListener(listener).notifyContainer();
+	}
+
+	/**
+	 * Stops listening to the expired transactions
+	 */
+	@PreDestroy
+	public void stop() {
+
+		if (expirationContainer != null) {
+			expirationContainer.destroy();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IStatisticsService#createTransaction(long, double)
+	 */
+	@Override
+	public long createTransaction(final long timeStamp, final double amount) {
+
+		final long currentTimeStamp = getClock().millis();
+		if (hold(timeStamp, amount, currentTimeStamp)) {
+			return timeStamp + DEFAULT_LEASE;
+		}
+		// A future transaction not held is rejected here, so it's never added to the summary
+		validateTimeStamp(timeStamp, currentTimeStamp);
+		lock.lock();
+		try {
+			final long expiration = super.createTransaction(timeStamp, amount);
+
+			final TransactionsSummary summary = readSummary();
+			slot(summary, SlicedWindow.second(timeStamp))
+					.add(new BigDecimal(amount).setScale(2, RoundingMode.HALF_UP).doubleValue());
+			getGigaSpace().write(summary);
+			return expiration;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The summary is updated along with each stored transaction, so they're
+	 * registered one by one.
+	 *
+	 * @see IStatisticsService#createTransactions(long[], double[], int)
+	 */
+	@Override
+	public int createTransactions(final long[] timeStamps, final double[] amounts, final int count) {
+
+		int accepted = 0;
+		for (int i = 0; i < count; i++) {
+			try {
+				createTransaction(timeStamps[i], amounts[i]);
+				accepted++;
+			} catch (final IllegalArgumentException | CapacityExceededException e) {
+				// Counted as rejected
+			}
+		}
+		return accepted;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IStatisticsService#getStatistics()
+	 */
+	@Override
+	public StatisticsResult getStatistics() {
+
+		final StatisticsQueryEvent event = new StatisticsQueryEvent();
+		event.begin();
+		final long now = getClock().millis();
+		final TransactionsSummary summary = getGigaSpace().readById(TransactionsSummary.class,
+				TransactionsSummary.SUMMARY_ID);
+		final SlotSummary total = new SlotSummary(SlicedWindow.second(now));
+		if (summary != null) {
+			for (final SlotSummary slot : summary.getSlots()) {
+				final long second = slot.getSecond();
+				if (slot.getCount() == 0 || !SlicedWindow.isAlive(second, now)) {
+					continue;
+				}
+				if (second * 1000 + DEFAULT_LEASE < now) {
+					// Partially expired second, only its alive part is included
+					total.merge(aggregate(second, now - DEFAULT_LEASE, (second + 1) * 1000));
+				} else {
+					total.merge(slot);
+				}
+			}
+		}
+		final StatisticsResult statistics = SlicedWindow.toStatisticsResult(total);
+		event.commit("incremental", statistics);
+		return statistics;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The summary is kept exact with the expirations of the stored
+	 * transactions, so the ones over the capacity are rejected instead.
+	 *
+	 * @see StatisticsService#canSummarize()
+	 */
+	@Override
+	protected boolean canSummarize() {
+
+		return false;
+	}
+
+	/**
+	 * Removes an expired (or taken) transaction from the summary.
+	 *
+	 * @param transaction the removed transaction
+	 */
+	void onRemoval(final Transaction transaction) {
+
+		final ExpiryEvent event = new ExpiryEvent();
+		event.begin();
+		final long second = SlicedWindow.second(transaction.getTimeStamp());
+		final double amount = transaction.getAmount().doubleValue();
+
+		lock.lock();
+		try {
+			final TransactionsSummary summary = readSummary();
+			final SlotSummary slot = summary.getSlots()[index(second)];
+			if (slot.getSecond() != second || slot.getCount() == 0) {
+				// The slot was already recycled for a newer second
+				return;
+			}
+
+			final boolean extremum = amount == slot.getMin() || amount == slot.getMax();
+			slot.remove(amount);
+			if (slot.getCount() > 0 && extremum) {
+				final SlotSummary alive = aggregate(second, second * 1000, (second + 1) * 1000);
+				if (alive.getCount() > 0) {
+					slot.setMin(alive.getMin());
+					slot.setMax(alive.getMax());
+					// The recomputed moments also discard any rounding drift
+					slot.setMean(alive.getMean());
+					slot.setM2(alive.getM2());
+				}
+			}
+			getGigaSpace().write(summary);
+		} finally {
+			lock.unlock();
+			event.commit(ExpiryEvent.SPACE_LEASE, 1, 0);
+		}
+	}
+
+	/**
+	 * Reads the summary from the space, creating an empty one if it doesn't
+	 * exist yet.
+	 *
+	 * @return the summary
+	 */
+	private TransactionsSummary readSummary() {
+
+		final TransactionsSummary summary = getGigaSpace().readById(TransactionsSummary.class,
+				TransactionsSummary.SUMMARY_ID);
+		if (summary != null) {
+			return summary;
+		}
+
+		final SlotSummary[] slots = new SlotSummary[SlicedWindow.SLOTS];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = new SlotSummary(-1);
+		}
+		return new TransactionsSummary(TransactionsSummary.SUMMARY_ID, slots);
+	}
+
+	/**
+	 * Aggregates the alive transactions of a time stamp range of one second.
+	 *
+	 * @param second the epoch second of the range
+	 * @param from the first time stamp (inclusive)
+	 * @param to the last time stamp (exclusive)
+	 * @return the summary of the range
+	 */
+	private SlotSummary aggregate(final long second, final long from, final long to) {
+
+		final AggregationResult aggregate = getGigaSpace().aggregate(
+				new SQLQuery<>(Transaction.class, RANGE_QUERY, from, to),
+				new AggregationSet().count(Transaction.AMOUNT_FIELD_NAME).sum(Transaction.AMOUNT_FIELD_NAME)
+						.minValue(Transaction.AMOUNT_FIELD_NAME).maxValue(Transaction.AMOUNT_FIELD_NAME)
+						.add(new MomentsAggregator(Transaction.AMOUNT_FIELD_NAME)));
+
+		final SlotSummary slot = new SlotSummary(second);
+		slot.setCount(aggregate.getLong(0));
+		slot.setSum(getDoubleValue(aggregate.get(1)));
+		slot.setMin(getDoubleValue(aggregate.get(2)));
+		slot.setMax(getDoubleValue(aggregate.get(3)));
+		final SlotSummary moments = (SlotSummary) aggregate.get(4);
+		if (moments != null) {
+			slot.setMean(moments.getMean());
+			slot.setM2(moments.getM2());
+		}
+		return slot;
+	}
+
+	/**
+	 * Returns the slot of a second, recycling it if it belonged to an older
+	 * second.
+	 *
+	 * @param summary the summary
+	 * @param second the epoch second
+	 * @return the slot
+	 */
+	private static SlotSummary slot(final TransactionsSummary summary, final long second) {
+
+		final SlotSummary slot = summary.getSlots()[index(second)];
+		if (slot.getSecond() != second) {
+			slot.reset(second);
+		}
+		return slot;
+	}
+
+	/**
+	 * Returns the slot index of a second
+	 *
+	 * @param second the epoch second
+	 * @return the index
+	 */
+	private static int index(final long second) {
+
+		return (int) Math.floorMod(second, (long) SlicedWindow.SLOTS);
+	}
+
+}
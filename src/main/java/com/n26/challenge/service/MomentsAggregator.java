@@ -0,0 +1,110 @@
+package com.n26.challenge.service;
+
+import com.gigaspaces.query.aggregators.SpaceEntriesAggregator;
+import com.gigaspaces.query.aggregators.SpaceEntriesAggregatorContext;
+import com.n26.challenge.model.SlotSummary;
+
+/**
+ * Custom space aggregator computing the moments (count, sum, minimum,
+ * maximum, mean and sum of squared deviations) of a numeric path, which the
+ * built-in aggregators of the {@link com.gigaspaces.query.aggregators.AggregationSet}
+ * can't compute.
+ * <p>
+ * Each partition summarizes its entries with Welford's algorithm, and the
+ * partial results are merged with {@link SlotSummary#merge(SlotSummary)}. The
+ * final result is a {@link SlotSummary}, or null when no entry matched.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class MomentsAggregator extends SpaceEntriesAggregator<SlotSummary> {
+
+	/**
+	 * The serial version UID
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The aggregated path
+	 */
+	private final String path;
+
+	/**
+	 * The summary of the aggregated values
+	 */
+	private transient SlotSummary summary;
+
+	/**
+	 * Creates the aggregator of the given path.
+	 *
+	 * @param path the path of the numeric property to aggregate
+	 */
+	public MomentsAggregator(final String path) {
+
+		this.path = path;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see SpaceEntriesAggregator#getDefaultAlias()
+	 */
+	@Override
+	public String getDefaultAlias() {
+
+		return "moments(" + path + ")";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see SpaceEntriesAggregator#aggregate(SpaceEntriesAggregatorContext)
+	 */
+	@Override
+	public void aggregate(final SpaceEntriesAggregatorContext context) {
+
+		final Object value = context.getPathValue(path);
+		if (value != null) {
+			summary().add(((Number) value).doubleValue());
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see SpaceEntriesAggregator#getIntermediateResult()
+	 */
+	@Override
+	public SlotSummary getIntermediateResult() {
+
+		return summary;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see SpaceEntriesAggregator#aggregateIntermediateResult(java.io.Serializable)
+	 */
+	@Override
+	public void aggregateIntermediateResult(final SlotSummary partitionResult) {
+
+		if (partitionResult != null) {
+			summary().merge(partitionResult);
+		}
+	}
+
+	/**
+	 * Returns the summary, creating it on the first value
+	 *
+	 * @return the summary
+	 */
+	private SlotSummary summary() {
+
+		if (summary == null) {
+			summary = new SlotSummary();
+		}
+		return summary;
+	}
+
+}
@@ -0,0 +1,202 @@
+package com.n26.challenge.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.timing.RequestTimer;
+import com.n26.challenge.warmup.WarmUpTraffic;
+
+/**
+ * Executes the blocking calls of the statistics service (space writes and
+ * aggregations) according to the configured {@link ExecutionMode}, returning
+ * a {@link CompletableFuture} the web layer can complete the request with.
+ * <p>
+ * In {@link ExecutionMode#EXECUTOR} mode, the calls run on a bounded pool and
+ * are rejected with a {@link RejectedExecutionException} once its queue is
+ * full. In {@link ExecutionMode#VIRTUAL} mode, each call runs on its own
+ * virtual thread, which is looked up reflectively so the application still
+ * runs (falling back to the bounded pool) on runtimes without them.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+public class SpaceCallExecutor {
+
+	/**
+	 * The class logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(SpaceCallExecutor.class);
+
+	/**
+	 * The effective execution mode
+	 */
+	private final ExecutionMode mode;
+
+	/**
+	 * The executor running the calls, null in direct mode
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Default executor constructor
+	 */
+	@Autowired
+	public SpaceCallExecutor(@Value("${statistics.execution.mode}") final String mode,
+			@Value("${statistics.execution.pool-size}") final int poolSize,
+			@Value("${statistics.execution.queue-size}") final int queueSize) {
+
+		final ExecutionMode requestedMode = ExecutionMode.fromName(mode);
+		ExecutorService virtualExecutor = null;
+		if (requestedMode == ExecutionMode.VIRTUAL) {
+			virtualExecutor = newVirtualThreadExecutor();
+		}
+
+		if (virtualExecutor != null) {
+			this.mode = ExecutionMode.VIRTUAL;
+			this.executor = virtualExecutor;
+		} else if (requestedMode == ExecutionMode.DIRECT) {
+			this.mode = ExecutionMode.DIRECT;
+			this.executor = null;
+		} else {
+			this.mode = ExecutionMode.EXECUTOR;
+			this.executor = newBoundedExecutor(poolSize, queueSize);
+		}
+		LOGGER.info("Space calls execution mode: {} (requested {})", this.mode, requestedMode);
+	}
+
+	/**
+	 * Creates an executor running the calls directly on the caller thread.
+	 *
+	 * @return the direct executor
+	 */
+	public static SpaceCallExecutor direct() {
+
+		return new SpaceCallExecutor(ExecutionMode.DIRECT.name(), 0, 0);
+	}
+
+	/**
+	 * Executes a call according to the execution mode. The returned future is
+	 * completed with the very exception thrown by the call (not wrapped), so
+	 * the web layer exception handlers keep working.
+	 *
+	 * @param call the call to execute
+	 * @param <T> the call result type
+	 * @return the future with the call result
+	 * @throws RejectedExecutionException if the bounded executor is saturated
+	 */
+	public <T> CompletableFuture<T> submit(final Callable<T> call) {
+
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		if (executor == null) {
+			complete(future, call);
+		} else {
+			// The request timer follows the call, counting the wait in the queue as a phase
+			final RequestTimer timer = RequestTimer.current();
+			final boolean warmUp = WarmUpTraffic.isActive();
+			executor.execute(() -> {
+				final RequestTimer previous = RequestTimer.attach(timer);
+				final boolean previousWarmUp = WarmUpTraffic.attach(warmUp);
+				RequestTimer.mark("queue");
+				try {
+					complete(future, call);
+				} finally {
+					RequestTimer.attach(previous);
+					WarmUpTraffic.attach(previousWarmUp);
+				}
+			});
+		}
+		return future;
+	}
+
+	/**
+	 * Returns the effective execution mode
+	 *
+	 * @return the execution mode
+	 */
+	public ExecutionMode getMode() {
+
+		return mode;
+	}
+
+	/**
+	 * Stops the executor, letting the running calls finish
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+
+		if (executor != null) {
+			executor.shutdown();
+			executor.awaitTermination(5, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Runs the call and completes the future with its outcome
+	 *
+	 * @param future the future to complete
+	 * @param call the call to run
+	 * @param <T> the call result type
+	 */
+	private static <T> void complete(final CompletableFuture<T> future, final Callable<T> call) {
+
+		try {
+			future.complete(call.call());
+		} catch (final Exception e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Creates the bounded executor
+	 *
+	 * @param poolSize the number of threads
+	 * @param queueSize the maximum number of waiting calls
+	 * @return the executor
+	 */
+	private static ExecutorService newBoundedExecutor(final int poolSize, final int queueSize) {
+
+		final AtomicInteger threadNumber = new AtomicInteger();
+		return new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(Math.max(queueSize, 1)), runnable -> {
+					final Thread thread = new Thread(runnable, "space-call-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * Creates a virtual thread per task executor if the runtime supports it.
+	 *
+	 * @return the executor, or null if virtual threads are not available
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (final ReflectiveOperationException | RuntimeException e) {
+			LOGGER.warn("Virtual threads are not available on this runtime ({}), using a bounded executor",
+					System.getProperty("java.version"));
+			return null;
+		}
+	}
+
+}
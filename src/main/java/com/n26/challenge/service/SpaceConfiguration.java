@@ -0,0 +1,40 @@
+package com.n26.challenge.service;
+
+import org.openspaces.core.GigaSpace;
+import org.openspaces.core.GigaSpaceConfigurer;
+import org.openspaces.core.space.UrlSpaceConfigurer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Configuration of the In-Memory Data Grid accessor shared by the statistics
+ * services.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Configuration
+public class SpaceConfiguration {
+
+	/**
+	 * Creates the space accessor, creating a new embedded space or connecting
+	 * to an existing one. It's only created once needed, so the engines that
+	 * don't use the space (or only replicate to it) start without it.
+	 *
+	 * @param newSpace whether to create a new embedded space
+	 * @param spaceName the space name
+	 * @return the space accessor
+	 */
+	@Bean
+	@Lazy
+	public GigaSpace gigaSpace(@Value("${statistics.space.create}") final boolean newSpace,
+			@Value("${statistics.space.name}") final String spaceName) {
+
+		final String spaceUrl = newSpace ? "/./" + spaceName : "jini://*/*/" + spaceName;
+		return new GigaSpaceConfigurer(new UrlSpaceConfigurer(spaceUrl)).gigaSpace();
+	}
+
+}
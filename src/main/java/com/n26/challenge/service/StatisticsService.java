@@ -2,20 +2,33 @@ package com.n26.challenge.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.Instant;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.List;
 
 import org.openspaces.core.GigaSpace;
-import org.openspaces.core.GigaSpaceConfigurer;
-import org.openspaces.core.space.UrlSpaceConfigurer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import com.gigaspaces.client.WriteModifiers;
 import com.gigaspaces.query.aggregators.AggregationResult;
 import com.gigaspaces.query.aggregators.AggregationSet;
 import com.j_spaces.core.client.SQLQuery;
 import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.jfr.StatisticsQueryEvent;
+import com.n26.challenge.model.SlotSummary;
 import com.n26.challenge.model.Transaction;
+import com.n26.challenge.service.capacity.CapacityExceededException;
+import com.n26.challenge.service.capacity.CapacityGuard;
+import com.n26.challenge.service.capacity.CapacityGuard.Admission;
+import com.n26.challenge.service.overload.OverloadSampler;
+import com.n26.challenge.service.overload.OverloadSampler.Estimate;
+import com.n26.challenge.service.skew.FutureTransactionBuffer;
+import com.n26.challenge.service.window.ExactSlidingWindow;
+import com.n26.challenge.service.window.SlicedWindow;
+import com.n26.challenge.timing.RequestTimer;
+import com.n26.challenge.warmup.WarmUpTraffic;
 
 /**
  * Service implementation for {@link IStatisticsService} interface.
@@ -25,12 +38,18 @@ import com.n26.challenge.model.Transaction;
  * @since 1.0.0
  */
 @Component
+@ConditionalOnProperty(name = "statistics.engine", havingValue = "aggregate", matchIfMissing = true)
 public class StatisticsService implements IStatisticsService {
 
 	/**
 	 * Default transaction lease
 	 */
-	private static final long DEFAULT_LEASE = 60_000;
+	protected static final long DEFAULT_LEASE = 60_000;
+
+	/**
+	 * Query of the transactions in the window, from a time stamp on
+	 */
+	private static final String WINDOW_QUERY = Transaction.TIME_STAMP_FIELD_NAME + " >= ?";
 
 	/**
 	 * The In-Memory Data Grid accessor
@@ -38,24 +57,106 @@ public class StatisticsService implements IStatisticsService {
 	private final GigaSpace gigaSpace;
 
 	/**
-	 * Default service constructor
+	 * The observers notified of each registered transaction
 	 */
-	@Autowired
-	public StatisticsService(@Value("${statistics.space.create}") final boolean newSpace,
-			@Value("${statistics.space.name}") final String spaceName) {
+	private ITransactionObserver[] observers = new ITransactionObserver[0];
 
-		final String spaceUrl = newSpace ? "/./" + spaceName : "jini://*/*/" + spaceName;
-		this.gigaSpace = new GigaSpaceConfigurer(new UrlSpaceConfigurer(spaceUrl)).gigaSpace();
-	}
+	/**
+	 * The guard of the number of transactions in the space, null if unbounded
+	 */
+	private CapacityGuard capacityGuard;
+
+	/**
+	 * The transactions registered over the capacity without being stored,
+	 * null if unbounded. They expire with millisecond precision, like the
+	 * stored ones are filtered, so merging them keeps the statistics exact.
+	 */
+	private ExactSlidingWindow overflow;
+
+	/**
+	 * The sampler of the transactions over the maximum rate, null if the rate
+	 * is unbounded
+	 */
+	private OverloadSampler overloadSampler;
+
+	/**
+	 * The buffer of the transactions slightly in the future, null if they're
+	 * rejected
+	 */
+	private FutureTransactionBuffer futureBuffer;
+
+	/**
+	 * The time source of the window, the validation and the expiry
+	 */
+	private Clock clock = Clock.systemUTC();
 
 	/**
 	 * Default service constructor
 	 */
+	@Autowired
 	public StatisticsService(final GigaSpace gigaSpace) {
 
 		this.gigaSpace = gigaSpace;
 	}
 
+	/**
+	 * Sets the observers notified of each registered transaction
+	 *
+	 * @param observers the transaction observers
+	 */
+	@Autowired(required = false)
+	public void setObservers(final List<ITransactionObserver> observers) {
+
+		this.observers = observers.toArray(new ITransactionObserver[observers.size()]);
+	}
+
+	/**
+	 * Sets the guard of the number of transactions in the space
+	 *
+	 * @param capacityGuard the capacity guard
+	 */
+	@Autowired(required = false)
+	public void setCapacityGuard(final CapacityGuard capacityGuard) {
+
+		this.capacityGuard = capacityGuard;
+		this.overflow = new ExactSlidingWindow();
+	}
+
+	/**
+	 * Sets the sampler of the transactions over the maximum rate
+	 *
+	 * @param overloadSampler the overload sampler
+	 */
+	@Autowired(required = false)
+	public void setOverloadSampler(final OverloadSampler overloadSampler) {
+
+		this.overloadSampler = overloadSampler;
+	}
+
+	/**
+	 * Sets the buffer of the transactions slightly in the future, which
+	 * registers them in this service once their time stamp is reached
+	 *
+	 * @param futureBuffer the future transaction buffer
+	 */
+	@Autowired(required = false)
+	public void setFutureBuffer(final FutureTransactionBuffer futureBuffer) {
+
+		this.futureBuffer = futureBuffer;
+		futureBuffer.setTarget(this::createTransaction);
+	}
+
+	/**
+	 * Sets the time source of the window, the validation and the expiry
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 *
@@ -64,17 +165,84 @@ public class StatisticsService implements IStatisticsService {
 	@Override
 	public long createTransaction(final long timeStamp, final double amount) {
 
-		final long currentTimeStamp = Instant.now().toEpochMilli();
-		if (timeStamp + DEFAULT_LEASE < currentTimeStamp || timeStamp > currentTimeStamp) {
-			throw new IllegalArgumentException(
-					"The transaction timestamp can not be older than 60 seconds nor in the future.");
+		final long currentTimeStamp = clock.millis();
+		if (hold(timeStamp, amount, currentTimeStamp)) {
+			return timeStamp + DEFAULT_LEASE;
 		}
+		validateTimeStamp(timeStamp, currentTimeStamp);
+		RequestTimer.mark("timestamp");
 
-		// Writes the object with 60 seconds lease (starting from the sent
-		// timestamp)
 		final BigDecimal modelAmount = new BigDecimal(amount).setScale(2, RoundingMode.HALF_UP);
-		return gigaSpace.write(new Transaction(modelAmount, timeStamp), timeStamp + DEFAULT_LEASE - currentTimeStamp)
-				.getExpiration();
+		RequestTimer.mark("conversion");
+		final long expiration;
+		if (absorb(timeStamp, modelAmount, currentTimeStamp)) {
+			expiration = timeStamp + DEFAULT_LEASE;
+		} else {
+			// Writes the object with 60 seconds lease (starting from the sent
+			// timestamp)
+			expiration = gigaSpace
+					.write(new Transaction(modelAmount, timeStamp), timeStamp + DEFAULT_LEASE - currentTimeStamp)
+					.getExpiration();
+		}
+
+		RequestTimer.mark("write");
+		notifyObservers(timeStamp, modelAmount.doubleValue());
+		RequestTimer.mark("observers");
+		return expiration;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The transactions to store are written to the space with a single
+	 * {@code writeMultiple} call, each one with the lease left to its
+	 * expiration.
+	 *
+	 * @see IStatisticsService#createTransactions(long[], double[], int)
+	 */
+	@Override
+	public int createTransactions(final long[] timeStamps, final double[] amounts, final int count) {
+
+		final long currentTimeStamp = clock.millis();
+		final Transaction[] entries = new Transaction[count];
+		final long[] leases = new long[count];
+		final double[] modelAmounts = new double[count];
+		final boolean[] registered = new boolean[count];
+		int stored = 0;
+		int accepted = 0;
+		for (int i = 0; i < count; i++) {
+			if (hold(timeStamps[i], amounts[i], currentTimeStamp)) {
+				accepted++;
+				continue;
+			}
+			if (!isInWindow(timeStamps[i], currentTimeStamp)) {
+				continue;
+			}
+			final BigDecimal modelAmount = new BigDecimal(amounts[i]).setScale(2, RoundingMode.HALF_UP);
+			try {
+				if (!absorb(timeStamps[i], modelAmount, currentTimeStamp)) {
+					entries[stored] = new Transaction(modelAmount, timeStamps[i]);
+					leases[stored++] = timeStamps[i] + DEFAULT_LEASE - currentTimeStamp;
+				}
+			} catch (final CapacityExceededException e) {
+				// Counted as rejected
+				continue;
+			}
+			modelAmounts[i] = modelAmount.doubleValue();
+			registered[i] = true;
+			accepted++;
+		}
+
+		if (stored > 0) {
+			gigaSpace.writeMultiple(stored == count ? entries : Arrays.copyOf(entries, stored),
+					stored == count ? leases : Arrays.copyOf(leases, stored), WriteModifiers.WRITE_ONLY);
+		}
+		for (int i = 0; i < count; i++) {
+			if (registered[i]) {
+				notifyObservers(timeStamps[i], modelAmounts[i]);
+			}
+		}
+		return accepted;
 	}
 
 	/**
@@ -84,18 +252,180 @@ public class StatisticsService implements IStatisticsService {
 	 */
 	public StatisticsResult getStatistics() {
 
-		final AggregationResult aggregate = gigaSpace.aggregate(new SQLQuery<>(Transaction.class, ""),
+		final StatisticsQueryEvent event = new StatisticsQueryEvent();
+		event.begin();
+		final StatisticsResult statistics = aggregateWindow(clock.millis());
+		event.commit("aggregate", statistics);
+		return statistics;
+	}
+
+	/**
+	 * Aggregates the stored transactions of the window, merging the ones
+	 * summarized over the capacity or the rate.
+	 *
+	 * @param now the current time stamp
+	 * @return the statistics of the window
+	 */
+	private StatisticsResult aggregateWindow(final long now) {
+
+		// The transactions out of the window are filtered, the leases run on the system clock
+		final AggregationResult aggregate = gigaSpace.aggregate(
+				new SQLQuery<>(Transaction.class, WINDOW_QUERY, now - DEFAULT_LEASE),
 				new AggregationSet().average(Transaction.AMOUNT_FIELD_NAME).count(Transaction.AMOUNT_FIELD_NAME)
 						.maxValue(Transaction.AMOUNT_FIELD_NAME).minValue(Transaction.AMOUNT_FIELD_NAME)
-						.sum(Transaction.AMOUNT_FIELD_NAME));
+						.sum(Transaction.AMOUNT_FIELD_NAME).add(new MomentsAggregator(Transaction.AMOUNT_FIELD_NAME)));
+		RequestTimer.mark("aggregate");
 
 		final double avg = getDoubleValue(aggregate.get(0));
 		final long count = aggregate.getLong(1);
 		final double max = getDoubleValue(aggregate.get(2));
 		final double min = getDoubleValue(aggregate.get(3));
 		final double sum = getDoubleValue(aggregate.get(4));
+		final SlotSummary moments = (SlotSummary) aggregate.get(5);
+
+		final SlotSummary overflowSummary = overflow == null ? new SlotSummary(SlicedWindow.second(now))
+				: overflow.summarize(now);
+		final Estimate estimate = overloadSampler == null ? null : overloadSampler.estimate(now);
+		final long absorbed = estimate == null ? 0 : estimate.getSummary().getCount();
+		if (overflowSummary.getCount() > 0 || absorbed > 0) {
+			// The transactions summarized over the capacity or the rate are merged with the stored ones
+			final SlotSummary total = new SlotSummary(SlicedWindow.second(now));
+			total.setCount(count);
+			total.setSum(sum);
+			total.setMax(max);
+			total.setMin(min);
+			if (moments != null) {
+				total.setMean(moments.getMean());
+				total.setM2(moments.getM2());
+			}
+			total.merge(overflowSummary);
+			if (absorbed == 0) {
+				return SlicedWindow.toStatisticsResult(total);
+			}
+			total.merge(estimate.getSummary());
+			final long included = total.getCount() - absorbed + estimate.getSampled();
+			return SlicedWindow.toStatisticsResult(total, (double) included / total.getCount());
+		}
+
+		final double variance = moments == null ? 0d : moments.variance();
+		return new StatisticsResult(avg, count, max, min, sum, SlicedWindow.round(variance),
+				SlicedWindow.round(Math.sqrt(variance)));
+	}
+
+	/**
+	 * Registers a transaction over the maximum rate or the capacity in the
+	 * in-memory summaries, instead of storing it.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param modelAmount the transaction amount, rounded to cents
+	 * @param currentTimeStamp the current time stamp
+	 * @return true if the transaction was summarized, false if it must be
+	 *         stored in the space
+	 * @throws CapacityExceededException if the transaction is rejected
+	 */
+	private boolean absorb(final long timeStamp, final BigDecimal modelAmount, final long currentTimeStamp) {
+
+		if (overloadSampler != null && canSummarize()
+				&& overloadSampler.offer(timeStamp, modelAmount.unscaledValue().longValue(), currentTimeStamp)) {
+			// Over the maximum rate, the transaction is only kept in the sampled summaries
+			return true;
+		}
+		if (capacityGuard != null
+				&& capacityGuard.admit(timeStamp, currentTimeStamp, canSummarize()) == Admission.SUMMARIZE) {
+			// Over the capacity, the transaction is only kept in the per-second summaries
+			overflow.record(timeStamp, modelAmount.unscaledValue().longValue(), currentTimeStamp);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Notifies the observers of a registered transaction
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param amount the transaction amount, rounded to cents
+	 */
+	private void notifyObservers(final long timeStamp, final double amount) {
+
+		// The synthetic warm-up transactions only go through the storage, they're not observed
+		if (!WarmUpTraffic.isActive()) {
+			for (final ITransactionObserver observer : observers) {
+				observer.onTransaction(timeStamp, amount);
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the transactions over the capacity can be registered
+	 * without storing them in the space, only in the in-memory summaries
+	 *
+	 * @return true if the engine merges the summaries into the statistics
+	 */
+	protected boolean canSummarize() {
+
+		return true;
+	}
+
+	/**
+	 * Holds a transaction slightly in the future until its time stamp is
+	 * reached, if the future transactions are buffered.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param amount the transaction amount
+	 * @param currentTimeStamp the current time stamp
+	 * @return true if the transaction was held, to be registered later
+	 */
+	protected boolean hold(final long timeStamp, final double amount, final long currentTimeStamp) {
+
+		return timeStamp > currentTimeStamp && futureBuffer != null && futureBuffer.hold(timeStamp, amount);
+	}
+
+	/**
+	 * Validates the transaction time stamp is not older than 60 seconds nor
+	 * in the future.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param currentTimeStamp the current time stamp
+	 */
+	public static void validateTimeStamp(final long timeStamp, final long currentTimeStamp) {
+
+		if (!isInWindow(timeStamp, currentTimeStamp)) {
+			throw new IllegalArgumentException(
+					"The transaction timestamp can not be older than 60 seconds nor in the future.");
+		}
+	}
+
+	/**
+	 * Returns whether the transaction time stamp is not older than 60 seconds
+	 * nor in the future.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param currentTimeStamp the current time stamp
+	 * @return true if the time stamp is valid
+	 */
+	public static boolean isInWindow(final long timeStamp, final long currentTimeStamp) {
+
+		return timeStamp + DEFAULT_LEASE >= currentTimeStamp && timeStamp <= currentTimeStamp;
+	}
+
+	/**
+	 * Returns the In-Memory Data Grid accessor
+	 *
+	 * @return the space accessor
+	 */
+	protected GigaSpace getGigaSpace() {
+
+		return gigaSpace;
+	}
+
+	/**
+	 * Returns the time source of the window
+	 *
+	 * @return the clock
+	 */
+	protected Clock getClock() {
 
-		return new StatisticsResult(avg, count, max, min, sum);
+		return clock;
 	}
 
 	/**
@@ -106,7 +436,7 @@ public class StatisticsService implements IStatisticsService {
 	 *            The object to convert
 	 * @return the double value of the object
 	 */
-	private double getDoubleValue(final Object object) {
+	protected static double getDoubleValue(final Object object) {
 
 		final BigDecimal bigDecimal = (BigDecimal) object;
 		return bigDecimal == null ? 0d : bigDecimal.setScale(2, RoundingMode.HALF_UP).doubleValue();
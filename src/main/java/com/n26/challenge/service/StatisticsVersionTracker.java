@@ -0,0 +1,496 @@
+package com.n26.challenge.service;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.jfr.ExpiryEvent;
+import com.n26.challenge.service.overload.OverloadSampler;
+
+/**
+ * Keeps a monotonically increasing version of the statistics state, so the
+ * clients polling the statistics can be answered without recomputing them
+ * when nothing changed.
+ * <p>
+ * The statistics only change when a transaction is registered or when one
+ * leaves the window (its time stamp plus 60 seconds is older than the
+ * current time). The version is the number of registered transactions plus
+ * the number of expired ones: the expirations are counted with a ring of
+ * one counter per millisecond of the window, advanced lazily when the
+ * version is read, so both operations are amortized constant time. A bitmap
+ * of the non empty counters finds the next expiration (for the long polling
+ * timer) a word of 64 milliseconds at a time.
+ * <p>
+ * The clients can also wait for the version to change (long polling): the
+ * waiters are completed when a transaction is registered, or by a timer set
+ * at the next expiration or at their deadline. The registrations queue at
+ * most one check of the waiters at a time, however many transactions arrive
+ * before it runs.
+ * <p>
+ * The version only tracks the transactions registered through this instance,
+ * so it only stands for the statistics when this instance is their single
+ * writer: an engine answering from memory (exact or hybrid), or an embedded
+ * space. With a shared space other nodes change the statistics without this
+ * instance knowing, so the version is only informative. The same goes while
+ * the {@link OverloadSampler} has absorbed transactions in the window: their
+ * seconds leave it as a whole, up to a second after the expirations the
+ * version counts. The version is
+ * exposed as a tag prefixed with a random epoch, so the tags of other nodes
+ * and of previous runs never match.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+public class StatisticsVersionTracker implements ITransactionObserver {
+
+	/**
+	 * The window length in milliseconds
+	 */
+	private static final long WINDOW = 60_000;
+
+	/**
+	 * The number of milliseconds a transaction can be pending to expire
+	 */
+	private static final int SLOTS = (int) WINDOW + 2;
+
+	/**
+	 * The number of transactions expiring at each millisecond, indexed by
+	 * expiration time stamp modulo {@link #SLOTS}
+	 */
+	private final long[] expirations = new long[SLOTS];
+
+	/**
+	 * The slots of {@link #expirations} with pending transactions, one bit
+	 * each, so the next expiration is found a word (64 slots) at a time
+	 */
+	private final long[] occupied = new long[(SLOTS + Long.SIZE - 1) / Long.SIZE];
+
+	/**
+	 * The maximum time (in milliseconds) a client waits for the version to
+	 * change
+	 */
+	private final long maxWait;
+
+	/**
+	 * Whether the transactions registered through this instance are all the
+	 * transactions of the statistics
+	 */
+	private final boolean exclusive;
+
+	/**
+	 * The random epoch of this instance, prefixing its tags
+	 */
+	private final String epoch = UUID.randomUUID().toString();
+
+	/**
+	 * The clients waiting for the version to change
+	 */
+	private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The timer completing the waiters at the expirations and deadlines
+	 */
+	private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		final Thread thread = new Thread(runnable, "statistics-version-timer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Whether a check of the waiters is already queued in the timer
+	 */
+	private final AtomicBoolean checkPending = new AtomicBoolean();
+
+	/**
+	 * The number of registered transactions
+	 */
+	private long registered;
+
+	/**
+	 * The number of expired transactions
+	 */
+	private long expired;
+
+	/**
+	 * The newest time stamp whose expirations were already counted
+	 */
+	private long countedUpTo = Long.MIN_VALUE;
+
+	/**
+	 * The time stamp of the next expiration check already scheduled
+	 */
+	private long scheduledExpiration = -1;
+
+	/**
+	 * The time source of the expirations and the waits
+	 */
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * The sampler absorbing the transactions over the maximum rate, if enabled
+	 */
+	private OverloadSampler overloadSampler;
+
+	/**
+	 * Tracker constructor for the single writer of the statistics
+	 *
+	 * @param maxWait the maximum time a client waits for the version to change
+	 */
+	public StatisticsVersionTracker(final long maxWait) {
+
+		this(maxWait, "exact", true);
+	}
+
+	/**
+	 * Default tracker constructor
+	 *
+	 * @param maxWait the maximum time a client waits for the version to change
+	 * @param engine the statistics engine
+	 * @param embeddedSpace whether the space is embedded in this instance
+	 */
+	@Autowired
+	public StatisticsVersionTracker(@Value("${statistics.polling.max-wait}") final long maxWait,
+			@Value("${statistics.engine}") final String engine,
+			@Value("${statistics.space.create}") final boolean embeddedSpace) {
+
+		this.maxWait = maxWait;
+		this.exclusive = embeddedSpace || "exact".equals(engine) || "hybrid".equals(engine);
+	}
+
+	/**
+	 * Sets the time source of the expirations and the waits
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
+	/**
+	 * Sets the sampler absorbing the transactions over the maximum rate
+	 *
+	 * @param overloadSampler the overload sampler
+	 */
+	@Autowired(required = false)
+	public void setOverloadSampler(final OverloadSampler overloadSampler) {
+
+		this.overloadSampler = overloadSampler;
+	}
+
+	/**
+	 * Stops the timer
+	 */
+	@PreDestroy
+	public void stop() {
+
+		timer.shutdownNow();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see ITransactionObserver#onTransaction(long, double)
+	 */
+	@Override
+	public void onTransaction(final long timeStamp, final double amount) {
+
+		record(timeStamp, clock.millis());
+		if (!waiters.isEmpty() && checkPending.compareAndSet(false, true)) {
+			// The waiters are completed out of the registering thread, by a single queued check for a burst
+			timer.execute(() -> {
+				// Cleared first, so a transaction registered during the check queues another one
+				checkPending.set(false);
+				check();
+			});
+		}
+	}
+
+	/**
+	 * Returns the current version of the statistics
+	 *
+	 * @return the version
+	 */
+	public long getVersion() {
+
+		return getVersion(clock.millis());
+	}
+
+	/**
+	 * Returns whether this instance is the single writer of the statistics
+	 * and no absorbed transaction is in the window, so an unchanged version
+	 * means unchanged statistics
+	 *
+	 * @return true if the version can be used for conditional requests
+	 */
+	public boolean isExclusive() {
+
+		return exclusive && (overloadSampler == null || !overloadSampler.hasAbsorbed(clock.millis()));
+	}
+
+	/**
+	 * Returns the tag of a version: the version prefixed with the epoch of
+	 * this instance
+	 *
+	 * @param version the version
+	 * @return the tag
+	 */
+	public String toTag(final long version) {
+
+		return epoch + "-" + version;
+	}
+
+	/**
+	 * Returns the version of a tag, quoted (as an ETag) or not.
+	 *
+	 * @param tag the tag
+	 * @return the version, or -1 if the tag isn't one of this instance
+	 */
+	public long fromTag(final String tag) {
+
+		String value = tag.trim();
+		if (value.startsWith("W/")) {
+			value = value.substring(2);
+		}
+		if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+			value = value.substring(1, value.length() - 1);
+		}
+		if (!value.startsWith(epoch + "-")) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(value.substring(epoch.length() + 1));
+		} catch (final NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Waits, up to the maximum wait time, for the version to be different
+	 * from the given one.
+	 *
+	 * @param sinceVersion the version already known by the client
+	 * @return the future with the new version, or the same one on timeout
+	 */
+	public CompletableFuture<Long> awaitChange(final long sinceVersion) {
+
+		final long version = getVersion();
+		if (version != sinceVersion || maxWait <= 0) {
+			return CompletableFuture.completedFuture(version);
+		}
+
+		final Waiter waiter = new Waiter(sinceVersion, clock.millis() + maxWait);
+		waiters.add(waiter);
+		timer.schedule(this::check, maxWait, TimeUnit.MILLISECONDS);
+		scheduleNextExpiration();
+		// A transaction could have been registered before the waiter was queued
+		check();
+		return waiter.future;
+	}
+
+	/**
+	 * Registers a transaction expiring 60 seconds (plus 1 millisecond) after
+	 * its time stamp.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param now the current time stamp
+	 */
+	synchronized void record(final long timeStamp, final long now) {
+
+		advance(now);
+		registered++;
+		final long expiration = timeStamp + WINDOW + 1;
+		if (expiration <= countedUpTo) {
+			// Already out of the window, it changes nothing but the count
+			expired++;
+		} else {
+			final int slot = slot(expiration);
+			expirations[slot]++;
+			occupied[slot / Long.SIZE] |= 1L << slot;
+		}
+	}
+
+	/**
+	 * Returns the version of the statistics at the given time.
+	 *
+	 * @param now the current time stamp
+	 * @return the version
+	 */
+	synchronized long getVersion(final long now) {
+
+		advance(now);
+		return registered + expired;
+	}
+
+	/**
+	 * Returns the time stamp of the next expiration after the given time.
+	 *
+	 * @param now the current time stamp
+	 * @return the next expiration time stamp, or -1 if there is none
+	 */
+	synchronized long nextExpiration(final long now) {
+
+		advance(now);
+		// The ring is searched from the slot after the current time to its end, and then from its start
+		final int start = slot(now + 1);
+		int slot = firstOccupied(start, SLOTS);
+		if (slot >= 0) {
+			return now + 1 + slot - start;
+		}
+		slot = firstOccupied(0, start);
+		return slot < 0 ? -1 : now + 1 + SLOTS - start + slot;
+	}
+
+	/**
+	 * Completes the waiters whose version changed or whose deadline passed
+	 */
+	void check() {
+
+		final long now = clock.millis();
+		final long version = getVersion(now);
+		final Iterator<Waiter> iterator = waiters.iterator();
+		while (iterator.hasNext()) {
+			final Waiter waiter = iterator.next();
+			if (version != waiter.sinceVersion || now >= waiter.deadline || waiter.future.isDone()) {
+				iterator.remove();
+				waiter.future.complete(version);
+			}
+		}
+	}
+
+	/**
+	 * Schedules a check at the next expiration, unless one is already
+	 * scheduled at that time or before
+	 */
+	private synchronized void scheduleNextExpiration() {
+
+		final long now = clock.millis();
+		final long next = nextExpiration(now);
+		if (next < 0 || scheduledExpiration >= now && scheduledExpiration <= next) {
+			return;
+		}
+		scheduledExpiration = next;
+		timer.schedule(() -> {
+			check();
+			if (!waiters.isEmpty()) {
+				scheduleNextExpiration();
+			}
+		}, next - now, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Counts the transactions expired up to the given time.
+	 *
+	 * @param now the current time stamp
+	 */
+	private void advance(final long now) {
+
+		if (countedUpTo == Long.MIN_VALUE) {
+			countedUpTo = now;
+			return;
+		}
+		final long from = Math.max(countedUpTo + 1, now - SLOTS + 1);
+		if (from > now) {
+			return;
+		}
+		final ExpiryEvent event = new ExpiryEvent();
+		event.begin();
+		final long counted = expired;
+		for (long timeStamp = from; timeStamp <= now; timeStamp++) {
+			final int slot = slot(timeStamp);
+			expired += expirations[slot];
+			expirations[slot] = 0;
+			occupied[slot / Long.SIZE] &= ~(1L << slot);
+		}
+		countedUpTo = Math.max(countedUpTo, now);
+		event.commit(ExpiryEvent.VERSION_TRACKER, expired - counted, now - from + 1);
+	}
+
+	/**
+	 * Returns the first slot with pending transactions in a range
+	 *
+	 * @param from the first slot of the range (inclusive)
+	 * @param to the last slot of the range (exclusive)
+	 * @return the slot, or -1 if there is none
+	 */
+	private int firstOccupied(final int from, final int to) {
+
+		if (from >= to) {
+			return -1;
+		}
+		int word = from / Long.SIZE;
+		// The bits before the first slot are masked out of its word
+		long bits = occupied[word] & -1L << from;
+		while (bits == 0) {
+			word++;
+			if (word * Long.SIZE >= to) {
+				return -1;
+			}
+			bits = occupied[word];
+		}
+		final int slot = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+		return slot < to ? slot : -1;
+	}
+
+	/**
+	 * Returns the ring slot of a time stamp
+	 *
+	 * @param timeStamp the time stamp
+	 * @return the slot
+	 */
+	private static int slot(final long timeStamp) {
+
+		return (int) Math.floorMod(timeStamp, (long) SLOTS);
+	}
+
+	/**
+	 * A client waiting for the version to change
+	 */
+	private static final class Waiter {
+
+		/**
+		 * The version known by the client
+		 */
+		private final long sinceVersion;
+
+		/**
+		 * The time stamp when the client stops waiting
+		 */
+		private final long deadline;
+
+		/**
+		 * The future completed with the new version
+		 */
+		private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+		/**
+		 * Creates a waiter.
+		 *
+		 * @param sinceVersion the version known by the client
+		 * @param deadline the time stamp when the client stops waiting
+		 */
+		private Waiter(final long sinceVersion, final long deadline) {
+
+			this.sinceVersion = sinceVersion;
+			this.deadline = deadline;
+		}
+
+	}
+
+}
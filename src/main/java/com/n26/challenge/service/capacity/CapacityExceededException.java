@@ -0,0 +1,28 @@
+package com.n26.challenge.service.capacity;
+
+/**
+ * Exception thrown when a transaction is rejected because the space already
+ * holds the maximum number of live transactions.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class CapacityExceededException extends RuntimeException {
+
+	/**
+	 * Serial version UID
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates the exception.
+	 *
+	 * @param message the exception message
+	 */
+	public CapacityExceededException(final String message) {
+
+		super(message);
+	}
+
+}
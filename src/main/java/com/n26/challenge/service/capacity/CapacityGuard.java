@@ -0,0 +1,266 @@
+package com.n26.challenge.service.capacity;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Keeps the number of transactions stored in the space under a configured
+ * ceiling, deciding for each new transaction whether it's stored, only
+ * summarized in memory or rejected, according to the {@link OverflowPolicy}.
+ * The ceiling is a hard cap: over it, no policy stores a transaction.
+ * <p>
+ * The live transactions are counted per second of the window, as a ring of
+ * counters released when their whole second is older than 60 seconds (the
+ * space leases expire a bit earlier, so the count never falls short). The
+ * ceiling is the maximum number of entries, or the maximum number of bytes
+ * divided by the estimated size of an entry, whichever is lower. The
+ * footprint and the overflow counters are published as metrics.
+ * <p>
+ * The guard is not created with the replay clock: the counters would be
+ * released on the replay clock while the space leases expire on the system
+ * one, so a replay faster than real time would store far more than the
+ * ceiling (and a slower one would reject transactions well under it). The
+ * replays store without a cap, bounded only by the leases.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnExpression("!'${statistics.clock.mode}'.trim().equalsIgnoreCase('replay')")
+public class CapacityGuard implements PublicMetrics {
+
+	/**
+	 * The admission of a transaction
+	 */
+	public enum Admission {
+
+		/**
+		 * The transaction is stored in the space
+		 */
+		STORE,
+
+		/**
+		 * The transaction is only added to the in-memory summaries
+		 */
+		SUMMARIZE
+
+	}
+
+	/**
+	 * The maximum number of live transactions in the space
+	 */
+	private final long maxEntries;
+
+	/**
+	 * The estimated size in bytes of a transaction in the space
+	 */
+	private final long entryBytes;
+
+	/**
+	 * The policy applied over the ceiling
+	 */
+	private final OverflowPolicy policy;
+
+	/**
+	 * One out of this number of transactions is summarized over the ceiling
+	 * with the {@link OverflowPolicy#SAMPLE} policy
+	 */
+	private final int sampleRate;
+
+	/**
+	 * The number of stored transactions of each second, indexed by epoch
+	 * second modulo {@link SlicedWindow#SLOTS}
+	 */
+	private final long[] counts = new long[SlicedWindow.SLOTS];
+
+	/**
+	 * The epoch second of each counter
+	 */
+	private final long[] seconds = new long[SlicedWindow.SLOTS];
+
+	/**
+	 * The number of live stored transactions
+	 */
+	private long liveEntries;
+
+	/**
+	 * The number of transactions registered over the ceiling
+	 */
+	private long overflowed;
+
+	/**
+	 * The number of rejected transactions
+	 */
+	private long rejected;
+
+	/**
+	 * The number of transactions only summarized
+	 */
+	private long summarized;
+
+	/**
+	 * The time source of the metrics
+	 */
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Default capacity guard constructor
+	 *
+	 * @param maxEntries the maximum number of live transactions in the space
+	 * @param maxBytes the maximum estimated size of the live transactions
+	 * @param entryBytes the estimated size of a transaction in the space
+	 * @param policy the name of the policy applied over the ceiling
+	 * @param sampleRate one out of this number of transactions is summarized
+	 *            over the ceiling with the sample policy
+	 */
+	@Autowired
+	public CapacityGuard(@Value("${statistics.capacity.max-entries}") final long maxEntries,
+			@Value("${statistics.capacity.max-bytes}") final long maxBytes,
+			@Value("${statistics.capacity.entry-bytes}") final long entryBytes,
+			@Value("${statistics.capacity.policy}") final String policy,
+			@Value("${statistics.capacity.sample-rate}") final int sampleRate) {
+
+		if (maxEntries <= 0 || maxBytes <= 0 || entryBytes <= 0 || sampleRate <= 0) {
+			throw new IllegalArgumentException("The capacity limits and the sample rate must be positive");
+		}
+		this.maxEntries = Math.min(maxEntries, maxBytes / entryBytes);
+		this.entryBytes = entryBytes;
+		this.policy = OverflowPolicy.fromName(policy);
+		this.sampleRate = sampleRate;
+		for (int i = 0; i < SlicedWindow.SLOTS; i++) {
+			seconds[i] = -1;
+		}
+	}
+
+	/**
+	 * Sets the time source of the metrics
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
+	/**
+	 * Decides whether a transaction is stored, summarized or rejected, and
+	 * counts it if it's stored.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param now the current time stamp
+	 * @param canSummarize whether the engine can register the transaction
+	 *            without storing it; if not, the overflow is rejected
+	 * @return the admission of the transaction
+	 * @throws CapacityExceededException if the transaction is rejected
+	 */
+	public synchronized Admission admit(final long timeStamp, final long now, final boolean canSummarize) {
+
+		advance(now);
+		if (liveEntries >= maxEntries) {
+			overflowed++;
+			// Nothing is stored over the ceiling, the sample policy only summarizes one out of every N
+			if (policy == OverflowPolicy.REJECT || !canSummarize
+					|| policy == OverflowPolicy.SAMPLE && (overflowed - 1) % sampleRate != 0) {
+				rejected++;
+				throw new CapacityExceededException(
+						"The maximum number of live transactions (" + maxEntries + ") was reached");
+			}
+			summarized++;
+			return Admission.SUMMARIZE;
+		}
+
+		final long second = SlicedWindow.second(timeStamp);
+		final int index = (int) Math.floorMod(second, (long) SlicedWindow.SLOTS);
+		if (seconds[index] != second) {
+			liveEntries -= counts[index];
+			counts[index] = 0;
+			seconds[index] = second;
+		}
+		counts[index]++;
+		liveEntries++;
+		return Admission.STORE;
+	}
+
+	/**
+	 * Returns the number of live transactions stored in the space
+	 *
+	 * @param now the current time stamp
+	 * @return the live entries
+	 */
+	public synchronized long getLiveEntries(final long now) {
+
+		advance(now);
+		return liveEntries;
+	}
+
+	/**
+	 * Returns the maximum number of live transactions in the space
+	 *
+	 * @return the effective ceiling
+	 */
+	public long getMaxEntries() {
+
+		return maxEntries;
+	}
+
+	/**
+	 * Returns the policy applied over the ceiling
+	 *
+	 * @return the overflow policy
+	 */
+	public OverflowPolicy getPolicy() {
+
+		return policy;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see PublicMetrics#metrics()
+	 */
+	@Override
+	public synchronized Collection<Metric<?>> metrics() {
+
+		final long live = getLiveEntries(clock.millis());
+		final List<Metric<?>> metrics = new ArrayList<>();
+		metrics.add(new Metric<>("statistics.capacity.entries", live));
+		metrics.add(new Metric<>("statistics.capacity.bytes", live * entryBytes));
+		metrics.add(new Metric<>("statistics.capacity.max-entries", maxEntries));
+		metrics.add(new Metric<>("statistics.capacity.usage", (double) live / maxEntries));
+		metrics.add(new Metric<>("statistics.capacity.overflowing", live >= maxEntries ? 1 : 0));
+		metrics.add(new Metric<>("statistics.capacity.overflowed", overflowed));
+		metrics.add(new Metric<>("statistics.capacity.rejected", rejected));
+		metrics.add(new Metric<>("statistics.capacity.summarized", summarized));
+		return metrics;
+	}
+
+	/**
+	 * Releases the counters of the seconds that left the window.
+	 *
+	 * @param now the current time stamp
+	 */
+	private void advance(final long now) {
+
+		for (int index = 0; index < SlicedWindow.SLOTS; index++) {
+			if (seconds[index] != -1 && !SlicedWindow.isAlive(seconds[index], now)) {
+				liveEntries -= counts[index];
+				counts[index] = 0;
+				seconds[index] = -1;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.n26.challenge.service.capacity;
+
+import java.util.Locale;
+
+/**
+ * What to do with the transactions registered while the space already holds
+ * the maximum number of live transactions.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * The transaction is rejected (HTTP 503)
+	 */
+	REJECT,
+
+	/**
+	 * The transaction is only added to in-memory per-second summaries, it's
+	 * not written to the space
+	 */
+	AGGREGATE_ONLY,
+
+	/**
+	 * One out of every N transactions is only added to the in-memory
+	 * summaries, and the rest are rejected (HTTP 503), shedding most of the
+	 * overflow
+	 */
+	SAMPLE;
+
+	/**
+	 * Returns the policy with the given name, ignoring the case and accepting
+	 * dashes instead of underscores.
+	 *
+	 * @param name the policy name
+	 * @return the overflow policy
+	 */
+	public static OverflowPolicy fromName(final String name) {
+
+		return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+	}
+
+}
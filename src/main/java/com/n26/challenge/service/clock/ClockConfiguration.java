@@ -0,0 +1,45 @@
+package com.n26.challenge.service.clock;
+
+import java.time.Clock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the time source of the window, validation and expiry
+ * logic, according to the configured {@link ClockMode}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Configuration
+public class ClockConfiguration {
+
+	/**
+	 * Creates the clock. The coarse clock is closed (its refreshing thread
+	 * stopped) with the context.
+	 *
+	 * @param mode the name of the clock mode
+	 * @param resolution the refresh interval of the coarse clock in
+	 *            milliseconds
+	 * @param speed the speed of the replay clock, 0 to step it
+	 * @return the clock
+	 */
+	@Bean
+	public Clock clock(@Value("${statistics.clock.mode}") final String mode,
+			@Value("${statistics.clock.resolution}") final long resolution,
+			@Value("${statistics.replay.speed}") final double speed) {
+
+		switch (ClockMode.fromName(mode)) {
+		case COARSE:
+			return new CoarseClock(resolution);
+		case REPLAY:
+			return new ReplayClock(speed);
+		default:
+			return Clock.systemUTC();
+		}
+	}
+
+}
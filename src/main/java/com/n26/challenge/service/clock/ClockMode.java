@@ -0,0 +1,42 @@
+package com.n26.challenge.service.clock;
+
+import java.util.Locale;
+
+/**
+ * The time sources of the window, validation and expiry logic.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public enum ClockMode {
+
+	/**
+	 * The system clock, read on every call
+	 */
+	SYSTEM,
+
+	/**
+	 * The system clock, cached and refreshed by a background thread at a
+	 * fixed resolution, so reading it is a volatile read
+	 */
+	COARSE,
+
+	/**
+	 * A clock starting at the first replayed transaction and running faster
+	 * than the system one (see {@link ReplayClock})
+	 */
+	REPLAY;
+
+	/**
+	 * Returns the mode with the given name, ignoring the case.
+	 *
+	 * @param name the mode name
+	 * @return the clock mode
+	 */
+	public static ClockMode fromName(final String name) {
+
+		return valueOf(name.trim().toUpperCase(Locale.ROOT));
+	}
+
+}
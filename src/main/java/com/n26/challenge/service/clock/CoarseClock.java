@@ -0,0 +1,131 @@
+package com.n26.challenge.service.clock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock caching the system time, refreshed by a daemon thread every
+ * resolution milliseconds. Reading it costs a volatile read instead of a
+ * system call, at the price of lagging up to the resolution behind the
+ * system clock, which is negligible for a 60 seconds window.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class CoarseClock extends Clock implements AutoCloseable {
+
+	/**
+	 * The refresh interval in milliseconds
+	 */
+	private final long resolution;
+
+	/**
+	 * The refreshing thread
+	 */
+	private final Thread thread;
+
+	/**
+	 * The cached epoch milliseconds
+	 */
+	private volatile long millis = System.currentTimeMillis();
+
+	/**
+	 * Creates the clock and starts refreshing it.
+	 *
+	 * @param resolution the refresh interval in milliseconds
+	 */
+	public CoarseClock(final long resolution) {
+
+		if (resolution <= 0) {
+			throw new IllegalArgumentException("The clock resolution must be positive");
+		}
+		this.resolution = resolution;
+		this.thread = new Thread(this::refresh, "coarse-clock");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see Clock#millis()
+	 */
+	@Override
+	public long millis() {
+
+		return millis;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see Clock#instant()
+	 */
+	@Override
+	public Instant instant() {
+
+		return Instant.ofEpochMilli(millis);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see Clock#getZone()
+	 */
+	@Override
+	public ZoneId getZone() {
+
+		return ZoneOffset.UTC;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The zone is irrelevant to the statistics, this clock is always in UTC.
+	 *
+	 * @see Clock#withZone(ZoneId)
+	 */
+	@Override
+	public Clock withZone(final ZoneId zone) {
+
+		return this;
+	}
+
+	/**
+	 * Returns the refresh interval
+	 *
+	 * @return the resolution in milliseconds
+	 */
+	public long getResolution() {
+
+		return resolution;
+	}
+
+	/**
+	 * Stops refreshing the clock
+	 */
+	@Override
+	public void close() {
+
+		thread.interrupt();
+	}
+
+	/**
+	 * Refreshes the cached time until interrupted
+	 */
+	private void refresh() {
+
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				millis = System.currentTimeMillis();
+				Thread.sleep(resolution);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.n26.challenge.service.clock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clock for replaying recorded transactions faster than real time. Starting
+ * at the current time, it runs speed times faster than the system clock; with
+ * a speed of 0 it's stepped instead, only moving forward when the replay
+ * reaches a later transaction, so a replay gives the same statistics on every
+ * run.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ReplayClock extends Clock {
+
+	/**
+	 * The number of clock milliseconds per real millisecond, 0 if stepped
+	 */
+	private final double speed;
+
+	/**
+	 * The nano time at the origin
+	 */
+	private final long originNanos;
+
+	/**
+	 * The clock time at the origin, or the current one if stepped
+	 */
+	private volatile long originMillis;
+
+	/**
+	 * Creates a clock starting at the current time.
+	 *
+	 * @param speed the number of clock milliseconds per real millisecond, 0
+	 *            to step it
+	 */
+	public ReplayClock(final double speed) {
+
+		if (speed < 0) {
+			throw new IllegalArgumentException("The replay speed can't be negative");
+		}
+		this.speed = speed;
+		this.originNanos = System.nanoTime();
+		this.originMillis = System.currentTimeMillis();
+	}
+
+	/**
+	 * Waits until the clock reaches the given time or, if it's stepped, moves
+	 * it forward to that time. An earlier time returns straight away.
+	 *
+	 * @param epochMillis the time to reach
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void reach(final long epochMillis) throws InterruptedException {
+
+		if (speed == 0) {
+			synchronized (this) {
+				originMillis = Math.max(originMillis, epochMillis);
+			}
+			return;
+		}
+		final long ahead = epochMillis - millis();
+		if (ahead > 0) {
+			TimeUnit.NANOSECONDS.sleep((long) Math.ceil(ahead * 1_000_000d / speed));
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see Clock#millis()
+	 */
+	@Override
+	public long millis() {
+
+		if (speed == 0) {
+			return originMillis;
+		}
+		return originMillis + (long) ((System.nanoTime() - originNanos) / 1_000_000d * speed);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see Clock#instant()
+	 */
+	@Override
+	public Instant instant() {
+
+		return Instant.ofEpochMilli(millis());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see Clock#getZone()
+	 */
+	@Override
+	public ZoneId getZone() {
+
+		return ZoneOffset.UTC;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The zone is irrelevant to the statistics, this clock is always in UTC.
+	 *
+	 * @see Clock#withZone(ZoneId)
+	 */
+	@Override
+	public Clock withZone(final ZoneId zone) {
+
+		return this;
+	}
+
+	/**
+	 * Returns the number of clock milliseconds per real millisecond
+	 *
+	 * @return the speed, 0 if stepped
+	 */
+	public double getSpeed() {
+
+		return speed;
+	}
+
+}
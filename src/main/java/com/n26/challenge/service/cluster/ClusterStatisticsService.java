@@ -0,0 +1,262 @@
+package com.n26.challenge.service.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.n26.challenge.api.model.ClusterStatisticsResult;
+import com.n26.challenge.api.model.NodeSummary;
+import com.n26.challenge.model.SlotSummary;
+import com.n26.challenge.service.ITransactionObserver;
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Service that builds cluster-wide statistics when several instances run with
+ * their own embedded space.
+ * <p>
+ * Each node keeps a {@link SlicedWindow} with the transactions it registers
+ * and periodically publishes it, as a {@link NodeSummary}, to its peers. The
+ * cluster statistics are the merge of the local window and the last summary
+ * received from each peer, so the traffic depends on the number of nodes and
+ * the publication interval, not on the number of transactions. Summaries
+ * older than the maximum staleness are left out and reported, and forgotten
+ * once they are {@link #EVICTION_FACTOR} times older, so the nodes that left
+ * the cluster (or restarted with another identifier) don't pile up. Only
+ * the summaries of the configured peer identifiers are accepted.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.cluster.enabled", havingValue = "true")
+public class ClusterStatisticsService implements ITransactionObserver {
+
+	/**
+	 * The class logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ClusterStatisticsService.class);
+
+	/**
+	 * The number of times the maximum staleness a peer summary is kept
+	 */
+	static final long EVICTION_FACTOR = 10;
+
+	/**
+	 * The identifier of this node
+	 */
+	private final String nodeId;
+
+	/**
+	 * The base URLs of the peers
+	 */
+	private final String[] peers;
+
+	/**
+	 * The identifiers of the peers whose summaries are accepted
+	 */
+	private final Set<String> peerIds;
+
+	/**
+	 * The publication interval in milliseconds
+	 */
+	private final long publishInterval;
+
+	/**
+	 * The maximum age (in milliseconds) of a peer summary to be included
+	 */
+	private final long maxStaleness;
+
+	/**
+	 * The window with the transactions registered on this node
+	 */
+	private final SlicedWindow localWindow = new SlicedWindow();
+
+	/**
+	 * The last summary received from each peer, by node identifier
+	 */
+	private final Map<String, NodeSummary> peerSummaries = new ConcurrentHashMap<>();
+
+	/**
+	 * The HTTP client used to publish the summaries
+	 */
+	private final RestTemplate restTemplate;
+
+	/**
+	 * The publication scheduler
+	 */
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Default service constructor
+	 *
+	 * @param nodeId the identifier of this node
+	 * @param peers the base URLs of the peers
+	 * @param peerIds the identifiers of the peers whose summaries are accepted
+	 * @param publishInterval the publication interval in milliseconds
+	 * @param maxStaleness the maximum age (in milliseconds) of a peer summary
+	 *            to be included
+	 */
+	@Autowired
+	public ClusterStatisticsService(@Value("${statistics.cluster.node-id}") final String nodeId,
+			@Value("${statistics.cluster.peers}") final String[] peers,
+			@Value("${statistics.cluster.peer-ids}") final String[] peerIds,
+			@Value("${statistics.cluster.publish-interval}") final long publishInterval,
+			@Value("${statistics.cluster.max-staleness}") final long maxStaleness) {
+
+		this.nodeId = nodeId;
+		this.peers = peers;
+		this.peerIds = new HashSet<>(Arrays.asList(peerIds));
+		this.publishInterval = publishInterval;
+		this.maxStaleness = maxStaleness;
+
+		final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+		requestFactory.setConnectTimeout((int) publishInterval);
+		requestFactory.setReadTimeout((int) publishInterval);
+		this.restTemplate = new RestTemplate(requestFactory);
+	}
+
+	/**
+	 * Starts publishing the local window to the peers
+	 */
+	@PostConstruct
+	public void start() {
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "statistics-cluster-publisher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::publish, publishInterval, publishInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops publishing the local window
+	 */
+	@PreDestroy
+	public void stop() {
+
+		scheduler.shutdownNow();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see ITransactionObserver#onTransaction(long, double)
+	 */
+	@Override
+	public void onTransaction(final long timeStamp, final double amount) {
+
+		localWindow.record(timeStamp, amount, System.currentTimeMillis());
+	}
+
+	/**
+	 * Returns the summary of the local window
+	 *
+	 * @return the node summary
+	 */
+	public NodeSummary getLocalSummary() {
+
+		final long now = System.currentTimeMillis();
+		return new NodeSummary(nodeId, now, localWindow.snapshot(now));
+	}
+
+	/**
+	 * Registers the summary published by a peer, keeping only the newest one
+	 * per node.
+	 *
+	 * @param summary the peer summary
+	 * @throws IllegalArgumentException if the summary doesn't come from one
+	 *             of the configured peers
+	 */
+	public void receive(final NodeSummary summary) {
+
+		if (summary == null || summary.getNodeId() == null || nodeId.equals(summary.getNodeId())) {
+			throw new IllegalArgumentException("The node summary must come from a different, identified node");
+		}
+		if (!peerIds.contains(summary.getNodeId())) {
+			throw new IllegalArgumentException("The node summary must come from a configured peer");
+		}
+		peerSummaries.merge(summary.getNodeId(), summary,
+				(current, received) -> received.getPublishedAt() >= current.getPublishedAt() ? received : current);
+	}
+
+	/**
+	 * Returns the statistics merged from the local window and the summaries
+	 * of the peers that are not older than the maximum staleness.
+	 *
+	 * @return the cluster statistics
+	 */
+	public ClusterStatisticsResult getClusterStatistics() {
+
+		final long now = System.currentTimeMillis();
+		evictStale(now);
+		final List<SlotSummary> slots = new ArrayList<>(localWindow.snapshot(now));
+		final List<String> staleNodes = new ArrayList<>();
+		int nodes = 1;
+		long staleness = 0;
+
+		for (final NodeSummary summary : peerSummaries.values()) {
+			final long age = Math.max(now - summary.getPublishedAt(), 0);
+			if (age > maxStaleness) {
+				staleNodes.add(summary.getNodeId());
+				continue;
+			}
+			slots.addAll(summary.getSlots());
+			staleness = Math.max(staleness, age);
+			nodes++;
+		}
+
+		return new ClusterStatisticsResult(SlicedWindow.toStatisticsResult(SlicedWindow.merge(slots, now)), nodes,
+				staleness, staleNodes);
+	}
+
+	/**
+	 * Publishes the local window to all the peers. Failures are logged and
+	 * the peer will eventually be reported as stale by the others.
+	 */
+	void publish() {
+
+		final NodeSummary summary = getLocalSummary();
+		evictStale(summary.getPublishedAt());
+		for (final String peer : peers) {
+			try {
+				restTemplate.postForEntity(peer + "/cluster/summaries", summary, Void.class);
+			} catch (final RestClientException e) {
+				LOGGER.debug("Could not publish the window summary to {}: {}", peer, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Forgets the peer summaries older than {@link #EVICTION_FACTOR} times the
+	 * maximum staleness. A newer summary received meanwhile is kept.
+	 *
+	 * @param now the current time stamp
+	 */
+	private void evictStale(final long now) {
+
+		peerSummaries.values().removeIf(summary -> now - summary.getPublishedAt() > EVICTION_FACTOR * maxStaleness);
+	}
+
+}
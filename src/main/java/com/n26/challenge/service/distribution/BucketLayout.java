@@ -0,0 +1,89 @@
+package com.n26.challenge.service.distribution;
+
+import java.util.Arrays;
+
+/**
+ * Log-scale layout of amount buckets. The first bucket holds the amounts
+ * lower than the first bound (including zero and negative amounts), each
+ * following bound is the previous one multiplied by the growth factor, and
+ * the last bucket holds the amounts greater than or equal to the last bound.
+ * <p>
+ * The layout is immutable, so it can be shared by all the slices of a
+ * window.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class BucketLayout {
+
+	/**
+	 * The lower bound of each bucket but the first one, ascending
+	 */
+	private final double[] bounds;
+
+	/**
+	 * Creates a log-scale layout.
+	 *
+	 * @param firstBound the upper bound (exclusive) of the first bucket
+	 * @param growthFactor the ratio between consecutive bounds
+	 * @param buckets the number of buckets
+	 */
+	public BucketLayout(final double firstBound, final double growthFactor, final int buckets) {
+
+		if (firstBound <= 0 || growthFactor <= 1 || buckets < 2) {
+			throw new IllegalArgumentException(
+					"The first bound must be positive, the growth factor greater than 1 and there must be 2 buckets or more");
+		}
+		bounds = new double[buckets - 1];
+		for (int i = 0; i < bounds.length; i++) {
+			bounds[i] = firstBound * Math.pow(growthFactor, i);
+		}
+	}
+
+	/**
+	 * Returns the bucket of an amount, with a binary search over the bounds.
+	 *
+	 * @param amount the amount
+	 * @return the bucket index
+	 */
+	public int bucketOf(final double amount) {
+
+		final int position = Arrays.binarySearch(bounds, amount);
+		// An amount equal to a bound belongs to the bucket starting there
+		return position >= 0 ? position + 1 : -position - 1;
+	}
+
+	/**
+	 * Returns the number of buckets
+	 *
+	 * @return the number of buckets
+	 */
+	public int size() {
+
+		return bounds.length + 1;
+	}
+
+	/**
+	 * Returns the lower bound (inclusive) of a bucket
+	 *
+	 * @param bucket the bucket index
+	 * @return the lower bound, or null for the first bucket (unbounded)
+	 */
+	public Double lowerBound(final int bucket) {
+
+		return bucket == 0 ? null : bounds[bucket - 1];
+	}
+
+	/**
+	 * Returns the upper bound (exclusive) of a bucket
+	 *
+	 * @param bucket the bucket index
+	 * @return the upper bound, or null for the last bucket (unbounded)
+	 */
+	public Double upperBound(final int bucket) {
+
+		return bucket == bounds.length ? null : bounds[bucket];
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.n26.challenge.service.distribution;
+
+/**
+ * Fenwick (binary indexed) tree keeping the count and the total amount (in
+ * cents) of the transactions of each quantized amount bucket. Updating a
+ * bucket, the prefix sums and finding the bucket of the k-th transaction are
+ * logarithmic time operations.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class FenwickTree {
+
+	/**
+	 * The partial counts (1-based)
+	 */
+	private final long[] counts;
+
+	/**
+	 * The partial sums in cents (1-based)
+	 */
+	private final long[] sums;
+
+	/**
+	 * The highest power of 2 not greater than the size
+	 */
+	private final int highestBit;
+
+	/**
+	 * Creates an empty tree.
+	 *
+	 * @param size the number of buckets
+	 */
+	public FenwickTree(final int size) {
+
+		counts = new long[size + 1];
+		sums = new long[size + 1];
+		highestBit = Integer.highestOneBit(size);
+	}
+
+	/**
+	 * Adds (or, with negative values, subtracts) transactions to a bucket.
+	 *
+	 * @param bucket the bucket index (0-based)
+	 * @param count the number of transactions
+	 * @param cents the total amount in cents
+	 */
+	public void add(final int bucket, final long count, final long cents) {
+
+		for (int i = bucket + 1; i < counts.length; i += i & -i) {
+			counts[i] += count;
+			sums[i] += cents;
+		}
+	}
+
+	/**
+	 * Returns the number of transactions of the buckets up to the given one
+	 *
+	 * @param bucket the last bucket included (0-based), -1 for none
+	 * @return the count
+	 */
+	public long prefixCount(final int bucket) {
+
+		long count = 0;
+		for (int i = bucket + 1; i > 0; i -= i & -i) {
+			count += counts[i];
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the total amount (in cents) of the buckets up to the given one
+	 *
+	 * @param bucket the last bucket included (0-based), -1 for none
+	 * @return the sum in cents
+	 */
+	public long prefixSum(final int bucket) {
+
+		long sum = 0;
+		for (int i = bucket + 1; i > 0; i -= i & -i) {
+			sum += sums[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns the bucket of the k-th transaction in amount order, descending
+	 * the tree one bit at a time.
+	 *
+	 * @param rank the 1-based rank of the transaction
+	 * @return the bucket index (0-based)
+	 */
+	public int bucketOfRank(final long rank) {
+
+		int position = 0;
+		long remaining = rank;
+		for (int bit = highestBit; bit > 0; bit >>= 1) {
+			final int next = position + bit;
+			if (next < counts.length && counts[next] < remaining) {
+				position = next;
+				remaining -= counts[next];
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * Returns the number of buckets
+	 *
+	 * @return the size
+	 */
+	public int size() {
+
+		return counts.length - 1;
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.n26.challenge.service.distribution;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.api.model.HistogramBucket;
+import com.n26.challenge.api.model.HistogramResult;
+import com.n26.challenge.service.ITransactionObserver;
+
+/**
+ * Service keeping the distribution of the transactions' amounts of the last
+ * 60 seconds in a {@link HistogramWindow}, fed with every registered
+ * transaction whatever the statistics engine is. The window is locked on each
+ * registration, so the service is only created when the histogram is
+ * enabled.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.histogram.enabled", havingValue = "true")
+public class HistogramService implements ITransactionObserver {
+
+	/**
+	 * The window with the amounts' distribution
+	 */
+	private final HistogramWindow window;
+
+	/**
+	 * The time source of the window
+	 */
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Default service constructor
+	 *
+	 * @param firstBound the upper bound (exclusive) of the first bucket
+	 * @param growthFactor the ratio between consecutive bucket bounds
+	 * @param buckets the number of buckets
+	 */
+	@Autowired
+	public HistogramService(@Value("${statistics.histogram.first-bound}") final double firstBound,
+			@Value("${statistics.histogram.growth-factor}") final double growthFactor,
+			@Value("${statistics.histogram.buckets}") final int buckets) {
+
+		this.window = new HistogramWindow(new BucketLayout(firstBound, growthFactor, buckets));
+	}
+
+	/**
+	 * Sets the time source of the window
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see ITransactionObserver#onTransaction(long, double)
+	 */
+	@Override
+	public void onTransaction(final long timeStamp, final double amount) {
+
+		window.record(timeStamp, amount, clock.millis());
+	}
+
+	/**
+	 * Returns the histogram of the transactions alive in the window
+	 *
+	 * @return the histogram result
+	 */
+	public HistogramResult getHistogram() {
+
+		final long[] counts = window.histogram(clock.millis());
+		final BucketLayout layout = window.getLayout();
+		final List<HistogramBucket> buckets = new ArrayList<>(counts.length);
+		long total = 0;
+		for (int bucket = 0; bucket < counts.length; bucket++) {
+			buckets.add(new HistogramBucket(layout.lowerBound(bucket), layout.upperBound(bucket), counts[bucket]));
+			total += counts[bucket];
+		}
+		return new HistogramResult(total, buckets);
+	}
+
+}
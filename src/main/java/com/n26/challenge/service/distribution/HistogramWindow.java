@@ -0,0 +1,120 @@
+package com.n26.challenge.service.distribution;
+
+import java.util.Arrays;
+
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Sliding window of the last 60 seconds of transactions' amount
+ * distribution, kept as a ring of per-second slices with one counter per
+ * bucket of a {@link BucketLayout}.
+ * <p>
+ * Registering a transaction costs a binary search over the bounds, and the
+ * histogram of the window costs one addition per bucket and slice, regardless
+ * of the number of transactions. The memory is fixed: {@link SlicedWindow#SLOTS}
+ * arrays of one long per bucket. As in {@link SlicedWindow}, a transaction
+ * stays in the window until the whole second it belongs to is older than 60
+ * seconds.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class HistogramWindow {
+
+	/**
+	 * The bucket layout
+	 */
+	private final BucketLayout layout;
+
+	/**
+	 * The bucket counters of each slice, indexed by epoch second modulo
+	 * {@link SlicedWindow#SLOTS}
+	 */
+	private final long[][] counts;
+
+	/**
+	 * The epoch second of each slice
+	 */
+	private final long[] seconds = new long[SlicedWindow.SLOTS];
+
+	/**
+	 * Creates an empty window.
+	 *
+	 * @param layout the bucket layout
+	 */
+	public HistogramWindow(final BucketLayout layout) {
+
+		this.layout = layout;
+		this.counts = new long[SlicedWindow.SLOTS][layout.size()];
+		Arrays.fill(seconds, -1);
+	}
+
+	/**
+	 * Registers a transaction into the window.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param amount the transaction amount
+	 * @param now the current time stamp
+	 * @return false if the transaction is out of the window and was ignored
+	 */
+	public synchronized boolean record(final long timeStamp, final double amount, final long now) {
+
+		final long second = SlicedWindow.second(timeStamp);
+		if (!SlicedWindow.isAlive(second, now) || timeStamp > now) {
+			return false;
+		}
+		final int index = index(second);
+		if (seconds[index] != second) {
+			// Recycles the slice of an expired second
+			Arrays.fill(counts[index], 0);
+			seconds[index] = second;
+		}
+		counts[index][layout.bucketOf(amount)]++;
+		return true;
+	}
+
+	/**
+	 * Returns the number of transactions alive in each bucket.
+	 *
+	 * @param now the current time stamp
+	 * @return the counts, indexed by bucket
+	 */
+	public synchronized long[] histogram(final long now) {
+
+		final long[] histogram = new long[layout.size()];
+		final long current = SlicedWindow.second(now);
+		for (long second = current - SlicedWindow.SLOTS + 1; second <= current; second++) {
+			final int index = index(second);
+			if (seconds[index] == second && SlicedWindow.isAlive(second, now)) {
+				final long[] slice = counts[index];
+				for (int bucket = 0; bucket < histogram.length; bucket++) {
+					histogram[bucket] += slice[bucket];
+				}
+			}
+		}
+		return histogram;
+	}
+
+	/**
+	 * Returns the bucket layout
+	 *
+	 * @return the layout
+	 */
+	public BucketLayout getLayout() {
+
+		return layout;
+	}
+
+	/**
+	 * Returns the ring index of a second
+	 *
+	 * @param second the epoch second
+	 * @return the index
+	 */
+	private static int index(final long second) {
+
+		return (int) Math.floorMod(second, (long) SlicedWindow.SLOTS);
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.n26.challenge.service.distribution;
+
+import java.time.Clock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.api.model.RangeStatisticsResult;
+import com.n26.challenge.service.ITransactionObserver;
+import com.n26.challenge.service.window.ExactSlidingWindow;
+
+/**
+ * Service answering the statistics of the transactions of the last 60
+ * seconds whose amount is in a range, from a {@link RangeWindow} fed with
+ * every registered transaction whatever the statistics engine is. The window
+ * is locked on each registration, so the service is only created when the
+ * range statistics are enabled.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.range.enabled", havingValue = "true")
+public class RangeStatisticsService implements ITransactionObserver {
+
+	/**
+	 * The window indexed by amount
+	 */
+	private final RangeWindow window;
+
+	/**
+	 * The time source of the window
+	 */
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Default service constructor
+	 *
+	 * @param resolution the width of the amount buckets
+	 * @param maxAmount the lower bound of the last amount bucket
+	 */
+	@Autowired
+	public RangeStatisticsService(@Value("${statistics.range.resolution}") final double resolution,
+			@Value("${statistics.range.max-amount}") final double maxAmount) {
+
+		this.window = new RangeWindow(ExactSlidingWindow.toCents(resolution), ExactSlidingWindow.toCents(maxAmount));
+	}
+
+	/**
+	 * Sets the time source of the window
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see ITransactionObserver#onTransaction(long, double)
+	 */
+	@Override
+	public void onTransaction(final long timeStamp, final double amount) {
+
+		window.record(timeStamp, ExactSlidingWindow.toCents(amount), clock.millis());
+	}
+
+	/**
+	 * Returns the statistics of the transactions alive whose amount is in the
+	 * given range.
+	 *
+	 * @param minAmount the minimum amount (inclusive), null if unbounded
+	 * @param maxAmount the maximum amount (inclusive), null if unbounded
+	 * @return the statistics of the range
+	 */
+	public RangeStatisticsResult getStatistics(final Double minAmount, final Double maxAmount) {
+
+		return window.getStatistics(minAmount == null ? Long.MIN_VALUE : ExactSlidingWindow.toCents(minAmount),
+				maxAmount == null ? Long.MAX_VALUE : ExactSlidingWindow.toCents(maxAmount),
+				clock.millis());
+	}
+
+}
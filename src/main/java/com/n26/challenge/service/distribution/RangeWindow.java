@@ -0,0 +1,307 @@
+package com.n26.challenge.service.distribution;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.n26.challenge.api.model.RangeStatisticsResult;
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Sliding window of the last 60 seconds of transactions, answering count,
+ * sum, minimum and maximum queries over an amount range in logarithmic time.
+ * <p>
+ * The amounts are quantized into linear buckets of a fixed resolution (the
+ * last bucket holds every amount from the maximum amount on, and the first
+ * one every amount below the resolution, including negative ones). A
+ * {@link FenwickTree} over the buckets keeps the count and sum (in cents) of
+ * the whole window, so a range costs two prefix queries. Each second of the
+ * window keeps the (count, sum, minimum, maximum) of the buckets it touched,
+ * which is what is subtracted from the tree when the second expires.
+ * <p>
+ * The answers have the resolution of the buckets: a range covers every
+ * bucket that contains one of its amounts, so it may include amounts up to
+ * a bucket beyond its bounds, and the covered bounds are returned with the
+ * statistics. The minimum and maximum are the exact ones of the first and
+ * last non empty covered buckets (found descending the tree), which are
+ * cached per bucket and only recomputed from the seconds after the one
+ * holding them expired. As in {@link SlicedWindow}, a transaction stays in
+ * the window until the whole second it belongs to is older than 60 seconds.
+ * All the methods receive the current time, which must not go backwards.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class RangeWindow {
+
+	/**
+	 * The bucket resolution in cents
+	 */
+	private final long resolution;
+
+	/**
+	 * The tree with the buckets of all the alive seconds
+	 */
+	private final FenwickTree tree;
+
+	/**
+	 * The touched buckets of each second, indexed by epoch second modulo
+	 * {@link SlicedWindow#SLOTS}
+	 */
+	private final Map<Integer, Bucket>[] slices;
+
+	/**
+	 * The epoch second of each slice
+	 */
+	private final long[] seconds = new long[SlicedWindow.SLOTS];
+
+	/**
+	 * The number of transactions alive in each bucket
+	 */
+	private final long[] counts;
+
+	/**
+	 * The minimum alive amount of each bucket, {@link Long#MAX_VALUE} when
+	 * it has to be recomputed
+	 */
+	private final long[] minimums;
+
+	/**
+	 * The maximum alive amount of each bucket, {@link Long#MIN_VALUE} when
+	 * it has to be recomputed
+	 */
+	private final long[] maximums;
+
+	/**
+	 * Creates an empty window.
+	 *
+	 * @param resolution the bucket resolution in cents
+	 * @param maxAmount the lower bound (in cents) of the last bucket
+	 */
+	@SuppressWarnings("unchecked")
+	public RangeWindow(final long resolution, final long maxAmount) {
+
+		if (resolution <= 0 || maxAmount < resolution || maxAmount / resolution >= Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					"The resolution must be positive and not greater than the maximum amount, nor too small for it");
+		}
+		this.resolution = resolution;
+		this.tree = new FenwickTree((int) (maxAmount / resolution) + 1);
+		this.counts = new long[tree.size()];
+		this.minimums = new long[tree.size()];
+		this.maximums = new long[tree.size()];
+		this.slices = new Map[SlicedWindow.SLOTS];
+		for (int i = 0; i < SlicedWindow.SLOTS; i++) {
+			slices[i] = new HashMap<>();
+			seconds[i] = -1;
+		}
+	}
+
+	/**
+	 * Registers a transaction into the window.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param cents the transaction amount in cents
+	 * @param now the current time stamp
+	 * @return false if the transaction is out of the window and was ignored
+	 */
+	public synchronized boolean record(final long timeStamp, final long cents, final long now) {
+
+		advance(now);
+		final long second = SlicedWindow.second(timeStamp);
+		if (!SlicedWindow.isAlive(second, now) || timeStamp > now) {
+			return false;
+		}
+
+		final int index = index(second);
+		seconds[index] = second;
+		final int bucket = bucketOf(cents);
+		slices[index].computeIfAbsent(bucket, key -> new Bucket()).add(cents);
+		tree.add(bucket, 1, cents);
+		if (++counts[bucket] == 1) {
+			minimums[bucket] = cents;
+			maximums[bucket] = cents;
+		} else {
+			// An extremum pending to be recomputed stays so, the new amount is in its second
+			if (minimums[bucket] != Long.MAX_VALUE) {
+				minimums[bucket] = Math.min(minimums[bucket], cents);
+			}
+			if (maximums[bucket] != Long.MIN_VALUE) {
+				maximums[bucket] = Math.max(maximums[bucket], cents);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the statistics of the transactions alive whose amount is in the
+	 * buckets of the given range.
+	 *
+	 * @param minAmount the minimum amount in cents (inclusive)
+	 * @param maxAmount the maximum amount in cents (inclusive)
+	 * @param now the current time stamp
+	 * @return the statistics of the range
+	 */
+	public synchronized RangeStatisticsResult getStatistics(final long minAmount, final long maxAmount,
+			final long now) {
+
+		if (minAmount > maxAmount) {
+			throw new IllegalArgumentException("The minimum amount can not be greater than the maximum amount");
+		}
+		advance(now);
+		final int first = bucketOf(minAmount);
+		final int last = bucketOf(maxAmount);
+		final Double from = first == 0 ? null : toAmount(first * resolution);
+		final Double to = last == tree.size() - 1 ? null : toAmount((last + 1) * resolution);
+
+		final long before = tree.prefixCount(first - 1);
+		final long count = tree.prefixCount(last) - before;
+		if (count == 0) {
+			return new RangeStatisticsResult(0, 0, 0, 0, 0, from, to);
+		}
+		final BigDecimal sum = BigDecimal.valueOf(tree.prefixSum(last) - tree.prefixSum(first - 1), 2);
+		final long min = extremum(tree.bucketOfRank(before + 1), false);
+		final long max = extremum(tree.bucketOfRank(before + count), true);
+		return new RangeStatisticsResult(
+				sum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP).doubleValue(), count,
+				toAmount(max), toAmount(min), sum.doubleValue(), from, to);
+	}
+
+	/**
+	 * Removes the seconds that left the window from the tree.
+	 *
+	 * @param now the current time stamp
+	 */
+	private void advance(final long now) {
+
+		for (int index = 0; index < SlicedWindow.SLOTS; index++) {
+			if (seconds[index] != -1 && !SlicedWindow.isAlive(seconds[index], now)) {
+				for (final Map.Entry<Integer, Bucket> entry : slices[index].entrySet()) {
+					expire(entry.getKey(), entry.getValue());
+				}
+				slices[index].clear();
+				seconds[index] = -1;
+			}
+		}
+	}
+
+	/**
+	 * Subtracts the transactions of an expired second in a bucket, and marks
+	 * the extrema of the bucket they held to be recomputed
+	 *
+	 * @param bucket the bucket index
+	 * @param expired the transactions of the second in the bucket
+	 */
+	private void expire(final int bucket, final Bucket expired) {
+
+		tree.add(bucket, -expired.count, -expired.sum);
+		counts[bucket] -= expired.count;
+		if (expired.min == minimums[bucket]) {
+			minimums[bucket] = Long.MAX_VALUE;
+		}
+		if (expired.max == maximums[bucket]) {
+			maximums[bucket] = Long.MIN_VALUE;
+		}
+	}
+
+	/**
+	 * Returns the minimum or maximum amount of a non empty bucket among the
+	 * alive seconds, recomputing it from the seconds if it was held by an
+	 * expired one
+	 *
+	 * @param bucket the bucket index
+	 * @param maximum true for the maximum, false for the minimum
+	 * @return the extremum in cents
+	 */
+	private long extremum(final int bucket, final boolean maximum) {
+
+		final long[] extrema = maximum ? maximums : minimums;
+		if (extrema[bucket] == (maximum ? Long.MIN_VALUE : Long.MAX_VALUE)) {
+			long extremum = extrema[bucket];
+			for (int index = 0; index < SlicedWindow.SLOTS; index++) {
+				final Bucket entry = slices[index].get(bucket);
+				if (entry != null) {
+					extremum = maximum ? Math.max(extremum, entry.max) : Math.min(extremum, entry.min);
+				}
+			}
+			extrema[bucket] = extremum;
+		}
+		return extrema[bucket];
+	}
+
+	/**
+	 * Returns the bucket of an amount
+	 *
+	 * @param cents the amount in cents
+	 * @return the bucket index
+	 */
+	private int bucketOf(final long cents) {
+
+		return (int) Math.max(0, Math.min(Math.floorDiv(cents, resolution), tree.size() - 1L));
+	}
+
+	/**
+	 * Converts an amount in cents to a double
+	 *
+	 * @param cents the amount in cents
+	 * @return the amount
+	 */
+	private static double toAmount(final long cents) {
+
+		return BigDecimal.valueOf(cents, 2).doubleValue();
+	}
+
+	/**
+	 * Returns the ring index of a second
+	 *
+	 * @param second the epoch second
+	 * @return the index
+	 */
+	private static int index(final long second) {
+
+		return (int) Math.floorMod(second, (long) SlicedWindow.SLOTS);
+	}
+
+	/**
+	 * The transactions of a second in a bucket: their totals and extrema
+	 */
+	private static final class Bucket {
+
+		/**
+		 * The number of transactions
+		 */
+		private long count;
+
+		/**
+		 * The sum in cents
+		 */
+		private long sum;
+
+		/**
+		 * The minimum in cents
+		 */
+		private long min = Long.MAX_VALUE;
+
+		/**
+		 * The maximum in cents
+		 */
+		private long max = Long.MIN_VALUE;
+
+		/**
+		 * Adds a transaction
+		 *
+		 * @param cents the transaction amount in cents
+		 */
+		private void add(final long cents) {
+
+			count++;
+			sum += cents;
+			min = Math.min(min, cents);
+			max = Math.max(max, cents);
+		}
+
+	}
+
+}
@@ -0,0 +1,258 @@
+package com.n26.challenge.service.history;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.api.model.HistoryStatisticsResult;
+import com.n26.challenge.model.SlotSummary;
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Service aggregating the statistics of a time range of the history in
+ * parallel.
+ * <p>
+ * The segments overlapping the range entirely inside it are read from their
+ * summaries; the ones crossing its bounds are scanned, split into chunks of
+ * transactions. The parts are aggregated as a fork-join task tree on a
+ * dedicated pool, so a scan never runs on the request threads nor on the
+ * common pool, and their summaries are merged pairwise with their mean and
+ * sum of squared deviations. The tree only depends on the parts, not on the
+ * pool size, so the result is the same whatever the parallelism is.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.history.enabled", havingValue = "true")
+public class HistoryQueryService {
+
+	/**
+	 * The number of transactions scanned by a single task, a block of the
+	 * sealed segments
+	 */
+	static final int SCAN_CHUNK = HistorySegment.BLOCK_SIZE;
+
+	/**
+	 * The store with the history
+	 */
+	private final HistoryStore store;
+
+	/**
+	 * The pool aggregating the parts of the queries
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Default history query service constructor
+	 *
+	 * @param store the store with the history
+	 * @param parallelism the number of threads aggregating the queries, the
+	 *            number of processors if not positive
+	 */
+	@Autowired
+	public HistoryQueryService(final HistoryStore store,
+			@Value("${statistics.history.parallelism}") final int parallelism) {
+
+		this.store = store;
+		this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+				forkJoinPool -> {
+					final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory
+							.newThread(forkJoinPool);
+					thread.setName("statistics-history-query-" + thread.getPoolIndex());
+					thread.setDaemon(true);
+					return thread;
+				}, null, false);
+	}
+
+	/**
+	 * Stops the query pool
+	 */
+	@PreDestroy
+	public void stop() {
+
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Returns the statistics of the transactions of a time range.
+	 *
+	 * @param from the range start (inclusive), in epoch milliseconds
+	 * @param to the range end (exclusive), in epoch milliseconds
+	 * @return the statistics of the range
+	 */
+	public HistoryStatisticsResult getStatistics(final long from, final long to) {
+
+		if (from >= to) {
+			throw new IllegalArgumentException("The range start must be before its end");
+		}
+		final List<Part> parts = new ArrayList<>();
+		final List<IHistorySegment> segments = store.segments(from, to);
+		int summarized = 0;
+		long scanned = 0;
+		for (final IHistorySegment segment : segments) {
+			if (segment.getStart() >= from && segment.getEnd() <= to) {
+				parts.add(new Part(segment, 0, 0));
+				summarized++;
+				continue;
+			}
+			final int size = segment.size();
+			for (int index = 0; index < size; index += SCAN_CHUNK) {
+				parts.add(new Part(segment, index, Math.min(index + SCAN_CHUNK, size)));
+			}
+			scanned += size;
+		}
+		final SlotSummary summary = parts.isEmpty() ? new SlotSummary()
+				: pool.invoke(new AggregationTask(parts, from, to, 0, parts.size()));
+		return new HistoryStatisticsResult(SlicedWindow.toStatisticsResult(summary), from, to, segments.size(),
+				summarized, scanned);
+	}
+
+	/**
+	 * Returns the number of threads aggregating the queries
+	 *
+	 * @return the pool parallelism
+	 */
+	public int getParallelism() {
+
+		return pool.getParallelism();
+	}
+
+	/**
+	 * A part of a query: a whole segment read from its summary, or a chunk of
+	 * a segment to scan
+	 */
+	private static final class Part {
+
+		/**
+		 * The segment
+		 */
+		private final IHistorySegment segment;
+
+		/**
+		 * The first position to scan (inclusive)
+		 */
+		private final int fromIndex;
+
+		/**
+		 * The last position to scan (exclusive), the same as the first if the
+		 * summary is read
+		 */
+		private final int toIndex;
+
+		/**
+		 * Default part constructor
+		 *
+		 * @param segment the segment
+		 * @param fromIndex the first position to scan (inclusive)
+		 * @param toIndex the last position to scan (exclusive)
+		 */
+		private Part(final IHistorySegment segment, final int fromIndex, final int toIndex) {
+
+			this.segment = segment;
+			this.fromIndex = fromIndex;
+			this.toIndex = toIndex;
+		}
+
+		/**
+		 * Summarizes the part
+		 *
+		 * @param from the range start (inclusive)
+		 * @param to the range end (exclusive)
+		 * @return the summary of the transactions of the part in the range
+		 */
+		private SlotSummary summarize(final long from, final long to) {
+
+			return fromIndex == toIndex ? segment.getSummary() : segment.summarize(from, to, fromIndex, toIndex);
+		}
+
+	}
+
+	/**
+	 * Task aggregating a run of parts, halving it until a single part is left
+	 */
+	private static final class AggregationTask extends RecursiveTask<SlotSummary> {
+
+		/**
+		 * Serial version
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The parts of the query
+		 */
+		private final transient List<Part> parts;
+
+		/**
+		 * The range start (inclusive)
+		 */
+		private final long from;
+
+		/**
+		 * The range end (exclusive)
+		 */
+		private final long to;
+
+		/**
+		 * The first part of the run (inclusive)
+		 */
+		private final int first;
+
+		/**
+		 * The last part of the run (exclusive)
+		 */
+		private final int last;
+
+		/**
+		 * Default aggregation task constructor
+		 *
+		 * @param parts the parts of the query
+		 * @param from the range start (inclusive)
+		 * @param to the range end (exclusive)
+		 * @param first the first part of the run (inclusive)
+		 * @param last the last part of the run (exclusive)
+		 */
+		private AggregationTask(final List<Part> parts, final long from, final long to, final int first,
+				final int last) {
+
+			this.parts = parts;
+			this.from = from;
+			this.to = to;
+			this.first = first;
+			this.last = last;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see RecursiveTask#compute()
+		 */
+		@Override
+		protected SlotSummary compute() {
+
+			if (last - first == 1) {
+				return parts.get(first).summarize(from, to);
+			}
+			final int middle = (first + last) >>> 1;
+			final AggregationTask left = new AggregationTask(parts, from, to, first, middle);
+			left.fork();
+			final SlotSummary summary = new AggregationTask(parts, from, to, middle, last).compute();
+			final SlotSummary leftSummary = left.join();
+			// Merged in the range order, whichever half ends first
+			leftSummary.merge(summary);
+			return leftSummary;
+		}
+
+	}
+
+}
@@ -0,0 +1,322 @@
+package com.n26.challenge.service.history;
+
+import java.util.Arrays;
+
+import com.n26.challenge.model.SlotSummary;
+
+/**
+ * Sealed segment of the transaction history, in a compressed columnar format:
+ * no transaction is added once it's sealed, so its columns and summary are
+ * read without locking.
+ * <p>
+ * The transactions are sorted by time stamp and split into blocks of
+ * {@link #BLOCK_SIZE} transactions. The time stamps column holds the
+ * difference with the previous time stamp of the block (the first one of each
+ * block is kept apart), and the amounts column the cents zigzag-encoded (so
+ * small negative amounts stay short), both as variable-length integers of 7
+ * bits per byte. A typical transaction takes 3 to 5 bytes instead of the 16
+ * of two longs. The summary is the segment header (count, sum, minimum,
+ * maximum and moments), and a scan decodes the columns in place, block by
+ * block, without creating an object per transaction; the blocks entirely out
+ * of the scanned range are skipped by their first time stamp.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class HistorySegment implements IHistorySegment {
+
+	/**
+	 * The number of transactions of a block
+	 */
+	public static final int BLOCK_SIZE = 16_384;
+
+	/**
+	 * The first time stamp of the segment (inclusive)
+	 */
+	private final long start;
+
+	/**
+	 * The time stamp the segment ends at (exclusive)
+	 */
+	private final long end;
+
+	/**
+	 * The number of transactions
+	 */
+	private final int size;
+
+	/**
+	 * The time stamps column: the differences with the previous time stamp of
+	 * the block, as variable-length integers
+	 */
+	private final byte[] timeStamps;
+
+	/**
+	 * The amounts column: the zigzag-encoded cents, as variable-length
+	 * integers
+	 */
+	private final byte[] amounts;
+
+	/**
+	 * The first time stamp of each block
+	 */
+	private final long[] blockTimeStamps;
+
+	/**
+	 * The position of each block in the time stamps column
+	 */
+	private final int[] blockTimeStampOffsets;
+
+	/**
+	 * The position of each block in the amounts column
+	 */
+	private final int[] blockAmountOffsets;
+
+	/**
+	 * The summary of the transactions
+	 */
+	private final SlotSummary summary;
+
+	/**
+	 * Default history segment constructor
+	 *
+	 * @param start the first time stamp of the segment (inclusive)
+	 * @param end the time stamp the segment ends at (exclusive)
+	 * @param size the number of transactions
+	 * @param timeStamps the time stamps column
+	 * @param amounts the amounts column
+	 * @param blockTimeStamps the first time stamp of each block
+	 * @param blockTimeStampOffsets the position of each block in the time
+	 *            stamps column
+	 * @param blockAmountOffsets the position of each block in the amounts
+	 *            column
+	 * @param summary the summary of the transactions
+	 */
+	private HistorySegment(final long start, final long end, final int size, final byte[] timeStamps,
+			final byte[] amounts, final long[] blockTimeStamps, final int[] blockTimeStampOffsets,
+			final int[] blockAmountOffsets, final SlotSummary summary) {
+
+		this.start = start;
+		this.end = end;
+		this.size = size;
+		this.timeStamps = timeStamps;
+		this.amounts = amounts;
+		this.blockTimeStamps = blockTimeStamps;
+		this.blockTimeStampOffsets = blockTimeStampOffsets;
+		this.blockAmountOffsets = blockAmountOffsets;
+		this.summary = summary;
+	}
+
+	/**
+	 * Encodes the transactions of a segment.
+	 *
+	 * @param start the first time stamp of the segment (inclusive)
+	 * @param end the time stamp the segment ends at (exclusive), at most
+	 *            {@link Integer#MAX_VALUE} milliseconds after the start
+	 * @param timeStamps the time stamps of the transactions, in any order
+	 * @param cents the amounts of the transactions, in cents
+	 * @param size the number of transactions
+	 * @param summary the summary of the transactions
+	 * @return the sealed segment
+	 */
+	static HistorySegment encode(final long start, final long end, final long[] timeStamps, final long[] cents,
+			final int size, final SlotSummary summary) {
+
+		// Sorted by the offset in the segment, keeping the position in the low half
+		final long[] order = new long[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = (timeStamps[i] - start) << 32 | i;
+		}
+		Arrays.sort(order);
+
+		final int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		final long[] blockTimeStamps = new long[blocks];
+		final int[] blockTimeStampOffsets = new int[blocks];
+		final int[] blockAmountOffsets = new int[blocks];
+		final VarIntWriter timeStampWriter = new VarIntWriter(size + blocks);
+		final VarIntWriter amountWriter = new VarIntWriter(size * 3);
+		long previous = start;
+		for (int i = 0; i < size; i++) {
+			final int position = (int) order[i];
+			final long timeStamp = timeStamps[position];
+			if (i % BLOCK_SIZE == 0) {
+				final int block = i / BLOCK_SIZE;
+				blockTimeStamps[block] = timeStamp;
+				blockTimeStampOffsets[block] = timeStampWriter.position;
+				blockAmountOffsets[block] = amountWriter.position;
+				previous = timeStamp;
+			}
+			timeStampWriter.write(timeStamp - previous);
+			amountWriter.write(cents[position] << 1 ^ cents[position] >> 63);
+			previous = timeStamp;
+		}
+		return new HistorySegment(start, end, size, timeStampWriter.toArray(), amountWriter.toArray(),
+				blockTimeStamps, blockTimeStampOffsets, blockAmountOffsets, summary);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IHistorySegment#getStart()
+	 */
+	@Override
+	public long getStart() {
+
+		return start;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IHistorySegment#getEnd()
+	 */
+	@Override
+	public long getEnd() {
+
+		return end;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IHistorySegment#size()
+	 */
+	@Override
+	public int size() {
+
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IHistorySegment#getBytes()
+	 */
+	@Override
+	public long getBytes() {
+
+		return timeStamps.length + amounts.length + blockTimeStamps.length * 16L;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IHistorySegment#getSummary()
+	 */
+	@Override
+	public SlotSummary getSummary() {
+
+		return summary.copy();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The transactions are in time stamp order, so the scan stops at the
+	 * first one past the range.
+	 *
+	 * @see IHistorySegment#summarize(long, long, int, int)
+	 */
+	@Override
+	public SlotSummary summarize(final long from, final long to, final int fromIndex, final int toIndex) {
+
+		final SlotSummary range = new SlotSummary();
+		if (fromIndex >= toIndex) {
+			return range;
+		}
+		int block = fromIndex / BLOCK_SIZE;
+		// Skips the blocks whose transactions are all before the range
+		while ((block + 1) * BLOCK_SIZE < toIndex && blockTimeStamps[block + 1] < from) {
+			block++;
+		}
+		if (blockTimeStamps[block] >= to) {
+			return range;
+		}
+		int timeStampOffset = blockTimeStampOffsets[block];
+		int amountOffset = blockAmountOffsets[block];
+		long timeStamp = blockTimeStamps[block];
+		for (int i = block * BLOCK_SIZE; i < toIndex; i++) {
+			long delta = 0;
+			byte next;
+			int shift = 0;
+			do {
+				next = timeStamps[timeStampOffset++];
+				delta |= (long) (next & 0x7F) << shift;
+				shift += 7;
+			} while (next < 0);
+			long zigzag = 0;
+			shift = 0;
+			do {
+				next = amounts[amountOffset++];
+				zigzag |= (long) (next & 0x7F) << shift;
+				shift += 7;
+			} while (next < 0);
+			timeStamp += delta;
+			if (timeStamp >= to) {
+				break;
+			}
+			if (i >= fromIndex && timeStamp >= from) {
+				range.add((zigzag >>> 1 ^ -(zigzag & 1)) / 100d);
+			}
+		}
+		return range;
+	}
+
+	/**
+	 * Growing buffer of variable-length integers, 7 bits per byte with the
+	 * high bit set on every byte but the last one
+	 */
+	private static final class VarIntWriter {
+
+		/**
+		 * The written bytes
+		 */
+		private byte[] bytes;
+
+		/**
+		 * The number of written bytes
+		 */
+		private int position;
+
+		/**
+		 * Default writer constructor
+		 *
+		 * @param capacity the initial capacity in bytes
+		 */
+		private VarIntWriter(final int capacity) {
+
+			bytes = new byte[Math.max(capacity, 16)];
+		}
+
+		/**
+		 * Writes an integer, taken as unsigned
+		 *
+		 * @param value the integer
+		 */
+		private void write(final long value) {
+
+			if (bytes.length - position < 10) {
+				bytes = Arrays.copyOf(bytes, bytes.length * 2);
+			}
+			long remaining = value;
+			while ((remaining & ~0x7FL) != 0) {
+				bytes[position++] = (byte) (remaining & 0x7F | 0x80);
+				remaining >>>= 7;
+			}
+			bytes[position++] = (byte) remaining;
+		}
+
+		/**
+		 * Returns the written bytes
+		 *
+		 * @return a trimmed copy of the bytes
+		 */
+		private byte[] toArray() {
+
+			return Arrays.copyOf(bytes, position);
+		}
+
+	}
+
+}
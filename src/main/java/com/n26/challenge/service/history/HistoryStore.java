@@ -0,0 +1,258 @@
+package com.n26.challenge.service.history;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.service.ITransactionObserver;
+import com.n26.challenge.service.window.ExactSlidingWindow;
+
+/**
+ * Store of the transaction history beyond the 60 seconds window, fed with
+ * every registered transaction whatever the statistics engine is.
+ * <p>
+ * The history is split into fixed length segments aligned to the epoch. A
+ * segment receives transactions until it's older than the window (no later
+ * transaction is accepted), and it's then sealed: its columns are compressed
+ * (see {@link HistorySegment}) and its summary is final. The sealed segments are kept for the retention
+ * period.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.history.enabled", havingValue = "true")
+public class HistoryStore implements ITransactionObserver, PublicMetrics {
+
+	/**
+	 * The sealing interval in milliseconds
+	 */
+	private static final long SEAL_INTERVAL = 1_000;
+
+	/**
+	 * The length of the segments in milliseconds
+	 */
+	private final long segmentLength;
+
+	/**
+	 * The time the sealed segments are kept, in milliseconds
+	 */
+	private final long retention;
+
+	/**
+	 * The segments receiving transactions, by start
+	 */
+	private final ConcurrentNavigableMap<Long, OpenSegment> openSegments = new ConcurrentSkipListMap<>();
+
+	/**
+	 * The sealed segments, by start
+	 */
+	private final ConcurrentNavigableMap<Long, HistorySegment> sealedSegments = new ConcurrentSkipListMap<>();
+
+	/**
+	 * The number of transactions arriving after their segment was sealed
+	 */
+	private final LongAdder late = new LongAdder();
+
+	/**
+	 * The time source of the sealing and the retention
+	 */
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * The sealing scheduler
+	 */
+	private ScheduledExecutorService sealer;
+
+	/**
+	 * Default history store constructor
+	 *
+	 * @param segmentLength the length of the segments in milliseconds
+	 * @param retention the time the sealed segments are kept, in milliseconds
+	 */
+	@Autowired
+	public HistoryStore(@Value("${statistics.history.segment-length}") final long segmentLength,
+			@Value("${statistics.history.retention}") final long retention) {
+
+		if (segmentLength < 1_000 || segmentLength > Integer.MAX_VALUE || retention < segmentLength) {
+			throw new IllegalArgumentException("The segment length must be between 1000 and " + Integer.MAX_VALUE
+					+ " ms, and the retention at least one segment");
+		}
+		this.segmentLength = segmentLength;
+		this.retention = retention;
+	}
+
+	/**
+	 * Sets the time source of the sealing and the retention
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
+	/**
+	 * Starts the sealing thread
+	 */
+	@PostConstruct
+	public void start() {
+
+		sealer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "statistics-history");
+			thread.setDaemon(true);
+			return thread;
+		});
+		sealer.scheduleWithFixedDelay(() -> maintain(clock.millis()), SEAL_INTERVAL, SEAL_INTERVAL,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the sealing thread
+	 */
+	@PreDestroy
+	public void stop() {
+
+		if (sealer != null) {
+			sealer.shutdownNow();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see ITransactionObserver#onTransaction(long, double)
+	 */
+	@Override
+	public void onTransaction(final long timeStamp, final double amount) {
+
+		final long start = timeStamp - Math.floorMod(timeStamp, segmentLength);
+		OpenSegment segment = openSegments.get(start);
+		if (segment == null) {
+			if (sealedSegments.containsKey(start)) {
+				late.increment();
+				return;
+			}
+			segment = openSegments.computeIfAbsent(start, key -> new OpenSegment(key, key + segmentLength));
+		}
+		if (!segment.append(timeStamp, ExactSlidingWindow.toCents(amount))) {
+			late.increment();
+		}
+	}
+
+	/**
+	 * Returns the segments overlapping a time range, in time order
+	 *
+	 * @param from the range start (inclusive)
+	 * @param to the range end (exclusive)
+	 * @return the overlapping segments, sealed or open
+	 */
+	public List<IHistorySegment> segments(final long from, final long to) {
+
+		final long first = from - Math.floorMod(from, segmentLength);
+		// The open ones are read first: a segment sealed meanwhile is then found in the sealed ones
+		final List<OpenSegment> open = new ArrayList<>(openSegments.subMap(first, true, to, false).values());
+		final NavigableMap<Long, IHistorySegment> segments = new TreeMap<>(
+				sealedSegments.subMap(first, true, to, false));
+		for (final OpenSegment segment : open) {
+			segments.putIfAbsent(segment.getStart(), segment);
+		}
+		return new ArrayList<>(segments.values());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see PublicMetrics#metrics()
+	 */
+	@Override
+	public Collection<Metric<?>> metrics() {
+
+		long records = 0;
+		long bytes = 0;
+		for (final IHistorySegment segment : sealedSegments.values()) {
+			records += segment.size();
+			bytes += segment.getBytes();
+		}
+		for (final IHistorySegment segment : openSegments.values()) {
+			records += segment.size();
+			bytes += segment.getBytes();
+		}
+		final List<Metric<?>> metrics = new ArrayList<>();
+		metrics.add(new Metric<>("statistics.history.segments", sealedSegments.size()));
+		metrics.add(new Metric<>("statistics.history.open", openSegments.size()));
+		metrics.add(new Metric<>("statistics.history.records", records));
+		metrics.add(new Metric<>("statistics.history.bytes", bytes));
+		metrics.add(new Metric<>("statistics.history.late", late.sum()));
+		final Map.Entry<Long, HistorySegment> oldest = sealedSegments.firstEntry();
+		if (oldest != null) {
+			metrics.add(new Metric<>("statistics.history.oldest", oldest.getKey()));
+		}
+		return metrics;
+	}
+
+	/**
+	 * Returns the number of transactions arriving after their segment was
+	 * sealed
+	 *
+	 * @return the late transactions
+	 */
+	public long getLate() {
+
+		return late.sum();
+	}
+
+	/**
+	 * Returns the length of the segments
+	 *
+	 * @return the segment length in milliseconds
+	 */
+	public long getSegmentLength() {
+
+		return segmentLength;
+	}
+
+	/**
+	 * Seals the segments older than the window and drops the sealed ones
+	 * older than the retention.
+	 *
+	 * @param now the current time stamp
+	 */
+	void maintain(final long now) {
+
+		for (final OpenSegment segment : openSegments.headMap(now - ExactSlidingWindow.WINDOW - segmentLength, true)
+				.values()) {
+			// Sealed before it's removed, so the queries find it in one of the maps
+			final HistorySegment sealed = segment.seal();
+			if (sealedSegments.putIfAbsent(segment.getStart(), sealed) != null) {
+				// Reopened by a transaction racing with the sealing
+				late.add(sealed.size());
+			}
+			openSegments.remove(segment.getStart());
+		}
+		sealedSegments.headMap(now - retention - segmentLength, true).clear();
+	}
+
+}
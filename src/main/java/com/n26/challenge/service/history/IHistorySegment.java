@@ -0,0 +1,62 @@
+package com.n26.challenge.service.history;
+
+import com.n26.challenge.model.SlotSummary;
+
+/**
+ * A segment of the transaction history: the transactions whose time stamp is
+ * in {@code [start, end)}, with their precomputed summary.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public interface IHistorySegment {
+
+	/**
+	 * Returns the first time stamp of the segment (inclusive)
+	 *
+	 * @return the segment start
+	 */
+	long getStart();
+
+	/**
+	 * Returns the time stamp the segment ends at (exclusive)
+	 *
+	 * @return the segment end
+	 */
+	long getEnd();
+
+	/**
+	 * Returns the number of transactions of the segment
+	 *
+	 * @return the segment size
+	 */
+	int size();
+
+	/**
+	 * Returns the memory taken by the transactions of the segment
+	 *
+	 * @return the size of the columns in bytes
+	 */
+	long getBytes();
+
+	/**
+	 * Returns the summary of every transaction of the segment
+	 *
+	 * @return a copy of the segment summary
+	 */
+	SlotSummary getSummary();
+
+	/**
+	 * Summarizes the transactions at the given positions of the segment whose
+	 * time stamp is in a range.
+	 *
+	 * @param from the range start (inclusive)
+	 * @param to the range end (exclusive)
+	 * @param fromIndex the first position (inclusive)
+	 * @param toIndex the last position (exclusive), up to the size
+	 * @return the summary of the transactions in the range
+	 */
+	SlotSummary summarize(long from, long to, int fromIndex, int toIndex);
+
+}
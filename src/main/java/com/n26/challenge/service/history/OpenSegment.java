@@ -0,0 +1,188 @@
+package com.n26.challenge.service.history;
+
+import java.util.Arrays;
+
+import com.n26.challenge.model.SlotSummary;
+
+/**
+ * Segment of the transaction history still receiving transactions, with its
+ * time stamps and amounts (in cents) in two long columns.
+ * <p>
+ * The transactions are appended to growing columns under the segment lock,
+ * and the written positions are never changed (a full column is copied into
+ * a larger one), so a scan only takes the lock to read the columns and their
+ * size, and reads the positions below that size without it.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+final class OpenSegment implements IHistorySegment {
+
+	/**
+	 * The initial capacity of the columns
+	 */
+	private static final int INITIAL_CAPACITY = 1_024;
+
+	/**
+	 * The first time stamp of the segment (inclusive)
+	 */
+	private final long start;
+
+	/**
+	 * The time stamp the segment ends at (exclusive)
+	 */
+	private final long end;
+
+	/**
+	 * The time stamps of the transactions
+	 */
+	private long[] timeStamps = new long[INITIAL_CAPACITY];
+
+	/**
+	 * The amounts of the transactions, in cents
+	 */
+	private long[] cents = new long[INITIAL_CAPACITY];
+
+	/**
+	 * The number of transactions
+	 */
+	private int size;
+
+	/**
+	 * The summary of the transactions
+	 */
+	private final SlotSummary summary = new SlotSummary();
+
+	/**
+	 * Whether the segment was sealed
+	 */
+	private boolean sealed;
+
+	/**
+	 * Default open segment constructor
+	 *
+	 * @param start the first time stamp of the segment (inclusive)
+	 * @param end the time stamp the segment ends at (exclusive)
+	 */
+	OpenSegment(final long start, final long end) {
+
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * Appends a transaction, unless the segment was sealed
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param amount the transaction amount, in cents
+	 * @return false if the segment was sealed
+	 */
+	synchronized boolean append(final long timeStamp, final long amount) {
+
+		if (sealed) {
+			return false;
+		}
+		if (size == timeStamps.length) {
+			timeStamps = Arrays.copyOf(timeStamps, size * 2);
+			cents = Arrays.copyOf(cents, size * 2);
+		}
+		timeStamps[size] = timeStamp;
+		cents[size] = amount;
+		size++;
+		summary.add(amount / 100d);
+		return true;
+	}
+
+	/**
+	 * Seals the segment, rejecting any later transaction, and encodes it
+	 *
+	 * @return the sealed segment
+	 */
+	synchronized HistorySegment seal() {
+
+		sealed = true;
+		return HistorySegment.encode(start, end, timeStamps, cents, size, summary.copy());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IHistorySegment#getStart()
+	 */
+	@Override
+	public long getStart() {
+
+		return start;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IHistorySegment#getEnd()
+	 */
+	@Override
+	public long getEnd() {
+
+		return end;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IHistorySegment#size()
+	 */
+	@Override
+	public synchronized int size() {
+
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IHistorySegment#getBytes()
+	 */
+	@Override
+	public synchronized long getBytes() {
+
+		return timeStamps.length * 16L;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IHistorySegment#getSummary()
+	 */
+	@Override
+	public synchronized SlotSummary getSummary() {
+
+		return summary.copy();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IHistorySegment#summarize(long, long, int, int)
+	 */
+	@Override
+	public SlotSummary summarize(final long from, final long to, final int fromIndex, final int toIndex) {
+
+		final long[] scannedTimeStamps;
+		final long[] scannedCents;
+		synchronized (this) {
+			scannedTimeStamps = timeStamps;
+			scannedCents = cents;
+		}
+		// The positions below a size read before are written in the current columns
+		final SlotSummary range = new SlotSummary();
+		for (int i = fromIndex; i < toIndex; i++) {
+			final long timeStamp = scannedTimeStamps[i];
+			if (timeStamp >= from && timeStamp < to) {
+				range.add(scannedCents[i] / 100d);
+			}
+		}
+		return range;
+	}
+
+}
@@ -0,0 +1,153 @@
+package com.n26.challenge.service.hybrid;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.jfr.StatisticsQueryEvent;
+import com.n26.challenge.service.IStatisticsService;
+import com.n26.challenge.service.ITransactionObserver;
+import com.n26.challenge.service.StatisticsService;
+import com.n26.challenge.service.skew.FutureTransactionBuffer;
+import com.n26.challenge.service.window.ExactSlidingWindow;
+import com.n26.challenge.warmup.WarmUpTraffic;
+
+/**
+ * Local-first statistics service: the transactions are registered in an
+ * in-memory {@link ExactSlidingWindow}, which answers the queries of this
+ * node, and handed over to the {@link SpaceReplicator} to be written to the
+ * shared space asynchronously, so neither the ingestion nor the queries wait
+ * for the space.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.engine", havingValue = "hybrid")
+public class HybridStatisticsService implements IStatisticsService {
+
+	/**
+	 * The window with the transactions registered on this node
+	 */
+	private final ExactSlidingWindow window = new ExactSlidingWindow();
+
+	/**
+	 * The replicator of the transactions to the shared space
+	 */
+	private final SpaceReplicator replicator;
+
+	/**
+	 * The observers notified of each registered transaction
+	 */
+	private ITransactionObserver[] observers = new ITransactionObserver[0];
+
+	/**
+	 * The buffer of the transactions slightly in the future, null if they're
+	 * rejected
+	 */
+	private FutureTransactionBuffer futureBuffer;
+
+	/**
+	 * The time source of the window and the validation
+	 */
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Default service constructor
+	 *
+	 * @param replicator the replicator of the transactions to the shared
+	 *            space
+	 */
+	@Autowired
+	public HybridStatisticsService(final SpaceReplicator replicator) {
+
+		this.replicator = replicator;
+	}
+
+	/**
+	 * Sets the observers notified of each registered transaction
+	 *
+	 * @param observers the transaction observers
+	 */
+	@Autowired(required = false)
+	public void setObservers(final List<ITransactionObserver> observers) {
+
+		this.observers = observers.toArray(new ITransactionObserver[observers.size()]);
+	}
+
+	/**
+	 * Sets the buffer of the transactions slightly in the future, which
+	 * registers them in this service once their time stamp is reached
+	 *
+	 * @param futureBuffer the future transaction buffer
+	 */
+	@Autowired(required = false)
+	public void setFutureBuffer(final FutureTransactionBuffer futureBuffer) {
+
+		this.futureBuffer = futureBuffer;
+		futureBuffer.setTarget(this::createTransaction);
+	}
+
+	/**
+	 * Sets the time source of the window and the validation
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IStatisticsService#createTransaction(long, double)
+	 */
+	@Override
+	public long createTransaction(final long timeStamp, final double amount) {
+
+		final long currentTimeStamp = clock.millis();
+		if (timeStamp > currentTimeStamp && futureBuffer != null && futureBuffer.hold(timeStamp, amount)) {
+			return timeStamp + ExactSlidingWindow.WINDOW;
+		}
+		StatisticsService.validateTimeStamp(timeStamp, currentTimeStamp);
+
+		final long cents = ExactSlidingWindow.toCents(amount);
+		window.record(timeStamp, cents, currentTimeStamp);
+		final BigDecimal modelAmount = BigDecimal.valueOf(cents, 2);
+
+		// The synthetic warm-up transactions only go through the local window, they're neither replicated to the
+		// shared space, where the other nodes would count them, nor observed
+		if (!WarmUpTraffic.isActive()) {
+			replicator.offer(timeStamp, modelAmount);
+			final double observedAmount = modelAmount.doubleValue();
+			for (final ITransactionObserver observer : observers) {
+				observer.onTransaction(timeStamp, observedAmount);
+			}
+		}
+		return timeStamp + ExactSlidingWindow.WINDOW;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IStatisticsService#getStatistics()
+	 */
+	@Override
+	public StatisticsResult getStatistics() {
+
+		final StatisticsQueryEvent event = new StatisticsQueryEvent();
+		event.begin();
+		final StatisticsResult statistics = window.getStatistics(clock.millis());
+		event.commit("hybrid", statistics);
+		return statistics;
+	}
+
+}
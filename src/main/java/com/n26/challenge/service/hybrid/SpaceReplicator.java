@@ -0,0 +1,430 @@
+package com.n26.challenge.service.hybrid;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.openspaces.core.GigaSpace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.gigaspaces.client.WriteModifiers;
+import com.n26.challenge.model.Transaction;
+
+/**
+ * Replicates the transactions registered on this node to the shared space, in
+ * batches and asynchronously, so the ingestion never waits for the space.
+ * <p>
+ * The transactions are queued and a dedicated thread writes them with a
+ * single {@code writeMultiple} call per batch, each one with the lease left
+ * until it leaves the window. The space is only connected to by that thread,
+ * on the first batch, so an unreachable space doesn't hold the start-up.
+ * <p>
+ * When a batch can't be written, the queue is full or the oldest queued
+ * transaction waited longer than the maximum lag, the replication falls back
+ * to local-only: the queued transactions are discarded, and the ones
+ * registered meanwhile are only counted, until the retry interval passes and
+ * the next batch is tried again.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.engine", havingValue = "hybrid")
+public class SpaceReplicator implements PublicMetrics {
+
+	/**
+	 * The class logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(SpaceReplicator.class);
+
+	/**
+	 * The transaction lease, as long as the window
+	 */
+	private static final long LEASE = 60_000;
+
+	/**
+	 * The time the replicating thread waits for a transaction before checking
+	 * whether to stop or retry, in milliseconds
+	 */
+	private static final long POLL_INTERVAL = 100;
+
+	/**
+	 * The factory of the shared space accessor, connecting on first use
+	 */
+	private final ObjectFactory<GigaSpace> spaceFactory;
+
+	/**
+	 * The maximum number of transactions written at once
+	 */
+	private final int batchSize;
+
+	/**
+	 * The maximum time a transaction waits to be written, in nanoseconds
+	 */
+	private final long maxLag;
+
+	/**
+	 * The time in local-only mode before retrying the space, in nanoseconds
+	 */
+	private final long retryInterval;
+
+	/**
+	 * The transactions waiting to be written
+	 */
+	private final BlockingQueue<PendingTransaction> queue;
+
+	/**
+	 * Whether the replication fell back to local-only
+	 */
+	private final AtomicBoolean localOnly = new AtomicBoolean();
+
+	/**
+	 * The number of transactions written to the space
+	 */
+	private final LongAdder replicated = new LongAdder();
+
+	/**
+	 * The number of transactions left out of the space
+	 */
+	private final LongAdder dropped = new LongAdder();
+
+	/**
+	 * The number of transactions that left the window before being written
+	 */
+	private final LongAdder expired = new LongAdder();
+
+	/**
+	 * The number of batches that couldn't be written
+	 */
+	private final LongAdder failures = new LongAdder();
+
+	/**
+	 * The time (in nanoseconds) to retry the space, when local-only
+	 */
+	private volatile long retryAt;
+
+	/**
+	 * The time the last written batch waited, in milliseconds
+	 */
+	private volatile long lastLag;
+
+	/**
+	 * Whether the replicating thread keeps running
+	 */
+	private volatile boolean running;
+
+	/**
+	 * The time source of the leases
+	 */
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * The shared space accessor, once connected (replicating thread only)
+	 */
+	private GigaSpace gigaSpace;
+
+	/**
+	 * The replicating thread
+	 */
+	private Thread replicatorThread;
+
+	/**
+	 * Default space replicator constructor
+	 *
+	 * @param spaceFactory the factory of the shared space accessor
+	 * @param batchSize the maximum number of transactions written at once
+	 * @param queueSize the maximum number of transactions waiting to be
+	 *            written
+	 * @param maxLag the maximum time a transaction waits to be written, in
+	 *            milliseconds
+	 * @param retryInterval the time in local-only mode before retrying the
+	 *            space, in milliseconds
+	 */
+	@Autowired
+	public SpaceReplicator(final ObjectFactory<GigaSpace> spaceFactory,
+			@Value("${statistics.hybrid.batch-size}") final int batchSize,
+			@Value("${statistics.hybrid.queue-size}") final int queueSize,
+			@Value("${statistics.hybrid.max-lag}") final long maxLag,
+			@Value("${statistics.hybrid.retry-interval}") final long retryInterval) {
+
+		if (batchSize <= 0 || queueSize <= 0 || maxLag <= 0 || retryInterval <= 0) {
+			throw new IllegalArgumentException(
+					"The batch size, queue size, maximum lag and retry interval must be positive");
+		}
+		this.spaceFactory = spaceFactory;
+		this.batchSize = batchSize;
+		this.maxLag = TimeUnit.MILLISECONDS.toNanos(maxLag);
+		this.retryInterval = TimeUnit.MILLISECONDS.toNanos(retryInterval);
+		this.queue = new ArrayBlockingQueue<>(queueSize);
+	}
+
+	/**
+	 * Sets the time source of the leases
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
+	/**
+	 * Starts the replicating thread
+	 */
+	@PostConstruct
+	public void start() {
+
+		running = true;
+		replicatorThread = new Thread(this::replicate, "statistics-replicator");
+		replicatorThread.setDaemon(true);
+		replicatorThread.start();
+	}
+
+	/**
+	 * Stops the replicating thread, once it writes the queued transactions or
+	 * the maximum lag passes.
+	 *
+	 * @throws InterruptedException if interrupted while waiting for the thread
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException {
+
+		running = false;
+		replicatorThread.join(TimeUnit.NANOSECONDS.toMillis(maxLag));
+		if (replicatorThread.isAlive()) {
+			LOGGER.warn("{} transactions weren't replicated before stopping", queue.size());
+			replicatorThread.interrupt();
+		}
+	}
+
+	/**
+	 * Queues a transaction to be written to the space, unless the
+	 * replication is local-only or falls back to it.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param amount the transaction amount
+	 * @return true if the transaction was queued
+	 */
+	public boolean offer(final long timeStamp, final BigDecimal amount) {
+
+		if (localOnly.get()) {
+			dropped.increment();
+			return false;
+		}
+		final long now = System.nanoTime();
+		final PendingTransaction oldest = queue.peek();
+		if (oldest != null && now - oldest.queued > maxLag) {
+			fallBack("the space is lagging behind", null);
+			dropped.increment();
+			return false;
+		}
+		if (!queue.offer(new PendingTransaction(new Transaction(amount, timeStamp), now))) {
+			fallBack("the replication queue is full", null);
+			dropped.increment();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see PublicMetrics#metrics()
+	 */
+	@Override
+	public Collection<Metric<?>> metrics() {
+
+		final List<Metric<?>> metrics = new ArrayList<>();
+		metrics.add(new Metric<>("statistics.replication.local-only", localOnly.get() ? 1 : 0));
+		metrics.add(new Metric<>("statistics.replication.pending", queue.size()));
+		metrics.add(new Metric<>("statistics.replication.lag", getLag()));
+		metrics.add(new Metric<>("statistics.replication.last-lag", lastLag));
+		metrics.add(new Metric<>("statistics.replication.replicated", replicated.sum()));
+		metrics.add(new Metric<>("statistics.replication.dropped", dropped.sum()));
+		metrics.add(new Metric<>("statistics.replication.expired", expired.sum()));
+		metrics.add(new Metric<>("statistics.replication.failures", failures.sum()));
+		return metrics;
+	}
+
+	/**
+	 * Returns how long the oldest queued transaction has waited
+	 *
+	 * @return the replication lag in milliseconds, 0 if nothing is queued
+	 */
+	public long getLag() {
+
+		final PendingTransaction oldest = queue.peek();
+		return oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(Math.max(System.nanoTime() - oldest.queued, 0));
+	}
+
+	/**
+	 * Returns whether the replication fell back to local-only
+	 *
+	 * @return true if the transactions are not replicated
+	 */
+	public boolean isLocalOnly() {
+
+		return localOnly.get();
+	}
+
+	/**
+	 * Returns the number of transactions written to the space
+	 *
+	 * @return the replicated transactions
+	 */
+	public long getReplicated() {
+
+		return replicated.sum();
+	}
+
+	/**
+	 * Returns the number of transactions left out of the space
+	 *
+	 * @return the dropped transactions
+	 */
+	public long getDropped() {
+
+		return dropped.sum();
+	}
+
+	/**
+	 * Writes the queued transactions in batches until stopped, retrying the
+	 * space after the interval when local-only, on the replicating thread
+	 */
+	private void replicate() {
+
+		final List<PendingTransaction> batch = new ArrayList<>(batchSize);
+		try {
+			while (running) {
+				final PendingTransaction first = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					if (localOnly.get() && System.nanoTime() - retryAt >= 0) {
+						// The next batch tells whether the space is back
+						LOGGER.info("Retrying the replication to the space");
+						localOnly.set(false);
+					}
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				write(batch);
+				batch.clear();
+			}
+			while (!localOnly.get() && queue.drainTo(batch, batchSize) > 0) {
+				write(batch);
+				batch.clear();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes a batch of transactions to the space, with the lease left until
+	 * each one leaves the window, falling back to local-only if it fails.
+	 *
+	 * @param batch the queued transactions
+	 */
+	private void write(final List<PendingTransaction> batch) {
+
+		final long now = clock.millis();
+		final List<Transaction> entries = new ArrayList<>(batch.size());
+		final long[] leases = new long[batch.size()];
+		for (final PendingTransaction pending : batch) {
+			final long lease = pending.transaction.getTimeStamp() + LEASE - now;
+			if (lease > 0) {
+				leases[entries.size()] = lease;
+				entries.add(pending.transaction);
+			}
+		}
+		expired.add(batch.size() - entries.size());
+		if (entries.isEmpty()) {
+			return;
+		}
+		try {
+			if (gigaSpace == null) {
+				gigaSpace = spaceFactory.getObject();
+			}
+			gigaSpace.writeMultiple(entries.toArray(new Transaction[entries.size()]),
+					entries.size() == leases.length ? leases : Arrays.copyOf(leases, entries.size()),
+					WriteModifiers.WRITE_ONLY);
+			replicated.add(entries.size());
+			lastLag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batch.get(0).queued);
+		} catch (final RuntimeException e) {
+			failures.increment();
+			dropped.add(entries.size());
+			fallBack("the space couldn't be written", e);
+		}
+	}
+
+	/**
+	 * Falls back to local-only, discarding the queued transactions, until the
+	 * retry interval passes
+	 *
+	 * @param reason the reason to fall back
+	 * @param cause the failure, if any
+	 */
+	private void fallBack(final String reason, final RuntimeException cause) {
+
+		if (!localOnly.compareAndSet(false, true)) {
+			return;
+		}
+		retryAt = System.nanoTime() + retryInterval;
+		final List<PendingTransaction> discarded = new ArrayList<>(queue.size());
+		queue.drainTo(discarded);
+		dropped.add(discarded.size());
+		LOGGER.warn("Falling back to local-only statistics, {}; {} queued transactions discarded, retrying in {} ms",
+				reason, discarded.size(), TimeUnit.NANOSECONDS.toMillis(retryInterval), cause);
+	}
+
+	/**
+	 * A transaction waiting to be written
+	 */
+	private static final class PendingTransaction {
+
+		/**
+		 * The transaction
+		 */
+		private final Transaction transaction;
+
+		/**
+		 * The time it was queued, in nanoseconds
+		 */
+		private final long queued;
+
+		/**
+		 * Default pending transaction constructor
+		 *
+		 * @param transaction the transaction
+		 * @param queued the time it was queued, in nanoseconds
+		 */
+		private PendingTransaction(final Transaction transaction, final long queued) {
+
+			this.transaction = transaction;
+			this.queued = queued;
+		}
+
+	}
+
+}
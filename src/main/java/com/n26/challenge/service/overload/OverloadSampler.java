@@ -0,0 +1,350 @@
+package com.n26.challenge.service.overload;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.model.SlotSummary;
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Absorbs the transactions registered over a maximum rate, so the write path
+ * (the space) doesn't have to, at the price of slightly approximate
+ * statistics.
+ * <p>
+ * The first transactions of each second, up to the maximum rate, are left to
+ * the engine. The rest are kept per second of the window (of their time
+ * stamp) with lock-free counters for their count, sum, minimum and maximum,
+ * and a fixed-size reservoir sample (algorithm R) of their amounts estimates
+ * their spread. The estimated variance uses the mean of the second, so it's
+ * unbiased whatever the sample size is. A second leaves the window as a
+ * whole, up to a second later than its transactions would, so no statistic
+ * merged with an absorbed second is exact.
+ * <p>
+ * A summary taken while a second is being written snapshots its count first,
+ * and only uses the reservoir positions already written: an amount is added
+ * to the sum and extrema before it's counted, so every counted amount is in
+ * them (along with, at most, the one each writer is adding), and its
+ * reservoir position is flagged once written.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.overload.enabled", havingValue = "true")
+public class OverloadSampler {
+
+	/**
+	 * The maximum number of transactions per second left to the engine
+	 */
+	private final long maxRate;
+
+	/**
+	 * The number of amounts sampled of each second
+	 */
+	private final int reservoirSize;
+
+	/**
+	 * The sampled seconds, indexed by epoch second modulo
+	 * {@link SlicedWindow#SLOTS}
+	 */
+	private final AtomicReferenceArray<SampledSecond> slots = new AtomicReferenceArray<>(SlicedWindow.SLOTS);
+
+	/**
+	 * The number of transactions registered in the current second
+	 */
+	private final AtomicLong arrivals = new AtomicLong();
+
+	/**
+	 * The epoch second of the arrivals counter
+	 */
+	private volatile long arrivalSecond = Long.MIN_VALUE;
+
+	/**
+	 * The newest epoch second with absorbed transactions
+	 */
+	private final LongAccumulator newestSecond = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+	/**
+	 * Default overload sampler constructor
+	 *
+	 * @param maxRate the maximum number of transactions per second left to
+	 *            the engine
+	 * @param reservoirSize the number of amounts sampled of each second
+	 */
+	@Autowired
+	public OverloadSampler(@Value("${statistics.overload.max-rate}") final long maxRate,
+			@Value("${statistics.overload.reservoir-size}") final int reservoirSize) {
+
+		if (maxRate <= 0 || reservoirSize <= 0) {
+			throw new IllegalArgumentException("The maximum rate and the reservoir size must be positive");
+		}
+		this.maxRate = maxRate;
+		this.reservoirSize = reservoirSize;
+	}
+
+	/**
+	 * Offers a transaction, which is absorbed if the maximum rate of the
+	 * current second was already reached.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param cents the transaction amount in cents
+	 * @param now the current time stamp
+	 * @return true if the transaction was absorbed, false if the engine has
+	 *         to register it
+	 */
+	public boolean offer(final long timeStamp, final long cents, final long now) {
+
+		final long current = SlicedWindow.second(now);
+		if (arrivalSecond != current) {
+			synchronized (arrivals) {
+				if (arrivalSecond != current) {
+					arrivals.set(0);
+					arrivalSecond = current;
+				}
+			}
+		}
+		if (arrivals.incrementAndGet() <= maxRate) {
+			return false;
+		}
+
+		final long second = SlicedWindow.second(timeStamp);
+		final int index = (int) Math.floorMod(second, (long) SlicedWindow.SLOTS);
+		SampledSecond slot = slots.get(index);
+		while (slot == null || slot.second < second) {
+			// The slot of an expired second is replaced, its late writers only touch the old one
+			final SampledSecond replacement = new SampledSecond(second, reservoirSize);
+			if (slots.compareAndSet(index, slot, replacement)) {
+				slot = replacement;
+			} else {
+				slot = slots.get(index);
+			}
+		}
+		if (slot.second == second) {
+			slot.add(cents);
+			newestSecond.accumulate(second);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether some absorbed transactions are still in the window,
+	 * whose second will leave it as a whole
+	 *
+	 * @param now the current time stamp
+	 * @return true if an absorbed second is alive
+	 */
+	public boolean hasAbsorbed(final long now) {
+
+		final long newest = newestSecond.get();
+		return newest != Long.MIN_VALUE && SlicedWindow.isAlive(newest, now);
+	}
+
+	/**
+	 * Returns whether the maximum rate is reached in the current second
+	 *
+	 * @param now the current time stamp
+	 * @return true if the new transactions are being absorbed
+	 */
+	public boolean isOverloaded(final long now) {
+
+		return arrivalSecond == SlicedWindow.second(now) && arrivals.get() > maxRate;
+	}
+
+	/**
+	 * Summarizes the absorbed transactions alive at the given time.
+	 *
+	 * @param now the current time stamp
+	 * @return the estimate of the absorbed transactions
+	 */
+	public Estimate estimate(final long now) {
+
+		final SlotSummary summary = new SlotSummary(SlicedWindow.second(now));
+		long sampled = 0;
+		for (int index = 0; index < SlicedWindow.SLOTS; index++) {
+			final SampledSecond slot = slots.get(index);
+			if (slot != null && SlicedWindow.isAlive(slot.second, now)) {
+				sampled += slot.summarize(summary);
+			}
+		}
+		return new Estimate(summary, sampled);
+	}
+
+	/**
+	 * The summary of the absorbed transactions, with the number of them whose
+	 * amount is in the samples
+	 */
+	public static final class Estimate {
+
+		/**
+		 * The summary, with exact count, sum, minimum and maximum, and
+		 * estimated moments
+		 */
+		private final SlotSummary summary;
+
+		/**
+		 * The number of transactions whose amount is in the samples
+		 */
+		private final long sampled;
+
+		/**
+		 * Creates an estimate.
+		 *
+		 * @param summary the summary of the absorbed transactions
+		 * @param sampled the number of transactions whose amount is in the
+		 *            samples
+		 */
+		private Estimate(final SlotSummary summary, final long sampled) {
+
+			this.summary = summary;
+			this.sampled = sampled;
+		}
+
+		/**
+		 * Returns the summary of the absorbed transactions
+		 *
+		 * @return the summary
+		 */
+		public SlotSummary getSummary() {
+
+			return summary;
+		}
+
+		/**
+		 * Returns the number of transactions whose amount is in the samples
+		 *
+		 * @return the sampled transactions
+		 */
+		public long getSampled() {
+
+			return sampled;
+		}
+
+	}
+
+	/**
+	 * The absorbed transactions of one second
+	 */
+	private static final class SampledSecond {
+
+		/**
+		 * The epoch second
+		 */
+		private final long second;
+
+		/**
+		 * The number of transactions
+		 */
+		private final AtomicLong count = new AtomicLong();
+
+		/**
+		 * The sum of the amounts in cents
+		 */
+		private final LongAdder sum = new LongAdder();
+
+		/**
+		 * The minimum amount in cents
+		 */
+		private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+		/**
+		 * The maximum amount in cents
+		 */
+		private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+		/**
+		 * The sampled amounts in cents
+		 */
+		private final AtomicLongArray reservoir;
+
+		/**
+		 * Whether each reservoir position was written
+		 */
+		private final AtomicIntegerArray written;
+
+		/**
+		 * Creates an empty second.
+		 *
+		 * @param second the epoch second
+		 * @param reservoirSize the number of amounts sampled
+		 */
+		private SampledSecond(final long second, final int reservoirSize) {
+
+			this.second = second;
+			this.reservoir = new AtomicLongArray(reservoirSize);
+			this.written = new AtomicIntegerArray(reservoirSize);
+		}
+
+		/**
+		 * Adds an amount, replacing a random sampled one once the reservoir
+		 * is full
+		 *
+		 * @param cents the amount in cents
+		 */
+		private void add(final long cents) {
+
+			// Counted last, so a counted amount is always in the sum and extrema
+			sum.add(cents);
+			min.accumulate(cents);
+			max.accumulate(cents);
+			final long position = count.getAndIncrement();
+			if (position < reservoir.length()) {
+				reservoir.set((int) position, cents);
+				written.set((int) position, 1);
+			} else {
+				final long replaced = ThreadLocalRandom.current().nextLong(position + 1);
+				if (replaced < reservoir.length()) {
+					reservoir.set((int) replaced, cents);
+				}
+			}
+		}
+
+		/**
+		 * Adds the summary of the second to another one, estimating the
+		 * moments from the written samples
+		 *
+		 * @param summary the summary to add the second to
+		 * @return the number of samples used
+		 */
+		private int summarize(final SlotSummary summary) {
+
+			final long total = count.get();
+			if (total == 0) {
+				return 0;
+			}
+			final double amounts = sum.sum() / 100d;
+			final double mean = amounts / total;
+			final int positions = (int) Math.min(total, reservoir.length());
+			int samples = 0;
+			double squares = 0;
+			for (int i = 0; i < positions; i++) {
+				if (written.get(i) != 0) {
+					final double deviation = reservoir.get(i) / 100d - mean;
+					squares += deviation * deviation;
+					samples++;
+				}
+			}
+			final SlotSummary slotSummary = new SlotSummary(second);
+			slotSummary.setCount(total);
+			slotSummary.setSum(amounts);
+			slotSummary.setMin(min.get() / 100d);
+			slotSummary.setMax(max.get() / 100d);
+			slotSummary.setMean(mean);
+			slotSummary.setM2(samples == 0 ? 0 : squares * total / samples);
+			summary.merge(slotSummary);
+			return samples;
+		}
+
+	}
+
+}
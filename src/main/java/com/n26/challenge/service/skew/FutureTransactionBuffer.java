@@ -0,0 +1,388 @@
+package com.n26.challenge.service.skew;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.service.ITransactionObserver;
+
+/**
+ * Buffer of the transactions whose time stamp is slightly in the future, sent
+ * by producers whose clock is ahead of this node's.
+ * <p>
+ * A transaction up to the tolerance ahead is held in the slot of its
+ * millisecond (a ring of one slot per millisecond of the tolerance, so
+ * holding it is a constant time operation) instead of being rejected, and
+ * it's handed over to the statistics engine once its time stamp is reached,
+ * so it's only counted once it enters the window. A dedicated thread releases
+ * the slots every few milliseconds. The transactions further ahead, or over
+ * the buffer capacity, are still rejected.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.skew.enabled", havingValue = "true")
+public class FutureTransactionBuffer implements PublicMetrics {
+
+	/**
+	 * The maximum tolerance, in milliseconds: no transaction is held for
+	 * longer than the window
+	 */
+	public static final long MAX_TOLERANCE = 60_000;
+
+	/**
+	 * The maximum time a transaction can be ahead, in milliseconds
+	 */
+	private final long tolerance;
+
+	/**
+	 * The maximum number of held transactions
+	 */
+	private final int capacity;
+
+	/**
+	 * The time between the releases, in milliseconds
+	 */
+	private final long interval;
+
+	/**
+	 * The slots of the held transactions, one per millisecond of the tolerance
+	 */
+	private final Slot[] slots;
+
+	/**
+	 * The number of held transactions not released yet
+	 */
+	private final AtomicInteger pending = new AtomicInteger();
+
+	/**
+	 * The number of held transactions
+	 */
+	private final LongAdder held = new LongAdder();
+
+	/**
+	 * The number of transactions handed over to the engine
+	 */
+	private final LongAdder released = new LongAdder();
+
+	/**
+	 * The number of future transactions rejected: too far ahead, or over the
+	 * capacity
+	 */
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * The number of released transactions the engine didn't register
+	 */
+	private final LongAdder dropped = new LongAdder();
+
+	/**
+	 * The furthest ahead a held transaction was, in milliseconds
+	 */
+	private final LongAccumulator maxSkew = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * The last released time stamp: the later ones are held
+	 */
+	private volatile long releasedTimeStamp = Long.MIN_VALUE;
+
+	/**
+	 * The engine the released transactions are handed over to
+	 */
+	private volatile ITransactionObserver target;
+
+	/**
+	 * The time source of the tolerance and the releases
+	 */
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * The release scheduler
+	 */
+	private ScheduledExecutorService releaser;
+
+	/**
+	 * Default future transaction buffer constructor
+	 *
+	 * @param tolerance the maximum time a transaction can be ahead, in
+	 *            milliseconds
+	 * @param capacity the maximum number of held transactions
+	 * @param interval the time between the releases, in milliseconds
+	 */
+	@Autowired
+	public FutureTransactionBuffer(@Value("${statistics.skew.tolerance}") final long tolerance,
+			@Value("${statistics.skew.capacity}") final int capacity,
+			@Value("${statistics.skew.interval}") final long interval) {
+
+		if (tolerance < 1 || tolerance > MAX_TOLERANCE || capacity < 1 || interval < 1) {
+			throw new IllegalArgumentException("The skew tolerance must be between 1 and " + MAX_TOLERANCE
+					+ " ms, and the capacity and interval positive");
+		}
+		this.tolerance = tolerance;
+		this.capacity = capacity;
+		this.interval = interval;
+		this.slots = new Slot[(int) tolerance + 1];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = new Slot();
+		}
+	}
+
+	/**
+	 * Sets the time source of the tolerance and the releases
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
+	/**
+	 * Sets the engine the released transactions are handed over to
+	 *
+	 * @param target the transactions registration of the engine
+	 */
+	public void setTarget(final ITransactionObserver target) {
+
+		this.target = target;
+	}
+
+	/**
+	 * Starts the release thread
+	 */
+	@PostConstruct
+	public void start() {
+
+		releaser = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "statistics-skew");
+			thread.setDaemon(true);
+			return thread;
+		});
+		releaser.scheduleWithFixedDelay(() -> release(clock.millis()), interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the release thread, handing over the held transactions already
+	 * due
+	 */
+	@PreDestroy
+	public void stop() {
+
+		if (releaser != null) {
+			releaser.shutdownNow();
+		}
+		release(clock.millis());
+	}
+
+	/**
+	 * Holds a transaction ahead of the current time until its time stamp is
+	 * reached.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param amount the transaction amount
+	 * @return true if the transaction was held (or already handed over), false
+	 *         if it must be rejected
+	 */
+	public boolean hold(final long timeStamp, final double amount) {
+
+		final long skew = timeStamp - clock.millis();
+		if (skew > tolerance) {
+			rejected.increment();
+			return false;
+		}
+		if (pending.incrementAndGet() > capacity) {
+			pending.decrementAndGet();
+			rejected.increment();
+			return false;
+		}
+		final Slot slot = slots[index(timeStamp)];
+		synchronized (slot) {
+			if (timeStamp > releasedTimeStamp) {
+				if (slot.count > 0 && slot.timeStamp != timeStamp) {
+					// The slot still holds an older millisecond, the releases are behind
+					pending.decrementAndGet();
+					rejected.increment();
+					return false;
+				}
+				slot.add(timeStamp, amount);
+				held.increment();
+				maxSkew.accumulate(skew);
+				return true;
+			}
+		}
+		pending.decrementAndGet();
+		if (timeStamp > clock.millis()) {
+			// The clock went back, it can't be registered yet nor held
+			rejected.increment();
+			return false;
+		}
+		// Its millisecond was released meanwhile, so it's handed over right away
+		handOver(timeStamp, amount);
+		return true;
+	}
+
+	/**
+	 * Hands over the held transactions whose time stamp was reached.
+	 *
+	 * @param now the current time stamp
+	 */
+	public synchronized void release(final long now) {
+
+		final long first = Math.max(releasedTimeStamp + 1, now - slots.length + 1);
+		for (long timeStamp = first; timeStamp <= now; timeStamp++) {
+			// Published before draining, so a transaction of this millisecond arriving later is handed over
+			releasedTimeStamp = timeStamp;
+			final Slot slot = slots[index(timeStamp)];
+			final long slotTimeStamp;
+			final double[] amounts;
+			final int count;
+			synchronized (slot) {
+				if (slot.count == 0 || slot.timeStamp > now) {
+					continue;
+				}
+				slotTimeStamp = slot.timeStamp;
+				amounts = slot.amounts;
+				count = slot.count;
+				slot.clear();
+			}
+			pending.addAndGet(-count);
+			for (int i = 0; i < count; i++) {
+				handOver(slotTimeStamp, amounts[i]);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see PublicMetrics#metrics()
+	 */
+	@Override
+	public Collection<Metric<?>> metrics() {
+
+		final List<Metric<?>> metrics = new ArrayList<>();
+		metrics.add(new Metric<>("statistics.skew.pending", pending.get()));
+		metrics.add(new Metric<>("statistics.skew.held", held.sum()));
+		metrics.add(new Metric<>("statistics.skew.released", released.sum()));
+		metrics.add(new Metric<>("statistics.skew.rejected", rejected.sum()));
+		metrics.add(new Metric<>("statistics.skew.dropped", dropped.sum()));
+		metrics.add(new Metric<>("statistics.skew.max-skew", maxSkew.get()));
+		return metrics;
+	}
+
+	/**
+	 * Returns the number of held transactions not released yet
+	 *
+	 * @return the pending transactions
+	 */
+	public int getPending() {
+
+		return pending.get();
+	}
+
+	/**
+	 * Returns the maximum time a transaction can be ahead
+	 *
+	 * @return the tolerance in milliseconds
+	 */
+	public long getTolerance() {
+
+		return tolerance;
+	}
+
+	/**
+	 * Hands over a transaction to the engine
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param amount the transaction amount
+	 */
+	private void handOver(final long timeStamp, final double amount) {
+
+		try {
+			target.onTransaction(timeStamp, amount);
+			released.increment();
+		} catch (final RuntimeException e) {
+			// Rejected by the engine (over its capacity), or no engine
+			dropped.increment();
+		}
+	}
+
+	/**
+	 * Returns the slot index of a time stamp
+	 *
+	 * @param timeStamp the time stamp
+	 * @return the index
+	 */
+	private int index(final long timeStamp) {
+
+		return (int) Math.floorMod(timeStamp, (long) slots.length);
+	}
+
+	/**
+	 * The transactions held for a millisecond
+	 */
+	private static final class Slot {
+
+		/**
+		 * The time stamp of the held transactions
+		 */
+		private long timeStamp;
+
+		/**
+		 * The amounts of the held transactions
+		 */
+		private double[] amounts = new double[4];
+
+		/**
+		 * The number of held transactions
+		 */
+		private int count;
+
+		/**
+		 * Adds a transaction
+		 *
+		 * @param transactionTimeStamp the transaction time stamp
+		 * @param amount the transaction amount
+		 */
+		private void add(final long transactionTimeStamp, final double amount) {
+
+			if (count == amounts.length) {
+				amounts = Arrays.copyOf(amounts, count * 2);
+			}
+			timeStamp = transactionTimeStamp;
+			amounts[count++] = amount;
+		}
+
+		/**
+		 * Empties the slot, leaving the amounts to the releaser
+		 */
+		private void clear() {
+
+			amounts = new double[4];
+			count = 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.n26.challenge.service.store;
+
+/**
+ * Visitor of the raw transaction records of an {@link OffHeapRing}, called
+ * with the primitive fields of each record so the scans don't allocate.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface IRecordVisitor {
+
+	/**
+	 * Visits a transaction record.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param cents the transaction amount in cents
+	 */
+	void visit(long timeStamp, long cents);
+
+}
@@ -0,0 +1,260 @@
+package com.n26.challenge.service.store;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.n26.challenge.service.window.SlicedWindow;
+import com.n26.challenge.shm.MemoryFences;
+
+/**
+ * Ring of the raw transactions of the last 60 seconds kept out of the heap,
+ * as fixed 16-byte records (time stamp and amount in cents) in a single
+ * direct buffer.
+ * <p>
+ * The buffer is split into one segment per second of the window (indexed by
+ * epoch second modulo {@link SlicedWindow#SLOTS}), each one with room for a
+ * fixed number of records, so the records of a second are contiguous and a
+ * scan reads the memory sequentially. A segment is reclaimed as a whole
+ * when a newer second takes its place, and a record that doesn't fit in its
+ * segment is dropped (and counted).
+ * <p>
+ * The appends are lock-free: a writer claims a position of the segment with
+ * a compare-and-set over its (second, claimed count) state, which packs the
+ * second, relative to a base one, in the high 32 bits and the count in the
+ * low ones. Each record is then published on its own, without waiting for
+ * the other writers: the amount is written first and the time stamp last,
+ * behind a store fence, so a record whose time stamp belongs to the second
+ * of its segment is completely written. The scans skip the claimed records
+ * not published yet (still holding a time stamp of an older second, or
+ * none).
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class OffHeapRing {
+
+	/**
+	 * The size of a record in bytes
+	 */
+	public static final int RECORD_SIZE = 16;
+
+	/**
+	 * The number of records copied at once by the scans
+	 */
+	private static final int CHUNK_RECORDS = 4_096;
+
+	/**
+	 * The mask of the count in a segment state
+	 */
+	private static final long COUNT_MASK = 0xFFFF_FFFFL;
+
+	/**
+	 * The records, one segment per slot
+	 */
+	private final ByteBuffer records;
+
+	/**
+	 * The maximum number of records of a segment
+	 */
+	private final int segmentCapacity;
+
+	/**
+	 * The epoch second the states' seconds are relative to
+	 */
+	private final long baseSecond;
+
+	/**
+	 * The (second, claimed count) state of each segment
+	 */
+	private final AtomicLongArray claimed = new AtomicLongArray(SlicedWindow.SLOTS);
+
+	/**
+	 * The number of records dropped because their segment was full
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * Creates an empty ring.
+	 *
+	 * @param segmentCapacity the maximum number of records of each second
+	 * @param baseSecond the oldest epoch second the ring can hold
+	 */
+	public OffHeapRing(final int segmentCapacity, final long baseSecond) {
+
+		if (segmentCapacity <= 0 || (long) segmentCapacity * RECORD_SIZE * SlicedWindow.SLOTS > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The segment capacity must be positive and fit in a direct buffer");
+		}
+		this.segmentCapacity = segmentCapacity;
+		this.baseSecond = baseSecond;
+		this.records = ByteBuffer.allocateDirect(segmentCapacity * RECORD_SIZE * SlicedWindow.SLOTS);
+	}
+
+	/**
+	 * Appends a transaction to the segment of its second.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param cents the transaction amount in cents
+	 * @return false if the record was dropped: its segment is full or was
+	 *         already taken by a newer second
+	 */
+	public boolean append(final long timeStamp, final long cents) {
+
+		final long relative = SlicedWindow.second(timeStamp) - baseSecond;
+		if (relative < 0 || relative > Integer.MAX_VALUE) {
+			return false;
+		}
+		final int slot = (int) (relative % SlicedWindow.SLOTS);
+
+		while (true) {
+			final long state = claimed.get(slot);
+			final long stateSecond = state >>> 32;
+			final int position;
+			final long next;
+			if (stateSecond == relative) {
+				position = (int) (state & COUNT_MASK);
+				if (position >= segmentCapacity) {
+					dropped.incrementAndGet();
+					return false;
+				}
+				next = state + 1;
+			} else if (stateSecond < relative) {
+				// The segment belongs to an expired second, it's reclaimed
+				position = 0;
+				next = relative << 32 | 1;
+			} else {
+				return false;
+			}
+
+			if (claimed.compareAndSet(slot, state, next)) {
+				final int offset = (slot * segmentCapacity + position) * RECORD_SIZE;
+				records.putLong(offset + 8, cents);
+				// The time stamp publishes the record, so it's written once the amount is
+				MemoryFences.storeFence();
+				records.putLong(offset, timeStamp);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Visits, segment by segment, the records claimed when the visit started
+	 * whose second is alive at the given time, so the visit is a snapshot even
+	 * if new records are appended meanwhile; the ones still being written are
+	 * skipped. The records are copied to the heap in chunks, and a chunk whose
+	 * segment was reclaimed while being copied (its second left the window a
+	 * whole second ago) is discarded with the rest of the segment.
+	 *
+	 * @param now the current time stamp
+	 * @param visitor the record visitor
+	 */
+	public void forEach(final long now, final IRecordVisitor visitor) {
+
+		final long current = SlicedWindow.second(now);
+		final long[] cut = new long[SlicedWindow.SLOTS];
+		for (long second = current - SlicedWindow.SLOTS + 1; second <= current; second++) {
+			final long relative = second - baseSecond;
+			final int index = (int) (second - current + SlicedWindow.SLOTS - 1);
+			cut[index] = -1;
+			if (relative >= 0 && SlicedWindow.isAlive(second, now)) {
+				final long state = claimed.get((int) (relative % SlicedWindow.SLOTS));
+				if (state >>> 32 == relative) {
+					cut[index] = state;
+				}
+			}
+		}
+
+		final long[] timeStamps = new long[CHUNK_RECORDS];
+		final long[] amounts = new long[CHUNK_RECORDS];
+		for (final long state : cut) {
+			if (state != -1) {
+				visitSegment(state, timeStamps, amounts, visitor);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of claimed records whose second is alive at the
+	 * given time, including the ones still being written
+	 *
+	 * @param now the current time stamp
+	 * @return the number of records
+	 */
+	public long size(final long now) {
+
+		final long current = SlicedWindow.second(now);
+		long size = 0;
+		for (long second = current - SlicedWindow.SLOTS + 1; second <= current; second++) {
+			final long relative = second - baseSecond;
+			if (relative >= 0 && SlicedWindow.isAlive(second, now)) {
+				final long state = claimed.get((int) (relative % SlicedWindow.SLOTS));
+				if (state >>> 32 == relative) {
+					size += state & COUNT_MASK;
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the number of records dropped because their segment was full
+	 *
+	 * @return the dropped records
+	 */
+	public long getDropped() {
+
+		return dropped.get();
+	}
+
+	/**
+	 * Returns the off-heap memory used by the ring
+	 *
+	 * @return the size of the buffer in bytes
+	 */
+	public long getCapacityBytes() {
+
+		return records.capacity();
+	}
+
+	/**
+	 * Visits the published records of a segment up to the claimed count of
+	 * the given state, copying them in chunks
+	 *
+	 * @param state the (second, claimed count) state of the segment
+	 * @param timeStamps the heap chunk the time stamps are copied to
+	 * @param amounts the heap chunk the amounts are copied to
+	 * @param visitor the record visitor
+	 */
+	private void visitSegment(final long state, final long[] timeStamps, final long[] amounts,
+			final IRecordVisitor visitor) {
+
+		final long relative = state >>> 32;
+		final int slot = (int) (relative % SlicedWindow.SLOTS);
+		final int count = (int) (state & COUNT_MASK);
+		for (int first = 0; first < count; first += CHUNK_RECORDS) {
+			final int last = Math.min(first + CHUNK_RECORDS, count);
+			int size = 0;
+			for (int position = first; position < last; position++) {
+				final int offset = (slot * segmentCapacity + position) * RECORD_SIZE;
+				final long timeStamp = records.getLong(offset);
+				if (SlicedWindow.second(timeStamp) - baseSecond != relative) {
+					// Claimed but not published yet
+					continue;
+				}
+				// The amount is read after the time stamp that published it
+				MemoryFences.loadFence();
+				timeStamps[size] = timeStamp;
+				amounts[size++] = records.getLong(offset + 8);
+			}
+			MemoryFences.loadFence();
+			if (claimed.get(slot) >>> 32 != relative) {
+				return;
+			}
+			for (int i = 0; i < size; i++) {
+				visitor.visit(timeStamps[i], amounts[i]);
+			}
+		}
+	}
+
+}
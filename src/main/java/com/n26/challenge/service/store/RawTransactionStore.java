@@ -0,0 +1,112 @@
+package com.n26.challenge.service.store;
+
+import java.time.Clock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.service.ITransactionObserver;
+import com.n26.challenge.service.window.ExactSlidingWindow;
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Store of the raw transactions of the last 60 seconds, kept out of the heap
+ * in an {@link OffHeapRing} and fed with every registered transaction
+ * whatever the statistics engine is. It's meant for the features needing the
+ * transactions themselves (exports, samples or recomputations) instead of
+ * their summaries.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.store.enabled", havingValue = "true")
+public class RawTransactionStore implements ITransactionObserver {
+
+	/**
+	 * The ring with the transactions
+	 */
+	private final OffHeapRing ring;
+
+	/**
+	 * The time source of the window
+	 */
+	private final Clock clock;
+
+	/**
+	 * Store constructor on the system clock
+	 *
+	 * @param segmentCapacity the maximum number of transactions of each second
+	 */
+	public RawTransactionStore(final int segmentCapacity) {
+
+		this(Clock.systemUTC(), segmentCapacity);
+	}
+
+	/**
+	 * Default store constructor
+	 *
+	 * @param clock the time source of the window
+	 * @param segmentCapacity the maximum number of transactions of each second
+	 */
+	@Autowired
+	public RawTransactionStore(final Clock clock,
+			@Value("${statistics.store.segment-capacity}") final int segmentCapacity) {
+
+		this.clock = clock;
+		this.ring = new OffHeapRing(segmentCapacity, SlicedWindow.second(clock.millis()) - SlicedWindow.SLOTS);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see ITransactionObserver#onTransaction(long, double)
+	 */
+	@Override
+	public void onTransaction(final long timeStamp, final double amount) {
+
+		ring.append(timeStamp, ExactSlidingWindow.toCents(amount));
+	}
+
+	/**
+	 * Visits the transactions alive in the window (whose time stamp plus 60
+	 * seconds is not older than the current time).
+	 *
+	 * @param visitor the record visitor
+	 */
+	public void forEach(final IRecordVisitor visitor) {
+
+		final long now = clock.millis();
+		ring.forEach(now, (timeStamp, cents) -> {
+			if (timeStamp + ExactSlidingWindow.WINDOW >= now) {
+				visitor.visit(timeStamp, cents);
+			}
+		});
+	}
+
+	/**
+	 * Returns the number of transactions in the store, including the ones of
+	 * the oldest second that are already out of the window
+	 *
+	 * @return the number of transactions
+	 */
+	public long size() {
+
+		return ring.size(clock.millis());
+	}
+
+	/**
+	 * Returns the number of transactions dropped because their second was
+	 * full
+	 *
+	 * @return the dropped transactions
+	 */
+	public long getDropped() {
+
+		return ring.getDropped();
+	}
+
+}
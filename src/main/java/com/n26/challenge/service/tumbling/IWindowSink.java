@@ -0,0 +1,28 @@
+package com.n26.challenge.service.tumbling;
+
+/**
+ * Destination of the summaries of the closed tumbling windows. The summaries
+ * are handed over in closing order by a single thread, never the one
+ * registering the transactions.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public interface IWindowSink {
+
+	/**
+	 * Accepts the summary of a closed window, waiting for room if the sink is
+	 * behind rather than dropping it.
+	 *
+	 * @param summary the window summary
+	 * @throws InterruptedException if interrupted while waiting for room
+	 */
+	void accept(WindowSummary summary) throws InterruptedException;
+
+	/**
+	 * Writes every accepted summary and releases the sink.
+	 */
+	void close();
+
+}
@@ -0,0 +1,294 @@
+package com.n26.challenge.service.tumbling;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Window sink appending the summaries as NDJSON lines to a rolling file.
+ * <p>
+ * The summaries are queued and written in batches by a dedicated thread,
+ * through a buffered writer flushed after each batch. The active file
+ * ({@code windows.ndjson}) is only appended to; once it reaches the maximum
+ * size, it's renamed after the time it was rolled
+ * ({@code windows-20170101-120000-000.ndjson}) and a new one is started, so
+ * the rolled files never change. Closing the sink waits for every queued
+ * summary to be written.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnExpression("${statistics.tumbling.enabled} and '${statistics.tumbling.sink}' == 'file'")
+public class RollingFileWindowSink implements IWindowSink, PublicMetrics {
+
+	/**
+	 * The class logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(RollingFileWindowSink.class);
+
+	/**
+	 * The name of the active file
+	 */
+	static final String ACTIVE_FILE = "windows.ndjson";
+
+	/**
+	 * The name format of the rolled files
+	 */
+	private static final DateTimeFormatter ROLLED_FILE = DateTimeFormatter
+			.ofPattern("'windows-'yyyyMMdd-HHmmss-SSS'.ndjson'").withZone(ZoneOffset.UTC);
+
+	/**
+	 * The summary queued to stop the writing thread
+	 */
+	private static final WindowSummary END = new WindowSummary(WindowSpan.SECOND, 0, 0, 0, 0, 0, false);
+
+	/**
+	 * The directory of the files
+	 */
+	private final Path directory;
+
+	/**
+	 * The size at which the active file is rolled, in bytes
+	 */
+	private final long maxSize;
+
+	/**
+	 * The maximum number of summaries written at once
+	 */
+	private final int batchSize;
+
+	/**
+	 * The summaries waiting to be written
+	 */
+	private final BlockingQueue<WindowSummary> queue;
+
+	/**
+	 * The number of written summaries
+	 */
+	private final AtomicLong written = new AtomicLong();
+
+	/**
+	 * The writing thread
+	 */
+	private final Thread writerThread;
+
+	/**
+	 * The writer of the active file (writing thread only)
+	 */
+	private Writer writer;
+
+	/**
+	 * The size of the active file (writing thread only)
+	 */
+	private long size;
+
+	/**
+	 * Whether the sink was closed
+	 */
+	private boolean closed;
+
+	/**
+	 * Default rolling file window sink constructor
+	 *
+	 * @param directory the directory of the files
+	 * @param maxSize the size at which the active file is rolled, in bytes
+	 * @param batchSize the maximum number of summaries written at once
+	 * @param queueSize the maximum number of summaries waiting to be written
+	 * @throws IOException if the active file can't be opened
+	 */
+	@Autowired
+	public RollingFileWindowSink(@Value("${statistics.tumbling.file.directory}") final String directory,
+			@Value("${statistics.tumbling.file.max-size}") final long maxSize,
+			@Value("${statistics.tumbling.file.batch-size}") final int batchSize,
+			@Value("${statistics.tumbling.file.queue-size}") final int queueSize) throws IOException {
+
+		if (maxSize <= 0 || batchSize <= 0 || queueSize <= 0) {
+			throw new IllegalArgumentException("The maximum size, batch size and queue size must be positive");
+		}
+		this.directory = Files.createDirectories(Paths.get(directory));
+		this.maxSize = maxSize;
+		this.batchSize = batchSize;
+		this.queue = new ArrayBlockingQueue<>(queueSize);
+		open();
+		writerThread = new Thread(this::write, "statistics-window-sink");
+		writerThread.setDaemon(true);
+		writerThread.start();
+		LOGGER.info("Appending the closed windows to {}", this.directory.resolve(ACTIVE_FILE));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see IWindowSink#accept(WindowSummary)
+	 */
+	@Override
+	public void accept(final WindowSummary summary) throws InterruptedException {
+
+		queue.put(summary);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Waits for the writing thread to write every queued summary.
+	 *
+	 * @see IWindowSink#close()
+	 */
+	@Override
+	@PreDestroy
+	public synchronized void close() {
+
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			queue.put(END);
+			writerThread.join();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.warn("Interrupted while writing the last {} windows", queue.size());
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see PublicMetrics#metrics()
+	 */
+	@Override
+	public Collection<Metric<?>> metrics() {
+
+		final List<Metric<?>> metrics = new ArrayList<>();
+		metrics.add(new Metric<>("statistics.tumbling.written", written.get()));
+		metrics.add(new Metric<>("statistics.tumbling.pending", queue.size()));
+		return metrics;
+	}
+
+	/**
+	 * Returns the number of written summaries
+	 *
+	 * @return the written summaries
+	 */
+	public long getWritten() {
+
+		return written.get();
+	}
+
+	/**
+	 * Writes the queued summaries in batches until the sink is closed, on the
+	 * writing thread
+	 */
+	private void write() {
+
+		final List<WindowSummary> batch = new ArrayList<>(batchSize);
+		boolean running = true;
+		try {
+			while (running) {
+				batch.add(queue.take());
+				queue.drainTo(batch, batchSize - 1);
+				running = writeBatch(batch);
+				batch.clear();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			try {
+				writer.close();
+			} catch (final IOException e) {
+				LOGGER.error("The window file couldn't be closed", e);
+			}
+		}
+	}
+
+	/**
+	 * Writes a batch of summaries and flushes them, rolling the active file
+	 * if it's full.
+	 *
+	 * @param batch the summaries
+	 * @return false if the batch ends the writing
+	 */
+	private boolean writeBatch(final List<WindowSummary> batch) {
+
+		boolean running = true;
+		try {
+			for (final WindowSummary summary : batch) {
+				if (summary == END) {
+					running = false;
+					continue;
+				}
+				final String line = summary.toJson() + '\n';
+				writer.write(line);
+				size += line.length();
+				written.incrementAndGet();
+			}
+			writer.flush();
+			if (size >= maxSize) {
+				roll();
+			}
+		} catch (final IOException e) {
+			LOGGER.error("{} windows couldn't be written", batch.size(), e);
+		}
+		return running;
+	}
+
+	/**
+	 * Opens the active file, appending to it if it exists
+	 *
+	 * @throws IOException if the file can't be opened
+	 */
+	private void open() throws IOException {
+
+		final Path active = directory.resolve(ACTIVE_FILE);
+		size = Files.exists(active) ? Files.size(active) : 0;
+		writer = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(active.toFile(), true), StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Renames the active file after the current time and starts a new one
+	 *
+	 * @throws IOException if the file can't be renamed or opened
+	 */
+	private void roll() throws IOException {
+
+		writer.close();
+		final String name = ROLLED_FILE.format(Instant.now());
+		Path rolled = directory.resolve(name);
+		for (int suffix = 1; Files.exists(rolled); suffix++) {
+			// Rolled twice in the same millisecond, sorted after the first one
+			rolled = directory.resolve(name.replace(".ndjson", String.format("_%03d.ndjson", suffix)));
+		}
+		Files.move(directory.resolve(ACTIVE_FILE), rolled);
+		open();
+	}
+
+}
@@ -0,0 +1,559 @@
+package com.n26.challenge.service.tumbling;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.service.ITransactionObserver;
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Summarizes the registered transactions into one-second and one-minute
+ * tumbling windows, handing each summary over to the {@link IWindowSink}
+ * once its window closes.
+ * <p>
+ * A registered transaction only updates the counters of its second (a few
+ * atomic additions), the seconds are closed by a dedicated thread. A second
+ * closes once the grace period after its end has passed, plus a second for
+ * the transactions being validated meanwhile: with the default grace of 60
+ * seconds, the service rejects any later transaction of that second, so the
+ * summary is final. With a shorter grace, the transactions arriving after
+ * their second closed are counted as late and left out: closing a second
+ * seals it first, waiting for the additions already in progress, so a
+ * transaction is either in the summary or counted as late. A minute closes with
+ * its last second, and only the windows with transactions are handed over.
+ * <p>
+ * On shutdown, the closable windows are closed as usual and the still open
+ * ones are closed early, flagged as incomplete, so nothing registered is
+ * lost.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.tumbling.enabled", havingValue = "true")
+public class TumblingWindowAggregator implements ITransactionObserver, PublicMetrics {
+
+	/**
+	 * The class logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(TumblingWindowAggregator.class);
+
+	/**
+	 * The delay after the grace period, for the transactions validated right
+	 * before it ends
+	 */
+	private static final long CLOSE_DELAY = 1_000;
+
+	/**
+	 * The extra slots after the grace period, so a slot is closed before its
+	 * second comes again even if the closing thread is a few seconds late
+	 */
+	private static final int EXTRA_SLOTS = 5;
+
+	/**
+	 * The maximum time to wait for the closing thread on shutdown, in
+	 * seconds
+	 */
+	private static final long SHUTDOWN_TIMEOUT = 30;
+
+	/**
+	 * The sink of the closed windows
+	 */
+	private final IWindowSink sink;
+
+	/**
+	 * The time a second stays open after its end, in milliseconds
+	 */
+	private final long grace;
+
+	/**
+	 * The period of the closing thread, in milliseconds
+	 */
+	private final long interval;
+
+	/**
+	 * The open seconds, indexed by their epoch second modulo the slots
+	 */
+	private final AtomicReferenceArray<OpenSecond> slots;
+
+	/**
+	 * The last closed epoch second
+	 */
+	private volatile long closedUpTo = Long.MIN_VALUE;
+
+	/**
+	 * The number of transactions arriving after their second closed
+	 */
+	private final LongAdder late = new LongAdder();
+
+	/**
+	 * The number of closed windows handed over to the sink
+	 */
+	private final AtomicLong closed = new AtomicLong();
+
+	/**
+	 * The open minute, merging its closed seconds (closing thread only)
+	 */
+	private final OpenMinute minute = new OpenMinute();
+
+	/**
+	 * The clock
+	 */
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * The closing thread
+	 */
+	private ScheduledExecutorService closer;
+
+	/**
+	 * Default tumbling window aggregator constructor
+	 *
+	 * @param sink the sink of the closed windows
+	 * @param grace the time a second stays open after its end, in
+	 *            milliseconds
+	 * @param interval the period of the closing thread, in milliseconds
+	 */
+	@Autowired
+	public TumblingWindowAggregator(final IWindowSink sink, @Value("${statistics.tumbling.grace}") final long grace,
+			@Value("${statistics.tumbling.interval}") final long interval) {
+
+		if (grace < 0 || grace > SlicedWindow.WINDOW || interval <= 0) {
+			throw new IllegalArgumentException("The grace must be between 0 and " + SlicedWindow.WINDOW
+					+ " ms, and the interval positive");
+		}
+		this.sink = sink;
+		this.grace = grace;
+		this.interval = interval;
+		this.slots = new AtomicReferenceArray<>((int) (grace / 1000) + EXTRA_SLOTS);
+	}
+
+	/**
+	 * Sets the clock closing the windows
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
+	/**
+	 * Starts the closing thread
+	 */
+	@PostConstruct
+	public void start() {
+
+		closer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "statistics-tumbling");
+			thread.setDaemon(true);
+			return thread;
+		});
+		closer.scheduleWithFixedDelay(this::closeWindows, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the closing thread, letting it finish the windows it's closing,
+	 * and closes every open window
+	 *
+	 * @throws InterruptedException if interrupted while waiting for the
+	 *             closing thread or the sink
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException {
+
+		if (closer != null) {
+			closer.shutdown();
+			if (!closer.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+				LOGGER.warn("The tumbling windows closing thread didn't stop in {} seconds", SHUTDOWN_TIMEOUT);
+			}
+		}
+		flush(clock.millis());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see ITransactionObserver#onTransaction(long, double)
+	 */
+	@Override
+	public void onTransaction(final long timeStamp, final double amount) {
+
+		final long second = SlicedWindow.second(timeStamp);
+		if (second <= closedUpTo) {
+			late.increment();
+			return;
+		}
+		final int index = index(second);
+		OpenSecond slot = slots.get(index);
+		while (slot == null || slot.second < second) {
+			final OpenSecond replacement = new OpenSecond(second);
+			if (slots.compareAndSet(index, slot, replacement)) {
+				slot = replacement;
+			} else {
+				slot = slots.get(index);
+			}
+		}
+		if (slot.second != second || !slot.add(Math.round(amount * 100))) {
+			// Replaced by a newer second, or sealed by the closing thread
+			late.increment();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see PublicMetrics#metrics()
+	 */
+	@Override
+	public Collection<Metric<?>> metrics() {
+
+		final List<Metric<?>> metrics = new ArrayList<>();
+		metrics.add(new Metric<>("statistics.tumbling.closed", closed.get()));
+		metrics.add(new Metric<>("statistics.tumbling.late", late.sum()));
+		return metrics;
+	}
+
+	/**
+	 * Returns the number of transactions arriving after their second closed
+	 *
+	 * @return the late transactions
+	 */
+	public long getLate() {
+
+		return late.sum();
+	}
+
+	/**
+	 * Closes the closable windows, on the closing thread
+	 */
+	private void closeWindows() {
+
+		try {
+			close(clock.millis());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (final RuntimeException e) {
+			LOGGER.error("The tumbling windows couldn't be closed", e);
+		}
+	}
+
+	/**
+	 * Closes the seconds whose grace period ended, and their minutes.
+	 *
+	 * @param now the current time stamp
+	 * @throws InterruptedException if interrupted while waiting for the sink
+	 */
+	synchronized void close(final long now) throws InterruptedException {
+
+		closeUpTo(Math.floorDiv(now - grace - CLOSE_DELAY, 1000L) - 1, true);
+	}
+
+	/**
+	 * Closes the closable windows and then the open ones, as incomplete.
+	 *
+	 * @param now the current time stamp
+	 * @throws InterruptedException if interrupted while waiting for the sink
+	 */
+	synchronized void flush(final long now) throws InterruptedException {
+
+		close(now);
+		closeUpTo(SlicedWindow.second(now), false);
+		minute.close(false);
+	}
+
+	/**
+	 * Closes the seconds up to the given one, closing each minute with its
+	 * last second.
+	 *
+	 * @param last the last second to close
+	 * @param complete whether the grace period of the seconds ended
+	 * @throws InterruptedException if interrupted while waiting for the sink
+	 */
+	private void closeUpTo(final long last, final boolean complete) throws InterruptedException {
+
+		if (last <= closedUpTo) {
+			return;
+		}
+		// The seconds older than the slots were already replaced
+		final long first = closedUpTo == Long.MIN_VALUE ? last - slots.length() + 1
+				: Math.max(closedUpTo + 1, last - slots.length() + 1);
+		for (long second = first; second <= last; second++) {
+			// Closed before it's summarized, so the new transactions of the second are counted as late
+			closedUpTo = second;
+			final OpenSecond slot = seal(second);
+			if (slot != null && slot.count.sum() > 0) {
+				final WindowSummary summary = slot.summarize(complete);
+				emit(summary);
+				minute.merge(summary);
+			}
+			if (Math.floorMod(second + 1, 60L) == 0) {
+				minute.close(complete);
+			}
+		}
+	}
+
+	/**
+	 * Seals a second, so the transactions still being added to it are either
+	 * in its summary or counted as late. A missing slot is replaced by an
+	 * empty sealed one, so a registering thread that checked the second
+	 * before it closed can't open it again.
+	 *
+	 * @param second the epoch second
+	 * @return the sealed slot of the second, null if it was replaced by a
+	 *         newer one
+	 */
+	private OpenSecond seal(final long second) {
+
+		final int index = index(second);
+		OpenSecond slot = slots.get(index);
+		while (slot == null || slot.second < second) {
+			final OpenSecond replacement = new OpenSecond(second);
+			replacement.seal();
+			if (slots.compareAndSet(index, slot, replacement)) {
+				return null;
+			}
+			slot = slots.get(index);
+		}
+		if (slot.second != second) {
+			return null;
+		}
+		slot.seal();
+		return slot;
+	}
+
+	/**
+	 * Hands a closed window over to the sink.
+	 *
+	 * @param summary the window summary
+	 * @throws InterruptedException if interrupted while waiting for the sink
+	 */
+	private void emit(final WindowSummary summary) throws InterruptedException {
+
+		sink.accept(summary);
+		closed.incrementAndGet();
+	}
+
+	/**
+	 * Returns the slot of an epoch second
+	 *
+	 * @param second the epoch second
+	 * @return the slot index
+	 */
+	private int index(final long second) {
+
+		return (int) Math.floorMod(second, (long) slots.length());
+	}
+
+	/**
+	 * The counters of an open second, updated concurrently by the registering
+	 * threads
+	 */
+	private static final class OpenSecond {
+
+		/**
+		 * The epoch second
+		 */
+		private final long second;
+
+		/**
+		 * The number of transactions
+		 */
+		private final LongAdder count = new LongAdder();
+
+		/**
+		 * The sum of the amounts in cents
+		 */
+		private final LongAdder sum = new LongAdder();
+
+		/**
+		 * The minimum amount in cents
+		 */
+		private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+		/**
+		 * The maximum amount in cents
+		 */
+		private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+		/**
+		 * The number of additions in progress, with the sign bit set once the
+		 * second is sealed
+		 */
+		private final AtomicInteger writers = new AtomicInteger();
+
+		/**
+		 * Creates the counters of a second.
+		 *
+		 * @param second the epoch second
+		 */
+		private OpenSecond(final long second) {
+
+			this.second = second;
+		}
+
+		/**
+		 * Adds a transaction, unless the second is sealed.
+		 *
+		 * @param cents the amount in cents
+		 * @return false if the second is sealed and the transaction was not
+		 *         added
+		 */
+		private boolean add(final long cents) {
+
+			int state;
+			do {
+				state = writers.get();
+				if (state < 0) {
+					return false;
+				}
+			} while (!writers.compareAndSet(state, state + 1));
+			try {
+				sum.add(cents);
+				min.accumulate(cents);
+				max.accumulate(cents);
+				count.increment();
+			} finally {
+				writers.decrementAndGet();
+			}
+			return true;
+		}
+
+		/**
+		 * Seals the second, waiting for the additions in progress to finish.
+		 * The later additions are refused.
+		 */
+		private void seal() {
+
+			writers.getAndUpdate(state -> state | Integer.MIN_VALUE);
+			while (writers.get() != Integer.MIN_VALUE) {
+				// The additions only take a few atomic operations
+				Thread.yield();
+			}
+		}
+
+		/**
+		 * Summarizes the second.
+		 *
+		 * @param complete whether its grace period ended
+		 * @return the window summary
+		 */
+		private WindowSummary summarize(final boolean complete) {
+
+			return new WindowSummary(WindowSpan.SECOND, second * 1000, count.sum(), sum.sum(), min.get(), max.get(),
+					complete);
+		}
+
+	}
+
+	/**
+	 * The open minute, merging the summaries of its closed seconds
+	 */
+	private final class OpenMinute {
+
+		/**
+		 * The first time stamp of the minute, Long.MIN_VALUE if empty
+		 */
+		private long start = Long.MIN_VALUE;
+
+		/**
+		 * The number of transactions
+		 */
+		private long count;
+
+		/**
+		 * The sum of the amounts in cents
+		 */
+		private long sum;
+
+		/**
+		 * The minimum amount in cents
+		 */
+		private long min;
+
+		/**
+		 * The maximum amount in cents
+		 */
+		private long max;
+
+		/**
+		 * Whether every merged second was complete
+		 */
+		private boolean complete;
+
+		/**
+		 * Merges the summary of a closed second, closing the previous minute
+		 * as incomplete if it's from another one (after a gap of the closing
+		 * thread).
+		 *
+		 * @param second the summary of the second
+		 * @throws InterruptedException if interrupted while waiting for the
+		 *             sink
+		 */
+		private void merge(final WindowSummary second) throws InterruptedException {
+
+			final long secondMinute = Math.floorDiv(second.getStart(), WindowSpan.MINUTE.getLength())
+					* WindowSpan.MINUTE.getLength();
+			if (start != Long.MIN_VALUE && start != secondMinute) {
+				// Its last seconds were skipped
+				close(false);
+			}
+			if (start == Long.MIN_VALUE) {
+				start = secondMinute;
+				count = 0;
+				sum = 0;
+				min = Long.MAX_VALUE;
+				max = Long.MIN_VALUE;
+				complete = true;
+			}
+			count += second.getCount();
+			sum += second.getSum().unscaledValue().longValue();
+			min = Math.min(min, second.getMin().unscaledValue().longValue());
+			max = Math.max(max, second.getMax().unscaledValue().longValue());
+			complete &= second.isComplete();
+		}
+
+		/**
+		 * Closes the minute, if it has transactions.
+		 *
+		 * @param closedComplete whether its last second was complete
+		 * @throws InterruptedException if interrupted while waiting for the
+		 *             sink
+		 */
+		private void close(final boolean closedComplete) throws InterruptedException {
+
+			if (start != Long.MIN_VALUE) {
+				final long minuteStart = start;
+				start = Long.MIN_VALUE;
+				emit(new WindowSummary(WindowSpan.MINUTE, minuteStart, count, sum, min, max,
+						complete && closedComplete));
+			}
+		}
+
+	}
+
+}
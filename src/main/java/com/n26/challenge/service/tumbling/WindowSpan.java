@@ -0,0 +1,61 @@
+package com.n26.challenge.service.tumbling;
+
+import java.util.Locale;
+
+/**
+ * The length of the tumbling windows summarized when they close.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public enum WindowSpan {
+
+	/**
+	 * One-second windows, starting at each epoch second
+	 */
+	SECOND(1_000),
+
+	/**
+	 * One-minute windows, starting at each epoch minute
+	 */
+	MINUTE(60_000);
+
+	/**
+	 * The window length in milliseconds
+	 */
+	private final long length;
+
+	/**
+	 * Creates a window span.
+	 *
+	 * @param length the window length in milliseconds
+	 */
+	WindowSpan(final long length) {
+
+		this.length = length;
+	}
+
+	/**
+	 * Returns the window length
+	 *
+	 * @return the length in milliseconds
+	 */
+	public long getLength() {
+
+		return length;
+	}
+
+	/**
+	 * Returns the window span of a name, ignoring the case
+	 *
+	 * @param name the span name
+	 * @return the window span
+	 * @throws IllegalArgumentException if there is no span with the name
+	 */
+	public static WindowSpan fromName(final String name) {
+
+		return valueOf(name.trim().toUpperCase(Locale.ROOT));
+	}
+
+}
@@ -0,0 +1,169 @@
+package com.n26.challenge.service.tumbling;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * The immutable summary of a closed tumbling window: the transactions whose
+ * time stamps are in [start, end).
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class WindowSummary {
+
+	/**
+	 * The window length
+	 */
+	private final WindowSpan span;
+
+	/**
+	 * The first time stamp of the window (inclusive)
+	 */
+	private final long start;
+
+	/**
+	 * The number of transactions
+	 */
+	private final long count;
+
+	/**
+	 * The sum of the amounts in cents
+	 */
+	private final long sum;
+
+	/**
+	 * The minimum amount in cents
+	 */
+	private final long min;
+
+	/**
+	 * The maximum amount in cents
+	 */
+	private final long max;
+
+	/**
+	 * Whether the window was closed once no more transactions could fall in
+	 * it, false if it was closed early by a shutdown
+	 */
+	private final boolean complete;
+
+	/**
+	 * Creates a window summary.
+	 *
+	 * @param span the window length
+	 * @param start the first time stamp of the window
+	 * @param count the number of transactions
+	 * @param sum the sum of the amounts in cents
+	 * @param min the minimum amount in cents
+	 * @param max the maximum amount in cents
+	 * @param complete whether the window was closed once no more transactions
+	 *            could fall in it
+	 */
+	public WindowSummary(final WindowSpan span, final long start, final long count, final long sum, final long min,
+			final long max, final boolean complete) {
+
+		this.span = span;
+		this.start = start;
+		this.count = count;
+		this.sum = sum;
+		this.min = min;
+		this.max = max;
+		this.complete = complete;
+	}
+
+	/**
+	 * Returns the window length
+	 *
+	 * @return the window span
+	 */
+	public WindowSpan getSpan() {
+
+		return span;
+	}
+
+	/**
+	 * Returns the first time stamp of the window
+	 *
+	 * @return the inclusive start in epoch milliseconds
+	 */
+	public long getStart() {
+
+		return start;
+	}
+
+	/**
+	 * Returns the time stamp after the window
+	 *
+	 * @return the exclusive end in epoch milliseconds
+	 */
+	public long getEnd() {
+
+		return start + span.getLength();
+	}
+
+	/**
+	 * Returns the number of transactions
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+
+		return count;
+	}
+
+	/**
+	 * Returns the sum of the amounts
+	 *
+	 * @return the sum, exact to the cent
+	 */
+	public BigDecimal getSum() {
+
+		return BigDecimal.valueOf(sum, 2);
+	}
+
+	/**
+	 * Returns the minimum amount
+	 *
+	 * @return the minimum
+	 */
+	public BigDecimal getMin() {
+
+		return BigDecimal.valueOf(min, 2);
+	}
+
+	/**
+	 * Returns the maximum amount
+	 *
+	 * @return the maximum
+	 */
+	public BigDecimal getMax() {
+
+		return BigDecimal.valueOf(max, 2);
+	}
+
+	/**
+	 * Returns whether the window was closed once no more transactions could
+	 * fall in it
+	 *
+	 * @return false if it was closed early by a shutdown
+	 */
+	public boolean isComplete() {
+
+		return complete;
+	}
+
+	/**
+	 * Returns the summary as a JSON object
+	 *
+	 * @return the JSON line, without the line end
+	 */
+	public String toJson() {
+
+		return "{\"span\":\"" + span.name().toLowerCase(Locale.ROOT) + "\",\"start\":" + start + ",\"end\":"
+				+ getEnd() + ",\"count\":" + count + ",\"sum\":" + getSum().toPlainString() + ",\"min\":"
+				+ getMin().toPlainString() + ",\"max\":" + getMax().toPlainString() + ",\"complete\":" + complete + "}";
+	}
+
+}
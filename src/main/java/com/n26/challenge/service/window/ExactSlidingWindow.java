@@ -0,0 +1,286 @@
+package com.n26.challenge.service.window;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.jfr.ExpiryEvent;
+import com.n26.challenge.model.SlotSummary;
+
+/**
+ * Exact sliding window of the last 60 seconds of transactions, with
+ * millisecond precision: a transaction is included while its time stamp plus
+ * 60 seconds is not older than the current time, and not a millisecond more.
+ * <p>
+ * The count and sum (in cents, so they never drift) are kept as running
+ * totals plus a ring with the count and sum of each millisecond of the
+ * window; when time advances, the milliseconds leaving the window are
+ * subtracted from the totals, which is amortized constant time. The minimum
+ * and maximum are kept with {@link MonotonicDeque}s, and the moments behind
+ * the variance with a {@link SlotSummary} per millisecond, subtracted from
+ * the running moments in constant time too. Since the subtractions cancel
+ * out (badly, when a large outlier expires), the running moments are rebuilt
+ * from the live milliseconds once per window length swept, and whenever an
+ * expiry removes most of their squared deviations, which keeps the rebuild
+ * amortized constant time. Transactions can arrive
+ * out of order, as long as they are inside the window, without rescanning
+ * anything; a late one only costs the placement in the deques, a binary
+ * search plus shifting their newer entries (linear in the transactions of
+ * the window in the worst case, see {@link MonotonicDeque}).
+ * <p>
+ * All the methods receive the current time, which must not go backwards.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ExactSlidingWindow {
+
+	/**
+	 * The window length in milliseconds
+	 */
+	public static final long WINDOW = 60_000;
+
+	/**
+	 * The number of milliseconds alive at any time (both ends included)
+	 */
+	private static final int SLOTS = (int) WINDOW + 1;
+
+	/**
+	 * The factor the squared deviations of the running moments must shrink
+	 * by in an expiry to rebuild them, since the digits lost to the
+	 * cancellation are then significant
+	 */
+	private static final double CANCELLATION_FACTOR = 1_024;
+
+	/**
+	 * The number of transactions of each millisecond of the window
+	 */
+	private final long[] counts = new long[SLOTS];
+
+	/**
+	 * The total amount (in cents) of each millisecond of the window
+	 */
+	private final long[] sums = new long[SLOTS];
+
+	/**
+	 * The moments of the amounts of each millisecond of the window
+	 */
+	private final SlotSummary[] moments = new SlotSummary[SLOTS];
+
+	/**
+	 * The moments of the amounts of the transactions alive
+	 */
+	private final SlotSummary totalMoments = new SlotSummary();
+
+	/**
+	 * The deque keeping the maximum amount
+	 */
+	private final MonotonicDeque maximum = new MonotonicDeque(true);
+
+	/**
+	 * The deque keeping the minimum amount
+	 */
+	private final MonotonicDeque minimum = new MonotonicDeque(false);
+
+	/**
+	 * The number of transactions alive
+	 */
+	private long count;
+
+	/**
+	 * The total amount (in cents) of the transactions alive
+	 */
+	private long sum;
+
+	/**
+	 * The newest time stamp already expired (every older one is expired too)
+	 */
+	private long expiredUpTo = Long.MIN_VALUE;
+
+	/**
+	 * The milliseconds swept since the running moments were rebuilt
+	 */
+	private long sweptSinceRebuild;
+
+	/**
+	 * Creates an empty window.
+	 */
+	public ExactSlidingWindow() {
+
+		for (int i = 0; i < SLOTS; i++) {
+			moments[i] = new SlotSummary();
+		}
+	}
+
+	/**
+	 * Registers a transaction into the window.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param cents the transaction amount in cents
+	 * @param now the current time stamp
+	 * @return false if the transaction is out of the window and was ignored
+	 */
+	public synchronized boolean record(final long timeStamp, final long cents, final long now) {
+
+		advance(now);
+		if (timeStamp <= expiredUpTo || timeStamp > now) {
+			return false;
+		}
+
+		final int slot = slot(timeStamp);
+		counts[slot]++;
+		sums[slot] += cents;
+		count++;
+		sum += cents;
+		final double amount = BigDecimal.valueOf(cents, 2).doubleValue();
+		moments[slot].add(amount);
+		totalMoments.add(amount);
+		maximum.add(timeStamp, cents);
+		minimum.add(timeStamp, cents);
+		return true;
+	}
+
+	/**
+	 * Returns the statistics of the transactions alive in the window.
+	 *
+	 * @param now the current time stamp
+	 * @return the statistics result
+	 */
+	public synchronized StatisticsResult getStatistics(final long now) {
+
+		advance(now);
+		if (count == 0) {
+			return new StatisticsResult(0, 0, 0, 0, 0);
+		}
+		final BigDecimal total = BigDecimal.valueOf(sum, 2);
+		final double variance = totalMoments.variance();
+		return new StatisticsResult(total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP).doubleValue(),
+				count, BigDecimal.valueOf(maximum.peek(), 2).doubleValue(),
+				BigDecimal.valueOf(minimum.peek(), 2).doubleValue(), total.doubleValue(),
+				SlicedWindow.round(variance), SlicedWindow.round(Math.sqrt(variance)));
+	}
+
+	/**
+	 * Returns the summary of the transactions alive in the window, to be
+	 * merged with other summaries.
+	 *
+	 * @param now the current time stamp
+	 * @return the summary, of the current second
+	 */
+	public synchronized SlotSummary summarize(final long now) {
+
+		advance(now);
+		final SlotSummary summary = new SlotSummary(SlicedWindow.second(now));
+		if (count == 0) {
+			return summary;
+		}
+		summary.setCount(count);
+		summary.setSum(BigDecimal.valueOf(sum, 2).doubleValue());
+		summary.setMin(BigDecimal.valueOf(minimum.peek(), 2).doubleValue());
+		summary.setMax(BigDecimal.valueOf(maximum.peek(), 2).doubleValue());
+		summary.setMean(totalMoments.getMean());
+		summary.setM2(totalMoments.getM2());
+		return summary;
+	}
+
+	/**
+	 * Removes all the transactions from the window
+	 */
+	public synchronized void clear() {
+
+		Arrays.fill(counts, 0);
+		Arrays.fill(sums, 0);
+		for (final SlotSummary slot : moments) {
+			slot.reset(0);
+		}
+		totalMoments.reset(0);
+		maximum.clear();
+		minimum.clear();
+		count = 0;
+		sum = 0;
+		sweptSinceRebuild = 0;
+	}
+
+	/**
+	 * Converts an amount to cents, rounding it half up to 2 decimals.
+	 *
+	 * @param amount the amount
+	 * @return the amount in cents
+	 */
+	public static long toCents(final double amount) {
+
+		return new BigDecimal(amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+	}
+
+	/**
+	 * Expires the milliseconds that left the window since the last call.
+	 *
+	 * @param now the current time stamp
+	 */
+	private void advance(final long now) {
+
+		final long newExpiredUpTo = now - WINDOW - 1;
+		if (newExpiredUpTo <= expiredUpTo) {
+			return;
+		}
+
+		final ExpiryEvent event = new ExpiryEvent();
+		event.begin();
+		final long alive = count;
+		final long swept;
+		if (expiredUpTo == Long.MIN_VALUE || newExpiredUpTo - expiredUpTo >= SLOTS) {
+			// The whole window expired
+			clear();
+			swept = SLOTS;
+		} else {
+			swept = newExpiredUpTo - expiredUpTo;
+			final double m2 = totalMoments.getM2();
+			for (long timeStamp = expiredUpTo + 1; timeStamp <= newExpiredUpTo; timeStamp++) {
+				final int slot = slot(timeStamp);
+				count -= counts[slot];
+				sum -= sums[slot];
+				counts[slot] = 0;
+				sums[slot] = 0;
+				if (moments[slot].getCount() > 0) {
+					totalMoments.subtract(moments[slot]);
+					moments[slot].reset(0);
+				}
+			}
+			sweptSinceRebuild += swept;
+			if (sweptSinceRebuild >= SLOTS || m2 > totalMoments.getM2() * CANCELLATION_FACTOR) {
+				rebuildMoments();
+			}
+		}
+		expiredUpTo = newExpiredUpTo;
+		maximum.expire(newExpiredUpTo + 1);
+		minimum.expire(newExpiredUpTo + 1);
+		event.commit(ExpiryEvent.EXACT_WINDOW, alive - count, swept);
+	}
+
+	/**
+	 * Rebuilds the running moments by merging the ones of the live
+	 * milliseconds, discarding the error accumulated by the subtractions
+	 */
+	private void rebuildMoments() {
+
+		totalMoments.reset(0);
+		for (final SlotSummary slot : moments) {
+			totalMoments.merge(slot);
+		}
+		sweptSinceRebuild = 0;
+	}
+
+	/**
+	 * Returns the ring slot of a time stamp
+	 *
+	 * @param timeStamp the time stamp
+	 * @return the slot
+	 */
+	private static int slot(final long timeStamp) {
+
+		return (int) Math.floorMod(timeStamp, (long) SLOTS);
+	}
+
+}
@@ -0,0 +1,268 @@
+package com.n26.challenge.service.window;
+
+/**
+ * Monotonic deque of (time stamp, value) pairs used to keep the maximum (or
+ * minimum) of a sliding window. The entries are sorted by time stamp and
+ * their values strictly decrease (or increase, for the minimum), since an
+ * entry older and not greater than a newer one can never be the maximum
+ * again. The head of the deque is therefore always the extremum of the
+ * window.
+ * <p>
+ * Appending an entry newer than the last one and expiring old entries are
+ * amortized constant time operations. An entry older than the last one (an
+ * out-of-order time stamp) is not: it is placed with a binary search and the
+ * entries after it are shifted, so it costs O(log n + k), k being the number
+ * of entries newer than it. The deque only keeps the "record" values of the
+ * window, so its length stays small for random amounts (logarithmic), but
+ * with monotone amounts (e.g. ever decreasing ones, for the maximum) it holds
+ * every entry of the window, and a late entry may shift all of them: the
+ * worst case is linear in the number of entries of the window.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class MonotonicDeque {
+
+	/**
+	 * The initial capacity
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * 1 to keep the maximum, -1 to keep the minimum (values are stored
+	 * multiplied by it, so the deque always keeps a maximum internally)
+	 */
+	private final long sign;
+
+	/**
+	 * The entries' time stamps (circular buffer)
+	 */
+	private long[] timeStamps = new long[INITIAL_CAPACITY];
+
+	/**
+	 * The entries' values (circular buffer)
+	 */
+	private long[] values = new long[INITIAL_CAPACITY];
+
+	/**
+	 * The position of the first entry
+	 */
+	private int head;
+
+	/**
+	 * The number of entries
+	 */
+	private int size;
+
+	/**
+	 * Creates an empty deque.
+	 *
+	 * @param maximum true to keep the maximum, false to keep the minimum
+	 */
+	public MonotonicDeque(final boolean maximum) {
+
+		this.sign = maximum ? 1 : -1;
+	}
+
+	/**
+	 * Adds a value with its time stamp, in or out of order.
+	 *
+	 * @param timeStamp the time stamp
+	 * @param value the value
+	 */
+	public void add(final long timeStamp, final long value) {
+
+		final long signed = sign * value;
+		if (size == 0 || timeStamp >= timeStamps[position(size - 1)]) {
+			// In order: remove the dominated entries at the tail
+			while (size > 0 && values[position(size - 1)] <= signed) {
+				size--;
+			}
+			append(timeStamp, signed);
+			return;
+		}
+
+		// Out of order: first entry newer than the time stamp
+		final int newer = firstNewerThan(timeStamp);
+		if (newer < size && values[position(newer)] >= signed) {
+			// A newer entry, at least as large, dominates the value
+			return;
+		}
+		// Older entries not greater than the value are dominated by it
+		int dominated = newer;
+		while (dominated > 0 && values[position(dominated - 1)] <= signed) {
+			dominated--;
+		}
+		replace(dominated, newer, timeStamp, signed);
+	}
+
+	/**
+	 * Removes the entries older than the given time stamp.
+	 *
+	 * @param oldestAlive the oldest time stamp still alive
+	 */
+	public void expire(final long oldestAlive) {
+
+		while (size > 0 && timeStamps[head] < oldestAlive) {
+			head = (head + 1) % timeStamps.length;
+			size--;
+		}
+	}
+
+	/**
+	 * Returns whether the deque is empty
+	 *
+	 * @return true if empty
+	 */
+	public boolean isEmpty() {
+
+		return size == 0;
+	}
+
+	/**
+	 * Returns the extremum (maximum or minimum) of the alive entries
+	 *
+	 * @return the extremum
+	 * @throws IllegalStateException if the deque is empty
+	 */
+	public long peek() {
+
+		if (size == 0) {
+			throw new IllegalStateException("The deque is empty");
+		}
+		return sign * values[head];
+	}
+
+	/**
+	 * Returns the number of entries
+	 *
+	 * @return the size
+	 */
+	public int size() {
+
+		return size;
+	}
+
+	/**
+	 * Removes all the entries
+	 */
+	public void clear() {
+
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Appends an entry at the tail, growing the buffers if needed
+	 *
+	 * @param timeStamp the time stamp
+	 * @param signed the signed value
+	 */
+	private void append(final long timeStamp, final long signed) {
+
+		if (size == timeStamps.length) {
+			grow();
+		}
+		final int position = position(size);
+		timeStamps[position] = timeStamp;
+		values[position] = signed;
+		size++;
+	}
+
+	/**
+	 * Replaces the entries in [from, to) by a single entry, shifting the
+	 * entries after them, which is linear in their number.
+	 *
+	 * @param from the first replaced entry (logical index)
+	 * @param to the entry after the last replaced one (logical index)
+	 * @param timeStamp the new entry time stamp
+	 * @param signed the new entry signed value
+	 */
+	private void replace(final int from, final int to, final long timeStamp, final long signed) {
+
+		final int removed = to - from;
+		if (removed == 0) {
+			// Pure insertion: shift the newer entries one position right
+			if (size == timeStamps.length) {
+				grow();
+			}
+			for (int i = size; i > to; i--) {
+				copy(i - 1, i);
+			}
+			size++;
+		} else if (removed > 1) {
+			// Shift the newer entries left over the extra removed entries
+			for (int i = to; i < size; i++) {
+				copy(i, i - removed + 1);
+			}
+			size -= removed - 1;
+		}
+		final int position = position(from);
+		timeStamps[position] = timeStamp;
+		values[position] = signed;
+	}
+
+	/**
+	 * Returns the logical index of the first entry newer than the time stamp
+	 *
+	 * @param timeStamp the time stamp
+	 * @return the logical index, or the size if there is none
+	 */
+	private int firstNewerThan(final long timeStamp) {
+
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (timeStamps[position(middle)] > timeStamp) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Copies an entry to another logical index
+	 *
+	 * @param from the source logical index
+	 * @param to the target logical index
+	 */
+	private void copy(final int from, final int to) {
+
+		timeStamps[position(to)] = timeStamps[position(from)];
+		values[position(to)] = values[position(from)];
+	}
+
+	/**
+	 * Doubles the capacity, moving the entries to the start of the buffers
+	 */
+	private void grow() {
+
+		final long[] newTimeStamps = new long[timeStamps.length * 2];
+		final long[] newValues = new long[values.length * 2];
+		for (int i = 0; i < size; i++) {
+			newTimeStamps[i] = timeStamps[position(i)];
+			newValues[i] = values[position(i)];
+		}
+		timeStamps = newTimeStamps;
+		values = newValues;
+		head = 0;
+	}
+
+	/**
+	 * Returns the buffer position of a logical index
+	 *
+	 * @param index the logical index
+	 * @return the buffer position
+	 */
+	private int position(final int index) {
+
+		return (head + index) % timeStamps.length;
+	}
+
+}
@@ -0,0 +1,216 @@
+package com.n26.challenge.service.window;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.model.SlotSummary;
+
+/**
+ * Sliding window of the last 60 seconds of transactions, kept as a ring of
+ * per-second {@link SlotSummary} slots. Registering a transaction and
+ * expiring a slot are constant time operations, and summarizing the window
+ * costs one merge per slot, regardless of the number of transactions.
+ * <p>
+ * Since the expiration granularity is one second, a transaction stays in the
+ * window until the whole second it belongs to is older than 60 seconds.
+ * All the methods receive the current time, so the window has no dependency
+ * on the system clock.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class SlicedWindow {
+
+	/**
+	 * The window length in milliseconds
+	 */
+	public static final long WINDOW = 60_000;
+
+	/**
+	 * The number of slots, the 60 seconds of the window plus the current one
+	 */
+	public static final int SLOTS = (int) (WINDOW / 1000) + 1;
+
+	/**
+	 * The per-second slots, indexed by epoch second modulo {@link #SLOTS}
+	 */
+	private final SlotSummary[] slots = new SlotSummary[SLOTS];
+
+	/**
+	 * Creates an empty window.
+	 */
+	public SlicedWindow() {
+
+		for (int i = 0; i < SLOTS; i++) {
+			slots[i] = new SlotSummary(-1);
+		}
+	}
+
+	/**
+	 * Registers a transaction into the window.
+	 *
+	 * @param timeStamp the transaction time stamp
+	 * @param amount the transaction amount
+	 * @param now the current time stamp
+	 * @return false if the transaction is out of the window and was ignored
+	 */
+	public synchronized boolean record(final long timeStamp, final double amount, final long now) {
+
+		if (!isAlive(second(timeStamp), now) || timeStamp > now) {
+			return false;
+		}
+		slot(second(timeStamp)).add(amount);
+		return true;
+	}
+
+	/**
+	 * Returns a copy of the non empty slots still alive in the window.
+	 *
+	 * @param now the current time stamp
+	 * @return the alive slots, oldest first
+	 */
+	public synchronized List<SlotSummary> snapshot(final long now) {
+
+		final List<SlotSummary> snapshot = new ArrayList<>(SLOTS);
+		final long current = second(now);
+		for (long second = current - SLOTS + 1; second <= current; second++) {
+			final SlotSummary slot = slots[index(second)];
+			if (slot.getSecond() == second && slot.getCount() > 0 && isAlive(second, now)) {
+				snapshot.add(slot.copy());
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Returns the summary of all the transactions alive in the window.
+	 *
+	 * @param now the current time stamp
+	 * @return the merged summary
+	 */
+	public SlotSummary summarize(final long now) {
+
+		return merge(snapshot(now), now);
+	}
+
+	/**
+	 * Merges the given slots into a single summary, ignoring the slots
+	 * already out of the window.
+	 *
+	 * @param slotSummaries the slots to merge (may belong to different nodes)
+	 * @param now the current time stamp
+	 * @return the merged summary
+	 */
+	public static SlotSummary merge(final Iterable<SlotSummary> slotSummaries, final long now) {
+
+		final SlotSummary total = new SlotSummary(second(now));
+		for (final SlotSummary slot : slotSummaries) {
+			if (isAlive(slot.getSecond(), now)) {
+				total.merge(slot);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Converts a summary into a {@link StatisticsResult}, rounding the amounts
+	 * (and the variance and standard deviation) to 2 decimals.
+	 *
+	 * @param summary the summary to convert
+	 * @return the statistics result
+	 */
+	public static StatisticsResult toStatisticsResult(final SlotSummary summary) {
+
+		if (summary.getCount() == 0) {
+			return new StatisticsResult(0, 0, 0, 0, 0);
+		}
+		final double variance = summary.variance();
+		return new StatisticsResult(round(summary.getSum() / summary.getCount()), summary.getCount(),
+				round(summary.getMax()), round(summary.getMin()), round(summary.getSum()), round(variance),
+				round(Math.sqrt(variance)));
+	}
+
+	/**
+	 * Converts a summary that merges sampled seconds into a
+	 * {@link StatisticsResult}, always flagged as not exact: even when every
+	 * amount was included, the sampled seconds leave the window per whole
+	 * second, up to a second later than their transactions.
+	 *
+	 * @param summary the summary to convert
+	 * @param confidence the fraction of the transactions whose amount is
+	 *            included in the summary moments
+	 * @return the statistics result
+	 */
+	public static StatisticsResult toStatisticsResult(final SlotSummary summary, final double confidence) {
+
+		final StatisticsResult result = toStatisticsResult(summary);
+		return new StatisticsResult(result.getAvg(), result.getCount(), result.getMax(), result.getMin(),
+				result.getSum(), result.getVariance(), result.getStdDev(), false, confidence);
+	}
+
+	/**
+	 * Returns whether a second still has transactions alive in the window
+	 *
+	 * @param second the epoch second
+	 * @param now the current time stamp
+	 * @return true if its last millisecond is not older than 60 seconds
+	 */
+	public static boolean isAlive(final long second, final long now) {
+
+		return second * 1000 + 999 + WINDOW >= now;
+	}
+
+	/**
+	 * Returns the epoch second of a time stamp
+	 *
+	 * @param timeStamp the time stamp in milliseconds
+	 * @return the epoch second
+	 */
+	public static long second(final long timeStamp) {
+
+		return Math.floorDiv(timeStamp, 1000);
+	}
+
+	/**
+	 * Rounds a value half up to 2 decimals
+	 *
+	 * @param value the value
+	 * @return the rounded value
+	 */
+	public static double round(final double value) {
+
+		return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+	}
+
+	/**
+	 * Returns the slot of a second, recycling it if it belonged to an older
+	 * second.
+	 *
+	 * @param second the epoch second
+	 * @return the slot
+	 */
+	private SlotSummary slot(final long second) {
+
+		final SlotSummary slot = slots[index(second)];
+		if (slot.getSecond() != second) {
+			slot.reset(second);
+		}
+		return slot;
+	}
+
+	/**
+	 * Returns the ring index of a second
+	 *
+	 * @param second the epoch second
+	 * @return the index
+	 */
+	private static int index(final long second) {
+
+		return (int) Math.floorMod(second, (long) SLOTS);
+	}
+
+}
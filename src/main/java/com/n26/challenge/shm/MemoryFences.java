@@ -0,0 +1,60 @@
+package com.n26.challenge.shm;
+
+import java.lang.reflect.Field;
+
+import sun.misc.Unsafe;
+
+/**
+ * The memory fences ordering the plain accesses to buffers shared between
+ * threads or processes: the seqlock accesses to the mapped file, and the
+ * records of the off-heap store. The buffer accesses are plain memory
+ * accesses, so a volatile field access doesn't keep them from being
+ * reordered with each other; the {@link Unsafe} fences (available since
+ * Java 8) do.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class MemoryFences {
+
+	/**
+	 * The unsafe accessor
+	 */
+	private static final Unsafe UNSAFE;
+
+	static {
+		try {
+			final Field field = Unsafe.class.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			UNSAFE = (Unsafe) field.get(null);
+		} catch (final ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * Not instantiable
+	 */
+	private MemoryFences() {
+	}
+
+	/**
+	 * Keeps the stores before the fence from being reordered with the stores
+	 * after it
+	 */
+	public static void storeFence() {
+
+		UNSAFE.storeFence();
+	}
+
+	/**
+	 * Keeps the loads before the fence from being reordered with the loads
+	 * and stores after it
+	 */
+	public static void loadFence() {
+
+		UNSAFE.loadFence();
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.n26.challenge.shm;
+
+import java.nio.ByteOrder;
+
+/**
+ * The layout of the memory-mapped statistics file, shared by the publisher
+ * and the readers. Every field is little-endian:
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  magic number, 0x4E323653 ("N26S")
+ *      4     4  layout version, 1
+ *      8     8  sequence, odd while a snapshot is being written
+ *     16     8  publication time stamp (epoch milliseconds), 0 before the first one
+ *     24     8  count (int64)
+ *     32     8  sum (float64)
+ *     40     8  avg (float64)
+ *     48     8  max (float64)
+ *     56     8  min (float64)
+ *     64     8  variance (float64)
+ *     72     8  standard deviation (float64)
+ *     80     8  confidence (float64)
+ *     88     4  exact (int32, 1 or 0)
+ *     92     4  reserved
+ * </pre>
+ *
+ * A reader reads the sequence, the fields and the sequence again, and only
+ * keeps the snapshot if both sequences are the same even number.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class SharedStatisticsLayout {
+
+	/**
+	 * The byte order of every field
+	 */
+	public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	/**
+	 * The magic number identifying the file
+	 */
+	public static final int MAGIC = 0x4E323653;
+
+	/**
+	 * The layout version
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * The size of the file in bytes
+	 */
+	public static final int SIZE = 96;
+
+	/**
+	 * The offset of the magic number
+	 */
+	public static final int MAGIC_OFFSET = 0;
+
+	/**
+	 * The offset of the layout version
+	 */
+	public static final int VERSION_OFFSET = 4;
+
+	/**
+	 * The offset of the sequence
+	 */
+	public static final int SEQUENCE_OFFSET = 8;
+
+	/**
+	 * The offset of the publication time stamp
+	 */
+	public static final int PUBLISHED_AT_OFFSET = 16;
+
+	/**
+	 * The offset of the count
+	 */
+	public static final int COUNT_OFFSET = 24;
+
+	/**
+	 * The offset of the sum
+	 */
+	public static final int SUM_OFFSET = 32;
+
+	/**
+	 * The offset of the average
+	 */
+	public static final int AVG_OFFSET = 40;
+
+	/**
+	 * The offset of the maximum
+	 */
+	public static final int MAX_OFFSET = 48;
+
+	/**
+	 * The offset of the minimum
+	 */
+	public static final int MIN_OFFSET = 56;
+
+	/**
+	 * The offset of the variance
+	 */
+	public static final int VARIANCE_OFFSET = 64;
+
+	/**
+	 * The offset of the standard deviation
+	 */
+	public static final int STD_DEV_OFFSET = 72;
+
+	/**
+	 * The offset of the confidence
+	 */
+	public static final int CONFIDENCE_OFFSET = 80;
+
+	/**
+	 * The offset of the exact flag
+	 */
+	public static final int EXACT_OFFSET = 88;
+
+	/**
+	 * Not instantiable
+	 */
+	private SharedStatisticsLayout() {
+
+	}
+
+}
@@ -0,0 +1,220 @@
+package com.n26.challenge.shm;
+
+import static com.n26.challenge.shm.SharedStatisticsLayout.AVG_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.CONFIDENCE_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.COUNT_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.EXACT_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.MAGIC;
+import static com.n26.challenge.shm.SharedStatisticsLayout.MAGIC_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.MAX_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.MIN_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.PUBLISHED_AT_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.SEQUENCE_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.STD_DEV_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.SUM_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.VARIANCE_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.VERSION;
+import static com.n26.challenge.shm.SharedStatisticsLayout.VERSION_OFFSET;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.service.IStatisticsService;
+
+/**
+ * Publishes the current statistics into a memory-mapped file, so the
+ * processes on the same host can read them with a plain memory read instead
+ * of polling the HTTP end point (see {@link SharedStatisticsReader}).
+ * <p>
+ * The statistics are computed and written at a fixed interval, with the
+ * {@link SharedStatisticsLayout} layout, guarded by a sequence counter
+ * (seqlock): it's odd while the fields are written, so the readers retry
+ * instead of getting a torn snapshot. Store fences after the odd sequence
+ * write and before the even one keep the fields from being reordered with
+ * the sequence writes (see {@link MemoryFences}).
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.shared-memory.enabled", havingValue = "true")
+public class SharedStatisticsPublisher {
+
+	/**
+	 * The class logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(SharedStatisticsPublisher.class);
+
+	/**
+	 * The statistics service publishing its statistics
+	 */
+	private final IStatisticsService statisticsService;
+
+	/**
+	 * The path of the memory-mapped file
+	 */
+	private final Path path;
+
+	/**
+	 * The publication interval in milliseconds
+	 */
+	private final long interval;
+
+	/**
+	 * The mapped file
+	 */
+	private MappedByteBuffer buffer;
+
+	/**
+	 * The publication thread
+	 */
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * The current sequence, even between the publications
+	 */
+	private long sequence;
+
+	/**
+	 * Default shared statistics publisher constructor
+	 *
+	 * @param statisticsService the statistics service publishing its
+	 *            statistics
+	 * @param path the path of the memory-mapped file
+	 * @param interval the publication interval in milliseconds
+	 */
+	@Autowired
+	public SharedStatisticsPublisher(final IStatisticsService statisticsService,
+			@Value("${statistics.shared-memory.path}") final String path,
+			@Value("${statistics.shared-memory.interval}") final long interval) {
+
+		if (interval <= 0) {
+			throw new IllegalArgumentException("The publication interval must be positive");
+		}
+		this.statisticsService = statisticsService;
+		this.path = Paths.get(path);
+		this.interval = interval;
+	}
+
+	/**
+	 * Maps the file and starts the publication thread
+	 *
+	 * @throws IOException if the file can't be mapped
+	 */
+	@PostConstruct
+	public void start() throws IOException {
+
+		open();
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "statistics-shared-memory");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::publish, 0, interval, TimeUnit.MILLISECONDS);
+		LOGGER.info("Publishing the statistics every {} ms into {}", interval, path);
+	}
+
+	/**
+	 * Stops the publication thread, the last snapshot stays in the file
+	 */
+	@PreDestroy
+	public void stop() {
+
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the path of the memory-mapped file
+	 *
+	 * @return the file path
+	 */
+	public Path getPath() {
+
+		return path;
+	}
+
+	/**
+	 * Maps the file, writing its header and keeping the sequence of a
+	 * previous publisher, so the readers don't mistake a new snapshot for an
+	 * old one.
+	 *
+	 * @throws IOException if the file can't be mapped
+	 */
+	synchronized void open() throws IOException {
+
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			buffer = channel.map(MapMode.READ_WRITE, 0, SharedStatisticsLayout.SIZE);
+		}
+		buffer.order(SharedStatisticsLayout.ORDER);
+		if (buffer.getInt(MAGIC_OFFSET) == MAGIC) {
+			// An odd sequence means the previous publisher stopped while writing
+			sequence = (buffer.getLong(SEQUENCE_OFFSET) + 1) & ~1L;
+		} else {
+			buffer.putInt(MAGIC_OFFSET, MAGIC);
+			sequence = 0;
+		}
+		buffer.putInt(VERSION_OFFSET, VERSION);
+		buffer.putLong(SEQUENCE_OFFSET, sequence);
+	}
+
+	/**
+	 * Publishes the current statistics, logging the failures so the next
+	 * publication is still attempted
+	 */
+	void publish() {
+
+		try {
+			publish(statisticsService.getStatistics(), System.currentTimeMillis());
+		} catch (final RuntimeException e) {
+			LOGGER.warn("The statistics couldn't be published", e);
+		}
+	}
+
+	/**
+	 * Writes a snapshot of the statistics.
+	 *
+	 * @param statistics the statistics
+	 * @param publishedAt the publication time stamp
+	 */
+	synchronized void publish(final StatisticsResult statistics, final long publishedAt) {
+
+		buffer.putLong(SEQUENCE_OFFSET, ++sequence);
+		MemoryFences.storeFence();
+		buffer.putLong(PUBLISHED_AT_OFFSET, publishedAt);
+		buffer.putLong(COUNT_OFFSET, statistics.getCount());
+		buffer.putDouble(SUM_OFFSET, statistics.getSum());
+		buffer.putDouble(AVG_OFFSET, statistics.getAvg());
+		buffer.putDouble(MAX_OFFSET, statistics.getMax());
+		buffer.putDouble(MIN_OFFSET, statistics.getMin());
+		buffer.putDouble(VARIANCE_OFFSET, statistics.getVariance());
+		buffer.putDouble(STD_DEV_OFFSET, statistics.getStdDev());
+		buffer.putDouble(CONFIDENCE_OFFSET, statistics.getConfidence());
+		buffer.putInt(EXACT_OFFSET, statistics.isExact() ? 1 : 0);
+		MemoryFences.storeFence();
+		buffer.putLong(SEQUENCE_OFFSET, ++sequence);
+	}
+
+}
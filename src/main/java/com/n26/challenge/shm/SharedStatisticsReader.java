@@ -0,0 +1,159 @@
+package com.n26.challenge.shm;
+
+import static com.n26.challenge.shm.SharedStatisticsLayout.AVG_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.CONFIDENCE_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.COUNT_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.EXACT_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.MAGIC;
+import static com.n26.challenge.shm.SharedStatisticsLayout.MAGIC_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.MAX_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.MIN_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.PUBLISHED_AT_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.SEQUENCE_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.STD_DEV_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.SUM_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.VARIANCE_OFFSET;
+import static com.n26.challenge.shm.SharedStatisticsLayout.VERSION;
+import static com.n26.challenge.shm.SharedStatisticsLayout.VERSION_OFFSET;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.n26.challenge.api.model.StatisticsResult;
+
+/**
+ * Reads consistent snapshots of the statistics published by
+ * {@link SharedStatisticsPublisher} into a memory-mapped file, without any
+ * system call once the file is mapped. It only depends on the JDK,
+ * {@link MemoryFences} and {@link StatisticsResult}, so it can be used by any
+ * process on the same host. An instance is not thread safe.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class SharedStatisticsReader {
+
+	/**
+	 * The mapped file
+	 */
+	private final MappedByteBuffer buffer;
+
+	/**
+	 * Maps the statistics file.
+	 *
+	 * @param path the path of the memory-mapped file
+	 * @throws IOException if the file doesn't exist or can't be mapped
+	 * @throws IllegalStateException if the file isn't a statistics file of a
+	 *             known layout
+	 */
+	public SharedStatisticsReader(final Path path) throws IOException {
+
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			buffer = channel.map(MapMode.READ_ONLY, 0, SharedStatisticsLayout.SIZE);
+		}
+		buffer.order(SharedStatisticsLayout.ORDER);
+		if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION) {
+			throw new IllegalStateException("The file " + path + " is not a statistics file of version " + VERSION);
+		}
+	}
+
+	/**
+	 * Reads the last published snapshot, retrying while it's being written.
+	 *
+	 * @return the snapshot, or null if nothing was published yet
+	 */
+	public Snapshot read() {
+
+		while (true) {
+			final long sequence = buffer.getLong(SEQUENCE_OFFSET);
+			if ((sequence & 1) == 0) {
+				// The fields are read after the sequence, and the sequence is read again after them
+				MemoryFences.loadFence();
+				final long publishedAt = buffer.getLong(PUBLISHED_AT_OFFSET);
+				final StatisticsResult statistics = new StatisticsResult(buffer.getDouble(AVG_OFFSET),
+						buffer.getLong(COUNT_OFFSET), buffer.getDouble(MAX_OFFSET), buffer.getDouble(MIN_OFFSET),
+						buffer.getDouble(SUM_OFFSET), buffer.getDouble(VARIANCE_OFFSET),
+						buffer.getDouble(STD_DEV_OFFSET), buffer.getInt(EXACT_OFFSET) == 1,
+						buffer.getDouble(CONFIDENCE_OFFSET));
+				MemoryFences.loadFence();
+				if (buffer.getLong(SEQUENCE_OFFSET) == sequence) {
+					return publishedAt == 0 ? null : new Snapshot(sequence, publishedAt, statistics);
+				}
+			}
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * A consistent snapshot of the published statistics
+	 */
+	public static final class Snapshot {
+
+		/**
+		 * The sequence of the snapshot, increasing with each publication
+		 */
+		private final long sequence;
+
+		/**
+		 * The publication time stamp
+		 */
+		private final long publishedAt;
+
+		/**
+		 * The published statistics
+		 */
+		private final StatisticsResult statistics;
+
+		/**
+		 * Creates a snapshot.
+		 *
+		 * @param sequence the sequence of the snapshot
+		 * @param publishedAt the publication time stamp
+		 * @param statistics the published statistics
+		 */
+		private Snapshot(final long sequence, final long publishedAt, final StatisticsResult statistics) {
+
+			this.sequence = sequence;
+			this.publishedAt = publishedAt;
+			this.statistics = statistics;
+		}
+
+		/**
+		 * Returns the sequence of the snapshot, increasing with each
+		 * publication
+		 *
+		 * @return the sequence
+		 */
+		public long getSequence() {
+
+			return sequence;
+		}
+
+		/**
+		 * Returns the publication time stamp
+		 *
+		 * @return the epoch milliseconds of the publication
+		 */
+		public long getPublishedAt() {
+
+			return publishedAt;
+		}
+
+		/**
+		 * Returns the published statistics
+		 *
+		 * @return the statistics
+		 */
+		public StatisticsResult getStatistics() {
+
+			return statistics;
+		}
+
+	}
+
+}
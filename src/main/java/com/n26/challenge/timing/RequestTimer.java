@@ -0,0 +1,263 @@
+package com.n26.challenge.timing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measures the phases of a request. Each phase lasts from the previous mark
+ * (or the request start) to its own mark, and the marks of a repeated phase
+ * add up.
+ * <p>
+ * The timer of the request being served is bound to the serving thread, so
+ * the layers mark their phases with {@link #mark(String)} without passing it
+ * around; when there is no timer (the timing is disabled), a mark costs a
+ * thread-local lookup. The calls moved to other threads carry it with
+ * {@link #attach(RequestTimer)}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class RequestTimer {
+
+	/**
+	 * The name of the request attribute holding the timer across the
+	 * dispatches of an asynchronous request
+	 */
+	public static final String ATTRIBUTE = RequestTimer.class.getName();
+
+	/**
+	 * The maximum number of distinct phases of a request
+	 */
+	private static final int MAX_PHASES = 16;
+
+	/**
+	 * The timer of the request being served by each thread
+	 */
+	private static final ThreadLocal<RequestTimer> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * The request name (method and path)
+	 */
+	private final String name;
+
+	/**
+	 * The epoch millisecond the request started at
+	 */
+	private final long startedAt;
+
+	/**
+	 * The nano time the request started at
+	 */
+	private final long startNanos;
+
+	/**
+	 * The names of the phases, in order of their first mark
+	 */
+	private final String[] phases = new String[MAX_PHASES];
+
+	/**
+	 * The duration of each phase in nanoseconds
+	 */
+	private final long[] durations = new long[MAX_PHASES];
+
+	/**
+	 * The number of phases
+	 */
+	private int size;
+
+	/**
+	 * The nano time of the last mark
+	 */
+	private long lastMark;
+
+	/**
+	 * The total duration in nanoseconds, -1 while the request is served
+	 */
+	private long total = -1;
+
+	/**
+	 * Whether the Server-Timing header was already written
+	 */
+	private boolean headerWritten;
+
+	/**
+	 * Creates a timer.
+	 *
+	 * @param name the request name
+	 * @param startedAt the epoch millisecond the request started at
+	 * @param startNanos the nano time the request started at
+	 */
+	public RequestTimer(final String name, final long startedAt, final long startNanos) {
+
+		this.name = name;
+		this.startedAt = startedAt;
+		this.startNanos = startNanos;
+		this.lastMark = startNanos;
+	}
+
+	/**
+	 * Marks the end of a phase of the request served by the current thread,
+	 * if it's timed.
+	 *
+	 * @param phase the phase name
+	 */
+	public static void mark(final String phase) {
+
+		final RequestTimer timer = CURRENT.get();
+		if (timer != null) {
+			timer.record(phase, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Returns the timer of the request served by the current thread
+	 *
+	 * @return the timer, null if the request isn't timed
+	 */
+	public static RequestTimer current() {
+
+		return CURRENT.get();
+	}
+
+	/**
+	 * Binds a timer to the current thread.
+	 *
+	 * @param timer the timer, null to unbind
+	 * @return the timer previously bound
+	 */
+	public static RequestTimer attach(final RequestTimer timer) {
+
+		final RequestTimer previous = CURRENT.get();
+		if (timer == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(timer);
+		}
+		return previous;
+	}
+
+	/**
+	 * Records the end of a phase.
+	 *
+	 * @param phase the phase name
+	 * @param nanos the nano time of the mark
+	 */
+	public synchronized void record(final String phase, final long nanos) {
+
+		final long duration = nanos - lastMark;
+		lastMark = nanos;
+		for (int i = 0; i < size; i++) {
+			if (phases[i].equals(phase)) {
+				durations[i] += duration;
+				return;
+			}
+		}
+		if (size < MAX_PHASES) {
+			phases[size] = phase;
+			durations[size++] = duration;
+		}
+	}
+
+	/**
+	 * Ends the request.
+	 *
+	 * @param nanos the nano time of the end
+	 */
+	public synchronized void finish(final long nanos) {
+
+		total = nanos - startNanos;
+	}
+
+	/**
+	 * Formats the phases measured so far as a Server-Timing header value,
+	 * ending with the total duration up to the given time, and remembers the
+	 * header was written.
+	 *
+	 * @param nanos the current nano time
+	 * @return the header value, null if it was already written
+	 */
+	public synchronized String serverTiming(final long nanos) {
+
+		if (headerWritten) {
+			return null;
+		}
+		headerWritten = true;
+		final StringBuilder header = new StringBuilder(32 * (size + 1));
+		for (int i = 0; i < size; i++) {
+			appendMetric(header, phases[i], durations[i]);
+			header.append(", ");
+		}
+		appendMetric(header, "total", total < 0 ? nanos - startNanos : total);
+		return header.toString();
+	}
+
+	/**
+	 * Returns the request name
+	 *
+	 * @return the method and path
+	 */
+	public String getName() {
+
+		return name;
+	}
+
+	/**
+	 * Returns the epoch millisecond the request started at
+	 *
+	 * @return the start time stamp
+	 */
+	public long getStartedAt() {
+
+		return startedAt;
+	}
+
+	/**
+	 * Returns the total duration of the request
+	 *
+	 * @return the duration in nanoseconds, -1 while the request is served
+	 */
+	public synchronized long getTotal() {
+
+		return total;
+	}
+
+	/**
+	 * Returns the duration of each phase, in order
+	 *
+	 * @return the durations in milliseconds by phase name
+	 */
+	public synchronized Map<String, Double> getPhases() {
+
+		final Map<String, Double> result = new LinkedHashMap<>();
+		for (int i = 0; i < size; i++) {
+			result.put(phases[i], toMillis(durations[i]));
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * Converts nanoseconds into milliseconds, with microsecond precision
+	 *
+	 * @param nanos the nanoseconds
+	 * @return the milliseconds
+	 */
+	static double toMillis(final long nanos) {
+
+		return Math.round(nanos / 1_000d) / 1_000d;
+	}
+
+	/**
+	 * Appends a Server-Timing metric
+	 *
+	 * @param header the header being built
+	 * @param metric the metric name
+	 * @param nanos the metric duration in nanoseconds
+	 */
+	private static void appendMetric(final StringBuilder header, final String metric, final long nanos) {
+
+		header.append(metric).append(";dur=").append(toMillis(nanos));
+	}
+
+}
@@ -0,0 +1,204 @@
+package com.n26.challenge.timing;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Times every request, phase by phase, answering the phases in a
+ * {@code Server-Timing} header and offering the finished requests to the
+ * {@link SlowRequestLog}.
+ * <p>
+ * The timer is kept as a request attribute, so the asynchronous requests
+ * keep it across their dispatches, and bound to the serving thread while the
+ * filter chain runs. The header is added right before the body is written
+ * (or the response is completed without one), so it has the phases up to
+ * the serialization; the logged requests also have the last one
+ * ({@code response}).
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.timing.enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+	/**
+	 * The Server-Timing header name
+	 */
+	public static final String SERVER_TIMING = "Server-Timing";
+
+	/**
+	 * The log of the slow requests
+	 */
+	private final SlowRequestLog slowRequestLog;
+
+	/**
+	 * Default server timing filter constructor
+	 *
+	 * @param slowRequestLog the log of the slow requests
+	 */
+	@Autowired
+	public ServerTimingFilter(final SlowRequestLog slowRequestLog) {
+
+		this.slowRequestLog = slowRequestLog;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see OncePerRequestFilter#doFilterInternal(HttpServletRequest,
+	 *      HttpServletResponse, FilterChain)
+	 */
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain filterChain) throws ServletException, IOException {
+
+		RequestTimer timer = (RequestTimer) request.getAttribute(RequestTimer.ATTRIBUTE);
+		if (timer == null) {
+			timer = new RequestTimer(request.getMethod() + " " + request.getRequestURI(), System.currentTimeMillis(),
+					System.nanoTime());
+			request.setAttribute(RequestTimer.ATTRIBUTE, timer);
+		}
+
+		final ServerTimingResponse timedResponse = new ServerTimingResponse(response, timer);
+		final RequestTimer previous = RequestTimer.attach(timer);
+		try {
+			filterChain.doFilter(request, timedResponse);
+		} finally {
+			RequestTimer.attach(previous);
+			if (!isAsyncStarted(request)) {
+				timedResponse.writeHeader();
+				final long now = System.nanoTime();
+				timer.record("response", now);
+				timer.finish(now);
+				slowRequestLog.offer(timer);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The asynchronous dispatches are filtered too, since they write the
+	 * response.
+	 *
+	 * @see OncePerRequestFilter#shouldNotFilterAsyncDispatch()
+	 */
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+
+		return false;
+	}
+
+	/**
+	 * Response adding the Server-Timing header before it's committed
+	 */
+	private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+
+		/**
+		 * The request timer
+		 */
+		private final RequestTimer timer;
+
+		/**
+		 * Wraps a response.
+		 *
+		 * @param response the response
+		 * @param timer the request timer
+		 */
+		private ServerTimingResponse(final HttpServletResponse response, final RequestTimer timer) {
+
+			super(response);
+			this.timer = timer;
+		}
+
+		/**
+		 * Adds the Server-Timing header, unless it was already added or the
+		 * response is committed
+		 */
+		private void writeHeader() {
+
+			if (!isCommitted()) {
+				final String header = timer.serverTiming(System.nanoTime());
+				if (header != null) {
+					setHeader(SERVER_TIMING, header);
+				}
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see HttpServletResponseWrapper#getOutputStream()
+		 */
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+
+			writeHeader();
+			return super.getOutputStream();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see HttpServletResponseWrapper#getWriter()
+		 */
+		@Override
+		public PrintWriter getWriter() throws IOException {
+
+			writeHeader();
+			return super.getWriter();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see HttpServletResponseWrapper#flushBuffer()
+		 */
+		@Override
+		public void flushBuffer() throws IOException {
+
+			writeHeader();
+			super.flushBuffer();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see HttpServletResponseWrapper#sendError(int)
+		 */
+		@Override
+		public void sendError(final int sc) throws IOException {
+
+			writeHeader();
+			super.sendError(sc);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see HttpServletResponseWrapper#sendError(int, String)
+		 */
+		@Override
+		public void sendError(final int sc, final String msg) throws IOException {
+
+			writeHeader();
+			super.sendError(sc, msg);
+		}
+
+	}
+
+}
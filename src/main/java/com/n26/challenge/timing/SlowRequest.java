@@ -0,0 +1,87 @@
+package com.n26.challenge.timing;
+
+import java.util.Map;
+
+/**
+ * A request slower than the threshold, with the duration of its phases.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class SlowRequest {
+
+	/**
+	 * The request name (method and path)
+	 */
+	private final String request;
+
+	/**
+	 * The epoch millisecond the request started at
+	 */
+	private final long startedAt;
+
+	/**
+	 * The total duration in milliseconds
+	 */
+	private final double duration;
+
+	/**
+	 * The duration of each phase in milliseconds, in order
+	 */
+	private final Map<String, Double> phases;
+
+	/**
+	 * Creates a slow request from the timer of a finished request.
+	 *
+	 * @param timer the request timer
+	 */
+	public SlowRequest(final RequestTimer timer) {
+
+		this.request = timer.getName();
+		this.startedAt = timer.getStartedAt();
+		this.duration = RequestTimer.toMillis(timer.getTotal());
+		this.phases = timer.getPhases();
+	}
+
+	/**
+	 * Returns the request name
+	 *
+	 * @return the method and path
+	 */
+	public String getRequest() {
+
+		return request;
+	}
+
+	/**
+	 * Returns the epoch millisecond the request started at
+	 *
+	 * @return the start time stamp
+	 */
+	public long getStartedAt() {
+
+		return startedAt;
+	}
+
+	/**
+	 * Returns the total duration
+	 *
+	 * @return the duration in milliseconds
+	 */
+	public double getDuration() {
+
+		return duration;
+	}
+
+	/**
+	 * Returns the duration of each phase, in order
+	 *
+	 * @return the durations in milliseconds by phase name
+	 */
+	public Map<String, Double> getPhases() {
+
+		return phases;
+	}
+
+}
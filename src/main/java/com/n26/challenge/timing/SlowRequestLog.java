@@ -0,0 +1,119 @@
+package com.n26.challenge.timing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the last slow requests in a fixed-size ring, overwriting the oldest
+ * one when it's full. Only one out of every sample rate requests over the
+ * threshold is kept, so a burst of slow requests costs a counter increment
+ * each.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.timing.enabled", havingValue = "true")
+public class SlowRequestLog {
+
+	/**
+	 * The duration over which a request is slow, in nanoseconds
+	 */
+	private final long thresholdNanos;
+
+	/**
+	 * One out of this number of slow requests is kept, none if 0
+	 */
+	private final int sampleRate;
+
+	/**
+	 * The kept slow requests, indexed by their number modulo the ring size
+	 */
+	private final SlowRequest[] ring;
+
+	/**
+	 * The number of slow requests
+	 */
+	private final AtomicLong slowRequests = new AtomicLong();
+
+	/**
+	 * The number of kept slow requests
+	 */
+	private long kept;
+
+	/**
+	 * Default slow request log constructor
+	 *
+	 * @param threshold the duration over which a request is slow, in
+	 *            milliseconds
+	 * @param sampleRate one out of this number of slow requests is kept, none
+	 *            if 0
+	 * @param ringSize the number of slow requests kept
+	 */
+	@Autowired
+	public SlowRequestLog(@Value("${statistics.timing.slow-threshold}") final long threshold,
+			@Value("${statistics.timing.sample-rate}") final int sampleRate,
+			@Value("${statistics.timing.ring-size}") final int ringSize) {
+
+		if (threshold < 0 || sampleRate < 0 || ringSize <= 0) {
+			throw new IllegalArgumentException("The threshold and sample rate can't be negative, nor the ring empty");
+		}
+		this.thresholdNanos = threshold * 1_000_000;
+		this.sampleRate = sampleRate;
+		this.ring = new SlowRequest[ringSize];
+	}
+
+	/**
+	 * Offers a finished request, kept if it's slow and sampled.
+	 *
+	 * @param timer the request timer
+	 * @return true if the request was kept
+	 */
+	public boolean offer(final RequestTimer timer) {
+
+		if (sampleRate == 0 || timer.getTotal() < thresholdNanos
+				|| (slowRequests.getAndIncrement() % sampleRate) != 0) {
+			return false;
+		}
+		final SlowRequest slowRequest = new SlowRequest(timer);
+		synchronized (ring) {
+			ring[(int) (kept++ % ring.length)] = slowRequest;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the kept slow requests
+	 *
+	 * @return the slow requests, the newest first
+	 */
+	public List<SlowRequest> getSlowRequests() {
+
+		synchronized (ring) {
+			final int size = (int) Math.min(kept, ring.length);
+			final List<SlowRequest> slowRequests = new ArrayList<>(size);
+			for (long index = kept - 1; index >= kept - size; index--) {
+				slowRequests.add(ring[(int) (index % ring.length)]);
+			}
+			return slowRequests;
+		}
+	}
+
+	/**
+	 * Returns the number of requests over the threshold, kept or not
+	 *
+	 * @return the slow requests
+	 */
+	public long getSlowRequestCount() {
+
+		return slowRequests.get();
+	}
+
+}
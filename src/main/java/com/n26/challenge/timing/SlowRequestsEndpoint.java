@@ -0,0 +1,52 @@
+package com.n26.challenge.timing;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator end point listing the sampled slow requests, with the duration of
+ * their phases ({@code /actuator/slowrequests}).
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(name = "statistics.timing.enabled", havingValue = "true")
+public class SlowRequestsEndpoint extends AbstractEndpoint<List<SlowRequest>> {
+
+	/**
+	 * The log of the slow requests
+	 */
+	private final SlowRequestLog slowRequestLog;
+
+	/**
+	 * Default slow requests end point constructor, not sensitive and enabled
+	 * whenever the timing is
+	 *
+	 * @param slowRequestLog the log of the slow requests
+	 */
+	@Autowired
+	public SlowRequestsEndpoint(final SlowRequestLog slowRequestLog) {
+
+		super("slowrequests", false, true);
+		this.slowRequestLog = slowRequestLog;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see Endpoint#invoke()
+	 */
+	@Override
+	public List<SlowRequest> invoke() {
+
+		return slowRequestLog.getSlowRequests();
+	}
+
+}
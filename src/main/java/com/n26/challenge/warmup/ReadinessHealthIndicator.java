@@ -0,0 +1,85 @@
+package com.n26.challenge.warmup;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health indicator that reports whether the instance is ready to accept
+ * traffic. It stays {@code DOWN} while the warm-up phase is running, making
+ * the actuator health end point answer with a 503 status, and flips to
+ * {@code UP} once the warm-up finishes.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+public class ReadinessHealthIndicator extends AbstractHealthIndicator {
+
+	/**
+	 * Whether the instance is ready to accept traffic
+	 */
+	private volatile boolean ready;
+
+	/**
+	 * The details of the readiness state
+	 */
+	private volatile Map<String, Object> details = Collections.<String, Object>singletonMap("phase", "starting");
+
+	/**
+	 * Marks the instance as warming up (not ready).
+	 */
+	public void markWarmingUp() {
+
+		this.details = Collections.<String, Object>singletonMap("phase", "warming-up");
+		this.ready = false;
+	}
+
+	/**
+	 * Marks the instance as ready to accept traffic.
+	 *
+	 * @param readyDetails the details to report (warm-up timings, exit reason)
+	 */
+	public void markReady(final Map<String, Object> readyDetails) {
+
+		final Map<String, Object> newDetails = new LinkedHashMap<>();
+		newDetails.put("phase", "ready");
+		newDetails.putAll(readyDetails);
+		this.details = Collections.unmodifiableMap(newDetails);
+		this.ready = true;
+	}
+
+	/**
+	 * Returns whether the instance is ready to accept traffic
+	 *
+	 * @return true if ready
+	 */
+	public boolean isReady() {
+
+		return ready;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see AbstractHealthIndicator#doHealthCheck(Health.Builder)
+	 */
+	@Override
+	protected void doHealthCheck(final Health.Builder builder) {
+
+		if (ready) {
+			builder.up();
+		} else {
+			builder.down();
+		}
+		for (final Map.Entry<String, Object> detail : details.entrySet()) {
+			builder.withDetail(detail.getKey(), detail.getValue());
+		}
+	}
+
+}
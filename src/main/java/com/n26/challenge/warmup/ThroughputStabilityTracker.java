@@ -0,0 +1,102 @@
+package com.n26.challenge.warmup;
+
+/**
+ * Keeps track of the throughput measured on each warm-up round and decides
+ * when it has stabilized, that is, when a given number of consecutive rounds
+ * differ from the previous one by no more than a relative threshold.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ThroughputStabilityTracker {
+
+	/**
+	 * The maximum relative variation (in percentage) between two rounds to
+	 * consider them stable
+	 */
+	private final double threshold;
+
+	/**
+	 * The number of consecutive stable rounds required
+	 */
+	private final int requiredRounds;
+
+	/**
+	 * The throughput measured on the last round
+	 */
+	private double lastThroughput;
+
+	/**
+	 * The number of consecutive stable rounds so far
+	 */
+	private int stableRounds;
+
+	/**
+	 * The number of recorded rounds
+	 */
+	private int rounds;
+
+	/**
+	 * Creates the tracker with the given exit criteria.
+	 *
+	 * @param threshold the maximum variation (percentage) between two stable rounds
+	 * @param requiredRounds the number of consecutive stable rounds required
+	 */
+	public ThroughputStabilityTracker(final double threshold, final int requiredRounds) {
+
+		if (threshold <= 0 || requiredRounds <= 0) {
+			throw new IllegalArgumentException("The stability threshold and rounds must be positive.");
+		}
+		this.threshold = threshold;
+		this.requiredRounds = requiredRounds;
+	}
+
+	/**
+	 * Records the throughput of a new round.
+	 *
+	 * @param throughput the round throughput in operations per second
+	 */
+	public void record(final double throughput) {
+
+		if (rounds > 0 && lastThroughput > 0
+				&& Math.abs(throughput - lastThroughput) * 100 / lastThroughput <= threshold) {
+			stableRounds++;
+		} else {
+			stableRounds = 0;
+		}
+		lastThroughput = throughput;
+		rounds++;
+	}
+
+	/**
+	 * Returns whether the throughput has stabilized
+	 *
+	 * @return true if the required number of consecutive stable rounds was reached
+	 */
+	public boolean isStable() {
+
+		return stableRounds >= requiredRounds;
+	}
+
+	/**
+	 * Returns the throughput of the last recorded round
+	 *
+	 * @return the last throughput in operations per second
+	 */
+	public double getLastThroughput() {
+
+		return lastThroughput;
+	}
+
+	/**
+	 * Returns the number of recorded rounds
+	 *
+	 * @return the number of rounds
+	 */
+	public int getRounds() {
+
+		return rounds;
+	}
+
+}
@@ -0,0 +1,240 @@
+package com.n26.challenge.warmup;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.n26.challenge.api.model.ApiTransaction;
+import com.n26.challenge.api.model.StatisticsResult;
+
+/**
+ * Warm-up routine executed once the application has started. It drives
+ * synthetic transactions and statistics queries through the real HTTP end
+ * points (Tomcat, Jackson, the controller and the space operations) until the
+ * throughput stabilizes or the maximum duration is reached, and then flips the
+ * {@link ReadinessHealthIndicator} so the instance starts receiving traffic.
+ * <p>
+ * The synthetic transactions are sent with a time stamp that is about to
+ * leave the 60 seconds window, so they are written with a lease of only a few
+ * milliseconds and are cleared by the space itself. The routine waits for
+ * that lease before reporting the instance as ready, and never removes
+ * transactions that could belong to other instances sharing the same space.
+ * They're sent as {@link WarmUpTraffic}, so they're never handed over to the
+ * transaction observers, whose views outlive the lease.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+public class WarmUpRunner implements ApplicationListener<ApplicationReadyEvent> {
+
+	/**
+	 * The class logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(WarmUpRunner.class);
+
+	/**
+	 * The statistics window length
+	 */
+	private static final long WINDOW = 60_000;
+
+	/**
+	 * The readiness indicator to flip when the warm-up finishes
+	 */
+	private final ReadinessHealthIndicator readiness;
+
+	/**
+	 * Whether the warm-up is enabled
+	 */
+	private final boolean enabled;
+
+	/**
+	 * The minimum warm-up duration in milliseconds
+	 */
+	private final long minDuration;
+
+	/**
+	 * The maximum warm-up duration in milliseconds
+	 */
+	private final long maxDuration;
+
+	/**
+	 * The number of transactions (and statistics queries) sent on each round
+	 */
+	private final int roundSize;
+
+	/**
+	 * The maximum throughput variation (percentage) between stable rounds
+	 */
+	private final double stabilityThreshold;
+
+	/**
+	 * The number of consecutive stable rounds required to finish
+	 */
+	private final int stableRounds;
+
+	/**
+	 * The lease (in milliseconds) of the synthetic transactions
+	 */
+	private final long transactionLease;
+
+	/**
+	 * The HTTP client used to call the end points
+	 */
+	private final RestTemplate restTemplate = new RestTemplate();
+
+	/**
+	 * The time source of the synthetic time stamps
+	 */
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Default warm-up runner constructor
+	 */
+	@Autowired
+	public WarmUpRunner(final ReadinessHealthIndicator readiness,
+			@Value("${statistics.warmup.enabled}") final boolean enabled,
+			@Value("${statistics.warmup.min-duration}") final long minDuration,
+			@Value("${statistics.warmup.max-duration}") final long maxDuration,
+			@Value("${statistics.warmup.round-size}") final int roundSize,
+			@Value("${statistics.warmup.stability-threshold}") final double stabilityThreshold,
+			@Value("${statistics.warmup.stable-rounds}") final int stableRounds,
+			@Value("${statistics.warmup.transaction-lease}") final long transactionLease) {
+
+		this.readiness = readiness;
+		this.enabled = enabled;
+		this.minDuration = minDuration;
+		this.maxDuration = maxDuration;
+		this.roundSize = roundSize;
+		this.stabilityThreshold = stabilityThreshold;
+		this.stableRounds = stableRounds;
+		this.transactionLease = transactionLease;
+		if (enabled) {
+			readiness.markWarmingUp();
+		}
+	}
+
+	/**
+	 * Sets the time source of the synthetic time stamps
+	 *
+	 * @param clock the clock
+	 */
+	@Autowired(required = false)
+	public void setClock(final Clock clock) {
+
+		this.clock = clock;
+	}
+
+	/**
+	 * Starts the warm-up on a dedicated thread once the application is ready,
+	 * or marks the instance as ready straight away if it is disabled.
+	 *
+	 * @param event the application ready event
+	 */
+	@Override
+	public void onApplicationEvent(final ApplicationReadyEvent event) {
+
+		if (!enabled) {
+			final Map<String, Object> details = new LinkedHashMap<>();
+			details.put("warmup", "disabled");
+			readiness.markReady(details);
+			return;
+		}
+
+		final String port = event.getApplicationContext().getEnvironment().getProperty("local.server.port", "8080");
+		final Thread thread = new Thread(() -> warmUp("http://localhost:" + port), "statistics-warm-up");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Runs the warm-up rounds against the given base URL and marks the
+	 * instance as ready when finished, even if the warm-up fails.
+	 *
+	 * @param baseUrl the base URL of the local instance
+	 */
+	void warmUp(final String baseUrl) {
+
+		final Map<String, Object> details = new LinkedHashMap<>();
+		final ThroughputStabilityTracker tracker = new ThroughputStabilityTracker(stabilityThreshold, stableRounds);
+		final long start = System.nanoTime();
+		LOGGER.info("Starting warm-up against {} (min {} ms, max {} ms, {} operations per round)", baseUrl,
+				minDuration, maxDuration, roundSize);
+
+		try {
+			String exitReason;
+			while (true) {
+				final long roundStart = System.nanoTime();
+				runRound(baseUrl);
+				final long roundNanos = System.nanoTime() - roundStart;
+				tracker.record(2d * roundSize * TimeUnit.SECONDS.toNanos(1) / Math.max(roundNanos, 1));
+				LOGGER.debug("Warm-up round {} took {} ms ({} ops/s)", tracker.getRounds(),
+						TimeUnit.NANOSECONDS.toMillis(roundNanos), Math.round(tracker.getLastThroughput()));
+
+				final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+				if (elapsed >= maxDuration) {
+					exitReason = "max-duration";
+					break;
+				}
+				if (elapsed >= minDuration && tracker.isStable()) {
+					exitReason = "stable";
+					break;
+				}
+			}
+
+			// Lets the synthetic transactions expire before accepting traffic
+			TimeUnit.MILLISECONDS.sleep(transactionLease);
+			details.put("warmupExit", exitReason);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			details.put("warmupExit", "interrupted");
+		} catch (final RuntimeException e) {
+			LOGGER.warn("Warm-up failed, the instance will be marked as ready anyway", e);
+			details.put("warmupExit", "failed");
+		}
+
+		final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		details.put("warmupDuration", duration);
+		details.put("warmupRounds", tracker.getRounds());
+		details.put("warmupThroughput", Math.round(tracker.getLastThroughput()));
+		LOGGER.info("Warm-up finished in {} ms after {} rounds ({}), last throughput {} ops/s", duration,
+				tracker.getRounds(), details.get("warmupExit"), Math.round(tracker.getLastThroughput()));
+
+		readiness.markReady(details);
+	}
+
+	/**
+	 * Sends a round of synthetic transactions and statistics queries
+	 *
+	 * @param baseUrl the base URL of the local instance
+	 */
+	private void runRound(final String baseUrl) {
+
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final HttpHeaders headers = new HttpHeaders();
+		headers.set(WarmUpTraffic.HEADER, "true");
+		for (int i = 0; i < roundSize; i++) {
+			final ApiTransaction transaction = new ApiTransaction();
+			transaction.setAmount(random.nextDouble(1, 10_000));
+			transaction.setTimestamp(clock.millis() - WINDOW + transactionLease);
+
+			restTemplate.postForEntity(baseUrl + "/transactions", new HttpEntity<>(transaction, headers), Void.class);
+			restTemplate.getForObject(baseUrl + "/statistics", StatisticsResult.class);
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.n26.challenge.warmup;
+
+/**
+ * Marks the synthetic transactions of the warm-up. The marker is bound to the
+ * thread serving a warm-up request (see {@link WarmUpTrafficFilter}) and
+ * carried along with the calls moved to other threads, so the engines store
+ * the transactions (to exercise the space) without notifying the transaction
+ * observers, whose views (history, tumbling windows, histograms, cluster
+ * summaries...) outlive the short lease of the synthetic transactions.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class WarmUpTraffic {
+
+	/**
+	 * The request header marking the warm-up requests
+	 */
+	public static final String HEADER = "X-Warm-Up";
+
+	/**
+	 * Whether the current thread serves a warm-up request
+	 */
+	private static final ThreadLocal<Boolean> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * Not instantiable
+	 */
+	private WarmUpTraffic() {
+	}
+
+	/**
+	 * Returns whether the current thread serves a warm-up request
+	 *
+	 * @return true if the transactions are synthetic
+	 */
+	public static boolean isActive() {
+
+		return CURRENT.get() != null;
+	}
+
+	/**
+	 * Marks or unmarks the current thread as serving a warm-up request.
+	 *
+	 * @param active whether the thread serves a warm-up request
+	 * @return whether it was marked before
+	 */
+	public static boolean attach(final boolean active) {
+
+		final boolean previous = isActive();
+		if (active) {
+			CURRENT.set(Boolean.TRUE);
+		} else {
+			CURRENT.remove();
+		}
+		return previous;
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.n26.challenge.warmup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Marks the requests sent by the {@link WarmUpRunner} as warm-up traffic
+ * (see {@link WarmUpTraffic}). The {@link WarmUpTraffic#HEADER} header is
+ * only honored while the instance is warming up and for the requests from
+ * the same host, so a client can't hide its transactions from the observers.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@Component
+public class WarmUpTrafficFilter extends OncePerRequestFilter {
+
+	/**
+	 * The readiness of the instance
+	 */
+	private final ReadinessHealthIndicator readiness;
+
+	/**
+	 * Default warm-up traffic filter constructor
+	 *
+	 * @param readiness the readiness of the instance
+	 */
+	@Autowired
+	public WarmUpTrafficFilter(final ReadinessHealthIndicator readiness) {
+
+		this.readiness = readiness;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @see OncePerRequestFilter#doFilterInternal(HttpServletRequest,
+	 *      HttpServletResponse, FilterChain)
+	 */
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain filterChain) throws ServletException, IOException {
+
+		final boolean warmUp = !readiness.isReady() && Boolean.parseBoolean(request.getHeader(WarmUpTraffic.HEADER))
+				&& InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+		final boolean previous = WarmUpTraffic.attach(warmUp);
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			WarmUpTraffic.attach(previous);
+		}
+	}
+
+}
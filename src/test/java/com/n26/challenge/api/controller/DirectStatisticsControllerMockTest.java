@@ -0,0 +1,202 @@
+package com.n26.challenge.api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import org.easymock.EasyMock;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.n26.challenge.AbstractGenericMockTest;
+import com.n26.challenge.api.model.ApiTransaction;
+import com.n26.challenge.api.model.BatchResult;
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.service.IStatisticsService;
+import com.n26.challenge.service.StatisticsVersionTracker;
+
+/**
+ * Test class for {@link DirectStatisticsController} using mocks.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class DirectStatisticsControllerMockTest extends AbstractGenericMockTest {
+
+	/**
+	 * Class under test
+	 */
+	private DirectStatisticsController controller;
+
+	/**
+	 * The statistics service mock
+	 */
+	private IStatisticsService statisticsServiceMock;
+
+	/**
+	 * Creates the set up for the test cases
+	 */
+	@BeforeClass
+	public void setUp() {
+
+		statisticsServiceMock = EasyMock.createMock(IStatisticsService.class);
+		registerMocks(statisticsServiceMock);
+
+		controller = new DirectStatisticsController(statisticsServiceMock);
+	}
+
+	/**
+	 * Test case for {@link DirectStatisticsController#registerTransaction(ApiTransaction)} method without amount
+	 */
+	@Test(description = "Test case for registerTransaction method without amount parameter",
+			expectedExceptions = IllegalArgumentException.class)
+	public void registerTransactionTestNullAmount() {
+
+		final ApiTransaction transaction = new ApiTransaction();
+		transaction.setTimestamp(Instant.now().toEpochMilli());
+
+		resetMocks();
+		replayMocks();
+
+		controller.registerTransaction(transaction);
+		fail("An exception should have been thrown");
+	}
+
+	/**
+	 * Test case for {@link DirectStatisticsController#registerTransaction(ApiTransaction)} method registering on the
+	 * calling thread
+	 */
+	@Test(description = "Test case for registerTransaction method successfully")
+	public void registerTransactionTestSuccess() {
+
+		final ApiTransaction transaction = new ApiTransaction();
+		transaction.setTimestamp(Instant.now().toEpochMilli());
+		transaction.setAmount(123D);
+
+		resetMocks();
+		EasyMock.expect(statisticsServiceMock.createTransaction(transaction.getTimestamp(), transaction.getAmount()))
+				.andReturn(0L);
+		replayMocks();
+
+		controller.registerTransaction(transaction);
+
+		verifyMocks();
+	}
+
+	/**
+	 * Test case for {@link DirectStatisticsController#registerTransactions(ApiTransaction[])} method rejecting the
+	 * invalid transactions without failing the batch
+	 */
+	@Test(description = "Test case for registerTransactions method rejecting the invalid transactions")
+	public void registerTransactionsTestPartiallyRejected() {
+
+		final long now = Instant.now().toEpochMilli();
+		final ApiTransaction valid = new ApiTransaction();
+		valid.setTimestamp(now);
+		valid.setAmount(10D);
+		final ApiTransaction old = new ApiTransaction();
+		old.setTimestamp(now - 120_000);
+		old.setAmount(20D);
+
+		resetMocks();
+		EasyMock.expect(statisticsServiceMock.createTransaction(now, 10D)).andReturn(0L);
+		EasyMock.expect(statisticsServiceMock.createTransaction(now - 120_000, 20D))
+				.andThrow(new IllegalArgumentException("Out of the window"));
+		replayMocks();
+
+		final BatchResult result = controller.registerTransactions(new ApiTransaction[] { valid, old, null });
+
+		verifyMocks();
+		assertThat(result.getAccepted()).isEqualTo(1L);
+		assertThat(result.getRejected()).isEqualTo(2L);
+	}
+
+	/**
+	 * Test case for {@link DirectStatisticsController#queryStats(String)} method answering with the ETag and then not
+	 * modified without computing the statistics
+	 */
+	@Test(description = "Test case for queryStats method answering with the ETag and then not modified")
+	public void queryStatsTestNotModified() {
+
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(0);
+		final DirectStatisticsController conditionalController = new DirectStatisticsController(statisticsServiceMock,
+				tracker);
+
+		resetMocks();
+		EasyMock.expect(statisticsServiceMock.getStatistics()).andReturn(new StatisticsResult(100, 10, 200, 50, 1000))
+				.once();
+		replayMocks();
+
+		final ResponseEntity<StatisticsResult> first = conditionalController.queryStats(null);
+		final String eTag = first.getHeaders().getETag();
+		final ResponseEntity<StatisticsResult> second = conditionalController.queryStats(eTag);
+
+		verifyMocks();
+		tracker.stop();
+		assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(first.getBody().getSum()).isEqualTo(1000d);
+		assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(second.getBody()).isNull();
+	}
+
+	/**
+	 * Test case for {@link DirectStatisticsController#pollStats(String, String)} method long polling until a
+	 * transaction is registered
+	 */
+	@Test(description = "Test case for pollStats method long polling until a transaction is registered")
+	public void pollStatsTestLongPolling() {
+
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(10_000);
+		final DirectStatisticsController conditionalController = new DirectStatisticsController(statisticsServiceMock,
+				tracker);
+		final long version = tracker.getVersion();
+
+		resetMocks();
+		EasyMock.expect(statisticsServiceMock.getStatistics()).andReturn(new StatisticsResult(100, 1, 100, 100, 100));
+		replayMocks();
+
+		final CompletableFuture<ResponseEntity<StatisticsResult>> response = conditionalController.pollStats(null,
+				tracker.toTag(version));
+		assertThat(response.isDone()).isFalse();
+		tracker.onTransaction(Instant.now().toEpochMilli(), 100d);
+		final ResponseEntity<StatisticsResult> entity = response.join();
+
+		verifyMocks();
+		tracker.stop();
+		assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(entity.getHeaders().getETag()).isEqualTo("\"" + tracker.toTag(version + 1) + "\"");
+	}
+
+	/**
+	 * Test case for {@link DirectStatisticsController} never answering not modified nor waiting with a shared space
+	 */
+	@Test(description = "Test case never answering not modified nor waiting with a shared space")
+	public void queryStatsTestSharedSpace() {
+
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(10_000, "aggregate", false);
+		final DirectStatisticsController sharedController = new DirectStatisticsController(statisticsServiceMock,
+				tracker);
+		final String tag = tracker.toTag(tracker.getVersion());
+
+		resetMocks();
+		EasyMock.expect(statisticsServiceMock.getStatistics()).andReturn(new StatisticsResult(100, 1, 100, 100, 100))
+				.times(2);
+		replayMocks();
+
+		final ResponseEntity<StatisticsResult> conditional = sharedController.queryStats("\"" + tag + "\"");
+		final CompletableFuture<ResponseEntity<StatisticsResult>> polling = sharedController.pollStats(null, tag);
+
+		verifyMocks();
+		tracker.stop();
+		assertThat(conditional.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(conditional.getHeaders().getETag()).isEqualTo("\"" + tag + "\"");
+		assertThat(polling.isDone()).isTrue();
+		assertThat(polling.join().getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+}
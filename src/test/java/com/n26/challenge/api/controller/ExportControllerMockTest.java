@@ -0,0 +1,94 @@
+package com.n26.challenge.api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.converter.TransactionExportWriter;
+import com.n26.challenge.service.store.RawTransactionStore;
+
+/**
+ * Test class for {@link ExportController} and {@link TransactionExportWriter}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ExportControllerMockTest {
+
+	/**
+	 * Test case for {@link ExportController#exportTransactions(String)} method streaming CSV
+	 *
+	 * @throws IOException if the body can't be written
+	 */
+	@Test(description = "Test case for exportTransactions method streaming CSV")
+	public void exportTransactionsTestCsv() throws IOException {
+
+		final RawTransactionStore store = new RawTransactionStore(16);
+		final long now = Instant.now().toEpochMilli();
+		store.onTransaction(now - 1_000, 12.3);
+		store.onTransaction(now - 1_000, -0.05);
+		store.onTransaction(now - 120_000, 99);
+
+		final ResponseEntity<StreamingResponseBody> response = new ExportController(store).exportTransactions("CSV");
+
+		assertThat(response.getHeaders().getContentType()).isEqualTo(TransactionExportWriter.TEXT_CSV);
+		assertThat(write(response)).isEqualTo(
+				"timestamp,amount\n" + (now - 1_000) + ",12.30\n" + (now - 1_000) + ",-0.05\n");
+	}
+
+	/**
+	 * Test case for {@link ExportController#exportTransactions(String)} method streaming more NDJSON than the writer
+	 * buffers
+	 *
+	 * @throws IOException if the body can't be written
+	 */
+	@Test(description = "Test case for exportTransactions method streaming more NDJSON than the writer buffers")
+	public void exportTransactionsTestNdjson() throws IOException {
+
+		final RawTransactionStore store = new RawTransactionStore(10_000);
+		final long timeStamp = Instant.now().toEpochMilli() - 500;
+		for (int i = 0; i < 5_000; i++) {
+			store.onTransaction(timeStamp, i / 100d);
+		}
+
+		final String export = write(new ExportController(store).exportTransactions("ndjson"));
+
+		final String[] lines = export.split("\n");
+		assertThat(lines).hasSize(5_000);
+		assertThat(lines[0]).isEqualTo("{\"timestamp\":" + timeStamp + ",\"amount\":0.00}");
+		assertThat(lines[4_999]).isEqualTo("{\"timestamp\":" + timeStamp + ",\"amount\":49.99}");
+	}
+
+	/**
+	 * Test case for {@link ExportController#exportTransactions(String)} method with an unknown format
+	 */
+	@Test(description = "Test case for exportTransactions method with an unknown format",
+			expectedExceptions = IllegalArgumentException.class)
+	public void exportTransactionsTestUnknownFormat() {
+
+		new ExportController(new RawTransactionStore(16)).exportTransactions("xml");
+	}
+
+	/**
+	 * Writes the streamed body of a response
+	 *
+	 * @param response the response
+	 * @return the body
+	 * @throws IOException if the body can't be written
+	 */
+	private static String write(final ResponseEntity<StreamingResponseBody> response) throws IOException {
+
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		response.getBody().writeTo(output);
+		return new String(output.toByteArray(), StandardCharsets.US_ASCII);
+	}
+
+}
@@ -4,15 +4,21 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 import org.easymock.EasyMock;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import com.n26.challenge.AbstractGenericMockTest;
 import com.n26.challenge.api.model.ApiTransaction;
+import com.n26.challenge.api.model.BatchResult;
 import com.n26.challenge.api.model.StatisticsResult;
 import com.n26.challenge.service.IStatisticsService;
+import com.n26.challenge.service.SpaceCallExecutor;
+import com.n26.challenge.service.StatisticsVersionTracker;
 
 /**
  * Test class for {@link StatisticsController} using mocks.
@@ -105,13 +111,44 @@ public class StatisticsControllerMockTest extends AbstractGenericMockTest {
 				.andReturn(0L);
 		replayMocks();
 
-		controller.registerTransaction(transaction);
+		controller.registerTransaction(transaction).join();
+
+		verifyMocks();
+	}
+
+	/**
+	 * Test case for {@link StatisticsController#registerTransactions(ApiTransaction[])} method rejecting the invalid
+	 * transactions without failing the batch
+	 */
+	@Test(description = "Test case for registerTransactions method rejecting the invalid transactions")
+	public void registerTransactionsTestPartiallyRejected() {
+
+		final long now = Instant.now().toEpochMilli();
+		final ApiTransaction valid = new ApiTransaction();
+		valid.setTimestamp(now);
+		valid.setAmount(10D);
+		final ApiTransaction old = new ApiTransaction();
+		old.setTimestamp(now - 120_000);
+		old.setAmount(20D);
+		final ApiTransaction withoutAmount = new ApiTransaction();
+		withoutAmount.setTimestamp(now);
+
+		resetMocks();
+		EasyMock.expect(statisticsServiceMock.createTransaction(now, 10D)).andReturn(0L);
+		EasyMock.expect(statisticsServiceMock.createTransaction(now - 120_000, 20D))
+				.andThrow(new IllegalArgumentException("Out of the window"));
+		replayMocks();
+
+		final BatchResult result = controller
+				.registerTransactions(new ApiTransaction[] { valid, old, withoutAmount, null }).join();
 
 		verifyMocks();
+		assertThat(result.getAccepted()).isEqualTo(1L);
+		assertThat(result.getRejected()).isEqualTo(3L);
 	}
 
 	/**
-	 * Test case for {@link StatisticsController#queryStats()} method with successful results
+	 * Test case for {@link StatisticsController#queryStats(String, String)} method with successful results
 	 */
 	@Test(description = "Test case for queryStats method successfully")
 	public void queryStatsTestSuccess() {
@@ -124,7 +161,7 @@ public class StatisticsControllerMockTest extends AbstractGenericMockTest {
 		EasyMock.expect(statisticsServiceMock.getStatistics()).andReturn(new StatisticsResult(100, 10, 200, 50, 1000));
 		replayMocks();
 
-		StatisticsResult results = controller.queryStats();
+		StatisticsResult results = controller.queryStats(null, null).join().getBody();
 
 		verifyMocks();
 		assertThat(results.getAvg()).isEqualByComparingTo(100d);
@@ -134,4 +171,123 @@ public class StatisticsControllerMockTest extends AbstractGenericMockTest {
 		assertThat(results.getSum()).isEqualByComparingTo(1000d);
 	}
 
+	/**
+	 * Test case for {@link StatisticsController#queryStats(String, String)} method answering with the ETag and then
+	 * not modified without computing the statistics
+	 */
+	@Test(description = "Test case for queryStats method answering with the ETag and then not modified")
+	public void queryStatsTestNotModified() {
+
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(0);
+		final StatisticsController conditionalController = new StatisticsController(statisticsServiceMock,
+				SpaceCallExecutor.direct(), tracker);
+
+		resetMocks();
+		EasyMock.expect(statisticsServiceMock.getStatistics()).andReturn(new StatisticsResult(100, 10, 200, 50, 1000))
+				.once();
+		replayMocks();
+
+		final ResponseEntity<StatisticsResult> first = conditionalController.queryStats(null, null).join();
+		final String eTag = first.getHeaders().getETag();
+		final ResponseEntity<StatisticsResult> second = conditionalController.queryStats(eTag, null).join();
+
+		verifyMocks();
+		tracker.stop();
+		assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(eTag).isEqualTo("\"" + tracker.toTag(tracker.getVersion()) + "\"");
+		assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+		assertThat(second.getHeaders().getETag()).isEqualTo(eTag);
+		assertThat(second.getBody()).isNull();
+	}
+
+	/**
+	 * Test case for {@link StatisticsController#queryStats(String, String)} method long polling until a transaction is
+	 * registered
+	 */
+	@Test(description = "Test case for queryStats method long polling until a transaction is registered")
+	public void queryStatsTestLongPolling() {
+
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(10_000);
+		final StatisticsController conditionalController = new StatisticsController(statisticsServiceMock,
+				SpaceCallExecutor.direct(), tracker);
+		final long version = tracker.getVersion();
+
+		resetMocks();
+		EasyMock.expect(statisticsServiceMock.getStatistics()).andReturn(new StatisticsResult(100, 1, 100, 100, 100));
+		replayMocks();
+
+		final CompletableFuture<ResponseEntity<StatisticsResult>> response = conditionalController.queryStats(null,
+				tracker.toTag(version));
+		assertThat(response.isDone()).isFalse();
+		tracker.onTransaction(Instant.now().toEpochMilli(), 100d);
+		final ResponseEntity<StatisticsResult> entity = response.join();
+
+		verifyMocks();
+		tracker.stop();
+		assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(entity.getHeaders().getETag()).isEqualTo("\"" + tracker.toTag(version + 1) + "\"");
+		assertThat(entity.getBody().getCount()).isEqualTo(1L);
+	}
+
+	/**
+	 * Test case for {@link StatisticsController#queryStats(String, String)} method answering right away the tags of
+	 * another instance, with the same version
+	 */
+	@Test(description = "Test case for queryStats method answering right away the tags of another instance")
+	public void queryStatsTestOtherInstanceTag() {
+
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(10_000);
+		final StatisticsVersionTracker restarted = new StatisticsVersionTracker(10_000);
+		final StatisticsController conditionalController = new StatisticsController(statisticsServiceMock,
+				SpaceCallExecutor.direct(), tracker);
+		final String otherTag = restarted.toTag(tracker.getVersion());
+
+		resetMocks();
+		EasyMock.expect(statisticsServiceMock.getStatistics()).andReturn(new StatisticsResult(100, 1, 100, 100, 100))
+				.times(2);
+		replayMocks();
+
+		final ResponseEntity<StatisticsResult> conditional = conditionalController
+				.queryStats("\"" + otherTag + "\"", null).join();
+		final CompletableFuture<ResponseEntity<StatisticsResult>> polling = conditionalController.queryStats(null,
+				otherTag);
+
+		verifyMocks();
+		tracker.stop();
+		restarted.stop();
+		assertThat(conditional.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(polling.isDone()).isTrue();
+		assertThat(polling.join().getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
+	/**
+	 * Test case for {@link StatisticsController#queryStats(String, String)} method never answering not modified nor
+	 * waiting with a shared space
+	 */
+	@Test(description = "Test case for queryStats method never answering not modified nor waiting with a shared space")
+	public void queryStatsTestSharedSpace() {
+
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(10_000, "aggregate", false);
+		final StatisticsController sharedController = new StatisticsController(statisticsServiceMock,
+				SpaceCallExecutor.direct(), tracker);
+		final String tag = tracker.toTag(tracker.getVersion());
+
+		resetMocks();
+		EasyMock.expect(statisticsServiceMock.getStatistics()).andReturn(new StatisticsResult(100, 1, 100, 100, 100))
+				.times(2);
+		replayMocks();
+
+		final ResponseEntity<StatisticsResult> conditional = sharedController.queryStats("\"" + tag + "\"", null)
+				.join();
+		final CompletableFuture<ResponseEntity<StatisticsResult>> polling = sharedController.queryStats(null, tag);
+
+		verifyMocks();
+		tracker.stop();
+		assertThat(tracker.isExclusive()).isFalse();
+		assertThat(conditional.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(conditional.getHeaders().getETag()).isEqualTo("\"" + tag + "\"");
+		assertThat(polling.isDone()).isTrue();
+		assertThat(polling.join().getStatusCode()).isEqualTo(HttpStatus.OK);
+	}
+
 }
@@ -0,0 +1,118 @@
+package com.n26.challenge.api.converter;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.n26.challenge.api.model.ApiTransaction;
+import com.n26.challenge.api.model.StatisticsResult;
+
+/**
+ * Micro benchmark comparing the size and the encoding/decoding time of the
+ * wire formats: a batch of 1000 transactions (decoded, as in the ingest) and
+ * a statistics result (encoded, as in the queries). It isn't run by the
+ * build, run it with its main method.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class WireFormatBenchmark {
+
+	/**
+	 * The number of transactions of the batch
+	 */
+	private static final int BATCH_SIZE = 1_000;
+
+	/**
+	 * The number of measured iterations
+	 */
+	private static final int ITERATIONS = 20_000;
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args not used
+	 * @throws IOException if a message can't be converted
+	 */
+	public static void main(final String[] args) throws IOException {
+
+		final Random random = new Random(26);
+		final ApiTransaction[] batch = new ApiTransaction[BATCH_SIZE];
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			batch[i] = new ApiTransaction();
+			batch[i].setTimestamp(1_500_000_000_000L + random.nextInt(60_000));
+			batch[i].setAmount(random.nextInt(1_000_000) / 100d);
+		}
+		final StatisticsResult statistics = new StatisticsResult(4_998.27, 120_000, 9_999.99, 0.01, 599_792_400,
+				8_331_441.18, 2_886.42);
+
+		System.out.println("format        batch bytes  decode us/batch  stats bytes  encode ns/stats");
+		run("json", new MappingJackson2HttpMessageConverter(), MediaType.APPLICATION_JSON, batch, statistics);
+		run("cbor", new CborHttpMessageConverter(), CborHttpMessageConverter.APPLICATION_CBOR, batch, statistics);
+		run("fixed-record", new FixedRecordHttpMessageConverter(),
+				FixedRecordHttpMessageConverter.APPLICATION_FIXED_RECORD, batch, statistics);
+	}
+
+	/**
+	 * Measures a format, after a warm up of the same number of iterations
+	 *
+	 * @param name the format name
+	 * @param converter the format converter
+	 * @param mediaType the format media type
+	 * @param batch the batch of transactions
+	 * @param statistics the statistics result
+	 * @throws IOException if a message can't be converted
+	 */
+	private static void run(final String name, final HttpMessageConverter<Object> converter,
+			final MediaType mediaType, final ApiTransaction[] batch, final StatisticsResult statistics)
+			throws IOException {
+
+		final byte[] batchBytes = write(converter, batch, mediaType);
+		final int statisticsBytes = write(converter, statistics, mediaType).length;
+
+		long decode = 0;
+		long encode = 0;
+		for (int round = 0; round < 2; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS / 10; i++) {
+				if (converter.read(ApiTransaction[].class, new MockHttpInputMessage(batchBytes)) == null) {
+					throw new IllegalStateException();
+				}
+			}
+			decode = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++) {
+				write(converter, statistics, mediaType);
+			}
+			encode = System.nanoTime() - start;
+		}
+
+		System.out.println(String.format("%-12s  %11d  %15.1f  %11d  %15.0f", name, batchBytes.length,
+				decode / 1_000d / (ITERATIONS / 10), statisticsBytes, encode / (double) ITERATIONS));
+	}
+
+	/**
+	 * Encodes an object
+	 *
+	 * @param converter the format converter
+	 * @param object the object
+	 * @param mediaType the format media type
+	 * @return the encoded bytes
+	 * @throws IOException if the object can't be converted
+	 */
+	private static byte[] write(final HttpMessageConverter<Object> converter, final Object object,
+			final MediaType mediaType) throws IOException {
+
+		final MockHttpOutputMessage output = new MockHttpOutputMessage();
+		converter.write(object, mediaType, output);
+		return output.getBodyAsBytes();
+	}
+
+}
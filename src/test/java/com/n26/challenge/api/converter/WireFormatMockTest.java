@@ -0,0 +1,147 @@
+package com.n26.challenge.api.converter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.model.ApiTransaction;
+import com.n26.challenge.api.model.BatchResult;
+import com.n26.challenge.api.model.StatisticsResult;
+
+/**
+ * Test class for {@link CborHttpMessageConverter},
+ * {@link FixedRecordHttpMessageConverter} and {@link WireFormatConfiguration}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class WireFormatMockTest {
+
+	/**
+	 * Test case for {@link CborHttpMessageConverter} writing and reading the statistics back
+	 *
+	 * @throws IOException if the message can't be written
+	 */
+	@Test(description = "Test case for the CBOR converter writing and reading the statistics back")
+	public void cborTestRoundTrip() throws IOException {
+
+		final CborHttpMessageConverter converter = new CborHttpMessageConverter();
+		final MockHttpOutputMessage output = new MockHttpOutputMessage();
+		converter.write(new StatisticsResult(12.5, 4, 20, 5, 50, 31.25, 5.59), CborHttpMessageConverter.APPLICATION_CBOR,
+				output);
+
+		final StatisticsResult statistics = (StatisticsResult) converter.read(StatisticsResult.class,
+				new MockHttpInputMessage(output.getBodyAsBytes()));
+
+		assertThat(output.getHeaders().getContentType().isCompatibleWith(CborHttpMessageConverter.APPLICATION_CBOR))
+				.isTrue();
+		assertThat(statistics.getCount()).isEqualTo(4L);
+		assertThat(statistics.getAvg()).isEqualTo(12.5d);
+		assertThat(statistics.getStdDev()).isEqualTo(5.59d);
+	}
+
+	/**
+	 * Test case for {@link FixedRecordHttpMessageConverter} reading a batch of transaction records
+	 *
+	 * @throws IOException if the message can't be read
+	 */
+	@Test(description = "Test case for the fixed record converter reading a batch of transactions")
+	public void fixedRecordTestReadBatch() throws IOException {
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream records = new DataOutputStream(bytes);
+		records.writeLong(1_500_000_000_000L);
+		records.writeLong(12_345);
+		records.writeLong(1_500_000_000_001L);
+		records.writeLong(-7);
+
+		final ApiTransaction[] transactions = (ApiTransaction[]) new FixedRecordHttpMessageConverter()
+				.read(ApiTransaction[].class, new MockHttpInputMessage(bytes.toByteArray()));
+
+		assertThat(transactions).hasSize(2);
+		assertThat(transactions[0].getTimestamp()).isEqualTo(1_500_000_000_000L);
+		assertThat(transactions[0].getAmount()).isEqualTo(123.45d);
+		assertThat(transactions[1].getAmount()).isEqualTo(-0.07d);
+	}
+
+	/**
+	 * Test case for {@link FixedRecordHttpMessageConverter} with a truncated record
+	 *
+	 * @throws IOException if the message can't be read
+	 */
+	@Test(description = "Test case for the fixed record converter with a truncated record",
+			expectedExceptions = HttpMessageNotReadableException.class)
+	public void fixedRecordTestTruncatedRecord() throws IOException {
+
+		new FixedRecordHttpMessageConverter().read(ApiTransaction.class, new MockHttpInputMessage(new byte[10]));
+	}
+
+	/**
+	 * Test case for {@link FixedRecordHttpMessageConverter} writing the statistics and batch results
+	 *
+	 * @throws IOException if the message can't be written
+	 */
+	@Test(description = "Test case for the fixed record converter writing the statistics and batch results")
+	public void fixedRecordTestWriteResults() throws IOException {
+
+		final FixedRecordHttpMessageConverter converter = new FixedRecordHttpMessageConverter();
+		final MockHttpOutputMessage statisticsOutput = new MockHttpOutputMessage();
+		converter.write(new StatisticsResult(12.5, 4, 20, 5, 50, 31.25, 5.59),
+				FixedRecordHttpMessageConverter.APPLICATION_FIXED_RECORD, statisticsOutput);
+		final MockHttpOutputMessage batchOutput = new MockHttpOutputMessage();
+		converter.write(new BatchResult(7, 2), FixedRecordHttpMessageConverter.APPLICATION_FIXED_RECORD, batchOutput);
+
+		final ByteBuffer statistics = ByteBuffer.wrap(statisticsOutput.getBodyAsBytes());
+		assertThat(statistics.remaining()).isEqualTo(FixedRecordHttpMessageConverter.STATISTICS_RECORD_SIZE);
+		assertThat(statisticsOutput.getHeaders().getContentLength())
+				.isEqualTo(FixedRecordHttpMessageConverter.STATISTICS_RECORD_SIZE);
+		assertThat(statistics.getLong()).isEqualTo(4L);
+		assertThat(statistics.getDouble()).isEqualTo(12.5d);
+		assertThat(statistics.getDouble()).isEqualTo(20d);
+		assertThat(statistics.getDouble()).isEqualTo(5d);
+		assertThat(statistics.getDouble()).isEqualTo(50d);
+		assertThat(statistics.getDouble()).isEqualTo(31.25d);
+		assertThat(statistics.getDouble()).isEqualTo(5.59d);
+		assertThat(statistics.getLong()).isEqualTo(FixedRecordHttpMessageConverter.EXACT_FLAG);
+		assertThat(statistics.getDouble()).isEqualTo(1d);
+
+		final ByteBuffer batch = ByteBuffer.wrap(batchOutput.getBodyAsBytes());
+		assertThat(batch.getLong()).isEqualTo(7L);
+		assertThat(batch.getLong()).isEqualTo(2L);
+		assertThat(converter.canRead(StatisticsResult.class, FixedRecordHttpMessageConverter.APPLICATION_FIXED_RECORD))
+				.isFalse();
+	}
+
+	/**
+	 * Test case for {@link WireFormatConfiguration} keeping JSON as the first (default) format
+	 */
+	@Test(description = "Test case for the configuration keeping JSON as the default format")
+	public void extendMessageConvertersTestJsonFirst() {
+
+		final List<HttpMessageConverter<?>> converters = new ArrayList<>();
+		converters.add(new MappingJackson2HttpMessageConverter());
+
+		new WireFormatConfiguration().extendMessageConverters(converters);
+
+		assertThat(converters).hasSize(3);
+		assertThat(converters.get(0)).isInstanceOf(MappingJackson2HttpMessageConverter.class);
+		assertThat(converters.get(0).canWrite(StatisticsResult.class, MediaType.ALL)).isTrue();
+		assertThat(converters.get(1)).isInstanceOf(CborHttpMessageConverter.class);
+		assertThat(converters.get(2)).isInstanceOf(FixedRecordHttpMessageConverter.class);
+	}
+
+}
@@ -0,0 +1,181 @@
+package com.n26.challenge.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.model.ApiTransaction;
+import com.n26.challenge.api.model.ClusterStatisticsResult;
+import com.n26.challenge.api.model.StatisticsResult;
+
+/**
+ * Test class for the cluster mode, running 2 instances of the Statistics API
+ * on localhost, each one with its own embedded space.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ClusterIntegrationTest {
+
+	/**
+	 * The publication interval of the instances
+	 */
+	private static final long PUBLISH_INTERVAL = 500;
+
+	/**
+	 * HTTP client to send requests to the instances
+	 */
+	private final RestTemplate restTemplate = new RestTemplate();
+
+	/**
+	 * The first instance context
+	 */
+	private ConfigurableApplicationContext firstNode;
+
+	/**
+	 * The second instance context
+	 */
+	private ConfigurableApplicationContext secondNode;
+
+	/**
+	 * The first instance base URL
+	 */
+	private String firstUrl;
+
+	/**
+	 * The second instance base URL
+	 */
+	private String secondUrl;
+
+	/**
+	 * Starts both instances pointing to each other
+	 *
+	 * @throws IOException if no free port could be found
+	 */
+	@BeforeClass
+	public void setUp() throws IOException {
+
+		final int firstPort = freePort();
+		final int secondPort = freePort();
+		firstUrl = "http://localhost:" + firstPort;
+		secondUrl = "http://localhost:" + secondPort;
+
+		firstNode = startNode(firstPort, "first", secondUrl, "second");
+		secondNode = startNode(secondPort, "second", firstUrl, "first");
+	}
+
+	/**
+	 * Stops both instances
+	 */
+	@AfterClass(alwaysRun = true)
+	public void tearDown() {
+
+		if (firstNode != null) {
+			firstNode.close();
+		}
+		if (secondNode != null) {
+			secondNode.close();
+		}
+	}
+
+	/**
+	 * Test case getting the cluster statistics after registering transactions on both instances
+	 *
+	 * @throws InterruptedException
+	 *             if the thread is interrupted
+	 */
+	@Test(description = "Test case getting the cluster statistics after registering transactions on both instances")
+	public void getClusterStatisticsTestTwoNodes() throws InterruptedException {
+
+		final long timeStamp = Instant.now().toEpochMilli() - 1_000;
+		postTransaction(firstUrl, 100d, timeStamp);
+		postTransaction(firstUrl, 300d, timeStamp);
+		postTransaction(secondUrl, 50d, timeStamp);
+
+		// Each instance only sees its own transactions
+		assertThat(restTemplate.getForObject(firstUrl + "/statistics", StatisticsResult.class).getCount())
+				.isEqualTo(2L);
+		assertThat(restTemplate.getForObject(secondUrl + "/statistics", StatisticsResult.class).getCount())
+				.isEqualTo(1L);
+
+		TimeUnit.MILLISECONDS.sleep(PUBLISH_INTERVAL * 3);
+
+		for (final String url : new String[] { firstUrl, secondUrl }) {
+			final ClusterStatisticsResult result = restTemplate.getForObject(url + "/statistics/cluster",
+					ClusterStatisticsResult.class);
+
+			assertThat(result.getNodes()).isEqualTo(2);
+			assertThat(result.getCount()).isEqualTo(3L);
+			assertThat(result.getSum()).isEqualByComparingTo(450d);
+			assertThat(result.getAvg()).isEqualByComparingTo(150d);
+			assertThat(result.getMax()).isEqualByComparingTo(300d);
+			assertThat(result.getMin()).isEqualByComparingTo(50d);
+			assertThat(result.getStaleness()).isLessThanOrEqualTo(PUBLISH_INTERVAL * 3);
+			assertThat(result.getStaleNodes()).isEmpty();
+		}
+	}
+
+	/**
+	 * Starts an instance of the API with the cluster mode enabled
+	 *
+	 * @param port the server port
+	 * @param name the node (and space) name
+	 * @param peer the base URL of the peer
+	 * @param peerName the node name of the peer
+	 * @return the application context
+	 */
+	private static ConfigurableApplicationContext startNode(final int port, final String name, final String peer,
+			final String peerName) {
+
+		return new SpringApplicationBuilder(StatisticsApiApplication.class).run("--server.port=" + port,
+				"--statistics.space.name=clusterTest-" + name, "--statistics.warmup.enabled=false",
+				"--statistics.cluster.enabled=true", "--statistics.cluster.node-id=" + name,
+				"--statistics.cluster.peers=" + peer, "--statistics.cluster.peer-ids=" + peerName,
+				"--statistics.cluster.publish-interval=" + PUBLISH_INTERVAL);
+	}
+
+	/**
+	 * Sends a POST request to an instance to register a transaction
+	 *
+	 * @param baseUrl the instance base URL
+	 * @param amount the transaction's amount
+	 * @param timeStamp the transaction's time stamp
+	 */
+	private void postTransaction(final String baseUrl, final double amount, final long timeStamp) {
+
+		final ApiTransaction transaction = new ApiTransaction();
+		transaction.setTimestamp(timeStamp);
+		transaction.setAmount(amount);
+
+		final ResponseEntity<Void> entity = restTemplate.postForEntity(baseUrl + "/transactions", transaction,
+				Void.class);
+		assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+	}
+
+	/**
+	 * Returns a free local port
+	 *
+	 * @return the port
+	 * @throws IOException if no port could be opened
+	 */
+	private static int freePort() throws IOException {
+
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+}
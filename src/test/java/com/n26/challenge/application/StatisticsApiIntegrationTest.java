@@ -33,7 +33,7 @@ import com.n26.challenge.service.StatisticsService;
  * @version 1.0.0
  * @since 1.0.0
  */
-@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "statistics.warmup.enabled=false")
 public class StatisticsApiIntegrationTest extends AbstractTestNGSpringContextTests {
 
 	/**
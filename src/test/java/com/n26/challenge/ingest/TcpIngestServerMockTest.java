@@ -0,0 +1,170 @@
+package com.n26.challenge.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.time.Instant;
+
+import org.easymock.EasyMock;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.n26.challenge.AbstractGenericMockTest;
+import com.n26.challenge.service.IStatisticsService;
+import com.n26.challenge.service.capacity.CapacityExceededException;
+
+/**
+ * Test class for {@link TcpIngestServer} using mocks.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class TcpIngestServerMockTest extends AbstractGenericMockTest {
+
+	/**
+	 * Class under test
+	 */
+	private TcpIngestServer server;
+
+	/**
+	 * The statistics service mock
+	 */
+	private IStatisticsService statisticsServiceMock;
+
+	/**
+	 * Creates the set up for the test cases
+	 *
+	 * @throws IOException if the server can't be started
+	 */
+	@BeforeClass
+	public void setUp() throws IOException {
+
+		statisticsServiceMock = EasyMock.createMock(IStatisticsService.class);
+		registerMocks(statisticsServiceMock);
+
+		server = new TcpIngestServer(statisticsServiceMock, 0, 4);
+		server.start();
+	}
+
+	/**
+	 * Stops the server
+	 */
+	@AfterClass
+	public void tearDown() {
+
+		server.stop();
+	}
+
+	/**
+	 * Test case for {@link TcpIngestServer} acknowledging each batch with its accepted and rejected records, with
+	 * the batches split across writes
+	 *
+	 * @throws IOException if the connection fails
+	 */
+	@Test(description = "Test case acknowledging each batch with its accepted and rejected records")
+	public void ingestTestAcknowledgeBatches() throws IOException {
+
+		final long now = Instant.now().toEpochMilli();
+
+		resetMocks();
+		EasyMock.expect(statisticsServiceMock.createTransaction(now - 1_000, 12.34)).andReturn(0L);
+		EasyMock.expect(statisticsServiceMock.createTransaction(now - 2_000, -0.05)).andReturn(0L);
+		EasyMock.expect(statisticsServiceMock.createTransaction(now - 3_000, 0.1)).andReturn(0L);
+		replayMocks();
+
+		try (Socket socket = new Socket("localhost", server.getPort())) {
+			final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+			final DataInputStream input = new DataInputStream(socket.getInputStream());
+
+			// Two valid records, one too old and one in the future
+			output.writeInt(4 * TcpIngestServer.RECORD_SIZE);
+			output.writeLong(now - 1_000);
+			output.writeLong(1_234);
+			output.writeLong(now - 120_000);
+			output.writeLong(100);
+			output.flush();
+			output.writeLong(now - 2_000);
+			output.writeLong(-5);
+			output.writeLong(now + 120_000);
+			output.writeLong(100);
+			output.writeInt(TcpIngestServer.RECORD_SIZE);
+			output.writeLong(now - 3_000);
+			output.writeLong(10);
+			output.flush();
+
+			assertThat(input.readLong()).isEqualTo(2L);
+			assertThat(input.readLong()).isEqualTo(2L);
+			assertThat(input.readLong()).isEqualTo(1L);
+			assertThat(input.readLong()).isEqualTo(0L);
+		}
+
+		verifyMocks();
+	}
+
+	/**
+	 * Test case for {@link TcpIngestServer} closing the connection on a batch longer than the maximum
+	 *
+	 * @throws IOException if the connection fails
+	 */
+	@Test(description = "Test case closing the connection on a batch longer than the maximum")
+	public void ingestTestInvalidLength() throws IOException {
+
+		resetMocks();
+		replayMocks();
+
+		try (Socket socket = new Socket("localhost", server.getPort())) {
+			final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+			output.writeInt(5 * TcpIngestServer.RECORD_SIZE);
+			output.flush();
+
+			assertThat(socket.getInputStream().read()).isEqualTo(-1);
+		}
+
+		verifyMocks();
+	}
+
+	/**
+	 * Test case for {@link TcpIngestServer} counting the records rejected by the engine, and closing the connection
+	 * without acknowledging the batch when the engine fails
+	 *
+	 * @throws IOException if the connection fails
+	 */
+	@Test(description = "Test case counting the records rejected by the engine and closing the connection on a failure")
+	public void ingestTestEngineFailure() throws IOException {
+
+		final long now = Instant.now().toEpochMilli();
+
+		resetMocks();
+		EasyMock.expect(statisticsServiceMock.createTransaction(now - 1_000, 1d))
+				.andThrow(new CapacityExceededException("Full"));
+		EasyMock.expect(statisticsServiceMock.createTransaction(now - 2_000, 2d))
+				.andThrow(new IllegalStateException("Space unavailable"));
+		replayMocks();
+
+		try (Socket socket = new Socket("localhost", server.getPort())) {
+			final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+			final DataInputStream input = new DataInputStream(socket.getInputStream());
+
+			output.writeInt(TcpIngestServer.RECORD_SIZE);
+			output.writeLong(now - 1_000);
+			output.writeLong(100);
+			output.flush();
+			assertThat(input.readLong()).isEqualTo(0L);
+			assertThat(input.readLong()).isEqualTo(1L);
+
+			output.writeInt(TcpIngestServer.RECORD_SIZE);
+			output.writeLong(now - 2_000);
+			output.writeLong(200);
+			output.flush();
+			assertThat(input.read()).isEqualTo(-1);
+		}
+
+		verifyMocks();
+	}
+
+}
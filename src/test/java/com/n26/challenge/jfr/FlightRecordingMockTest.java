@@ -0,0 +1,150 @@
+package com.n26.challenge.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.testng.annotations.Test;
+
+import com.n26.challenge.service.ExactStatisticsService;
+import com.n26.challenge.service.clock.ReplayClock;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Test class for {@link FlightRecordings}, {@link FlightRecordingMvcEndpoint} and the statistics events.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class FlightRecordingMockTest {
+
+	/**
+	 * Test case for {@link FlightRecordings#dump()} method recording the query and expiry events of the exact
+	 * engine
+	 *
+	 * @throws Exception if the recording fails
+	 */
+	@Test(description = "Test case for dump method recording the query and expiry events of the exact engine")
+	public void dumpTestStatisticsEvents() throws Exception {
+
+		final FlightRecordings recordings = new FlightRecordings("default", 60_000, 16 << 20);
+		try {
+			recordings.start(0);
+
+			final ReplayClock clock = new ReplayClock(0);
+			final ExactStatisticsService service = new ExactStatisticsService();
+			service.setClock(clock);
+			final long start = clock.millis();
+			service.createTransaction(start, 10);
+			service.createTransaction(start, 20);
+			clock.reach(start + 61_000);
+			service.getStatistics();
+			final IngestEvent ingest = new IngestEvent();
+			ingest.begin();
+			ingest.commit(IngestEvent.BATCH, 3, 2);
+
+			final Path dump = recordings.dump();
+			final List<RecordedEvent> events;
+			try {
+				events = RecordingFile.readAllEvents(dump).stream()
+						.filter(event -> event.getEventType().getName().startsWith("com.n26.challenge."))
+						.collect(Collectors.toList());
+			} finally {
+				Files.delete(dump);
+			}
+
+			assertThat(events).extracting(event -> event.getEventType().getName()).contains(
+					"com.n26.challenge.Ingest", "com.n26.challenge.StatisticsQuery", "com.n26.challenge.Expiry");
+			final RecordedEvent query = find(events, "com.n26.challenge.StatisticsQuery");
+			assertThat(query.getString("engine")).isEqualTo("exact");
+			assertThat(query.getLong("windowSize")).isZero();
+			assertThat(query.getLong("windowLength")).isEqualTo(60_000L);
+			assertThat(events.stream().filter(event -> event.getEventType().getName().equals("com.n26.challenge.Expiry"))
+					.mapToLong(event -> event.getLong("expired")).sum()).isEqualTo(2L);
+			final RecordedEvent batch = find(events, "com.n26.challenge.Ingest");
+			assertThat(batch.getString("source")).isEqualTo(IngestEvent.BATCH);
+			assertThat(batch.getInt("batchSize")).isEqualTo(3);
+			assertThat(batch.getInt("accepted")).isEqualTo(2);
+		} finally {
+			recordings.close();
+		}
+	}
+
+	/**
+	 * Test case for {@link FlightRecordings#start(long)} and {@link FlightRecordings#stop()} methods bounding the
+	 * recording and keeping it after it stops
+	 *
+	 * @throws IOException if the settings can't be read
+	 * @throws ParseException if the settings can't be parsed
+	 */
+	@Test(description = "Test case for start and stop methods bounding the recording")
+	public void startTestBoundedRecording() throws IOException, ParseException {
+
+		final FlightRecordings recordings = new FlightRecordings("profile", 30_000, 1 << 20);
+		try {
+			assertThat(recordings.status()).containsEntry("state", "NONE");
+
+			assertThat(recordings.start(120_000)).containsEntry("state", "RUNNING").containsEntry("duration", 30_000L)
+					.containsEntry("maxSize", 1L << 20);
+			assertThat(recordings.start(5_000)).containsEntry("duration", 5_000L);
+			assertThat(recordings.stop()).containsEntry("state", "STOPPED");
+			assertThat(recordings.stop()).containsEntry("state", "STOPPED");
+		} finally {
+			recordings.close();
+		}
+	}
+
+	/**
+	 * Test case for {@link FlightRecordingMvcEndpoint#dump(javax.servlet.http.HttpServletResponse)} method
+	 * downloading the recording, once started
+	 *
+	 * @throws Exception if the recording fails
+	 */
+	@Test(description = "Test case for dump method downloading the recording, once started")
+	public void dumpTestEndpoint() throws Exception {
+
+		final FlightRecordings recordings = new FlightRecordings("default", 60_000, 16 << 20);
+		try {
+			final FlightRecordingMvcEndpoint endpoint = new FlightRecordingMvcEndpoint(
+					new FlightRecordingEndpoint(recordings));
+
+			final MockHttpServletResponse missing = new MockHttpServletResponse();
+			endpoint.dump(missing);
+			assertThat(missing.getStatus()).isEqualTo(409);
+
+			assertThat(endpoint.start(0)).isInstanceOf(java.util.Map.class);
+			final MockHttpServletResponse response = new MockHttpServletResponse();
+			endpoint.dump(response);
+
+			assertThat(response.getStatus()).isEqualTo(200);
+			assertThat(response.getContentType()).isEqualTo("application/octet-stream");
+			assertThat(response.getHeader("Content-Disposition")).contains("statistics.jfr");
+			// A chunk starts with the FLR magic
+			assertThat(new String(response.getContentAsByteArray(), 0, 3, "US-ASCII")).isEqualTo("FLR");
+		} finally {
+			recordings.close();
+		}
+	}
+
+	/**
+	 * Finds the first event of a type
+	 *
+	 * @param events the recorded events
+	 * @param name the event type name
+	 * @return the first event of the type
+	 */
+	private static RecordedEvent find(final List<RecordedEvent> events, final String name) {
+
+		return events.stream().filter(event -> event.getEventType().getName().equals(name)).findFirst().get();
+	}
+
+}
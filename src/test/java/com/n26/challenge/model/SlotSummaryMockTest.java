@@ -0,0 +1,124 @@
+package com.n26.challenge.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test class for the moments (mean and variance) kept by {@link SlotSummary}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class SlotSummaryMockTest {
+
+	/**
+	 * Test case for {@link SlotSummary#add(double)} keeping the variance precise over millions of large amounts
+	 */
+	@Test(description = "Test case for add method keeping the variance precise over millions of large amounts")
+	public void addTestPrecisionMillionsOfAmounts() {
+
+		final Random random = new Random(26);
+		final SlotSummary summary = new SlotSummary(0);
+		final double[] amounts = new double[2_000_000];
+		// A large offset with a small spread, where a plain sum of squares loses all the precision
+		for (int i = 0; i < amounts.length; i++) {
+			amounts[i] = 1_000_000_000d + random.nextInt(10_000) / 100d;
+			summary.add(amounts[i]);
+		}
+
+		final BigDecimal variance = exactVariance(amounts);
+		assertThat(summary.getCount()).isEqualTo(amounts.length);
+		assertThat(summary.variance()).isCloseTo(variance.doubleValue(), within(1e-3));
+	}
+
+	/**
+	 * Test case for {@link SlotSummary#merge(SlotSummary)} giving the same moments as adding all the amounts
+	 */
+	@Test(description = "Test case for merge method giving the same moments as adding all the amounts")
+	public void mergeTestSameMoments() {
+
+		final Random random = new Random(26);
+		final SlotSummary all = new SlotSummary(0);
+		final SlotSummary[] parts = { new SlotSummary(0), new SlotSummary(1), new SlotSummary(2) };
+		for (int i = 0; i < 30_000; i++) {
+			final double amount = random.nextInt(1_000_000) / 100d;
+			all.add(amount);
+			parts[random.nextInt(parts.length)].add(amount);
+		}
+
+		final SlotSummary merged = new SlotSummary(0);
+		for (final SlotSummary part : parts) {
+			merged.merge(part);
+		}
+		merged.merge(new SlotSummary(3));
+
+		assertThat(merged.getCount()).isEqualTo(all.getCount());
+		assertThat(merged.getMean()).isCloseTo(all.getMean(), within(1e-9));
+		assertThat(merged.variance()).isCloseTo(all.variance(), within(1e-6));
+		assertThat(merged.getMin()).isEqualTo(all.getMin());
+		assertThat(merged.getMax()).isEqualTo(all.getMax());
+	}
+
+	/**
+	 * Test case for {@link SlotSummary#subtract(SlotSummary)} and {@link SlotSummary#remove(double)} reverting the
+	 * moments
+	 */
+	@Test(description = "Test case for subtract and remove methods reverting the moments")
+	public void subtractTestRevertsMoments() {
+
+		final SlotSummary kept = new SlotSummary(0);
+		kept.add(10d);
+		kept.add(20d);
+		kept.add(30d);
+		final SlotSummary expired = new SlotSummary(1);
+		expired.add(1_000d);
+		expired.add(2_000d);
+
+		final SlotSummary total = kept.copy();
+		total.merge(expired);
+		total.subtract(expired);
+
+		assertThat(total.getCount()).isEqualTo(3L);
+		assertThat(total.getSum()).isCloseTo(60d, within(1e-9));
+		assertThat(total.getMean()).isCloseTo(20d, within(1e-9));
+		assertThat(total.variance()).isCloseTo(200d / 3, within(1e-9));
+
+		total.remove(30d);
+		assertThat(total.getMean()).isCloseTo(15d, within(1e-9));
+		assertThat(total.variance()).isCloseTo(25d, within(1e-9));
+
+		total.subtract(kept);
+		assertThat(total.getCount()).isEqualTo(0L);
+		assertThat(total.variance()).isEqualTo(0d);
+	}
+
+	/**
+	 * Returns the exact population variance of the amounts
+	 *
+	 * @param amounts the amounts
+	 * @return the variance
+	 */
+	private static BigDecimal exactVariance(final double[] amounts) {
+
+		BigDecimal sum = BigDecimal.ZERO;
+		for (final double amount : amounts) {
+			sum = sum.add(new BigDecimal(amount));
+		}
+		final BigDecimal count = BigDecimal.valueOf(amounts.length);
+		final BigDecimal mean = sum.divide(count, MathContext.DECIMAL128);
+		BigDecimal squares = BigDecimal.ZERO;
+		for (final double amount : amounts) {
+			final BigDecimal deviation = new BigDecimal(amount).subtract(mean);
+			squares = squares.add(deviation.multiply(deviation));
+		}
+		return squares.divide(count, MathContext.DECIMAL128);
+	}
+
+}
@@ -0,0 +1,183 @@
+package com.n26.challenge.replay;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.service.ExactStatisticsService;
+import com.n26.challenge.service.clock.ReplayClock;
+
+/**
+ * Test class for {@link BulkImporter} and {@link TransactionCapture}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class BulkImporterMockTest {
+
+	/**
+	 * The number of transactions in the generated captures, one every 10 ms
+	 */
+	private static final int TRANSACTIONS = 20_000;
+
+	/**
+	 * The first time stamp of the generated captures
+	 */
+	private static final long FIRST_TIME_STAMP = 1_500_000_000_000L;
+
+	/**
+	 * Test case for {@link BulkImporter#importCapture(Path)} method importing a CSV capture in small chunks
+	 *
+	 * @throws Exception if the capture can't be imported
+	 */
+	@Test(description = "Test case for importCapture method importing a CSV capture in small chunks")
+	public void importCaptureTestCsv() throws Exception {
+
+		final StringBuilder capture = new StringBuilder("timestamp,amount\n");
+		for (int i = 0; i < TRANSACTIONS; i++) {
+			capture.append(FIRST_TIME_STAMP + i * 10L).append(',').append(amount(i)).append('\n');
+		}
+		capture.append("not,a transaction\n\n");
+
+		assertLastWindow(importCapture(capture, 4, 1_000), 1);
+	}
+
+	/**
+	 * Test case for {@link BulkImporter#importCapture(Path)} method importing an NDJSON capture, without a trailing
+	 * line end, in a single chunk and in many
+	 *
+	 * @throws Exception if the capture can't be imported
+	 */
+	@Test(description = "Test case for importCapture method importing an NDJSON capture")
+	public void importCaptureTestNdjson() throws Exception {
+
+		final StringBuilder capture = new StringBuilder();
+		for (int i = 0; i < TRANSACTIONS; i++) {
+			capture.append(i % 2 == 0 ? "{\"timestamp\":" : "{ \"amount\": " + amount(i) + ", \"timestamp\": ")
+					.append(FIRST_TIME_STAMP + i * 10L);
+			capture.append(i % 2 == 0 ? ",\"amount\":" + amount(i) + "}\n" : " }\r\n");
+		}
+		capture.setLength(capture.length() - 1);
+
+		assertLastWindow(importCapture(capture, 1, TransactionCapture.MAX_CHUNK_SIZE), 0);
+		assertLastWindow(importCapture(capture, 3, 777), 0);
+	}
+
+	/**
+	 * Test case for {@link BulkImporter#importCapture(Path)} method registering the time stamps as they are without
+	 * the replay clock
+	 *
+	 * @throws Exception if the capture can't be imported
+	 */
+	@Test(description = "Test case for importCapture method registering the time stamps as they are")
+	public void importCaptureTestSystemClock() throws Exception {
+
+		final long now = System.currentTimeMillis();
+		final StringBuilder capture = new StringBuilder();
+		capture.append(now - 1_000).append(",12.5\n").append(now - 120_000).append(",7\n");
+		final Path file = write(capture);
+		final ExactStatisticsService service = new ExactStatisticsService();
+
+		final ImportReport report = new BulkImporter(service, Clock.systemUTC(), 2, 4).importCapture(file);
+
+		assertThat(report.getAccepted()).isEqualTo(1L);
+		assertThat(report.getRejected()).isEqualTo(1L);
+		assertThat(report.getStatistics().getSum()).isEqualTo(12.5);
+	}
+
+	/**
+	 * Test case for {@link TransactionCapture#parseDouble(ByteBuffer, int, int)} method parsing the amounts as
+	 * {@link Double#parseDouble(String)} does
+	 */
+	@Test(description = "Test case for parseDouble method parsing the amounts as Double.parseDouble does")
+	public void parseDoubleTestAmounts() {
+
+		for (final String amount : new String[] { "0", "-0.5", " 123.45 ", "0.1", "9007199254740993", "1e3",
+				"-12.345678901234567890", "7.", "33.3300" }) {
+			final ByteBuffer buffer = ByteBuffer.wrap(amount.getBytes(StandardCharsets.US_ASCII));
+			assertThat(TransactionCapture.parseDouble(buffer, 0, buffer.limit()))
+					.isEqualTo(Double.parseDouble(amount));
+		}
+	}
+
+	/**
+	 * Imports a capture on an exact engine with a stepped clock
+	 *
+	 * @param capture the capture content
+	 * @param threads the number of parsing threads
+	 * @param chunkSize the chunk size
+	 * @return the import report
+	 * @throws IOException if the capture can't be written or read
+	 * @throws InterruptedException if interrupted while importing
+	 */
+	private static ImportReport importCapture(final CharSequence capture, final int threads, final long chunkSize)
+			throws IOException, InterruptedException {
+
+		final ReplayClock clock = new ReplayClock(0);
+		final ExactStatisticsService service = new ExactStatisticsService();
+		service.setClock(clock);
+		return new BulkImporter(service, clock, threads, chunkSize).importCapture(write(capture));
+	}
+
+	/**
+	 * Checks the statistics left by a generated capture: the transactions of its last 60 seconds
+	 *
+	 * @param report the import report
+	 * @param malformed the expected malformed lines
+	 */
+	private static void assertLastWindow(final ImportReport report, final long malformed) {
+
+		assertThat(report.getAccepted()).isEqualTo(TRANSACTIONS);
+		assertThat(report.getRejected()).isZero();
+		assertThat(report.getMalformed()).isEqualTo(malformed);
+		assertThat(report.getRecordsPerSecond()).isPositive();
+
+		// The last transaction is 199.99 seconds after the first one, the window starts at 139.99 s
+		double sum = 0;
+		for (int i = 13_999; i < TRANSACTIONS; i++) {
+			sum += amount(i);
+		}
+		final StatisticsResult statistics = report.getStatistics();
+		assertThat(statistics.getCount()).isEqualTo(6_001L);
+		assertThat(statistics.getSum()).isCloseTo(sum, within(1e-6));
+		assertThat(statistics.getMax()).isEqualTo(99.99);
+		assertThat(statistics.getMin()).isEqualTo(0.01);
+	}
+
+	/**
+	 * Returns the amount of a generated transaction
+	 *
+	 * @param index the transaction index
+	 * @return the amount, from 0.01 to 99.99
+	 */
+	private static double amount(final int index) {
+
+		return (index % 9_999 + 1) / 100d;
+	}
+
+	/**
+	 * Writes a capture into a temporary file, deleted on exit
+	 *
+	 * @param capture the capture content
+	 * @return the capture file
+	 * @throws IOException if the file can't be written
+	 */
+	private static Path write(final CharSequence capture) throws IOException {
+
+		final Path file = Files.createTempFile("capture", ".log");
+		file.toFile().deleteOnExit();
+		Files.write(file, capture.toString().getBytes(StandardCharsets.US_ASCII));
+		return file;
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.n26.challenge.replay;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.model.BatchResult;
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.service.ExactStatisticsService;
+import com.n26.challenge.service.clock.ReplayClock;
+
+/**
+ * Test class for {@link ReplayRunner}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ReplayRunnerMockTest {
+
+	/**
+	 * A recorded transaction log spanning two and a half minutes
+	 */
+	private static final String LOG = "timestamp,amount\n" + "1500000000000,10.00\n" + "1500000030000,20.00\n"
+			+ "1500000061000,30.00\n" + "1500000090000,40.00\n" + "1500000120500,50.00\n"
+			// Out of order, older than 60 seconds when replayed
+			+ "1500000010000,60.00\n" + "1500000150000,-5.00\n";
+
+	/**
+	 * Test case for {@link ReplayRunner#replay(java.io.Reader)} method giving the same statistics on every replay
+	 * with a stepped clock
+	 *
+	 * @throws Exception if the log can't be replayed
+	 */
+	@Test(description = "Test case for replay method giving the same statistics on every replay")
+	public void replayTestDeterministic() throws Exception {
+
+		final StatisticsResult first = replay(0);
+		final StatisticsResult second = replay(0);
+
+		// Only the transactions of the last 60 seconds (90 s, 120.5 s and 150 s after the first one) are left
+		assertThat(first.getCount()).isEqualTo(3L);
+		assertThat(first.getSum()).isEqualTo(85d);
+		assertThat(first.getMin()).isEqualTo(-5d);
+		assertThat(first.getMax()).isEqualTo(50d);
+		assertThat(second.getCount()).isEqualTo(first.getCount());
+		assertThat(second.getSum()).isEqualTo(first.getSum());
+		assertThat(second.getVariance()).isEqualTo(first.getVariance());
+	}
+
+	/**
+	 * Test case for {@link ReplayRunner#replay(java.io.Reader)} method replaying two and a half minutes of
+	 * transactions in a fraction of a second at 1000x
+	 *
+	 * @throws Exception if the log can't be replayed
+	 */
+	@Test(description = "Test case for replay method replaying the transactions at 1000x")
+	public void replayTestAccelerated() throws Exception {
+
+		final long start = System.nanoTime();
+		final StatisticsResult statistics = replay(1_000);
+
+		assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(5_000L);
+		// The accelerated clock keeps running after the last transaction, expiring the oldest ones
+		assertThat(statistics.getCount()).isBetween(1L, 3L);
+	}
+
+	/**
+	 * Test case for {@link ReplayRunner#ReplayRunner(com.n26.challenge.service.IStatisticsService,
+	 * java.time.Clock, String)} constructor without the replay clock
+	 */
+	@Test(description = "Test case for ReplayRunner constructor without the replay clock",
+			expectedExceptions = IllegalArgumentException.class)
+	public void replayRunnerTestSystemClock() {
+
+		new ReplayRunner(new ExactStatisticsService(), java.time.Clock.systemUTC(), "transactions.csv");
+	}
+
+	/**
+	 * Replays the log on an exact engine and returns its last statistics
+	 *
+	 * @param speed the replay speed, 0 to step the clock
+	 * @return the statistics at the end of the replay
+	 * @throws IOException if the log can't be read
+	 * @throws InterruptedException if interrupted while waiting for the clock
+	 */
+	private static StatisticsResult replay(final double speed) throws IOException, InterruptedException {
+
+		final ReplayClock clock = new ReplayClock(speed);
+		final ExactStatisticsService service = new ExactStatisticsService();
+		service.setClock(clock);
+		final ReplayRunner runner = new ReplayRunner(service, clock, "transactions.csv");
+
+		final BatchResult result = runner.replay(new StringReader(LOG));
+
+		assertThat(result.getAccepted()).isEqualTo(6L);
+		assertThat(result.getRejected()).isEqualTo(1L);
+		return service.getStatistics();
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.n26.challenge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.time.Instant;
+import java.util.Collections;
+
+import org.easymock.EasyMock;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.n26.challenge.AbstractGenericMockTest;
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.warmup.WarmUpTraffic;
+
+/**
+ * Test class for {@link ExactStatisticsService} using mocks.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ExactStatisticsServiceMockTest extends AbstractGenericMockTest {
+
+	/**
+	 * Class under test
+	 */
+	private ExactStatisticsService service;
+
+	/**
+	 * The transaction observer mock
+	 */
+	private ITransactionObserver observerMock;
+
+	/**
+	 * Creates the set up for the test cases
+	 */
+	@BeforeClass
+	public void setUp() {
+
+		observerMock = EasyMock.createMock(ITransactionObserver.class);
+		registerMocks(observerMock);
+	}
+
+	/**
+	 * Creates a new service (with an empty window) for each test case
+	 */
+	@BeforeMethod
+	public void createService() {
+
+		service = new ExactStatisticsService();
+		service.setObservers(Collections.singletonList(observerMock));
+	}
+
+	/**
+	 * Test case for {@link ExactStatisticsService#createTransaction(long, double)} method when the time stamp is
+	 * exactly 60 seconds and 1 millisecond in the past
+	 */
+	@Test(description = "Test case for createTransaction method when the time stamp is 60 seconds and 1 ms in the past",
+			expectedExceptions = IllegalArgumentException.class,
+			expectedExceptionsMessageRegExp =
+				"The transaction timestamp can not be older than 60 seconds nor in the future.")
+	public void createTransactionTestLimitOldDate() {
+
+		service.createTransaction(Instant.now().toEpochMilli() - 60_001, 10d);
+		fail("An exception should have been thrown");
+	}
+
+	/**
+	 * Test case for {@link ExactStatisticsService#createTransaction(long, double)} method when the time stamp is from
+	 * a future date
+	 */
+	@Test(description = "Test case for createTransaction method when the time stamp is from a future date",
+			expectedExceptions = IllegalArgumentException.class,
+			expectedExceptionsMessageRegExp =
+				"The transaction timestamp can not be older than 60 seconds nor in the future.")
+	public void createTransactionTestFutureDate() {
+
+		service.createTransaction(Instant.now().toEpochMilli() + 60_000, 10d);
+		fail("An exception should have been thrown");
+	}
+
+	/**
+	 * Test case for {@link ExactStatisticsService#createTransaction(long, double)} method with the warm-up traffic,
+	 * counted in the window but not notified to the observers
+	 */
+	@Test(description = "Test case for createTransaction method not notifying the observers of the warm-up traffic")
+	public void createTransactionTestWarmUpTraffic() {
+
+		final long timeStamp = Instant.now().toEpochMilli() - 30_000;
+
+		resetMocks();
+		replayMocks();
+
+		final boolean previous = WarmUpTraffic.attach(true);
+		try {
+			service.createTransaction(timeStamp, 10d);
+		} finally {
+			WarmUpTraffic.attach(previous);
+		}
+
+		verifyMocks();
+		assertThat(service.getStatistics().getCount()).isEqualTo(1L);
+	}
+
+	/**
+	 * Test case for {@link ExactStatisticsService#getStatistics()} method after registering some transactions
+	 */
+	@Test(description = "Test case for getStatistics method after registering some transactions")
+	public void getStatisticsTestMultipleTransactions() {
+
+		final long timeStamp = Instant.now().toEpochMilli() - 30_000;
+
+		resetMocks();
+		observerMock.onTransaction(timeStamp, 100d);
+		observerMock.onTransaction(timeStamp - 1_000, 200.5d);
+		observerMock.onTransaction(timeStamp + 1_000, 50.25d);
+		replayMocks();
+
+		final long expiration = service.createTransaction(timeStamp, 100d);
+		service.createTransaction(timeStamp - 1_000, 200.5d);
+		service.createTransaction(timeStamp + 1_000, 50.25d);
+		final StatisticsResult statistics = service.getStatistics();
+
+		verifyMocks();
+		assertThat(expiration).isEqualTo(timeStamp + 60_000);
+		assertThat(statistics.getCount()).isEqualTo(3L);
+		assertThat(statistics.getSum()).isEqualByComparingTo(350.75d);
+		assertThat(statistics.getAvg()).isEqualByComparingTo(116.92d);
+		assertThat(statistics.getMax()).isEqualByComparingTo(200.5d);
+		assertThat(statistics.getMin()).isEqualByComparingTo(50.25d);
+	}
+
+}
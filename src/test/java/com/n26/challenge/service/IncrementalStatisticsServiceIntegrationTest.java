@@ -0,0 +1,147 @@
+package com.n26.challenge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openspaces.core.GigaSpace;
+import org.openspaces.core.GigaSpaceConfigurer;
+import org.openspaces.core.space.UrlSpaceConfigurer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.model.Transaction;
+import com.n26.challenge.model.TransactionsSummary;
+
+/**
+ * Test class for {@link IncrementalStatisticsService} deploying the in memory
+ * data grid, comparing its results with the ones of the aggregation based
+ * {@link StatisticsService} over the same space.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class IncrementalStatisticsServiceIntegrationTest {
+
+	/**
+	 * Class under test
+	 */
+	private IncrementalStatisticsService service;
+
+	/**
+	 * The aggregation based service used as reference
+	 */
+	private StatisticsService referenceService;
+
+	/**
+	 * The Giga Space service
+	 */
+	private GigaSpace gigaSpace;
+
+	/**
+	 * Creates the set up for the test cases
+	 */
+	@BeforeClass
+	public void setUp() {
+
+		gigaSpace = new GigaSpaceConfigurer(new UrlSpaceConfigurer("/./incrementalTransactionsTest")).gigaSpace();
+
+		service = new IncrementalStatisticsService(gigaSpace);
+		service.start();
+		referenceService = new StatisticsService(gigaSpace);
+	}
+
+	/**
+	 * Stops the expiration listener
+	 */
+	@AfterClass(alwaysRun = true)
+	public void tearDown() {
+
+		service.stop();
+	}
+
+	/**
+	 * Cleans the space after each test runs
+	 *
+	 * @throws InterruptedException
+	 *             if the thread is interrupted
+	 */
+	@AfterMethod
+	public void cleanEnvironment() throws InterruptedException {
+
+		gigaSpace.clear(new Transaction());
+		// Lets the take notifications of the cleared transactions arrive
+		TimeUnit.MILLISECONDS.sleep(500);
+		gigaSpace.clear(new TransactionsSummary());
+	}
+
+	/**
+	 * Test case comparing both services with random transactions inside the window
+	 */
+	@Test(description = "Test case comparing both services with random transactions inside the window")
+	public void getStatisticsTestRandomTransactions() {
+
+		final Random random = new Random();
+		final long now = Instant.now().toEpochMilli();
+		for (int i = 0; i < 2_000; i++) {
+			service.createTransaction(now - 1_000 - random.nextInt(50_000), random.nextDouble() * 10_000);
+		}
+
+		assertSameStatistics(service.getStatistics(), referenceService.getStatistics());
+	}
+
+	/**
+	 * Test case comparing both services while transactions expire
+	 *
+	 * @throws InterruptedException
+	 *             if the thread is interrupted
+	 */
+	@Test(description = "Test case comparing both services while transactions expire")
+	public void getStatisticsTestExpiringTransactions() throws InterruptedException {
+
+		final Random random = new Random();
+		final long now = Instant.now().toEpochMilli();
+		// The extrema are placed on the transactions about to expire
+		service.createTransaction(now - 59_000, 0.01d);
+		service.createTransaction(now - 58_500, 99_999d);
+		for (int i = 0; i < 1_000; i++) {
+			service.createTransaction(now - 57_000 - random.nextInt(2_500), random.nextDouble() * 1_000);
+			service.createTransaction(now - random.nextInt(30_000), random.nextDouble() * 1_000);
+		}
+		assertSameStatistics(service.getStatistics(), referenceService.getStatistics());
+
+		// Part of the transactions are expired, but their notifications might not have arrived
+		TimeUnit.MILLISECONDS.sleep(1_700);
+		assertSameStatistics(service.getStatistics(), referenceService.getStatistics());
+
+		// Once the transactions are notified, the summary keeps being exact
+		TimeUnit.SECONDS.sleep(3);
+		final StatisticsResult statistics = service.getStatistics();
+		assertSameStatistics(statistics, referenceService.getStatistics());
+		assertThat(statistics.getMin()).isGreaterThan(0.01d);
+		assertThat(statistics.getMax()).isLessThan(99_999d);
+	}
+
+	/**
+	 * Asserts both results have the same statistics
+	 *
+	 * @param actual the incremental statistics
+	 * @param expected the aggregated statistics
+	 */
+	private static void assertSameStatistics(final StatisticsResult actual, final StatisticsResult expected) {
+
+		assertThat(actual.getCount()).isEqualTo(expected.getCount());
+		assertThat(actual.getSum()).isCloseTo(expected.getSum(), within(0.01));
+		assertThat(actual.getAvg()).isCloseTo(expected.getAvg(), within(0.01));
+		assertThat(actual.getMax()).isEqualByComparingTo(expected.getMax());
+		assertThat(actual.getMin()).isEqualByComparingTo(expected.getMin());
+	}
+
+}
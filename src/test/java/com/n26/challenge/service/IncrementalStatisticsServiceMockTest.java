@@ -0,0 +1,272 @@
+package com.n26.challenge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.easymock.EasyMock;
+import org.openspaces.core.GigaSpace;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.gigaspaces.query.ISpaceQuery;
+import com.gigaspaces.query.aggregators.AggregationResult;
+import com.gigaspaces.query.aggregators.AggregationSet;
+import com.j_spaces.core.LeaseProxy;
+import com.n26.challenge.AbstractGenericMockTest;
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.model.SlotSummary;
+import com.n26.challenge.model.Transaction;
+import com.n26.challenge.model.TransactionsSummary;
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Test class for {@link IncrementalStatisticsService} using mocks.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class IncrementalStatisticsServiceMockTest extends AbstractGenericMockTest {
+
+	/**
+	 * Class under test
+	 */
+	private IncrementalStatisticsService service;
+
+	/**
+	 * The Giga Space mock
+	 */
+	private GigaSpace gigaSpaceMock;
+
+	/**
+	 * The summary stored in the (mocked) space
+	 */
+	private TransactionsSummary summary;
+
+	/**
+	 * Creates the set up for the test cases
+	 */
+	@BeforeClass
+	public void setUp() {
+
+		gigaSpaceMock = EasyMock.createMock(GigaSpace.class);
+		registerMocks(gigaSpaceMock);
+
+		service = new IncrementalStatisticsService(gigaSpaceMock);
+	}
+
+	/**
+	 * Creates an empty summary for each test case
+	 */
+	@BeforeMethod
+	public void createSummary() {
+
+		final SlotSummary[] slots = new SlotSummary[SlicedWindow.SLOTS];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = new SlotSummary(-1);
+		}
+		summary = new TransactionsSummary(TransactionsSummary.SUMMARY_ID, slots);
+	}
+
+	/**
+	 * Test case for {@link IncrementalStatisticsService#createTransaction(long, double)} and
+	 * {@link IncrementalStatisticsService#getStatistics()} without expired transactions
+	 */
+	@Test(description = "Test case for createTransaction & getStatistics methods without expired transactions")
+	public void getStatisticsTestWithoutExpiration() {
+
+		final long timeStamp = Instant.now().toEpochMilli() - 30_000;
+
+		resetMocks();
+		expectSummary();
+		expectTransactionWrites(3);
+		replayMocks();
+
+		service.createTransaction(timeStamp, 100d);
+		service.createTransaction(timeStamp - 1_000, 50.25d);
+		service.createTransaction(timeStamp + 1_000, 200d);
+		final StatisticsResult statistics = service.getStatistics();
+
+		verifyMocks();
+		assertThat(statistics.getCount()).isEqualTo(3L);
+		assertThat(statistics.getSum()).isEqualByComparingTo(350.25d);
+		assertThat(statistics.getAvg()).isEqualByComparingTo(116.75d);
+		assertThat(statistics.getMax()).isEqualByComparingTo(200d);
+		assertThat(statistics.getMin()).isEqualByComparingTo(50.25d);
+	}
+
+	/**
+	 * Test case for {@link IncrementalStatisticsService#getStatistics()} when the summary doesn't exist
+	 */
+	@Test(description = "Test case for getStatistics method when the summary doesn't exist")
+	public void getStatisticsTestWithoutSummary() {
+
+		resetMocks();
+		EasyMock.expect(gigaSpaceMock.readById(TransactionsSummary.class, TransactionsSummary.SUMMARY_ID))
+				.andReturn(null);
+		replayMocks();
+
+		final StatisticsResult statistics = service.getStatistics();
+
+		verifyMocks();
+		assertThat(statistics.getCount()).isEqualTo(0L);
+		assertThat(statistics.getSum()).isEqualByComparingTo(0d);
+	}
+
+	/**
+	 * Test case for {@link IncrementalStatisticsService#onRemoval(Transaction)} of an amount that is not an extremum
+	 */
+	@Test(description = "Test case for onRemoval method of an amount that is not an extremum")
+	public void onRemovalTestNotExtremum() {
+
+		final long timeStamp = Instant.now().toEpochMilli() - 30_000;
+
+		resetMocks();
+		expectSummary();
+		expectTransactionWrites(3);
+		replayMocks();
+
+		service.createTransaction(timeStamp, 100d);
+		service.createTransaction(timeStamp, 150d);
+		service.createTransaction(timeStamp, 200d);
+		service.onRemoval(new Transaction(new BigDecimal("150.00"), timeStamp));
+		final StatisticsResult statistics = service.getStatistics();
+
+		// No aggregation is expected, the slot is just decremented
+		verifyMocks();
+		assertThat(statistics.getCount()).isEqualTo(2L);
+		assertThat(statistics.getSum()).isEqualByComparingTo(300d);
+		assertThat(statistics.getMax()).isEqualByComparingTo(200d);
+		assertThat(statistics.getMin()).isEqualByComparingTo(100d);
+	}
+
+	/**
+	 * Test case for {@link IncrementalStatisticsService#onRemoval(Transaction)} of the maximum amount of a slot
+	 */
+	@SuppressWarnings("unchecked")
+	@Test(description = "Test case for onRemoval method of the maximum amount of a slot")
+	public void onRemovalTestExtremum() {
+
+		final long timeStamp = Instant.now().toEpochMilli() - 30_000;
+
+		resetMocks();
+		expectSummary();
+		expectTransactionWrites(3);
+		// The extrema of the slot are recomputed from the alive transactions
+		EasyMock.expect(gigaSpaceMock.aggregate(EasyMock.isA(ISpaceQuery.class), EasyMock.isA(AggregationSet.class)))
+				.andReturn(new AggregationResult(
+						new Object[] { 2L, new BigDecimal(250), new BigDecimal(100), new BigDecimal(150),
+								moments(100d, 150d) }, null));
+		replayMocks();
+
+		service.createTransaction(timeStamp, 100d);
+		service.createTransaction(timeStamp, 150d);
+		service.createTransaction(timeStamp, 200d);
+		service.onRemoval(new Transaction(new BigDecimal("200.00"), timeStamp));
+		final StatisticsResult statistics = service.getStatistics();
+
+		verifyMocks();
+		assertThat(statistics.getCount()).isEqualTo(2L);
+		assertThat(statistics.getSum()).isEqualByComparingTo(250d);
+		assertThat(statistics.getMax()).isEqualByComparingTo(150d);
+		assertThat(statistics.getMin()).isEqualByComparingTo(100d);
+		assertThat(statistics.getVariance()).isEqualByComparingTo(625d);
+		assertThat(statistics.getStdDev()).isEqualByComparingTo(25d);
+	}
+
+	/**
+	 * Test case for {@link IncrementalStatisticsService#onRemoval(Transaction)} of a transaction whose slot was
+	 * already recycled
+	 */
+	@Test(description = "Test case for onRemoval method of a transaction whose slot was already recycled")
+	public void onRemovalTestRecycledSlot() {
+
+		final long timeStamp = Instant.now().toEpochMilli() - 30_000;
+
+		resetMocks();
+		expectSummary();
+		expectTransactionWrites(1);
+		replayMocks();
+
+		service.createTransaction(timeStamp, 100d);
+		service.onRemoval(new Transaction(new BigDecimal("100.00"), timeStamp - SlicedWindow.SLOTS * 1000));
+		final StatisticsResult statistics = service.getStatistics();
+
+		verifyMocks();
+		assertThat(statistics.getCount()).isEqualTo(1L);
+		assertThat(statistics.getSum()).isEqualByComparingTo(100d);
+	}
+
+	/**
+	 * Test case for {@link IncrementalStatisticsService#getStatistics()} when the oldest second is partially expired
+	 */
+	@SuppressWarnings("unchecked")
+	@Test(description = "Test case for getStatistics method when the oldest second is partially expired")
+	public void getStatisticsTestPartiallyExpiredSecond() {
+
+		final long now = Instant.now().toEpochMilli();
+		final long oldestSecond = SlicedWindow.second(now - 60_000);
+		final SlotSummary oldestSlot = summary.getSlots()[(int) Math.floorMod(oldestSecond, (long) SlicedWindow.SLOTS)];
+		oldestSlot.reset(oldestSecond);
+		oldestSlot.add(10d);
+		oldestSlot.add(20d);
+
+		resetMocks();
+		expectSummary();
+		EasyMock.expect(gigaSpaceMock.aggregate(EasyMock.isA(ISpaceQuery.class), EasyMock.isA(AggregationSet.class)))
+				.andReturn(new AggregationResult(
+						new Object[] { 1L, new BigDecimal(20), new BigDecimal(20), new BigDecimal(20), moments(20d) },
+						null));
+		replayMocks();
+
+		final StatisticsResult statistics = service.getStatistics();
+
+		verifyMocks();
+		assertThat(statistics.getCount()).isEqualTo(1L);
+		assertThat(statistics.getSum()).isEqualByComparingTo(20d);
+		assertThat(statistics.getMin()).isEqualByComparingTo(20d);
+		assertThat(statistics.getVariance()).isEqualByComparingTo(0d);
+	}
+
+	/**
+	 * Expects the summary to be read and written any number of times
+	 */
+	@SuppressWarnings("unchecked")
+	private void expectSummary() {
+
+		EasyMock.expect(gigaSpaceMock.readById(TransactionsSummary.class, TransactionsSummary.SUMMARY_ID))
+				.andReturn(summary).anyTimes();
+		EasyMock.expect(gigaSpaceMock.write(EasyMock.isA(TransactionsSummary.class))).andReturn(null).anyTimes();
+	}
+
+	/**
+	 * Expects the given number of transactions to be written
+	 *
+	 * @param times the number of transactions
+	 */
+	@SuppressWarnings("unchecked")
+	private void expectTransactionWrites(final int times) {
+
+		EasyMock.expect(gigaSpaceMock.write(EasyMock.isA(Transaction.class), EasyMock.anyLong()))
+				.andReturn(new LeaseProxy()).times(times);
+	}
+
+	/**
+	 * Returns the moments aggregated by the space for the given amounts
+	 *
+	 * @param amounts the amounts
+	 * @return the moments
+	 */
+	private static SlotSummary moments(final double... amounts) {
+
+		final SlotSummary moments = new SlotSummary();
+		for (final double amount : amounts) {
+			moments.add(amount);
+		}
+		return moments;
+	}
+
+}
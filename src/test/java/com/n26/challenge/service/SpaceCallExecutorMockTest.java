@@ -0,0 +1,151 @@
+package com.n26.challenge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import com.n26.challenge.timing.RequestTimer;
+
+/**
+ * Test class for {@link SpaceCallExecutor}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class SpaceCallExecutorMockTest {
+
+	/**
+	 * Test case for {@link SpaceCallExecutor#submit(java.util.concurrent.Callable)} in direct mode
+	 *
+	 * @throws Exception if the call fails
+	 */
+	@Test(description = "Test case for submit method in direct mode")
+	public void submitTestDirectMode() throws Exception {
+
+		final SpaceCallExecutor executor = SpaceCallExecutor.direct();
+		final Thread caller = Thread.currentThread();
+
+		final CompletableFuture<Thread> future = executor.submit(Thread::currentThread);
+
+		assertThat(executor.getMode()).isEqualTo(ExecutionMode.DIRECT);
+		assertThat(future.isDone()).isTrue();
+		assertThat(future.get()).isSameAs(caller);
+	}
+
+	/**
+	 * Test case for {@link SpaceCallExecutor#submit(java.util.concurrent.Callable)} in executor mode
+	 *
+	 * @throws Exception if the call fails
+	 */
+	@Test(description = "Test case for submit method in executor mode")
+	public void submitTestExecutorMode() throws Exception {
+
+		final SpaceCallExecutor executor = new SpaceCallExecutor("executor", 2, 10);
+		try {
+			final Thread thread = executor.submit(Thread::currentThread).get(1, TimeUnit.SECONDS);
+
+			assertThat(executor.getMode()).isEqualTo(ExecutionMode.EXECUTOR);
+			assertThat(thread).isNotSameAs(Thread.currentThread());
+			assertThat(thread.getName()).startsWith("space-call-");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test case for {@link SpaceCallExecutor#submit(java.util.concurrent.Callable)} when the call fails
+	 *
+	 * @throws Exception if the test fails
+	 */
+	@Test(description = "Test case for submit method when the call fails")
+	public void submitTestFailingCall() throws Exception {
+
+		final SpaceCallExecutor executor = new SpaceCallExecutor("executor", 1, 1);
+		try {
+			executor.submit(() -> {
+				throw new IllegalArgumentException("Invalid transaction");
+			}).get(1, TimeUnit.SECONDS);
+			fail("An exception should have been thrown");
+		} catch (final ExecutionException e) {
+			// The original exception is not wrapped, so the exception handlers match it
+			assertThat(e.getCause()).isExactlyInstanceOf(IllegalArgumentException.class)
+					.hasMessage("Invalid transaction");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test case for {@link SpaceCallExecutor#submit(java.util.concurrent.Callable)} when the executor is saturated
+	 *
+	 * @throws Exception if the test fails
+	 */
+	@Test(description = "Test case for submit method when the executor is saturated",
+			expectedExceptions = RejectedExecutionException.class)
+	public void submitTestSaturatedExecutor() throws Exception {
+
+		final SpaceCallExecutor executor = new SpaceCallExecutor("executor", 1, 1);
+		final CountDownLatch latch = new CountDownLatch(1);
+		try {
+			// 1 running call + 1 queued call, the third one is rejected
+			executor.submit(() -> latch.await(5, TimeUnit.SECONDS));
+			executor.submit(() -> latch.await(5, TimeUnit.SECONDS));
+			executor.submit(() -> latch.await(5, TimeUnit.SECONDS));
+			fail("An exception should have been thrown");
+		} finally {
+			latch.countDown();
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test case for {@link SpaceCallExecutor} in virtual mode, which falls back
+	 * to the executor mode on runtimes without virtual threads
+	 *
+	 * @throws Exception if the call fails
+	 */
+	@Test(description = "Test case for the virtual mode")
+	public void submitTestVirtualMode() throws Exception {
+
+		final SpaceCallExecutor executor = new SpaceCallExecutor("VIRTUAL", 2, 10);
+		try {
+			assertThat(executor.getMode()).isIn(ExecutionMode.VIRTUAL, ExecutionMode.EXECUTOR);
+			assertThat(executor.submit(() -> 42).get(1, TimeUnit.SECONDS)).isEqualTo(42);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test case for {@link SpaceCallExecutor#submit(java.util.concurrent.Callable)} in executor mode carrying the
+	 * request timer to the executing thread
+	 *
+	 * @throws Exception if the call fails
+	 */
+	@Test(description = "Test case for submit method carrying the request timer")
+	public void submitTestRequestTimer() throws Exception {
+
+		final SpaceCallExecutor executor = new SpaceCallExecutor("executor", 1, 10);
+		final RequestTimer timer = new RequestTimer("GET /statistics", 0, System.nanoTime());
+		RequestTimer.attach(timer);
+		try {
+			assertThat(executor.submit(RequestTimer::current).get(1, TimeUnit.SECONDS)).isSameAs(timer);
+			assertThat(timer.getPhases()).containsOnlyKeys("queue");
+			RequestTimer.attach(null);
+			// The pooled thread doesn't keep the timer of the previous call
+			assertThat(executor.submit(RequestTimer::current).get(1, TimeUnit.SECONDS)).isNull();
+		} finally {
+			RequestTimer.attach(null);
+			executor.shutdown();
+		}
+	}
+
+}
@@ -6,20 +6,28 @@ import static org.assertj.core.api.Assertions.fail;
 import static org.assertj.core.api.Assertions.within;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.Instant;
+import java.time.ZoneOffset;
 
+import org.easymock.Capture;
 import org.easymock.EasyMock;
 import org.openspaces.core.GigaSpace;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.gigaspaces.client.WriteModifiers;
 import com.gigaspaces.query.ISpaceQuery;
 import com.gigaspaces.query.aggregators.AggregationResult;
 import com.gigaspaces.query.aggregators.AggregationSet;
 import com.j_spaces.core.LeaseProxy;
 import com.n26.challenge.AbstractGenericMockTest;
 import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.model.SlotSummary;
 import com.n26.challenge.model.Transaction;
+import com.n26.challenge.service.capacity.CapacityGuard;
+import com.n26.challenge.service.clock.ReplayClock;
+import com.n26.challenge.service.overload.OverloadSampler;
 
 /**
  * Test class for {@link StatisticsService} using mocks.
@@ -124,6 +132,59 @@ public class StatisticsServiceMockTest extends AbstractGenericMockTest {
 				within(2L));
 	}
 
+	/**
+	 * Test case for {@link StatisticsService#createTransaction(long, double)} method validating the time stamp
+	 * against the injected clock
+	 */
+	@SuppressWarnings("unchecked")
+	@Test(description = "Test case for createTransaction method validating the time stamp against the injected clock")
+	public void createTransactionTestInjectedClock() {
+
+		final long now = 978_307_200_000L;
+		final StatisticsService clockedService = new StatisticsService(gigaSpaceMock);
+		clockedService.setClock(Clock.fixed(Instant.ofEpochMilli(now), ZoneOffset.UTC));
+		final LeaseProxy leaseContext = new LeaseProxy();
+		leaseContext.setExpiration(now + 50_000);
+
+		resetMocks();
+		// 10 seconds old on the injected clock, the lease is the rest of the window
+		EasyMock.expect(gigaSpaceMock.write(EasyMock.isA(Transaction.class), EasyMock.eq(50_000L)))
+				.andReturn(leaseContext);
+		replayMocks();
+
+		assertThat(clockedService.createTransaction(now - 10_000, 123d)).isEqualTo(now + 50_000);
+		verifyMocks();
+	}
+
+	/**
+	 * Test case for {@link StatisticsService#createTransactions(long[], double[], int)} method writing the valid
+	 * transactions of the batch with a single call, each one with the lease left to its expiration
+	 */
+	@SuppressWarnings("unchecked")
+	@Test(description = "Test case for createTransactions method writing the valid transactions with a single call")
+	public void createTransactionsTestSingleWrite() {
+
+		final long now = 978_307_200_000L;
+		final StatisticsService clockedService = new StatisticsService(gigaSpaceMock);
+		clockedService.setClock(Clock.fixed(Instant.ofEpochMilli(now), ZoneOffset.UTC));
+		final long[] timeStamps = { now - 10_000, now - 61_000, now + 1_000, now - 20_000, 0 };
+		final double[] amounts = { 12.3d, 1d, 1d, 45.6d, 99d };
+
+		final Capture<Transaction[]> written = EasyMock.newCapture();
+		resetMocks();
+		EasyMock.expect(gigaSpaceMock.writeMultiple(EasyMock.capture(written),
+				EasyMock.aryEq(new long[] { 50_000, 40_000 }), EasyMock.eq(WriteModifiers.WRITE_ONLY))).andReturn(null);
+		replayMocks();
+
+		// The old and future ones are rejected, the last one is out of the count
+		assertThat(clockedService.createTransactions(timeStamps, amounts, 4)).isEqualTo(2);
+		verifyMocks();
+		assertThat(written.getValue()).extracting(Transaction::getAmount).containsExactly(new BigDecimal("12.30"),
+				new BigDecimal("45.60"));
+		assertThat(written.getValue()).extracting(Transaction::getTimeStamp).containsExactly(now - 10_000,
+				now - 20_000);
+	}
+
 	/**
 	 * Test case for {@link StatisticsService#getStatistics()} method when all the information is empty
 	 */
@@ -131,7 +192,7 @@ public class StatisticsServiceMockTest extends AbstractGenericMockTest {
 	@Test(description = "Test case for getStatistics method when all the information is empty")
 	public void getStatisticsTestNullInformation() {
 
-		final Object[] values = { null, 0L, null, null, null };
+		final Object[] values = { null, 0L, null, null, null, null };
 		final AggregationResult result = new AggregationResult(values, null);
 
 		resetMocks();
@@ -147,6 +208,8 @@ public class StatisticsServiceMockTest extends AbstractGenericMockTest {
 		assertThat(statistics.getMax()).isEqualByComparingTo(0d);
 		assertThat(statistics.getMin()).isEqualByComparingTo(0d);
 		assertThat(statistics.getSum()).isEqualByComparingTo(0d);
+		assertThat(statistics.getVariance()).isEqualByComparingTo(0d);
+		assertThat(statistics.getStdDev()).isEqualByComparingTo(0d);
 	}
 
 	/**
@@ -156,7 +219,7 @@ public class StatisticsServiceMockTest extends AbstractGenericMockTest {
 	@Test(description = "Test case for getStatistics method when all the information is zero")
 	public void getStatisticsTestZeroInformation() {
 
-		final Object[] values = { ZERO, 0L, ZERO, ZERO, ZERO };
+		final Object[] values = { ZERO, 0L, ZERO, ZERO, ZERO, null };
 		final AggregationResult result = new AggregationResult(values, null);
 
 		resetMocks();
@@ -172,6 +235,8 @@ public class StatisticsServiceMockTest extends AbstractGenericMockTest {
 		assertThat(statistics.getMax()).isEqualByComparingTo(0d);
 		assertThat(statistics.getMin()).isEqualByComparingTo(0d);
 		assertThat(statistics.getSum()).isEqualByComparingTo(0d);
+		assertThat(statistics.getVariance()).isEqualByComparingTo(0d);
+		assertThat(statistics.getStdDev()).isEqualByComparingTo(0d);
 	}
 
 	/**
@@ -181,7 +246,11 @@ public class StatisticsServiceMockTest extends AbstractGenericMockTest {
 	@Test(description = "Test case for getStatistics method with some information")
 	public void getStatisticsTestWithInformation() {
 
-		final Object[] values = { new BigDecimal(100), 5L, new BigDecimal(200), new BigDecimal(50), BigDecimal.TEN };
+		final SlotSummary moments = new SlotSummary();
+		moments.add(50d);
+		moments.add(150d);
+		final Object[] values = { new BigDecimal(100), 5L, new BigDecimal(200), new BigDecimal(50), BigDecimal.TEN,
+				moments };
 		final AggregationResult result = new AggregationResult(values, null);
 
 		resetMocks();
@@ -197,6 +266,161 @@ public class StatisticsServiceMockTest extends AbstractGenericMockTest {
 		assertThat(statistics.getMax()).isEqualByComparingTo(200d);
 		assertThat(statistics.getMin()).isEqualByComparingTo(50d);
 		assertThat(statistics.getSum()).isEqualByComparingTo(10d);
+		assertThat(statistics.getVariance()).isEqualByComparingTo(2_500d);
+		assertThat(statistics.getStdDev()).isEqualByComparingTo(50d);
+	}
+
+	/**
+	 * Test case for {@link StatisticsService#getStatistics()} method merging the transactions summarized over the
+	 * capacity with the stored ones
+	 */
+	@SuppressWarnings("unchecked")
+	@Test(description = "Test case for getStatistics method merging the transactions summarized over the capacity")
+	public void getStatisticsTestAggregateOnlyOverflow() {
+
+		final StatisticsService boundedService = new StatisticsService(gigaSpaceMock);
+		boundedService.setCapacityGuard(new CapacityGuard(1, Long.MAX_VALUE, 1, "aggregate-only", 1));
+		final long timeStamp = Instant.now().toEpochMilli() - 1_000;
+		final LeaseProxy leaseContext = new LeaseProxy();
+		leaseContext.setExpiration(timeStamp + 60_000);
+		final SlotSummary moments = new SlotSummary();
+		moments.add(10d);
+		final Object[] values = { BigDecimal.TEN, 1L, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN, moments };
+
+		resetMocks();
+		EasyMock.expect(gigaSpaceMock.write(EasyMock.isA(Transaction.class), EasyMock.anyLong()))
+				.andReturn(leaseContext).once();
+		EasyMock.expect(gigaSpaceMock.aggregate(EasyMock.isA(ISpaceQuery.class), EasyMock.isA(AggregationSet.class)))
+				.andReturn(new AggregationResult(values, null));
+		replayMocks();
+
+		boundedService.createTransaction(timeStamp, 10d);
+		assertThat(boundedService.createTransaction(timeStamp, 20d)).isEqualTo(timeStamp + 60_000);
+		final StatisticsResult statistics = boundedService.getStatistics();
+
+		verifyMocks();
+		assertThat(statistics.getCount()).isEqualTo(2L);
+		assertThat(statistics.getAvg()).isEqualTo(15d);
+		assertThat(statistics.getMax()).isEqualTo(20d);
+		assertThat(statistics.getMin()).isEqualTo(10d);
+		assertThat(statistics.getSum()).isEqualTo(30d);
+		assertThat(statistics.getVariance()).isEqualTo(25d);
+	}
+
+	/**
+	 * Test case for {@link StatisticsService#getStatistics()} method expiring the transactions summarized over the
+	 * capacity 60 seconds after their time stamp, to the millisecond
+	 *
+	 * @throws InterruptedException if interrupted while moving the clock
+	 */
+	@SuppressWarnings("unchecked")
+	@Test(description = "Test case for getStatistics method expiring the summarized transactions to the millisecond")
+	public void getStatisticsTestAggregateOnlyExpiry() throws InterruptedException {
+
+		final ReplayClock clock = new ReplayClock(0);
+		// In the middle of a second, so a per-second expiry would keep it longer
+		final long timeStamp = clock.millis() / 1_000 * 1_000 - 500;
+		final StatisticsService boundedService = new StatisticsService(gigaSpaceMock);
+		boundedService.setClock(clock);
+		final CapacityGuard guard = new CapacityGuard(1, Long.MAX_VALUE, 1, "aggregate-only", 1);
+		guard.setClock(clock);
+		boundedService.setCapacityGuard(guard);
+		final LeaseProxy leaseContext = new LeaseProxy();
+		leaseContext.setExpiration(timeStamp + 60_000);
+		final Object[] empty = { null, 0L, null, null, null, null };
+
+		resetMocks();
+		EasyMock.expect(gigaSpaceMock.write(EasyMock.isA(Transaction.class), EasyMock.anyLong()))
+				.andReturn(leaseContext).once();
+		EasyMock.expect(gigaSpaceMock.aggregate(EasyMock.isA(ISpaceQuery.class), EasyMock.isA(AggregationSet.class)))
+				.andReturn(new AggregationResult(empty, null)).times(2);
+		replayMocks();
+
+		boundedService.createTransaction(timeStamp, 10d);
+		boundedService.createTransaction(timeStamp, 20d);
+		clock.reach(timeStamp + 60_000);
+		final StatisticsResult alive = boundedService.getStatistics();
+		clock.reach(timeStamp + 60_001);
+		final StatisticsResult expired = boundedService.getStatistics();
+
+		verifyMocks();
+		assertThat(alive.getCount()).isEqualTo(1L);
+		assertThat(alive.getSum()).isEqualTo(20d);
+		assertThat(expired.getCount()).isEqualTo(0L);
+	}
+
+	/**
+	 * Test case for {@link StatisticsService#getStatistics()} method merging the transactions sampled over the maximum
+	 * rate with the stored ones, as estimated statistics
+	 */
+	@SuppressWarnings("unchecked")
+	@Test(description = "Test case for getStatistics method merging the transactions sampled over the maximum rate")
+	public void getStatisticsTestOverloadEstimate() {
+
+		final StatisticsService overloadedService = new StatisticsService(gigaSpaceMock);
+		overloadedService.setOverloadSampler(new OverloadSampler(1, 1));
+		final long timeStamp = Instant.now().toEpochMilli() - 1_000;
+		final LeaseProxy leaseContext = new LeaseProxy();
+		leaseContext.setExpiration(timeStamp + 60_000);
+		final SlotSummary moments = new SlotSummary();
+		moments.add(10d);
+		final Object[] values = { BigDecimal.TEN, 1L, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN, moments };
+
+		resetMocks();
+		EasyMock.expect(gigaSpaceMock.write(EasyMock.isA(Transaction.class), EasyMock.anyLong()))
+				.andReturn(leaseContext).once();
+		EasyMock.expect(gigaSpaceMock.aggregate(EasyMock.isA(ISpaceQuery.class), EasyMock.isA(AggregationSet.class)))
+				.andReturn(new AggregationResult(values, null));
+		replayMocks();
+
+		overloadedService.createTransaction(timeStamp, 10d);
+		assertThat(overloadedService.createTransaction(timeStamp, 20d)).isEqualTo(timeStamp + 60_000);
+		overloadedService.createTransaction(timeStamp, 30d);
+		final StatisticsResult statistics = overloadedService.getStatistics();
+
+		verifyMocks();
+		assertThat(statistics.getCount()).isEqualTo(3L);
+		assertThat(statistics.getAvg()).isEqualTo(20d);
+		assertThat(statistics.getMax()).isEqualTo(30d);
+		assertThat(statistics.getMin()).isEqualTo(10d);
+		assertThat(statistics.getSum()).isEqualTo(60d);
+		assertThat(statistics.isExact()).isFalse();
+		assertThat(statistics.getConfidence()).isCloseTo(2d / 3, within(1e-9));
+	}
+
+	/**
+	 * Test case for {@link StatisticsService#getStatistics()} method merging the transactions sampled over the maximum
+	 * rate with the stored ones when every sampled amount is included, still flagged as not exact
+	 */
+	@Test(description = "Test case for getStatistics method merging a fully sampled second, still not exact")
+	public void getStatisticsTestOverloadFullySampled() {
+
+		final StatisticsService overloadedService = new StatisticsService(gigaSpaceMock);
+		overloadedService.setOverloadSampler(new OverloadSampler(1, 10));
+		final long timeStamp = Instant.now().toEpochMilli() - 1_000;
+		final LeaseProxy leaseContext = new LeaseProxy();
+		leaseContext.setExpiration(timeStamp + 60_000);
+		final SlotSummary moments = new SlotSummary();
+		moments.add(10d);
+		final Object[] values = { BigDecimal.TEN, 1L, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN, moments };
+
+		resetMocks();
+		EasyMock.expect(gigaSpaceMock.write(EasyMock.isA(Transaction.class), EasyMock.anyLong()))
+				.andReturn(leaseContext).once();
+		EasyMock.expect(gigaSpaceMock.aggregate(EasyMock.isA(ISpaceQuery.class), EasyMock.isA(AggregationSet.class)))
+				.andReturn(new AggregationResult(values, null));
+		replayMocks();
+
+		overloadedService.createTransaction(timeStamp, 10d);
+		overloadedService.createTransaction(timeStamp, 20d);
+		overloadedService.createTransaction(timeStamp, 30d);
+		final StatisticsResult statistics = overloadedService.getStatistics();
+
+		verifyMocks();
+		assertThat(statistics.getCount()).isEqualTo(3L);
+		assertThat(statistics.getSum()).isEqualTo(60d);
+		assertThat(statistics.getConfidence()).isEqualTo(1d);
+		assertThat(statistics.isExact()).isFalse();
 	}
 
 }
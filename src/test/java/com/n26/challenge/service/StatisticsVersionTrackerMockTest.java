@@ -0,0 +1,160 @@
+package com.n26.challenge.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import org.testng.annotations.Test;
+
+import com.n26.challenge.service.overload.OverloadSampler;
+
+/**
+ * Test class for {@link StatisticsVersionTracker}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class StatisticsVersionTrackerMockTest {
+
+	/**
+	 * A fixed current time stamp
+	 */
+	private static final long NOW = 1_500_000_000_000L;
+
+	/**
+	 * Test case for {@link StatisticsVersionTracker#getVersion(long)} changing on registrations and expirations only
+	 */
+	@Test(description = "Test case for getVersion method changing on registrations and expirations only")
+	public void getVersionTestRegistrationsAndExpirations() {
+
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(0);
+		final long initial = tracker.getVersion(NOW);
+
+		tracker.record(NOW - 59_000, NOW);
+		tracker.record(NOW - 30_000, NOW);
+		assertThat(tracker.getVersion(NOW)).isEqualTo(initial + 2);
+		assertThat(tracker.nextExpiration(NOW)).isEqualTo(NOW + 1_001);
+
+		// Still alive at its time stamp plus 60 seconds, expired 1 millisecond later
+		assertThat(tracker.getVersion(NOW + 1_000)).isEqualTo(initial + 2);
+		assertThat(tracker.getVersion(NOW + 1_001)).isEqualTo(initial + 3);
+		// Time passing without expirations doesn't change the version
+		assertThat(tracker.getVersion(NOW + 20_000)).isEqualTo(initial + 3);
+		// A long jump expires everything
+		assertThat(tracker.getVersion(NOW + 500_000)).isEqualTo(initial + 4);
+		assertThat(tracker.nextExpiration(NOW + 500_000)).isEqualTo(-1L);
+		tracker.stop();
+	}
+
+	/**
+	 * Test case for {@link StatisticsVersionTracker#nextExpiration(long)} with random registrations wrapping around the
+	 * ring, compared with the pending expirations
+	 */
+	@Test(description = "Test case for nextExpiration method with random registrations wrapping around the ring")
+	public void nextExpirationTestRandomRegistrations() {
+
+		final Random random = new Random(34);
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(0);
+		final PriorityQueue<Long> pending = new PriorityQueue<>();
+		long now = NOW;
+
+		for (int i = 0; i < 5_000; i++) {
+			now += random.nextInt(100);
+			final long timeStamp = now - random.nextInt(60_000);
+			tracker.record(timeStamp, now);
+			pending.add(timeStamp + 60_001);
+			while (!pending.isEmpty() && pending.peek() <= now) {
+				pending.poll();
+			}
+			assertThat(tracker.nextExpiration(now)).isEqualTo(pending.isEmpty() ? -1L : pending.peek());
+		}
+		tracker.stop();
+	}
+
+	/**
+	 * Test case for {@link StatisticsVersionTracker#awaitChange(long)} when the version is already different or
+	 * doesn't change before the maximum wait time
+	 */
+	@Test(description = "Test case for awaitChange method when the version is already different or doesn't change")
+	public void awaitChangeTestDifferentAndTimeout() {
+
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(200);
+		final long version = tracker.getVersion();
+
+		assertThat(tracker.awaitChange(version - 1).join()).isEqualTo(version);
+
+		final long start = System.currentTimeMillis();
+		final CompletableFuture<Long> unchanged = tracker.awaitChange(version);
+		assertThat(unchanged.join()).isEqualTo(version);
+		assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(200L);
+		tracker.stop();
+	}
+
+	/**
+	 * Test case for {@link StatisticsVersionTracker#awaitChange(long)} completed by an expiration
+	 */
+	@Test(description = "Test case for awaitChange method completed by an expiration")
+	public void awaitChangeTestExpiration() {
+
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(5_000);
+		final long now = System.currentTimeMillis();
+		// Expires within 300 milliseconds
+		tracker.record(now - 59_700, now);
+		final long version = tracker.getVersion();
+
+		final long start = System.currentTimeMillis();
+		assertThat(tracker.awaitChange(version).join()).isEqualTo(version + 1);
+		assertThat(System.currentTimeMillis() - start).isLessThan(2_000L);
+		tracker.stop();
+	}
+
+	/**
+	 * Test case for {@link StatisticsVersionTracker#awaitChange(long)} completed by a burst of registrations, which
+	 * queue a single check at a time
+	 */
+	@Test(description = "Test case for awaitChange method completed by a burst of registrations")
+	public void awaitChangeTestRegistrationBurst() {
+
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(5_000);
+		final long version = tracker.getVersion();
+		final CompletableFuture<Long> changed = tracker.awaitChange(version);
+
+		final long start = System.currentTimeMillis();
+		for (int i = 0; i < 10_000; i++) {
+			tracker.onTransaction(System.currentTimeMillis(), 1d);
+		}
+		assertThat(changed.join()).isGreaterThan(version);
+		assertThat(System.currentTimeMillis() - start).isLessThan(2_000L);
+		tracker.stop();
+	}
+
+	/**
+	 * Test case for {@link StatisticsVersionTracker#isExclusive()} while the overload sampler has absorbed transactions
+	 * in the window
+	 */
+	@Test(description = "Test case for isExclusive method while absorbed transactions are in the window")
+	public void isExclusiveTestOverloadSampler() {
+
+		final StatisticsVersionTracker tracker = new StatisticsVersionTracker(0);
+		final OverloadSampler sampler = new OverloadSampler(1, 1);
+		tracker.setOverloadSampler(sampler);
+		tracker.setClock(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+		assertThat(tracker.isExclusive()).isTrue();
+
+		sampler.offer(NOW - 500, 1_000, NOW);
+		sampler.offer(NOW - 500, 2_000, NOW);
+		assertThat(tracker.isExclusive()).isFalse();
+
+		// Exclusive again once the absorbed second left the window
+		tracker.setClock(Clock.fixed(Instant.ofEpochMilli(NOW + 60_000), ZoneOffset.UTC));
+		assertThat(tracker.isExclusive()).isTrue();
+		tracker.stop();
+	}
+
+}
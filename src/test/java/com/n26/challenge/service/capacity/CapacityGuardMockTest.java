@@ -0,0 +1,121 @@
+package com.n26.challenge.service.capacity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.metrics.Metric;
+import org.testng.annotations.Test;
+
+import com.n26.challenge.service.capacity.CapacityGuard.Admission;
+
+/**
+ * Test class for {@link CapacityGuard}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class CapacityGuardMockTest {
+
+	/**
+	 * A fixed current time stamp
+	 */
+	private static final long NOW = 1_500_000_000_500L;
+
+	/**
+	 * Test case for {@link CapacityGuard#admit(long, long, boolean)} rejecting over the ceiling until the stored
+	 * transactions expire
+	 */
+	@Test(description = "Test case for admit method rejecting over the ceiling until the transactions expire")
+	public void admitTestRejectUntilExpired() {
+
+		final CapacityGuard guard = new CapacityGuard(2, Long.MAX_VALUE, 100, "reject", 1);
+		assertThat(guard.admit(NOW - 30_000, NOW, true)).isEqualTo(Admission.STORE);
+		assertThat(guard.admit(NOW - 1_000, NOW, true)).isEqualTo(Admission.STORE);
+		try {
+			guard.admit(NOW, NOW, true);
+			assertThat(false).as("The transaction should have been rejected").isTrue();
+		} catch (final CapacityExceededException e) {
+			assertThat(e.getMessage()).contains("(2)");
+		}
+
+		// The first transaction's second leaves the window
+		assertThat(guard.admit(NOW + 31_000, NOW + 31_000, true)).isEqualTo(Admission.STORE);
+		assertThat(guard.getLiveEntries(NOW + 31_000)).isEqualTo(2L);
+
+		final Map<String, Number> metrics = metrics(guard);
+		assertThat(metrics.get("statistics.capacity.rejected")).isEqualTo(1L);
+		assertThat(metrics.get("statistics.capacity.max-entries")).isEqualTo(2L);
+	}
+
+	/**
+	 * Test case for {@link CapacityGuard#admit(long, long, boolean)} with the byte ceiling and the aggregate only
+	 * policy
+	 */
+	@Test(description = "Test case for admit method with the byte ceiling and the aggregate only policy")
+	public void admitTestAggregateOnly() {
+
+		// The metrics are taken at the current time
+		final long now = System.currentTimeMillis();
+		final CapacityGuard guard = new CapacityGuard(1_000, 250, 100, "AGGREGATE_ONLY", 1);
+		assertThat(guard.getMaxEntries()).isEqualTo(2L);
+		assertThat(guard.admit(now, now, true)).isEqualTo(Admission.STORE);
+		assertThat(guard.admit(now, now, true)).isEqualTo(Admission.STORE);
+		assertThat(guard.admit(now, now, true)).isEqualTo(Admission.SUMMARIZE);
+		assertThat(guard.admit(now, now, true)).isEqualTo(Admission.SUMMARIZE);
+
+		final Map<String, Number> metrics = metrics(guard);
+		assertThat(metrics.get("statistics.capacity.entries")).isEqualTo(2L);
+		assertThat(metrics.get("statistics.capacity.bytes")).isEqualTo(200L);
+		assertThat(metrics.get("statistics.capacity.overflowing")).isEqualTo(1);
+		assertThat(metrics.get("statistics.capacity.summarized")).isEqualTo(2L);
+	}
+
+	/**
+	 * Test case for {@link CapacityGuard#admit(long, long, boolean)} with the sample policy, and rejecting when the
+	 * engine can't summarize
+	 */
+	@Test(description = "Test case for admit method with the sample policy")
+	public void admitTestSample() {
+
+		final CapacityGuard guard = new CapacityGuard(1, Long.MAX_VALUE, 100, "sample", 3);
+		assertThat(guard.admit(NOW, NOW, true)).isEqualTo(Admission.STORE);
+		// Over the ceiling nothing is stored: one out of 3 is summarized, the rest rejected
+		int summarized = 0;
+		for (int i = 0; i < 9; i++) {
+			try {
+				assertThat(guard.admit(NOW, NOW, true)).isEqualTo(Admission.SUMMARIZE);
+				summarized++;
+			} catch (final CapacityExceededException e) {
+				// Shed
+			}
+		}
+		assertThat(summarized).isEqualTo(3);
+		assertThat(guard.getLiveEntries(NOW)).isEqualTo(1L);
+
+		try {
+			guard.admit(NOW, NOW, false);
+			assertThat(false).as("The transaction should have been rejected").isTrue();
+		} catch (final CapacityExceededException e) {
+			assertThat(guard.getPolicy()).isEqualTo(OverflowPolicy.SAMPLE);
+		}
+	}
+
+	/**
+	 * Returns the metrics of a guard by name
+	 *
+	 * @param guard the capacity guard
+	 * @return the metric values
+	 */
+	private static Map<String, Number> metrics(final CapacityGuard guard) {
+
+		final Map<String, Number> metrics = new HashMap<>();
+		for (final Metric<?> metric : guard.metrics()) {
+			metrics.put(metric.getName(), metric.getValue());
+		}
+		return metrics;
+	}
+
+}
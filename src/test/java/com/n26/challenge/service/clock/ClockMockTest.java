@@ -0,0 +1,88 @@
+package com.n26.challenge.service.clock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test class for {@link CoarseClock}, {@link ReplayClock} and {@link ClockConfiguration}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ClockMockTest {
+
+	/**
+	 * Test case for {@link CoarseClock#millis()} method following the system clock
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@Test(description = "Test case for millis method of the coarse clock following the system clock")
+	public void millisTestCoarseClock() throws InterruptedException {
+
+		try (final CoarseClock clock = new CoarseClock(1)) {
+			final long before = System.currentTimeMillis();
+			TimeUnit.MILLISECONDS.sleep(50);
+
+			assertThat(clock.millis()).isGreaterThanOrEqualTo(before).isLessThanOrEqualTo(System.currentTimeMillis());
+			assertThat(clock.instant().toEpochMilli()).isGreaterThanOrEqualTo(before);
+		}
+	}
+
+	/**
+	 * Test case for {@link ReplayClock#reach(long)} method moving a stepped clock forward only
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@Test(description = "Test case for reach method moving a stepped clock forward only")
+	public void reachTestSteppedClock() throws InterruptedException {
+
+		final ReplayClock clock = new ReplayClock(0);
+		final long start = clock.millis();
+		TimeUnit.MILLISECONDS.sleep(5);
+		assertThat(clock.millis()).isEqualTo(start);
+
+		clock.reach(start + 3_600_000);
+		assertThat(clock.millis()).isEqualTo(start + 3_600_000);
+		clock.reach(start);
+		assertThat(clock.millis()).isEqualTo(start + 3_600_000);
+	}
+
+	/**
+	 * Test case for {@link ReplayClock#reach(long)} method waiting for an accelerated clock
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@Test(description = "Test case for reach method waiting for an accelerated clock")
+	public void reachTestAcceleratedClock() throws InterruptedException {
+
+		final ReplayClock clock = new ReplayClock(1_000);
+		final long start = clock.millis();
+		final long realStart = System.nanoTime();
+
+		// 20 seconds of the clock in about 20 real milliseconds
+		clock.reach(start + 20_000);
+
+		assertThat(clock.millis()).isGreaterThanOrEqualTo(start + 20_000);
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - realStart)).isLessThan(2_000L);
+	}
+
+	/**
+	 * Test case for {@link ClockConfiguration#clock(String, long, double)} method creating the clock of each mode
+	 */
+	@Test(description = "Test case for clock method creating the clock of each mode")
+	public void clockTestModes() {
+
+		final ClockConfiguration configuration = new ClockConfiguration();
+		assertThat(configuration.clock("system", 1, 100)).isEqualTo(Clock.systemUTC());
+		assertThat(configuration.clock("Replay", 1, 100)).isInstanceOf(ReplayClock.class);
+		final Clock coarse = configuration.clock("COARSE", 5, 100);
+		assertThat(coarse).isInstanceOf(CoarseClock.class);
+		((CoarseClock) coarse).close();
+	}
+
+}
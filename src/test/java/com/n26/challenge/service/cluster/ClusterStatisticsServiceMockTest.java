@@ -0,0 +1,145 @@
+package com.n26.challenge.service.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.model.ClusterStatisticsResult;
+import com.n26.challenge.api.model.NodeSummary;
+import com.n26.challenge.model.SlotSummary;
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Test class for {@link ClusterStatisticsService} without peers, receiving the
+ * summaries directly.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ClusterStatisticsServiceMockTest {
+
+	/**
+	 * Class under test
+	 */
+	private ClusterStatisticsService service;
+
+	/**
+	 * Creates a new service (without peer URLs) for each test case
+	 */
+	@BeforeMethod
+	public void setUp() {
+
+		service = new ClusterStatisticsService("local", new String[0], new String[] { "fresh", "stale", "gone" }, 1_000,
+				5_000);
+	}
+
+	/**
+	 * Test case for {@link ClusterStatisticsService#receive(NodeSummary)} with its own summary
+	 */
+	@Test(description = "Test case for receive method with its own summary",
+			expectedExceptions = IllegalArgumentException.class)
+	public void receiveTestOwnSummary() {
+
+		service.receive(new NodeSummary("local", System.currentTimeMillis(), Collections.<SlotSummary>emptyList()));
+		fail("An exception should have been thrown");
+	}
+
+	/**
+	 * Test case for {@link ClusterStatisticsService#receive(NodeSummary)} with the summary of a node that isn't a
+	 * configured peer
+	 */
+	@Test(description = "Test case for receive method with the summary of an unknown node",
+			expectedExceptions = IllegalArgumentException.class)
+	public void receiveTestUnknownNode() {
+
+		service.receive(new NodeSummary("intruder", System.currentTimeMillis(), Collections.<SlotSummary>emptyList()));
+		fail("An exception should have been thrown");
+	}
+
+	/**
+	 * Test case for {@link ClusterStatisticsService#getClusterStatistics()} without peers
+	 */
+	@Test(description = "Test case for getClusterStatistics method without peers")
+	public void getClusterStatisticsTestLocalOnly() {
+
+		final long now = System.currentTimeMillis();
+		service.onTransaction(now - 1_000, 100d);
+		service.onTransaction(now - 2_000, 300d);
+
+		final ClusterStatisticsResult result = service.getClusterStatistics();
+
+		assertThat(result.getNodes()).isEqualTo(1);
+		assertThat(result.getCount()).isEqualTo(2L);
+		assertThat(result.getSum()).isEqualByComparingTo(400d);
+		assertThat(result.getAvg()).isEqualByComparingTo(200d);
+		assertThat(result.getStaleness()).isEqualTo(0L);
+		assertThat(result.getStaleNodes()).isEmpty();
+		assertThat(service.getLocalSummary().getSlots()).hasSize(2);
+	}
+
+	/**
+	 * Test case for {@link ClusterStatisticsService#getClusterStatistics()} merging fresh and stale peers
+	 */
+	@Test(description = "Test case for getClusterStatistics method merging fresh and stale peers")
+	public void getClusterStatisticsTestFreshAndStalePeers() {
+
+		final long now = System.currentTimeMillis();
+		service.onTransaction(now - 1_000, 100d);
+
+		service.receive(new NodeSummary("fresh", now - 1_000, Arrays.asList(slot(now - 3_000, 50d, 250d))));
+		service.receive(new NodeSummary("stale", now - 10_000, Arrays.asList(slot(now - 20_000, 1_000d))));
+		// An older summary of the fresh node doesn't replace the newest one
+		service.receive(new NodeSummary("fresh", now - 4_000, Arrays.asList(slot(now - 5_000, 1d))));
+
+		final ClusterStatisticsResult result = service.getClusterStatistics();
+
+		assertThat(result.getNodes()).isEqualTo(2);
+		assertThat(result.getCount()).isEqualTo(3L);
+		assertThat(result.getSum()).isEqualByComparingTo(400d);
+		assertThat(result.getMax()).isEqualByComparingTo(250d);
+		assertThat(result.getMin()).isEqualByComparingTo(50d);
+		assertThat(result.getStaleness()).isGreaterThanOrEqualTo(1_000L);
+		assertThat(result.getStaleNodes()).containsExactly("stale");
+	}
+
+	/**
+	 * Test case for {@link ClusterStatisticsService#getClusterStatistics()} forgetting the summaries older than a
+	 * multiple of the maximum staleness
+	 */
+	@Test(description = "Test case for getClusterStatistics method forgetting the long stale summaries")
+	public void getClusterStatisticsTestEvictedPeer() {
+
+		final long now = System.currentTimeMillis();
+		service.receive(new NodeSummary("stale", now - 10_000, Collections.<SlotSummary>emptyList()));
+		service.receive(new NodeSummary("gone", now - 5_000 * ClusterStatisticsService.EVICTION_FACTOR - 1_000,
+				Collections.<SlotSummary>emptyList()));
+
+		final ClusterStatisticsResult result = service.getClusterStatistics();
+
+		assertThat(result.getNodes()).isEqualTo(1);
+		assertThat(result.getStaleNodes()).containsExactly("stale");
+	}
+
+	/**
+	 * Creates a slot summary with the given amounts
+	 *
+	 * @param timeStamp the time stamp of the transactions
+	 * @param amounts the amounts
+	 * @return the slot summary
+	 */
+	private static SlotSummary slot(final long timeStamp, final double... amounts) {
+
+		final SlotSummary slot = new SlotSummary(SlicedWindow.second(timeStamp));
+		for (final double amount : amounts) {
+			slot.add(amount);
+		}
+		return slot;
+	}
+
+}
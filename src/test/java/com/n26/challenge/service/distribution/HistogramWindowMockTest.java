@@ -0,0 +1,109 @@
+package com.n26.challenge.service.distribution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.model.HistogramBucket;
+import com.n26.challenge.api.model.HistogramResult;
+
+/**
+ * Test class for {@link HistogramWindow}, {@link BucketLayout} and
+ * {@link HistogramService}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class HistogramWindowMockTest {
+
+	/**
+	 * A fixed current time stamp
+	 */
+	private static final long NOW = 1_500_000_000_500L;
+
+	/**
+	 * Test case for {@link BucketLayout#bucketOf(double)} with amounts on and between the bounds
+	 */
+	@Test(description = "Test case for bucketOf method with amounts on and between the bounds")
+	public void bucketOfTestBounds() {
+
+		// Buckets: (-inf, 1), [1, 10), [10, 100), [100, +inf)
+		final BucketLayout layout = new BucketLayout(1, 10, 4);
+
+		assertThat(layout.size()).isEqualTo(4);
+		assertThat(layout.bucketOf(-5)).isEqualTo(0);
+		assertThat(layout.bucketOf(0.99)).isEqualTo(0);
+		assertThat(layout.bucketOf(1)).isEqualTo(1);
+		assertThat(layout.bucketOf(9.99)).isEqualTo(1);
+		assertThat(layout.bucketOf(10)).isEqualTo(2);
+		assertThat(layout.bucketOf(100)).isEqualTo(3);
+		assertThat(layout.bucketOf(1e12)).isEqualTo(3);
+		assertThat(layout.lowerBound(0)).isNull();
+		assertThat(layout.upperBound(0)).isEqualTo(1d);
+		assertThat(layout.lowerBound(3)).isEqualTo(100d);
+		assertThat(layout.upperBound(3)).isNull();
+	}
+
+	/**
+	 * Test case for {@link BucketLayout} with an invalid configuration
+	 */
+	@Test(description = "Test case for the bucket layout with an invalid configuration", expectedExceptions = IllegalArgumentException.class)
+	public void bucketLayoutTestInvalidFactor() {
+
+		new BucketLayout(1, 1, 10);
+	}
+
+	/**
+	 * Test case for {@link HistogramWindow#histogram(long)} when the slices expire
+	 */
+	@Test(description = "Test case for histogram method when the slices expire")
+	public void histogramTestExpiration() {
+
+		final HistogramWindow window = new HistogramWindow(new BucketLayout(1, 10, 4));
+		window.record(NOW - 59_000, 5, NOW);
+		window.record(NOW - 30_000, 50, NOW);
+		window.record(NOW - 30_000, 55, NOW);
+		window.record(NOW, 500, NOW);
+
+		assertThat(window.record(NOW - 61_000, 5, NOW)).isFalse();
+		assertThat(window.record(NOW + 1, 5, NOW)).isFalse();
+		assertThat(window.histogram(NOW)).containsExactly(0, 1, 2, 1);
+		// The oldest second expired
+		assertThat(window.histogram(NOW + 1_500)).containsExactly(0, 0, 2, 1);
+		// A new transaction recycles the slice of the expired second
+		window.record(NOW + 1_500, 0.5, NOW + 1_500);
+		assertThat(window.histogram(NOW + 1_500)).containsExactly(1, 0, 2, 1);
+		assertThat(window.histogram(NOW + 63_000)).containsExactly(0, 0, 0, 0);
+	}
+
+	/**
+	 * Test case for {@link HistogramService#getHistogram()} with the registered transactions
+	 */
+	@Test(description = "Test case for getHistogram method with the registered transactions")
+	public void getHistogramTestRegisteredTransactions() {
+
+		final HistogramService service = new HistogramService(1, 2, 32);
+		final long now = Instant.now().toEpochMilli();
+		service.onTransaction(now - 1_000, 0.5);
+		service.onTransaction(now - 1_000, 3);
+		service.onTransaction(now - 1_000, 3.5);
+
+		final HistogramResult histogram = service.getHistogram();
+
+		assertThat(histogram.getCount()).isEqualTo(3L);
+		assertThat(histogram.getBuckets()).hasSize(32);
+		final HistogramBucket first = histogram.getBuckets().get(0);
+		assertThat(first.getFrom()).isNull();
+		assertThat(first.getTo()).isEqualTo(1d);
+		assertThat(first.getCount()).isEqualTo(1L);
+		final HistogramBucket third = histogram.getBuckets().get(2);
+		assertThat(third.getFrom()).isEqualTo(2d);
+		assertThat(third.getTo()).isEqualTo(4d);
+		assertThat(third.getCount()).isEqualTo(2L);
+		assertThat(histogram.getBuckets().get(31).getTo()).isNull();
+	}
+
+}
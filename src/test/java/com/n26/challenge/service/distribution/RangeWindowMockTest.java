@@ -0,0 +1,230 @@
+package com.n26.challenge.service.distribution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.model.RangeStatisticsResult;
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Test class for {@link RangeWindow}, {@link FenwickTree} and
+ * {@link RangeStatisticsService}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class RangeWindowMockTest {
+
+	/**
+	 * A fixed current time stamp
+	 */
+	private static final long NOW = 1_500_000_000_500L;
+
+	/**
+	 * Test case for {@link FenwickTree} prefix sums and rank search
+	 */
+	@Test(description = "Test case for the Fenwick tree prefix sums and rank search")
+	public void fenwickTreeTestPrefixAndRank() {
+
+		final FenwickTree tree = new FenwickTree(10);
+		tree.add(2, 1, 250);
+		tree.add(5, 2, 1_100);
+		tree.add(9, 1, 999);
+
+		assertThat(tree.prefixCount(-1)).isEqualTo(0L);
+		assertThat(tree.prefixCount(4)).isEqualTo(1L);
+		assertThat(tree.prefixCount(9)).isEqualTo(4L);
+		assertThat(tree.prefixSum(5)).isEqualTo(1_350L);
+		assertThat(tree.bucketOfRank(1)).isEqualTo(2);
+		assertThat(tree.bucketOfRank(3)).isEqualTo(5);
+		assertThat(tree.bucketOfRank(4)).isEqualTo(9);
+
+		tree.add(5, -2, -1_100);
+		assertThat(tree.bucketOfRank(2)).isEqualTo(9);
+	}
+
+	/**
+	 * Test case for {@link RangeWindow#getStatistics(long, long, long)} with a range aligned to the buckets
+	 */
+	@Test(description = "Test case for getStatistics method with a range aligned to the buckets")
+	public void getStatisticsTestAlignedRange() {
+
+		// Buckets of 1.00 up to 100.00
+		final RangeWindow window = new RangeWindow(100, 10_000);
+		window.record(NOW - 1_000, 99_900, NOW);
+		window.record(NOW - 1_000, 1_050, NOW);
+		window.record(NOW - 2_000, 4_999, NOW);
+		window.record(NOW - 3_000, 5_000, NOW);
+		window.record(NOW - 3_000, -300, NOW);
+
+		final RangeStatisticsResult range = window.getStatistics(1_000, 4_999, NOW);
+
+		assertThat(range.getCount()).isEqualTo(2L);
+		assertThat(range.getSum()).isEqualTo(60.49d);
+		assertThat(range.getMin()).isEqualTo(10.5d);
+		assertThat(range.getMax()).isEqualTo(49.99d);
+		assertThat(range.getFrom()).isEqualTo(10d);
+		assertThat(range.getTo()).isEqualTo(50d);
+
+		// The first and last buckets are unbounded
+		final RangeStatisticsResult all = window.getStatistics(Long.MIN_VALUE, Long.MAX_VALUE, NOW);
+		assertThat(all.getCount()).isEqualTo(5L);
+		assertThat(all.getMin()).isEqualTo(-3d);
+		assertThat(all.getMax()).isEqualTo(999d);
+		assertThat(all.getFrom()).isNull();
+		assertThat(all.getTo()).isNull();
+
+		assertThat(window.getStatistics(6_000, 9_000, NOW).getCount()).isEqualTo(0L);
+	}
+
+	/**
+	 * Test case for {@link RangeWindow#getStatistics(long, long, long)} with bounds inside the buckets, widened to
+	 * them
+	 */
+	@Test(description = "Test case for getStatistics method with bounds inside the buckets, widened to them")
+	public void getStatisticsTestUnalignedRange() {
+
+		// Buckets of 1.00 up to 100.00
+		final RangeWindow window = new RangeWindow(100, 10_000);
+		window.record(NOW - 1_000, 999, NOW);
+		window.record(NOW - 1_000, 1_049, NOW);
+		window.record(NOW - 2_000, 1_050, NOW);
+		window.record(NOW - 2_000, 2_500, NOW);
+		window.record(NOW - 3_000, 4_998, NOW);
+		window.record(NOW - 3_000, 4_999, NOW);
+		window.record(NOW - 4_000, 5_000, NOW);
+
+		final RangeStatisticsResult range = window.getStatistics(1_050, 4_998, NOW);
+
+		assertThat(range.getCount()).isEqualTo(5L);
+		assertThat(range.getSum()).isEqualTo(145.96d);
+		assertThat(range.getMin()).isEqualTo(10.49d);
+		assertThat(range.getMax()).isEqualTo(49.99d);
+		assertThat(range.getFrom()).isEqualTo(10d);
+		assertThat(range.getTo()).isEqualTo(50d);
+	}
+
+	/**
+	 * Test case for {@link RangeWindow#getStatistics(long, long, long)} after the seconds holding the extrema of a
+	 * bucket expired
+	 */
+	@Test(description = "Test case for getStatistics method after the seconds holding the extrema expired")
+	public void getStatisticsTestExpiredExtrema() {
+
+		// Buckets of 1.00 up to 100.00
+		final RangeWindow window = new RangeWindow(100, 10_000);
+		window.record(NOW - 59_000, 1_001, NOW);
+		window.record(NOW - 59_000, 1_099, NOW);
+		window.record(NOW - 30_000, 1_050, NOW);
+		window.record(NOW - 1_000, 1_020, NOW);
+
+		assertThat(window.getStatistics(1_000, 1_099, NOW).getMin()).isEqualTo(10.01d);
+		assertThat(window.getStatistics(1_000, 1_099, NOW).getMax()).isEqualTo(10.99d);
+
+		// The oldest second leaves the window
+		final RangeStatisticsResult range = window.getStatistics(1_000, 1_099, NOW + 1_500);
+		assertThat(range.getCount()).isEqualTo(2L);
+		assertThat(range.getMin()).isEqualTo(10.2d);
+		assertThat(range.getMax()).isEqualTo(10.5d);
+
+		// A new amount after the recomputation
+		window.record(NOW + 1_500, 1_090, NOW + 1_500);
+		assertThat(window.getStatistics(1_000, 1_099, NOW + 1_500).getMax()).isEqualTo(10.9d);
+	}
+
+	/**
+	 * Test case for {@link RangeWindow#getStatistics(long, long, long)} with an inverted range
+	 */
+	@Test(description = "Test case for getStatistics method with an inverted range", expectedExceptions = IllegalArgumentException.class)
+	public void getStatisticsTestInvertedRange() {
+
+		new RangeWindow(100, 10_000).getStatistics(5_000, 1_000, NOW);
+	}
+
+	/**
+	 * Test case for {@link RangeWindow} with random transactions and ranges while the seconds expire, compared with a
+	 * full scan
+	 */
+	@Test(description = "Test case with random transactions and ranges while the seconds expire, compared with a full scan")
+	public void getStatisticsTestRandomRanges() {
+
+		final Random random = new Random(26);
+		final RangeWindow window = new RangeWindow(100, 100_000);
+		final List<long[]> transactions = new ArrayList<>();
+		long now = NOW;
+
+		for (int i = 0; i < 20_000; i++) {
+			now += random.nextInt(10);
+			final long timeStamp = now - random.nextInt(60_000);
+			final long cents = random.nextInt(120_000) - 1_000;
+			window.record(timeStamp, cents, now);
+			transactions.add(new long[] { timeStamp, cents });
+
+			if (i % 200 == 0) {
+				final long first = random.nextInt(1_000) * 100L;
+				final long last = first + random.nextInt(300) * 100L + 99;
+				assertSameStatistics(window.getStatistics(first, last, now), transactions, first, last, now);
+			}
+		}
+	}
+
+	/**
+	 * Test case for {@link RangeStatisticsService#getStatistics(Double, Double)} with unbounded ends
+	 */
+	@Test(description = "Test case for getStatistics method of the service with unbounded ends")
+	public void getStatisticsTestServiceUnboundedEnds() {
+
+		final RangeStatisticsService service = new RangeStatisticsService(1, 1_000_000);
+		final long now = Instant.now().toEpochMilli();
+		service.onTransaction(now - 1_000, 500d);
+		service.onTransaction(now - 1_000, 2_500.5d);
+		service.onTransaction(now - 1_000, 7_000d);
+
+		assertThat(service.getStatistics(1_000d, 5_000d).getCount()).isEqualTo(1L);
+		assertThat(service.getStatistics(null, 5_000d).getSum()).isEqualTo(3_000.5d);
+		assertThat(service.getStatistics(1_000d, null).getMax()).isEqualTo(7_000d);
+	}
+
+	/**
+	 * Asserts the range statistics are the same as the ones of a full scan
+	 *
+	 * @param actual the range statistics
+	 * @param transactions all the transactions (time stamp, cents)
+	 * @param first the minimum amount in cents, aligned to the buckets
+	 * @param last the maximum amount in cents, aligned to the buckets
+	 * @param now the current time stamp
+	 */
+	private static void assertSameStatistics(final RangeStatisticsResult actual, final List<long[]> transactions,
+			final long first, final long last, final long now) {
+
+		long count = 0;
+		long sum = 0;
+		long max = Long.MIN_VALUE;
+		long min = Long.MAX_VALUE;
+		for (final long[] transaction : transactions) {
+			final boolean inRange = (first == 0 || transaction[1] >= first)
+					&& (last >= 100_000 || transaction[1] <= last);
+			if (inRange && SlicedWindow.isAlive(SlicedWindow.second(transaction[0]), now)) {
+				count++;
+				sum += transaction[1];
+				max = Math.max(max, transaction[1]);
+				min = Math.min(min, transaction[1]);
+			}
+		}
+
+		assertThat(actual.getCount()).isEqualTo(count);
+		if (count > 0) {
+			assertThat(actual.getSum()).isEqualTo(sum / 100d);
+			assertThat(actual.getMax()).isEqualTo(max / 100d);
+			assertThat(actual.getMin()).isEqualTo(min / 100d);
+		}
+	}
+
+}
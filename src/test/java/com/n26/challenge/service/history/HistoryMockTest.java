@@ -0,0 +1,166 @@
+package com.n26.challenge.service.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.model.HistoryStatisticsResult;
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.model.SlotSummary;
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Test class for {@link HistoryStore} and {@link HistoryQueryService}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class HistoryMockTest {
+
+	/**
+	 * An epoch minute
+	 */
+	private static final long MINUTE = 1_500_000_000_000L / 60_000 * 60_000;
+
+	/**
+	 * Test case for {@link HistoryQueryService#getStatistics(long, long)} method reading the segments inside the
+	 * range from their summaries and scanning the ones crossing its bounds
+	 */
+	@Test(description = "Test case for getStatistics method reading the inner segments' summaries and scanning the rest")
+	public void getStatisticsTestSummariesAndScans() {
+
+		final HistoryStore store = new HistoryStore(60_000, 3_600_000);
+		final Random random = new Random(26);
+		final long from = MINUTE + 30_000;
+		final long to = MINUTE + 4 * 60_000 + 10_000;
+		final SlotSummary expected = new SlotSummary();
+		long edges = 0;
+		for (int i = 0; i < 5_000; i++) {
+			final long timeStamp = MINUTE + random.nextInt(5 * 60_000);
+			final double amount = random.nextInt(1_000_000) / 100d;
+			store.onTransaction(timeStamp, amount);
+			if (timeStamp >= from && timeStamp < to) {
+				expected.add(amount);
+			}
+			if (timeStamp < MINUTE + 60_000 || timeStamp >= MINUTE + 4 * 60_000) {
+				edges++;
+			}
+		}
+		// The first 3 minutes are sealed, the last 2 are still open
+		store.maintain(MINUTE + 4 * 60_000);
+
+		final HistoryQueryService service = new HistoryQueryService(store, 2);
+		try {
+			final HistoryStatisticsResult statistics = service.getStatistics(from, to);
+
+			assertThat(statistics.getSegments()).isEqualTo(5);
+			assertThat(statistics.getSummarized()).isEqualTo(3);
+			assertThat(statistics.getScanned()).isEqualTo(edges);
+			assertThat(statistics.getFrom()).isEqualTo(from);
+			assertThat(statistics.getTo()).isEqualTo(to);
+			assertSameStatistics(statistics, SlicedWindow.toStatisticsResult(expected));
+		} finally {
+			service.stop();
+		}
+	}
+
+	/**
+	 * Test case for {@link HistoryQueryService#getStatistics(long, long)} method giving the same result whatever
+	 * the parallelism is
+	 */
+	@Test(description = "Test case for getStatistics method giving the same result whatever the parallelism is")
+	public void getStatisticsTestParallelism() {
+
+		final HistoryStore store = new HistoryStore(60_000, 3_600_000);
+		final Random random = new Random(60);
+		for (int i = 0; i < 200_000; i++) {
+			store.onTransaction(MINUTE + random.nextInt(5 * 60_000), random.nextInt(100_000) / 100d);
+		}
+		store.maintain(MINUTE + 5 * 60_000);
+
+		final HistoryQueryService sequential = new HistoryQueryService(store, 1);
+		final HistoryQueryService parallel = new HistoryQueryService(store, 4);
+		try {
+			assertThat(parallel.getParallelism()).isEqualTo(4);
+			for (int query = 0; query < 10; query++) {
+				final long from = MINUTE + random.nextInt(2 * 60_000);
+				final long to = from + 1 + random.nextInt(3 * 60_000);
+				final HistoryStatisticsResult expected = sequential.getStatistics(from, to);
+				final HistoryStatisticsResult statistics = parallel.getStatistics(from, to);
+
+				assertThat(expected.getScanned()).isGreaterThan(HistoryQueryService.SCAN_CHUNK);
+				assertThat(statistics).isEqualToComparingFieldByField(expected);
+			}
+			assertThat(parallel.getStatistics(MINUTE, MINUTE + 5 * 60_000).getCount()).isEqualTo(200_000L);
+		} finally {
+			sequential.stop();
+			parallel.stop();
+		}
+	}
+
+	/**
+	 * Test case for {@link HistoryStore#maintain(long)} method sealing the segments older than the window and
+	 * dropping the ones older than the retention
+	 */
+	@Test(description = "Test case for maintain method sealing and dropping the old segments")
+	public void maintainTestRetention() {
+
+		final HistoryStore store = new HistoryStore(60_000, 120_000);
+		store.onTransaction(MINUTE + 1_000, 10);
+		store.onTransaction(MINUTE + 61_000, 20);
+
+		store.maintain(MINUTE + 119_999);
+		assertThat(store.metrics()).extracting("name", "value").contains(
+				tuple("statistics.history.segments", 0),
+				tuple("statistics.history.open", 2));
+		store.maintain(MINUTE + 120_000);
+		store.onTransaction(MINUTE + 2_000, 30);
+		assertThat(store.getLate()).isEqualTo(1L);
+		assertThat(store.segments(MINUTE, MINUTE + 120_000)).hasSize(2).first()
+				.isInstanceOf(HistorySegment.class);
+
+		store.maintain(MINUTE + 180_000);
+		assertThat(store.segments(MINUTE, MINUTE + 120_000)).extracting(IHistorySegment::getStart)
+				.containsExactly(MINUTE + 60_000);
+		assertThat(store.metrics()).extracting("name", "value").contains(
+				tuple("statistics.history.records", 1L),
+				tuple("statistics.history.oldest", MINUTE + 60_000));
+	}
+
+	/**
+	 * Test case for {@link HistoryQueryService#getStatistics(long, long)} method when the range is empty
+	 */
+	@Test(description = "Test case for getStatistics method when the range is empty",
+			expectedExceptions = IllegalArgumentException.class,
+			expectedExceptionsMessageRegExp = "The range start must be before its end")
+	public void getStatisticsTestEmptyRange() {
+
+		final HistoryQueryService service = new HistoryQueryService(new HistoryStore(60_000, 3_600_000), 1);
+		try {
+			service.getStatistics(MINUTE, MINUTE);
+		} finally {
+			service.stop();
+		}
+	}
+
+	/**
+	 * Asserts two statistics results have the same amounts
+	 *
+	 * @param actual the actual statistics
+	 * @param expected the expected statistics
+	 */
+	private static void assertSameStatistics(final StatisticsResult actual, final StatisticsResult expected) {
+
+		assertThat(actual.getCount()).isEqualTo(expected.getCount());
+		assertThat(actual.getSum()).isEqualTo(expected.getSum());
+		assertThat(actual.getAvg()).isEqualTo(expected.getAvg());
+		assertThat(actual.getMin()).isEqualTo(expected.getMin());
+		assertThat(actual.getMax()).isEqualTo(expected.getMax());
+		assertThat(actual.getVariance()).isEqualTo(expected.getVariance());
+	}
+
+}
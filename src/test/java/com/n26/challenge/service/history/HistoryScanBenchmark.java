@@ -0,0 +1,148 @@
+package com.n26.challenge.service.history;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.UUID;
+
+import org.springframework.boot.actuate.metrics.Metric;
+
+import com.n26.challenge.api.model.HistoryStatisticsResult;
+import com.n26.challenge.model.Transaction;
+
+/**
+ * Micro benchmark of the history range queries at an increasing parallelism,
+ * up to the number of processors: an hour of history (6 ten-minute segments
+ * of a million transactions each) queried over a range that crosses the
+ * middle of the first and last segments, so two segments are scanned and the
+ * other four are read from their summaries. It also compares the memory of
+ * the compressed segments with the heap taken by the same transactions as
+ * {@link Transaction} objects. It isn't run by the build, run it with its main
+ * method (with about 1 GB of heap).
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class HistoryScanBenchmark {
+
+	/**
+	 * The length of the segments in milliseconds
+	 */
+	private static final long SEGMENT_LENGTH = 600_000;
+
+	/**
+	 * The number of segments
+	 */
+	private static final int SEGMENTS = 6;
+
+	/**
+	 * The number of transactions of each segment
+	 */
+	private static final int SEGMENT_SIZE = 1_000_000;
+
+	/**
+	 * The number of measured queries
+	 */
+	private static final int ITERATIONS = 50;
+
+	/**
+	 * The number of transaction objects measured
+	 */
+	private static final int OBJECTS = 500_000;
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args not used
+	 */
+	public static void main(final String[] args) {
+
+		final long start = 1_500_000_000_000L / SEGMENT_LENGTH * SEGMENT_LENGTH;
+		final long end = start + SEGMENTS * SEGMENT_LENGTH;
+		final HistoryStore store = new HistoryStore(SEGMENT_LENGTH, (SEGMENTS + 2) * SEGMENT_LENGTH);
+		final Random random = new Random(26);
+		for (int segment = 0; segment < SEGMENTS; segment++) {
+			for (int i = 0; i < SEGMENT_SIZE; i++) {
+				store.onTransaction(start + segment * SEGMENT_LENGTH + random.nextInt((int) SEGMENT_LENGTH),
+						random.nextInt(1_000_000) / 100d);
+			}
+		}
+		store.maintain(end + SEGMENT_LENGTH);
+		long bytes = 0;
+		for (final Metric<?> metric : store.metrics()) {
+			if ("statistics.history.bytes".equals(metric.getName())) {
+				bytes = metric.getValue().longValue();
+			}
+		}
+		final double compressed = bytes / (double) (SEGMENTS * SEGMENT_SIZE);
+		final double objects = objectBytes(random);
+		System.out.println(String.format("bytes/transaction: objects %.1f, compressed %.2f (%.1fx)", objects,
+				compressed, objects / compressed));
+
+		final int processors = Runtime.getRuntime().availableProcessors();
+		System.out.println("parallelism  ms/query  speedup  segments  summarized    scanned");
+		double sequential = 0;
+		for (int parallelism = 1; parallelism <= processors; parallelism = next(parallelism, processors)) {
+			final HistoryQueryService service = new HistoryQueryService(store, parallelism);
+			try {
+				final long from = start + SEGMENT_LENGTH / 2;
+				final long to = end - SEGMENT_LENGTH / 2;
+				HistoryStatisticsResult statistics = null;
+				long elapsed = 0;
+				for (int round = 0; round < 2; round++) {
+					final long roundStart = System.nanoTime();
+					for (int i = 0; i < ITERATIONS; i++) {
+						statistics = service.getStatistics(from, to);
+					}
+					elapsed = System.nanoTime() - roundStart;
+				}
+				final double perQuery = elapsed / 1_000_000d / ITERATIONS;
+				if (parallelism == 1) {
+					sequential = perQuery;
+				}
+				System.out.println(String.format("%11d  %8.2f  %7.2f  %8d  %10d  %9d", parallelism, perQuery,
+						sequential / perQuery, statistics.getSegments(), statistics.getSummarized(),
+						statistics.getScanned()));
+			} finally {
+				service.stop();
+			}
+		}
+	}
+
+	/**
+	 * Measures the heap taken by a transaction object, with its identifier,
+	 * amount and time stamp
+	 *
+	 * @param random the random amounts generator
+	 * @return the average bytes per transaction
+	 */
+	private static double objectBytes(final Random random) {
+
+		final Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		final long before = runtime.totalMemory() - runtime.freeMemory();
+		final Transaction[] transactions = new Transaction[OBJECTS];
+		for (int i = 0; i < OBJECTS; i++) {
+			transactions[i] = new Transaction(BigDecimal.valueOf(random.nextInt(1_000_000), 2),
+					1_500_000_000_000L + i);
+			transactions[i].setId(UUID.randomUUID().toString());
+		}
+		System.gc();
+		final long after = runtime.totalMemory() - runtime.freeMemory();
+		return (after - before) / (double) transactions.length;
+	}
+
+	/**
+	 * Returns the next parallelism to measure: the double of the current one,
+	 * ending with the number of processors
+	 *
+	 * @param parallelism the current parallelism
+	 * @param processors the number of processors
+	 * @return the next parallelism
+	 */
+	private static int next(final int parallelism, final int processors) {
+
+		return parallelism < processors && parallelism * 2 > processors ? processors : parallelism * 2;
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.n26.challenge.service.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.n26.challenge.model.SlotSummary;
+
+/**
+ * Test class for {@link HistorySegment}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class HistorySegmentMockTest {
+
+	/**
+	 * An epoch minute
+	 */
+	private static final long MINUTE = 1_500_000_000_000L / 60_000 * 60_000;
+
+	/**
+	 * Test case for {@link HistorySegment#summarize(long, long, int, int)} method giving the same summaries as a
+	 * scan of the raw transactions, over random ranges and block chunks
+	 */
+	@Test(description = "Test case for summarize method giving the same summaries as the raw transactions")
+	public void summarizeTestRoundTrip() {
+
+		final Random random = new Random(49);
+		final int size = 3 * HistorySegment.BLOCK_SIZE + 1_234;
+		final long[] timeStamps = new long[size];
+		final long[] cents = new long[size];
+		final SlotSummary summary = new SlotSummary();
+		for (int i = 0; i < size; i++) {
+			// Unsorted, with negative and a few very large amounts
+			timeStamps[i] = MINUTE + random.nextInt(60_000);
+			cents[i] = i % 1_000 == 0 ? 1_000_000_000_000L * (i % 2_000 == 0 ? -1 : 1)
+					: random.nextInt(1_000_000) - 1_000;
+			summary.add(cents[i] / 100d);
+		}
+		final HistorySegment segment = HistorySegment.encode(MINUTE, MINUTE + 60_000, timeStamps, cents, size,
+				summary);
+
+		assertThat(segment.size()).isEqualTo(size);
+		assertThat(segment.getSummary().getCount()).isEqualTo(size);
+		for (int query = 0; query < 20; query++) {
+			final long from = MINUTE - 1_000 + random.nextInt(62_000);
+			final long to = from + 1 + random.nextInt(30_000);
+			long count = 0;
+			long sum = 0;
+			long min = Long.MAX_VALUE;
+			long max = Long.MIN_VALUE;
+			for (int i = 0; i < size; i++) {
+				if (timeStamps[i] >= from && timeStamps[i] < to) {
+					count++;
+					sum += cents[i];
+					min = Math.min(min, cents[i]);
+					max = Math.max(max, cents[i]);
+				}
+			}
+			final SlotSummary chunked = new SlotSummary();
+			for (int chunk = 0; chunk < size; chunk += HistorySegment.BLOCK_SIZE) {
+				chunked.merge(segment.summarize(from, to, chunk, Math.min(chunk + HistorySegment.BLOCK_SIZE, size)));
+			}
+			for (final SlotSummary range : new SlotSummary[] { chunked, segment.summarize(from, to, 0, size) }) {
+				assertThat(range.getCount()).isEqualTo(count);
+				if (count > 0) {
+					assertThat(range.getSum()).isCloseTo(sum / 100d, within(1e-6 + Math.abs(sum) * 1e-12));
+					assertThat(range.getMin()).isEqualTo(min / 100d);
+					assertThat(range.getMax()).isEqualTo(max / 100d);
+				}
+			}
+		}
+		assertThat(segment.summarize(MINUTE, MINUTE + 60_000, 5, 5).getCount()).isZero();
+	}
+
+	/**
+	 * Test case for {@link HistorySegment#getBytes()} method taking a few bytes per transaction for realistic
+	 * amounts and rates
+	 */
+	@Test(description = "Test case for getBytes method taking a few bytes per transaction")
+	public void getBytesTestCompression() {
+
+		final Random random = new Random(26);
+		final int size = 500_000;
+		final long[] timeStamps = new long[size];
+		final long[] cents = new long[size];
+		final SlotSummary summary = new SlotSummary();
+		for (int i = 0; i < size; i++) {
+			timeStamps[i] = MINUTE + random.nextInt(60_000);
+			cents[i] = random.nextInt(100_000);
+			summary.add(cents[i] / 100d);
+		}
+		final HistorySegment segment = HistorySegment.encode(MINUTE, MINUTE + 60_000, timeStamps, cents, size,
+				summary);
+
+		// Two longs per transaction take 16 bytes
+		assertThat(segment.getBytes()).isLessThanOrEqualTo(size * 5L);
+		assertThat(segment.summarize(MINUTE, MINUTE + 60_000, 0, size).getCount()).isEqualTo(size);
+	}
+
+}
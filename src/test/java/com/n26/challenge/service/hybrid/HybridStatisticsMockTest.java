@@ -0,0 +1,220 @@
+package com.n26.challenge.service.hybrid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.easymock.EasyMock;
+import org.openspaces.core.GigaSpace;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.ObjectFactory;
+import org.testng.annotations.Test;
+
+import com.gigaspaces.client.WriteModifiers;
+import com.n26.challenge.model.Transaction;
+import com.n26.challenge.warmup.WarmUpTraffic;
+
+/**
+ * Test class for {@link HybridStatisticsService} and {@link SpaceReplicator} using mocks.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class HybridStatisticsMockTest {
+
+	/**
+	 * The current time stamp of the tests
+	 */
+	private static final long NOW = 1_500_000_000_000L;
+
+	/**
+	 * Test case for {@link HybridStatisticsService#createTransaction(long, double)} method answering from the local
+	 * window and replicating the transactions with the lease left
+	 *
+	 * @throws InterruptedException if interrupted while stopping the replicator
+	 */
+	@Test(description = "Test case for createTransaction method answering locally and replicating with the lease left")
+	public void createTransactionTestReplicated() throws InterruptedException {
+
+		final List<Transaction> written = new CopyOnWriteArrayList<>();
+		final List<Long> leases = new CopyOnWriteArrayList<>();
+		final GigaSpace gigaSpace = recordingSpace(written, leases, null);
+		final SpaceReplicator replicator = new SpaceReplicator(() -> gigaSpace, 2, 100, 60_000, 60_000);
+		replicator.setClock(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+		final HybridStatisticsService service = new HybridStatisticsService(replicator);
+		service.setClock(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+		replicator.start();
+
+		service.createTransaction(NOW - 1_000, 10.255);
+		service.createTransaction(NOW - 30_000, 20);
+		service.createTransaction(NOW, 5);
+		assertThat(service.getStatistics().getCount()).isEqualTo(3L);
+		assertThat(service.getStatistics().getSum()).isEqualTo(35.26);
+		replicator.stop();
+
+		assertThat(replicator.getReplicated()).isEqualTo(3L);
+		assertThat(replicator.isLocalOnly()).isFalse();
+		assertThat(written).extracting(Transaction::getTimeStamp).containsExactly(NOW - 1_000, NOW - 30_000, NOW);
+		assertThat(written.get(0).getAmount()).isEqualByComparingTo("10.26");
+		assertThat(leases).containsExactly(59_000L, 30_000L, 60_000L);
+	}
+
+	/**
+	 * Test case for {@link HybridStatisticsService#createTransaction(long, double)} method with warm-up traffic, kept
+	 * in the local window but not replicated
+	 *
+	 * @throws InterruptedException if interrupted while stopping the replicator
+	 */
+	@Test(description = "Test case for createTransaction method with warm-up traffic, not replicated")
+	public void createTransactionTestWarmUpTraffic() throws InterruptedException {
+
+		final List<Transaction> written = new CopyOnWriteArrayList<>();
+		final GigaSpace gigaSpace = recordingSpace(written, new CopyOnWriteArrayList<>(), null);
+		final SpaceReplicator replicator = new SpaceReplicator(() -> gigaSpace, 2, 100, 60_000, 60_000);
+		replicator.setClock(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+		final HybridStatisticsService service = new HybridStatisticsService(replicator);
+		service.setClock(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+		replicator.start();
+
+		final boolean previous = WarmUpTraffic.attach(true);
+		try {
+			service.createTransaction(NOW - 1_000, 10);
+		} finally {
+			WarmUpTraffic.attach(previous);
+		}
+		service.createTransaction(NOW - 2_000, 20);
+		assertThat(service.getStatistics().getCount()).isEqualTo(2L);
+		replicator.stop();
+
+		assertThat(replicator.getReplicated()).isEqualTo(1L);
+		assertThat(written).extracting(Transaction::getTimeStamp).containsExactly(NOW - 2_000);
+	}
+
+	/**
+	 * Test case for {@link SpaceReplicator#offer(long, BigDecimal)} method falling back to local-only
+	 * while the space is unreachable, and replicating again once it's back
+	 *
+	 * @throws InterruptedException if interrupted while waiting for the replicator
+	 */
+	@Test(description = "Test case for offer method falling back to local-only while the space is unreachable")
+	public void offerTestUnreachableSpace() throws InterruptedException {
+
+		final List<Transaction> written = new CopyOnWriteArrayList<>();
+		final GigaSpace gigaSpace = recordingSpace(written, new CopyOnWriteArrayList<>(), null);
+		final AtomicInteger connections = new AtomicInteger();
+		final ObjectFactory<GigaSpace> spaceFactory = () -> {
+			if (connections.incrementAndGet() == 1) {
+				throw new BeanCreationException("gigaSpace", "The space lookup timed out");
+			}
+			return gigaSpace;
+		};
+		final SpaceReplicator replicator = new SpaceReplicator(spaceFactory, 10, 100, 60_000, 200);
+		final HybridStatisticsService service = new HybridStatisticsService(replicator);
+		replicator.start();
+		try {
+			final long now = System.currentTimeMillis();
+			service.createTransaction(now, 1);
+			await(replicator::isLocalOnly);
+			service.createTransaction(now, 2);
+			assertThat(replicator.getDropped()).isEqualTo(2L);
+
+			await(() -> !replicator.isLocalOnly());
+			service.createTransaction(now, 3);
+			await(() -> replicator.getReplicated() == 1);
+			assertThat(written).extracting(Transaction::getAmount).extracting(Number::intValue).containsExactly(3);
+			// The local statistics never missed a transaction
+			assertThat(service.getStatistics().getCount()).isEqualTo(3L);
+		} finally {
+			replicator.stop();
+		}
+	}
+
+	/**
+	 * Test case for {@link SpaceReplicator#offer(long, BigDecimal)} method falling back to local-only
+	 * when the space lags behind more than the maximum lag
+	 *
+	 * @throws InterruptedException if interrupted while waiting for the replicator
+	 */
+	@Test(description = "Test case for offer method falling back to local-only when the space lags behind")
+	public void offerTestSlowSpace() throws InterruptedException {
+
+		final CountDownLatch slowWrite = new CountDownLatch(1);
+		final List<Transaction> written = new CopyOnWriteArrayList<>();
+		final GigaSpace gigaSpace = recordingSpace(written, new CopyOnWriteArrayList<>(), slowWrite);
+		final SpaceReplicator replicator = new SpaceReplicator(() -> gigaSpace, 1, 100, 50, 60_000);
+		replicator.start();
+		try {
+			final long now = System.currentTimeMillis();
+			// The first one is taken by the blocked write, the second one waits
+			assertThat(replicator.offer(now, BigDecimal.ONE)).isTrue();
+			assertThat(replicator.offer(now, BigDecimal.ONE)).isTrue();
+			await(() -> replicator.getLag() > 50);
+			assertThat(replicator.metrics()).extracting("name").contains("statistics.replication.lag");
+
+			assertThat(replicator.offer(now, BigDecimal.ONE)).isFalse();
+			assertThat(replicator.isLocalOnly()).isTrue();
+			assertThat(replicator.getLag()).isZero();
+			assertThat(replicator.getDropped()).isEqualTo(2L);
+		} finally {
+			slowWrite.countDown();
+			replicator.stop();
+		}
+		assertThat(replicator.getReplicated()).isEqualTo(1L);
+	}
+
+	/**
+	 * Creates a space mock recording the written transactions and their leases
+	 *
+	 * @param written the written transactions
+	 * @param leases the leases of the written transactions
+	 * @param latch the latch each write waits for, null if the writes don't wait
+	 * @return the space mock
+	 */
+	private static GigaSpace recordingSpace(final List<Transaction> written, final List<Long> leases,
+			final CountDownLatch latch) {
+
+		final GigaSpace gigaSpace = EasyMock.createMock(GigaSpace.class);
+		EasyMock.expect(gigaSpace.writeMultiple(EasyMock.anyObject(Transaction[].class),
+				EasyMock.anyObject(long[].class), EasyMock.eq(WriteModifiers.WRITE_ONLY))).andAnswer(() -> {
+					if (latch != null) {
+						latch.await();
+					}
+					final Object[] arguments = EasyMock.getCurrentArguments();
+					for (final Transaction transaction : (Transaction[]) arguments[0]) {
+						written.add(transaction);
+					}
+					for (final long lease : (long[]) arguments[1]) {
+						leases.add(lease);
+					}
+					return null;
+				}).anyTimes();
+		EasyMock.replay(gigaSpace);
+		return gigaSpace;
+	}
+
+	/**
+	 * Waits up to 5 seconds for a condition to hold
+	 *
+	 * @param condition the condition
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	private static void await(final BooleanSupplier condition) throws InterruptedException {
+
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("Waited too long for the replicator").isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+
+}
@@ -0,0 +1,184 @@
+package com.n26.challenge.service.overload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.Test;
+
+import com.n26.challenge.model.SlotSummary;
+import com.n26.challenge.service.overload.OverloadSampler.Estimate;
+
+/**
+ * Test class for {@link OverloadSampler}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class OverloadSamplerMockTest {
+
+	/**
+	 * A fixed current time stamp
+	 */
+	private static final long NOW = 1_500_000_000_500L;
+
+	/**
+	 * Test case for {@link OverloadSampler#offer(long, long, long)} absorbing the transactions over the maximum rate
+	 * of each second
+	 */
+	@Test(description = "Test case for offer method absorbing the transactions over the maximum rate")
+	public void offerTestMaxRate() {
+
+		final OverloadSampler sampler = new OverloadSampler(2, 16);
+		assertThat(sampler.offer(NOW, 100, NOW)).isFalse();
+		assertThat(sampler.offer(NOW, 200, NOW)).isFalse();
+		assertThat(sampler.isOverloaded(NOW)).isFalse();
+		assertThat(sampler.offer(NOW, 300, NOW)).isTrue();
+		assertThat(sampler.isOverloaded(NOW)).isTrue();
+
+		// The rate is counted again in the next second
+		assertThat(sampler.offer(NOW, 400, NOW + 1_000)).isFalse();
+		assertThat(sampler.isOverloaded(NOW + 1_000)).isFalse();
+
+		final Estimate estimate = sampler.estimate(NOW + 1_000);
+		assertThat(estimate.getSummary().getCount()).isEqualTo(1L);
+		assertThat(estimate.getSummary().getSum()).isEqualTo(3d);
+		assertThat(estimate.getSampled()).isEqualTo(1L);
+	}
+
+	/**
+	 * Test case for {@link OverloadSampler#estimate(long)} keeping the count, sum, minimum and maximum exact while
+	 * estimating the variance from the sample
+	 */
+	@Test(description = "Test case for estimate method with exact counters and an estimated variance")
+	public void estimateTestScaledVariance() {
+
+		final OverloadSampler sampler = new OverloadSampler(1, 1_000);
+		sampler.offer(NOW, 0, NOW);
+		// Amounts from 0.01 to 1000.00, uniformly spread
+		for (long cents = 1; cents <= 100_000; cents++) {
+			assertThat(sampler.offer(NOW - 1_000 - cents % 2 * 1_000, cents, NOW)).isTrue();
+		}
+
+		final Estimate estimate = sampler.estimate(NOW);
+		final SlotSummary summary = estimate.getSummary();
+		assertThat(summary.getCount()).isEqualTo(100_000L);
+		assertThat(summary.getSum()).isCloseTo(100_000L * 100_001 / 2 / 100d, within(1e-3));
+		assertThat(summary.getMin()).isEqualTo(0.01);
+		assertThat(summary.getMax()).isEqualTo(1_000d);
+		assertThat(estimate.getSampled()).isEqualTo(2_000L);
+		// The variance of the uniform distribution is the squared range / 12
+		assertThat(summary.variance()).isCloseTo(1_000d * 1_000 / 12, within(1_000d * 1_000 / 12 * 0.1));
+	}
+
+	/**
+	 * Test case for {@link OverloadSampler#estimate(long)} ignoring the seconds out of the window
+	 */
+	@Test(description = "Test case for estimate method ignoring the seconds out of the window")
+	public void estimateTestExpiredSeconds() {
+
+		final OverloadSampler sampler = new OverloadSampler(1, 4);
+		sampler.offer(NOW, 0, NOW);
+		sampler.offer(NOW - 59_000, 100, NOW);
+		sampler.offer(NOW, 200, NOW);
+
+		assertThat(sampler.estimate(NOW).getSummary().getCount()).isEqualTo(2L);
+		assertThat(sampler.estimate(NOW + 2_000).getSummary().getCount()).isEqualTo(1L);
+		assertThat(sampler.estimate(NOW + 61_000).getSummary().getCount()).isEqualTo(0L);
+	}
+
+	/**
+	 * Test case for {@link OverloadSampler#offer(long, long, long)} with concurrent writers, every absorbed
+	 * transaction being counted
+	 *
+	 * @throws Exception if a writer fails
+	 */
+	@Test(description = "Test case for offer method with concurrent writers")
+	public void offerTestConcurrentWriters() throws Exception {
+
+		final OverloadSampler sampler = new OverloadSampler(1_000, 64);
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		final List<Future<Long>> writers = new ArrayList<>();
+		for (int writer = 0; writer < 8; writer++) {
+			writers.add(executor.submit(() -> {
+				long absorbed = 0;
+				for (int i = 0; i < 50_000; i++) {
+					if (sampler.offer(NOW - (i % 30) * 1_000, 100, NOW)) {
+						absorbed++;
+					}
+				}
+				return absorbed;
+			}));
+		}
+		long absorbed = 0;
+		for (final Future<Long> writer : writers) {
+			absorbed += writer.get();
+		}
+		executor.shutdown();
+
+		assertThat(absorbed).isEqualTo(8L * 50_000 - 1_000);
+		final SlotSummary summary = sampler.estimate(NOW).getSummary();
+		assertThat(summary.getCount()).isEqualTo(absorbed);
+		assertThat(summary.getSum()).isCloseTo(absorbed, within(1e-6));
+		assertThat(summary.variance()).isCloseTo(0d, within(1e-9));
+	}
+
+	/**
+	 * Test case for {@link OverloadSampler#estimate(long)} while the writers fill the reservoirs, only the written
+	 * samples being used
+	 *
+	 * @throws Exception if a writer fails
+	 */
+	@Test(description = "Test case for estimate method while the writers fill the reservoirs")
+	public void estimateTestConcurrentWriters() throws Exception {
+
+		final OverloadSampler sampler = new OverloadSampler(1, 4_096);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		final List<Future<?>> writers = new ArrayList<>();
+		for (int writer = 0; writer < 4; writer++) {
+			writers.add(executor.submit(() -> {
+				for (int i = 0; i < 50_000; i++) {
+					// A single second, so its samples are the only spread
+					sampler.offer(NOW - 1_000, 100, NOW);
+				}
+			}));
+		}
+
+		boolean done = false;
+		while (!done) {
+			done = writers.stream().allMatch(Future::isDone);
+			final Estimate estimate = sampler.estimate(NOW);
+			final SlotSummary summary = estimate.getSummary();
+			assertThat(estimate.getSampled()).isLessThanOrEqualTo(summary.getCount());
+			if (summary.getCount() > 0) {
+				// Every amount is 1.00, an unwritten sample would count as 0.00
+				final double mean = summary.getSum() / summary.getCount();
+				assertThat(summary.getSum()).isGreaterThanOrEqualTo(summary.getCount());
+				assertThat(summary.variance()).isLessThanOrEqualTo((mean - 1) * (mean - 1) + 1e-9);
+			}
+		}
+		for (final Future<?> writer : writers) {
+			writer.get();
+		}
+		executor.shutdown();
+
+		assertThat(sampler.estimate(NOW).getSummary().variance()).isCloseTo(0d, within(1e-9));
+	}
+
+	/**
+	 * Test case for {@link OverloadSampler#OverloadSampler(long, int)} constructor with a wrong reservoir size
+	 */
+	@Test(description = "Test case for OverloadSampler constructor with a wrong reservoir size",
+			expectedExceptions = IllegalArgumentException.class)
+	public void overloadSamplerTestWrongReservoirSize() {
+
+		new OverloadSampler(1, 0);
+	}
+
+}
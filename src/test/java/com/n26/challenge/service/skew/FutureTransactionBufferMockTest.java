@@ -0,0 +1,141 @@
+package com.n26.challenge.service.skew;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.n26.challenge.service.ExactStatisticsService;
+
+/**
+ * Test class for {@link FutureTransactionBuffer}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class FutureTransactionBufferMockTest {
+
+	/**
+	 * The current time stamp of the tests
+	 */
+	private static final long NOW = 1_500_000_000_000L;
+
+	/**
+	 * Class under test
+	 */
+	private FutureTransactionBuffer buffer;
+
+	/**
+	 * The engine the buffer hands over to
+	 */
+	private ExactStatisticsService service;
+
+	/**
+	 * Creates a new buffer (with a 2 seconds tolerance and room for 3
+	 * transactions) and engine for each test case
+	 */
+	@BeforeMethod
+	public void createBuffer() {
+
+		buffer = new FutureTransactionBuffer(2_000, 3, 5);
+		service = new ExactStatisticsService();
+		service.setFutureBuffer(buffer);
+		setTime(NOW);
+	}
+
+	/**
+	 * Test case for {@link FutureTransactionBuffer#release(long)} method counting the transactions ahead of the
+	 * clock only once their time stamp is reached
+	 */
+	@Test(description = "Test case for release method counting the future transactions once their time stamp is reached")
+	public void releaseTestTimeStampReached() {
+
+		service.createTransaction(NOW + 500, 10);
+		service.createTransaction(NOW + 500, 20);
+		service.createTransaction(NOW + 1_500, 30);
+		assertThat(service.getStatistics().getCount()).isZero();
+		assertThat(buffer.getPending()).isEqualTo(3);
+
+		setTime(NOW + 500);
+		buffer.release(NOW + 500);
+		assertThat(service.getStatistics().getCount()).isEqualTo(2L);
+		assertThat(service.getStatistics().getSum()).isEqualTo(30d);
+
+		setTime(NOW + 2_000);
+		buffer.release(NOW + 2_000);
+		assertThat(service.getStatistics().getCount()).isEqualTo(3L);
+		assertThat(buffer.metrics()).extracting("name", "value").contains(
+				tuple("statistics.skew.pending", 0),
+				tuple("statistics.skew.held", 3L),
+				tuple("statistics.skew.released", 3L),
+				tuple("statistics.skew.rejected", 0L),
+				tuple("statistics.skew.max-skew", 1_500L));
+	}
+
+	/**
+	 * Test case for {@link ExactStatisticsService#createTransaction(long, double)} method when the time stamp is
+	 * further ahead than the tolerance
+	 */
+	@Test(description = "Test case for createTransaction method when the time stamp is further ahead than the tolerance",
+			expectedExceptions = IllegalArgumentException.class)
+	public void createTransactionTestBeyondTolerance() {
+
+		service.createTransaction(NOW + 2_001, 10);
+	}
+
+	/**
+	 * Test case for {@link FutureTransactionBuffer#hold(long, double)} method rejecting the transactions over the
+	 * capacity, and holding them again once it's released
+	 */
+	@Test(description = "Test case for hold method rejecting the transactions over the capacity")
+	public void holdTestCapacity() {
+
+		assertThat(buffer.hold(NOW + 1, 1)).isTrue();
+		assertThat(buffer.hold(NOW + 2, 2)).isTrue();
+		assertThat(buffer.hold(NOW + 3, 3)).isTrue();
+		assertThat(buffer.hold(NOW + 4, 4)).isFalse();
+
+		setTime(NOW + 3);
+		buffer.release(NOW + 3);
+		assertThat(buffer.getPending()).isZero();
+		assertThat(buffer.hold(NOW + 4, 4)).isTrue();
+		assertThat(service.getStatistics().getCount()).isEqualTo(3L);
+		assertThat(buffer.metrics()).extracting("name", "value").contains(
+				tuple("statistics.skew.rejected", 1L),
+				tuple("statistics.skew.pending", 1));
+	}
+
+	/**
+	 * Test case for {@link FutureTransactionBuffer#hold(long, double)} method when the millisecond of the
+	 * transaction was already released, handing it over right away
+	 */
+	@Test(description = "Test case for hold method when the millisecond of the transaction was already released")
+	public void holdTestAlreadyReleased() {
+
+		setTime(NOW + 10);
+		buffer.release(NOW + 10);
+
+		assertThat(buffer.hold(NOW + 5, 7)).isTrue();
+		assertThat(buffer.getPending()).isZero();
+		assertThat(service.getStatistics().getCount()).isEqualTo(1L);
+	}
+
+	/**
+	 * Sets the time of the buffer and the engine
+	 *
+	 * @param now the current time stamp
+	 */
+	private void setTime(final long now) {
+
+		final Clock clock = Clock.fixed(Instant.ofEpochMilli(now), ZoneOffset.UTC);
+		buffer.setClock(clock);
+		service.setClock(clock);
+	}
+
+}
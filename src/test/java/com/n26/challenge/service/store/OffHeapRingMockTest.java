@@ -0,0 +1,159 @@
+package com.n26.challenge.service.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.Test;
+
+import com.n26.challenge.service.window.SlicedWindow;
+
+/**
+ * Test class for {@link OffHeapRing}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class OffHeapRingMockTest {
+
+	/**
+	 * A fixed current time stamp
+	 */
+	private static final long NOW = 1_500_000_000_500L;
+
+	/**
+	 * The base second of the rings
+	 */
+	private static final long BASE = SlicedWindow.second(NOW) - SlicedWindow.SLOTS;
+
+	/**
+	 * Test case for {@link OffHeapRing#forEach(long, IRecordVisitor)} visiting the records in order and reclaiming
+	 * the expired seconds
+	 */
+	@Test(description = "Test case for forEach method visiting the records and reclaiming the expired seconds")
+	public void forEachTestReclaimExpiredSeconds() {
+
+		final OffHeapRing ring = new OffHeapRing(4, BASE);
+		assertThat(ring.append(NOW - 59_000, 100)).isTrue();
+		assertThat(ring.append(NOW - 1_000, 200)).isTrue();
+		assertThat(ring.append(NOW - 1_000, -300)).isTrue();
+
+		final List<long[]> visited = new ArrayList<>();
+		ring.forEach(NOW, (timeStamp, cents) -> visited.add(new long[] { timeStamp, cents }));
+		assertThat(visited).hasSize(3);
+		assertThat(visited.get(0)).containsExactly(NOW - 59_000, 100);
+		assertThat(visited.get(2)).containsExactly(NOW - 1_000, -300);
+
+		// 61 seconds later, the second of the first record is reclaimed by a new one
+		final long later = NOW + 2_000;
+		assertThat(ring.append(later, 400)).isTrue();
+		assertThat(ring.size(later)).isEqualTo(3L);
+		assertThat(ring.append(NOW - 59_000, 500)).isFalse();
+		assertThat(ring.size(NOW + 62_000)).isEqualTo(1L);
+	}
+
+	/**
+	 * Test case for {@link OffHeapRing#append(long, long)} dropping the records of a full second
+	 */
+	@Test(description = "Test case for append method dropping the records of a full second")
+	public void appendTestFullSegment() {
+
+		final OffHeapRing ring = new OffHeapRing(2, BASE);
+		assertThat(ring.append(NOW, 1)).isTrue();
+		assertThat(ring.append(NOW, 2)).isTrue();
+		assertThat(ring.append(NOW, 3)).isFalse();
+		assertThat(ring.append(NOW - 1_000, 4)).isTrue();
+
+		assertThat(ring.getDropped()).isEqualTo(1L);
+		assertThat(ring.size(NOW)).isEqualTo(3L);
+		assertThat(ring.getCapacityBytes()).isEqualTo(2L * OffHeapRing.RECORD_SIZE * SlicedWindow.SLOTS);
+	}
+
+	/**
+	 * Test case for {@link OffHeapRing#append(long, long)} with concurrent writers, every record being published
+	 *
+	 * @throws Exception if a writer fails
+	 */
+	@Test(description = "Test case for append method with concurrent writers")
+	public void appendTestConcurrentWriters() throws Exception {
+
+		final OffHeapRing ring = new OffHeapRing(50_000, BASE);
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		final List<Future<?>> writers = new ArrayList<>();
+		for (int writer = 0; writer < 8; writer++) {
+			writers.add(executor.submit(() -> {
+				for (int i = 0; i < 100_000; i++) {
+					ring.append(NOW - (i % 20) * 1_000, i);
+				}
+			}));
+		}
+		for (final Future<?> writer : writers) {
+			writer.get();
+		}
+		executor.shutdown();
+
+		final AtomicLong count = new AtomicLong();
+		final AtomicLong sum = new AtomicLong();
+		ring.forEach(NOW, (timeStamp, cents) -> {
+			count.incrementAndGet();
+			sum.addAndGet(cents);
+		});
+		assertThat(count.get()).isEqualTo(800_000L);
+		assertThat(sum.get()).isEqualTo(8L * 99_999 * 100_000 / 2);
+		assertThat(ring.getDropped()).isEqualTo(0L);
+	}
+
+	/**
+	 * Test case for {@link OffHeapRing#forEach(long, IRecordVisitor)} scanning while the writers append, every
+	 * visited record being completely written
+	 *
+	 * @throws Exception if a writer fails
+	 */
+	@Test(description = "Test case for forEach method scanning while the writers append")
+	public void forEachTestConcurrentWriters() throws Exception {
+
+		final OffHeapRing ring = new OffHeapRing(50_000, BASE);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		final List<Future<?>> writers = new ArrayList<>();
+		for (int writer = 0; writer < 4; writer++) {
+			writers.add(executor.submit(() -> {
+				for (int i = 0; i < 100_000; i++) {
+					// The amount is derived from the time stamp, so a torn record is noticed
+					final long timeStamp = NOW - (i % 20) * 1_000;
+					ring.append(timeStamp, timeStamp % 1_000_000);
+				}
+			}));
+		}
+
+		long previous = 0;
+		boolean done = false;
+		while (!done) {
+			done = writers.stream().allMatch(Future::isDone);
+			final AtomicLong count = new AtomicLong();
+			final AtomicLong torn = new AtomicLong();
+			ring.forEach(NOW, (timeStamp, cents) -> {
+				count.incrementAndGet();
+				if (cents != timeStamp % 1_000_000) {
+					torn.incrementAndGet();
+				}
+			});
+			assertThat(torn.get()).isEqualTo(0L);
+			assertThat(count.get()).isGreaterThanOrEqualTo(previous);
+			previous = count.get();
+		}
+		for (final Future<?> writer : writers) {
+			writer.get();
+		}
+		executor.shutdown();
+
+		assertThat(previous).isEqualTo(400_000L);
+		assertThat(ring.size(NOW)).isEqualTo(400_000L);
+	}
+
+}
@@ -0,0 +1,247 @@
+package com.n26.challenge.service.tumbling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test class for {@link TumblingWindowAggregator} and {@link RollingFileWindowSink}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class TumblingWindowMockTest {
+
+	/**
+	 * An epoch minute
+	 */
+	private static final long MINUTE = 1_500_000_000_000L / 60_000 * 60_000;
+
+	/**
+	 * Test case for {@link TumblingWindowAggregator#close(long)} method closing the seconds after the grace period
+	 * and the minute with its last second
+	 *
+	 * @throws InterruptedException if interrupted while closing
+	 */
+	@Test(description = "Test case for close method closing the seconds after the grace period and their minute")
+	public void closeTestSecondsAndMinute() throws InterruptedException {
+
+		final ListSink sink = new ListSink();
+		final TumblingWindowAggregator aggregator = new TumblingWindowAggregator(sink, 5_000, 100);
+		aggregator.onTransaction(MINUTE + 100, 10.5);
+		aggregator.onTransaction(MINUTE + 900, 2.25);
+		aggregator.onTransaction(MINUTE + 59_999, 7);
+
+		// The first second ends at +1 s, closes 5 s (grace) + 1 s later
+		aggregator.close(MINUTE + 6_999);
+		assertThat(sink.summaries).isEmpty();
+		aggregator.close(MINUTE + 7_000);
+		assertThat(sink.summaries).hasSize(1);
+		final WindowSummary second = sink.summaries.get(0);
+		assertThat(second.getSpan()).isEqualTo(WindowSpan.SECOND);
+		assertThat(second.getStart()).isEqualTo(MINUTE);
+		assertThat(second.getEnd()).isEqualTo(MINUTE + 1_000);
+		assertThat(second.getCount()).isEqualTo(2L);
+		assertThat(second.getSum()).isEqualTo(new BigDecimal("12.75"));
+		assertThat(second.getMin()).isEqualTo(new BigDecimal("2.25"));
+		assertThat(second.getMax()).isEqualTo(new BigDecimal("10.50"));
+		assertThat(second.isComplete()).isTrue();
+
+		// Too late for the closed second
+		aggregator.onTransaction(MINUTE + 500, 1);
+		assertThat(aggregator.getLate()).isEqualTo(1L);
+
+		aggregator.close(MINUTE + 66_000);
+		assertThat(sink.summaries).hasSize(3);
+		assertThat(sink.summaries.get(1).getStart()).isEqualTo(MINUTE + 59_000);
+		final WindowSummary minute = sink.summaries.get(2);
+		assertThat(minute.getSpan()).isEqualTo(WindowSpan.MINUTE);
+		assertThat(minute.getStart()).isEqualTo(MINUTE);
+		assertThat(minute.getEnd()).isEqualTo(MINUTE + 60_000);
+		assertThat(minute.getCount()).isEqualTo(3L);
+		assertThat(minute.getSum()).isEqualTo(new BigDecimal("19.75"));
+		assertThat(minute.toJson()).isEqualTo("{\"span\":\"minute\",\"start\":" + MINUTE + ",\"end\":"
+				+ (MINUTE + 60_000) + ",\"count\":3,\"sum\":19.75,\"min\":2.25,\"max\":10.50,\"complete\":true}");
+	}
+
+	/**
+	 * Test case for {@link TumblingWindowAggregator#flush(long)} method closing the open windows as incomplete
+	 *
+	 * @throws InterruptedException if interrupted while closing
+	 */
+	@Test(description = "Test case for flush method closing the open windows as incomplete")
+	public void flushTestOpenWindows() throws InterruptedException {
+
+		final ListSink sink = new ListSink();
+		final TumblingWindowAggregator aggregator = new TumblingWindowAggregator(sink, 60_000, 100);
+		aggregator.onTransaction(MINUTE + 1_000, 1);
+		aggregator.onTransaction(MINUTE + 30_000, 2);
+
+		aggregator.flush(MINUTE + 30_500);
+
+		assertThat(sink.summaries).extracting("span", "start", "complete").containsExactly(
+				tuple(WindowSpan.SECOND, MINUTE + 1_000, false),
+				tuple(WindowSpan.SECOND, MINUTE + 30_000, false),
+				tuple(WindowSpan.MINUTE, MINUTE, false));
+		aggregator.onTransaction(MINUTE + 30_400, 3);
+		assertThat(aggregator.getLate()).isEqualTo(1L);
+	}
+
+	/**
+	 * Test case for {@link TumblingWindowAggregator#onTransaction(long, double)} method counting the concurrent
+	 * transactions of a second
+	 *
+	 * @throws Exception if a registering thread fails
+	 */
+	@Test(description = "Test case for onTransaction method counting the concurrent transactions of a second")
+	public void onTransactionTestConcurrent() throws Exception {
+
+		final ListSink sink = new ListSink();
+		final TumblingWindowAggregator aggregator = new TumblingWindowAggregator(sink, 0, 100);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		final List<Future<?>> futures = new ArrayList<>();
+		for (int thread = 0; thread < 4; thread++) {
+			futures.add(executor.submit(() -> {
+				for (int i = 1; i <= 10_000; i++) {
+					aggregator.onTransaction(MINUTE + i % 3_000, i / 100d);
+				}
+			}));
+		}
+		for (final Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		aggregator.close(MINUTE + 4_000);
+		assertThat(sink.summaries).hasSize(3);
+		assertThat(sink.summaries.stream().mapToLong(WindowSummary::getCount).sum()).isEqualTo(40_000L);
+		assertThat(sink.summaries.stream().map(WindowSummary::getSum).reduce(BigDecimal.ZERO, BigDecimal::add))
+				.isEqualTo(new BigDecimal("2000200.00"));
+		assertThat(sink.summaries.get(0).getMin()).isEqualTo(new BigDecimal("0.01"));
+	}
+
+	/**
+	 * Test case for {@link TumblingWindowAggregator#close(long)} method closing the seconds while their transactions
+	 * are being registered, each one either summarized or counted as late
+	 *
+	 * @throws Exception if a registering thread fails
+	 */
+	@Test(description = "Test case for close method closing the seconds while their transactions are registered")
+	public void closeTestConcurrentTransactions() throws Exception {
+
+		final ListSink sink = new ListSink();
+		final TumblingWindowAggregator aggregator = new TumblingWindowAggregator(sink, 0, 100);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		final CountDownLatch started = new CountDownLatch(4);
+		final List<Future<?>> futures = new ArrayList<>();
+		for (int thread = 0; thread < 4; thread++) {
+			futures.add(executor.submit(() -> {
+				for (int i = 1; i <= 50_000; i++) {
+					aggregator.onTransaction(MINUTE + i % 3_000, 1);
+					if (i == 5_000) {
+						// Closed while registering
+						started.countDown();
+					}
+				}
+			}));
+		}
+		started.await();
+		aggregator.close(MINUTE + 4_000);
+		for (final Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		assertThat(sink.summaries).extracting("span").containsOnly(WindowSpan.SECOND);
+		assertThat(sink.summaries.stream().mapToLong(WindowSummary::getCount).sum() + aggregator.getLate())
+				.isEqualTo(200_000L);
+	}
+
+	/**
+	 * Test case for {@link RollingFileWindowSink#close()} method writing every accepted summary, rolling the full
+	 * files
+	 *
+	 * @throws Exception if the files can't be written or read
+	 */
+	@Test(description = "Test case for close method writing every accepted summary, rolling the full files")
+	public void closeTestRollingFile() throws Exception {
+
+		final Path directory = Files.createTempDirectory("windows");
+		final RollingFileWindowSink sink = new RollingFileWindowSink(directory.toString(), 4_096, 16, 8);
+		for (int i = 0; i < 500; i++) {
+			sink.accept(new WindowSummary(WindowSpan.SECOND, MINUTE + i * 1_000L, 1, i, i, i, true));
+		}
+		sink.close();
+		sink.close();
+
+		assertThat(sink.getWritten()).isEqualTo(500L);
+		final List<Path> files;
+		try (final Stream<Path> listed = Files.list(directory)) {
+			files = listed.sorted(Comparator.comparing((final Path file) -> file.getFileName().toString()
+					.equals(RollingFileWindowSink.ACTIVE_FILE)).thenComparing(Path::toString))
+					.collect(Collectors.toList());
+		}
+		// Each line is about 110 bytes, so the files are rolled every 40 lines or so
+		assertThat(files.size()).isGreaterThan(10);
+		final List<String> lines = new ArrayList<>();
+		for (final Path file : files) {
+			lines.addAll(Files.readAllLines(file, StandardCharsets.US_ASCII));
+			Files.delete(file);
+		}
+		Files.delete(directory);
+		assertThat(lines).hasSize(500).doesNotHaveDuplicates();
+		assertThat(lines.get(0)).startsWith("{\"span\":\"second\",\"start\":" + MINUTE + ",");
+		assertThat(lines.get(499)).contains("\"sum\":4.99");
+	}
+
+	/**
+	 * Window sink keeping the summaries in a list
+	 */
+	private static final class ListSink implements IWindowSink {
+
+		/**
+		 * The accepted summaries
+		 */
+		private final List<WindowSummary> summaries = new ArrayList<>();
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see IWindowSink#accept(WindowSummary)
+		 */
+		@Override
+		public void accept(final WindowSummary summary) {
+
+			summaries.add(summary);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 *
+		 * @see IWindowSink#close()
+		 */
+		@Override
+		public void close() {
+
+			// Nothing to release
+		}
+
+	}
+
+}
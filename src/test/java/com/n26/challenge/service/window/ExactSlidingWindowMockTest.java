@@ -0,0 +1,221 @@
+package com.n26.challenge.service.window;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.model.StatisticsResult;
+
+/**
+ * Test class for {@link ExactSlidingWindow} and {@link MonotonicDeque}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ExactSlidingWindowMockTest {
+
+	/**
+	 * A fixed current time stamp
+	 */
+	private static final long NOW = 1_500_000_000_000L;
+
+	/**
+	 * Test case for {@link ExactSlidingWindow#getStatistics(long)} expiring at millisecond precision
+	 */
+	@Test(description = "Test case for getStatistics method expiring at millisecond precision")
+	public void getStatisticsTestMillisecondExpiration() {
+
+		final ExactSlidingWindow window = new ExactSlidingWindow();
+		window.record(NOW - 59_999, 10_000, NOW);
+		window.record(NOW - 30_000, 500, NOW);
+
+		// The first transaction is alive until its time stamp plus 60 seconds, included
+		assertThat(window.getStatistics(NOW).getCount()).isEqualTo(2L);
+		assertThat(window.getStatistics(NOW + 1).getMax()).isEqualTo(100d);
+		final StatisticsResult expired = window.getStatistics(NOW + 2);
+		assertThat(expired.getCount()).isEqualTo(1L);
+		assertThat(expired.getMax()).isEqualTo(5d);
+		assertThat(expired.getSum()).isEqualTo(5d);
+		assertThat(window.getStatistics(NOW + 30_001).getCount()).isEqualTo(0L);
+	}
+
+	/**
+	 * Test case for {@link ExactSlidingWindow#record(long, long, long)} with transactions out of the window
+	 */
+	@Test(description = "Test case for record method with transactions out of the window")
+	public void recordTestOutOfWindow() {
+
+		final ExactSlidingWindow window = new ExactSlidingWindow();
+
+		assertThat(window.record(NOW - 60_001, 100, NOW)).isFalse();
+		assertThat(window.record(NOW + 1, 100, NOW)).isFalse();
+		assertThat(window.record(NOW - 60_000, 100, NOW)).isTrue();
+		assertThat(window.getStatistics(NOW).getCount()).isEqualTo(1L);
+	}
+
+	/**
+	 * Test case for {@link ExactSlidingWindow} with random out-of-order transactions, compared with a full scan
+	 */
+	@Test(description = "Test case with random out-of-order transactions, compared with a full scan")
+	public void getStatisticsTestRandomOutOfOrder() {
+
+		final Random random = new Random(26);
+		final ExactSlidingWindow window = new ExactSlidingWindow();
+		final List<long[]> transactions = new ArrayList<>();
+		long now = NOW;
+
+		for (int i = 0; i < 20_000; i++) {
+			now += random.nextInt(20);
+			final long timeStamp = now - random.nextInt(60_001);
+			final long cents = random.nextInt(1_000_000) - 1_000;
+			assertThat(window.record(timeStamp, cents, now)).isTrue();
+			transactions.add(new long[] { timeStamp, cents });
+
+			if (i % 500 == 0) {
+				assertSameStatistics(window.getStatistics(now), transactions, now);
+			}
+		}
+		// Time passes without new transactions
+		for (int i = 0; i < 70; i++) {
+			now += 1_000;
+			assertSameStatistics(window.getStatistics(now), transactions, now);
+		}
+	}
+
+	/**
+	 * Test case for {@link ExactSlidingWindow} with a long stream that never empties the window and huge outliers
+	 * expiring from it, keeping the variance of a two-pass computation
+	 */
+	@Test(description = "Test case with a long stream and expiring outliers, compared with a two-pass variance")
+	public void getStatisticsTestExpiringOutliers() {
+
+		final Random random = new Random(31);
+		final ExactSlidingWindow window = new ExactSlidingWindow();
+		final List<long[]> transactions = new ArrayList<>();
+		long now = NOW;
+
+		for (int i = 1; i <= 200_000; i++) {
+			now += 1 + random.nextInt(600);
+			final long cents = i % 20_000 == 0 ? 1_000_000_000_000L : 10_000 + random.nextInt(1_000);
+			assertThat(window.record(now, cents, now)).isTrue();
+			transactions.add(new long[] { now, cents });
+
+			if (i % 4_000 == 0) {
+				assertSameStatistics(window.getStatistics(now), transactions, now);
+			}
+		}
+	}
+
+	/**
+	 * Test case for {@link ExactSlidingWindow#toCents(double)}
+	 */
+	@Test(description = "Test case for toCents method")
+	public void toCentsTest() {
+
+		assertThat(ExactSlidingWindow.toCents(12.344)).isEqualTo(1234L);
+		assertThat(ExactSlidingWindow.toCents(0.125)).isEqualTo(13L);
+		assertThat(ExactSlidingWindow.toCents(-0.125)).isEqualTo(-13L);
+		assertThat(ExactSlidingWindow.toCents(-1.5)).isEqualTo(-150L);
+	}
+
+	/**
+	 * Test case for {@link MonotonicDeque} keeping only the values that can still be the maximum
+	 */
+	@Test(description = "Test case for the deque keeping only the values that can still be the maximum")
+	public void dequeTestMaximum() {
+
+		final MonotonicDeque deque = new MonotonicDeque(true);
+		deque.add(10, 5);
+		deque.add(20, 3);
+		deque.add(30, 4);
+		assertThat(deque.size()).as("3 dominated by 4").isEqualTo(2);
+		assertThat(deque.peek()).isEqualTo(5L);
+
+		// Out of order: dominated by the newer 4
+		deque.add(25, 2);
+		assertThat(deque.size()).isEqualTo(2);
+
+		// Out of order: dominates the older 5
+		deque.add(15, 9);
+		assertThat(deque.size()).isEqualTo(2);
+		assertThat(deque.peek()).isEqualTo(9L);
+
+		deque.expire(16);
+		assertThat(deque.peek()).isEqualTo(4L);
+		deque.expire(31);
+		assertThat(deque.isEmpty()).isTrue();
+	}
+
+	/**
+	 * Test case for {@link MonotonicDeque} keeping the minimum while growing
+	 */
+	@Test(description = "Test case for the deque keeping the minimum while growing")
+	public void dequeTestMinimumGrowing() {
+
+		final MonotonicDeque deque = new MonotonicDeque(false);
+		for (int i = 0; i < 100; i++) {
+			deque.add(i, i);
+		}
+		assertThat(deque.size()).isEqualTo(100);
+		assertThat(deque.peek()).isEqualTo(0L);
+
+		// Out of order insertion in the middle of a full deque
+		deque.add(49, -1);
+		assertThat(deque.peek()).isEqualTo(-1L);
+		assertThat(deque.size()).isEqualTo(51);
+
+		deque.expire(50);
+		assertThat(deque.peek()).isEqualTo(50L);
+	}
+
+	/**
+	 * Asserts the window statistics (including the variance) are the same as
+	 * the ones of a full scan
+	 *
+	 * @param actual the window statistics
+	 * @param transactions all the transactions (time stamp, cents)
+	 * @param now the current time stamp
+	 */
+	private static void assertSameStatistics(final StatisticsResult actual, final List<long[]> transactions,
+			final long now) {
+
+		long count = 0;
+		long sum = 0;
+		long max = Long.MIN_VALUE;
+		long min = Long.MAX_VALUE;
+		final List<Long> alive = new ArrayList<>();
+		for (final long[] transaction : transactions) {
+			if (transaction[0] + ExactSlidingWindow.WINDOW >= now) {
+				count++;
+				sum += transaction[1];
+				max = Math.max(max, transaction[1]);
+				min = Math.min(min, transaction[1]);
+				alive.add(transaction[1]);
+			}
+		}
+
+		assertThat(actual.getCount()).isEqualTo(count);
+		if (count > 0) {
+			assertThat(actual.getSum()).isEqualTo(sum / 100d);
+			assertThat(actual.getMax()).isEqualTo(max / 100d);
+			assertThat(actual.getMin()).isEqualTo(min / 100d);
+
+			// Two-pass population variance
+			final double mean = sum / 100d / count;
+			double squares = 0;
+			for (final long cents : alive) {
+				squares += (cents / 100d - mean) * (cents / 100d - mean);
+			}
+			final double variance = squares / count;
+			assertThat(actual.getVariance()).isCloseTo(variance, within(variance * 1e-9 + 0.01));
+			assertThat(actual.getStdDev()).isCloseTo(Math.sqrt(variance), within(0.01));
+		}
+	}
+
+}
@@ -0,0 +1,127 @@
+package com.n26.challenge.service.window;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.model.SlotSummary;
+
+/**
+ * Test class for {@link SlicedWindow}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class SlicedWindowMockTest {
+
+	/**
+	 * A fixed current time stamp (an exact second plus 500 ms)
+	 */
+	private static final long NOW = 1_500_000_000_500L;
+
+	/**
+	 * Test case for {@link SlicedWindow#summarize(long)} when the window is empty
+	 */
+	@Test(description = "Test case for summarize method when the window is empty")
+	public void summarizeTestEmptyWindow() {
+
+		final StatisticsResult result = SlicedWindow.toStatisticsResult(new SlicedWindow().summarize(NOW));
+
+		assertThat(result.getCount()).isEqualTo(0L);
+		assertThat(result.getAvg()).isEqualByComparingTo(0d);
+		assertThat(result.getMax()).isEqualByComparingTo(0d);
+		assertThat(result.getMin()).isEqualByComparingTo(0d);
+		assertThat(result.getSum()).isEqualByComparingTo(0d);
+	}
+
+	/**
+	 * Test case for {@link SlicedWindow#record(long, double, long)} with transactions out of the window
+	 */
+	@Test(description = "Test case for record method with transactions out of the window")
+	public void recordTestOutOfWindow() {
+
+		final SlicedWindow window = new SlicedWindow();
+
+		assertThat(window.record(NOW - 62_000, 10d, NOW)).as("Old transaction").isFalse();
+		assertThat(window.record(NOW + 1, 10d, NOW)).as("Future transaction").isFalse();
+		assertThat(window.record(NOW - 30_000, 10d, NOW)).isTrue();
+		assertThat(window.summarize(NOW).getCount()).isEqualTo(1L);
+	}
+
+	/**
+	 * Test case for {@link SlicedWindow#summarize(long)} with transactions spread over the window
+	 */
+	@Test(description = "Test case for summarize method with transactions spread over the window")
+	public void summarizeTestMultipleSlots() {
+
+		final SlicedWindow window = new SlicedWindow();
+		window.record(NOW - 59_000, 50d, NOW);
+		window.record(NOW - 30_000, 200d, NOW);
+		window.record(NOW - 30_000, 100d, NOW);
+		window.record(NOW, 150d, NOW);
+
+		final StatisticsResult result = SlicedWindow.toStatisticsResult(window.summarize(NOW));
+
+		assertThat(result.getCount()).isEqualTo(4L);
+		assertThat(result.getSum()).isEqualByComparingTo(500d);
+		assertThat(result.getAvg()).isEqualByComparingTo(125d);
+		assertThat(result.getMax()).isEqualByComparingTo(200d);
+		assertThat(result.getMin()).isEqualByComparingTo(50d);
+		assertThat(result.getVariance()).isEqualByComparingTo(3_125d);
+		assertThat(result.getStdDev()).isEqualByComparingTo(55.9d);
+		assertThat(window.snapshot(NOW)).hasSize(3);
+	}
+
+	/**
+	 * Test case for {@link SlicedWindow#summarize(long)} when the slots expire
+	 */
+	@Test(description = "Test case for summarize method when the slots expire")
+	public void summarizeTestExpiration() {
+
+		final SlicedWindow window = new SlicedWindow();
+		window.record(NOW - 59_000, 50d, NOW);
+		window.record(NOW - 10_000, 100d, NOW);
+
+		// The oldest second (NOW - 59.5s .. NOW - 58.501s) expires 60 seconds after its last millisecond
+		assertThat(window.summarize(NOW + 1_499).getCount()).isEqualTo(2L);
+		assertThat(window.summarize(NOW + 1_500).getCount()).isEqualTo(1L);
+		assertThat(window.summarize(NOW + 60_000).getCount()).isEqualTo(0L);
+
+		// A recycled slot does not keep the information of the previous second
+		window.record(NOW + 2_000, 10d, NOW + 2_000);
+		assertThat(window.summarize(NOW + 2_000).getMin()).isEqualTo(10d);
+	}
+
+	/**
+	 * Test case for {@link SlicedWindow#merge(Iterable, long)} with slots of several nodes
+	 */
+	@Test(description = "Test case for merge method with slots of several nodes")
+	public void mergeTestSeveralNodes() {
+
+		final SlicedWindow first = new SlicedWindow();
+		final SlicedWindow second = new SlicedWindow();
+		first.record(NOW - 1_000, 10d, NOW);
+		second.record(NOW - 1_000, 30d, NOW);
+		second.record(NOW - 5_000, 20d, NOW);
+
+		final List<SlotSummary> slots = first.snapshot(NOW);
+		slots.addAll(second.snapshot(NOW));
+		final SlotSummary merged = SlicedWindow.merge(slots, NOW);
+
+		assertThat(merged.getCount()).isEqualTo(3L);
+		assertThat(merged.getSum()).isEqualTo(60d);
+		assertThat(merged.getMin()).isEqualTo(10d);
+		assertThat(merged.getMax()).isEqualTo(30d);
+
+		// Slots already expired are ignored
+		final SlotSummary expired = new SlotSummary(SlicedWindow.second(NOW - 120_000));
+		expired.add(1_000d);
+		assertThat(SlicedWindow.merge(Arrays.asList(expired), NOW).getCount()).isEqualTo(0L);
+	}
+
+}
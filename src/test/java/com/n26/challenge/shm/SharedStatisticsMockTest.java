@@ -0,0 +1,149 @@
+package com.n26.challenge.shm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.easymock.EasyMock;
+import org.testng.annotations.Test;
+
+import com.n26.challenge.api.model.StatisticsResult;
+import com.n26.challenge.service.IStatisticsService;
+import com.n26.challenge.shm.SharedStatisticsReader.Snapshot;
+
+/**
+ * Test class for {@link SharedStatisticsPublisher} and {@link SharedStatisticsReader}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class SharedStatisticsMockTest {
+
+	/**
+	 * Test case for {@link SharedStatisticsReader#read()} method reading the statistics published by the service
+	 *
+	 * @throws IOException if the file can't be mapped
+	 */
+	@Test(description = "Test case for read method reading the statistics published by the service")
+	public void readTestPublishedStatistics() throws IOException {
+
+		final Path path = Files.createTempFile("statistics", ".shm");
+		final IStatisticsService serviceMock = EasyMock.createMock(IStatisticsService.class);
+		EasyMock.expect(serviceMock.getStatistics())
+				.andReturn(new StatisticsResult(20, 3, 30, 10, 60, 66.67, 8.16, false, 0.5));
+		EasyMock.replay(serviceMock);
+
+		final SharedStatisticsPublisher publisher = new SharedStatisticsPublisher(serviceMock, path.toString(), 100);
+		publisher.open();
+		final SharedStatisticsReader reader = new SharedStatisticsReader(path);
+		assertThat(reader.read()).isNull();
+
+		publisher.publish();
+		final Snapshot snapshot = reader.read();
+
+		EasyMock.verify(serviceMock);
+		assertThat(snapshot.getSequence()).isEqualTo(2L);
+		assertThat(snapshot.getPublishedAt()).isPositive();
+		final StatisticsResult statistics = snapshot.getStatistics();
+		assertThat(statistics.getCount()).isEqualTo(3L);
+		assertThat(statistics.getAvg()).isEqualTo(20d);
+		assertThat(statistics.getMax()).isEqualTo(30d);
+		assertThat(statistics.getMin()).isEqualTo(10d);
+		assertThat(statistics.getSum()).isEqualTo(60d);
+		assertThat(statistics.getVariance()).isEqualTo(66.67);
+		assertThat(statistics.getStdDev()).isEqualTo(8.16);
+		assertThat(statistics.isExact()).isFalse();
+		assertThat(statistics.getConfidence()).isEqualTo(0.5);
+		Files.delete(path);
+	}
+
+	/**
+	 * Test case for {@link SharedStatisticsPublisher#open()} method keeping the sequence of a previous publisher
+	 *
+	 * @throws IOException if the file can't be mapped
+	 */
+	@Test(description = "Test case for open method keeping the sequence of a previous publisher")
+	public void openTestPreviousSequence() throws IOException {
+
+		final Path path = Files.createTempFile("statistics", ".shm");
+		final SharedStatisticsPublisher publisher = new SharedStatisticsPublisher(null, path.toString(), 100);
+		publisher.open();
+		publisher.publish(new StatisticsResult(1, 1, 1, 1, 1), 1_000);
+		publisher.publish(new StatisticsResult(2, 1, 2, 2, 2), 2_000);
+
+		final SharedStatisticsPublisher restarted = new SharedStatisticsPublisher(null, path.toString(), 100);
+		restarted.open();
+		final SharedStatisticsReader reader = new SharedStatisticsReader(path);
+		assertThat(reader.read().getSequence()).isEqualTo(4L);
+		restarted.publish(new StatisticsResult(3, 1, 3, 3, 3), 3_000);
+		assertThat(reader.read().getSequence()).isEqualTo(6L);
+		assertThat(reader.read().getPublishedAt()).isEqualTo(3_000L);
+		Files.delete(path);
+	}
+
+	/**
+	 * Test case for {@link SharedStatisticsReader#read()} method never returning a torn snapshot while the
+	 * statistics are being published
+	 *
+	 * @throws Exception if the file can't be mapped or the publisher fails
+	 */
+	@Test(description = "Test case for read method never returning a torn snapshot")
+	public void readTestConcurrentPublisher() throws Exception {
+
+		final Path path = Files.createTempFile("statistics", ".shm");
+		final SharedStatisticsPublisher publisher = new SharedStatisticsPublisher(null, path.toString(), 100);
+		publisher.open();
+		publisher.publish(new StatisticsResult(2, 0, 0, 0, 0), 1);
+		final SharedStatisticsReader reader = new SharedStatisticsReader(path);
+
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		final Future<?> writer = executor.submit(() -> {
+			for (long count = 1; running.get(); count++) {
+				publisher.publish(new StatisticsResult(2, count, count, -count, 2 * count), count);
+			}
+		});
+
+		long lastSequence = 0;
+		for (int i = 0; i < 200_000; i++) {
+			final Snapshot snapshot = reader.read();
+			final StatisticsResult statistics = snapshot.getStatistics();
+			assertThat(snapshot.getSequence()).isGreaterThanOrEqualTo(lastSequence);
+			assertThat(statistics.getSum()).isEqualTo(2d * statistics.getCount());
+			// Subtracted from 0 rather than negated, so the empty statistics compare 0.0 to 0.0 and not to -0.0
+			assertThat(statistics.getMax()).isEqualTo(0d - statistics.getMin());
+			lastSequence = snapshot.getSequence();
+		}
+		running.set(false);
+		writer.get();
+		executor.shutdown();
+		Files.delete(path);
+	}
+
+	/**
+	 * Test case for {@link SharedStatisticsReader#SharedStatisticsReader(Path)} constructor with a file of another
+	 * kind
+	 *
+	 * @throws IOException if the file can't be mapped
+	 */
+	@Test(description = "Test case for SharedStatisticsReader constructor with a file of another kind",
+			expectedExceptions = IllegalStateException.class)
+	public void sharedStatisticsReaderTestUnknownFile() throws IOException {
+
+		final Path path = Files.createTempFile("statistics", ".shm");
+		Files.write(path, new byte[SharedStatisticsLayout.SIZE]);
+		try {
+			new SharedStatisticsReader(path);
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+package com.n26.challenge.timing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.testng.annotations.Test;
+
+/**
+ * Test class for {@link ServerTimingFilter}, {@link RequestTimer} and {@link SlowRequestLog}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ServerTimingFilterMockTest {
+
+	/**
+	 * Test case for {@link ServerTimingFilter#doFilter(javax.servlet.ServletRequest, javax.servlet.ServletResponse,
+	 * javax.servlet.FilterChain)} method adding the phases marked before the body is written
+	 *
+	 * @throws ServletException if the filter fails
+	 * @throws IOException if the body can't be written
+	 */
+	@Test(description = "Test case for doFilter method adding the phases marked before the body is written")
+	public void doFilterTestServerTiming() throws ServletException, IOException {
+
+		final SlowRequestLog slowRequestLog = new SlowRequestLog(0, 1, 4);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/statistics");
+		final MockHttpServletResponse response = new MockHttpServletResponse();
+
+		new ServerTimingFilter(slowRequestLog).doFilter(request, response, new MockFilterChain(new HttpServlet() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void doGet(final HttpServletRequest req, final HttpServletResponse resp) throws IOException {
+
+				RequestTimer.mark("binding");
+				RequestTimer.mark("aggregate");
+				resp.getOutputStream().write('{');
+				// Marked after the header was written, only logged
+				RequestTimer.mark("late");
+			}
+		}));
+
+		final String header = response.getHeader(ServerTimingFilter.SERVER_TIMING);
+		assertThat(header).matches("binding;dur=[0-9.]+, aggregate;dur=[0-9.]+, total;dur=[0-9.]+");
+		assertThat(RequestTimer.current()).isNull();
+
+		final SlowRequest slowRequest = slowRequestLog.getSlowRequests().get(0);
+		assertThat(slowRequest.getRequest()).isEqualTo("GET /statistics");
+		assertThat(slowRequest.getPhases()).containsOnlyKeys("binding", "aggregate", "late", "response");
+		assertThat(slowRequest.getDuration()).isGreaterThanOrEqualTo(0d);
+	}
+
+	/**
+	 * Test case for {@link ServerTimingFilter#doFilter(javax.servlet.ServletRequest, javax.servlet.ServletResponse,
+	 * javax.servlet.FilterChain)} method adding the header to a response without body
+	 *
+	 * @throws ServletException if the filter fails
+	 * @throws IOException if the filter fails
+	 */
+	@Test(description = "Test case for doFilter method adding the header to a response without body")
+	public void doFilterTestEmptyResponse() throws ServletException, IOException {
+
+		final SlowRequestLog slowRequestLog = new SlowRequestLog(60_000, 1, 4);
+		final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transactions");
+		final MockHttpServletResponse response = new MockHttpServletResponse();
+
+		new ServerTimingFilter(slowRequestLog).doFilter(request, response, (req, resp) -> {
+			RequestTimer.mark("validation");
+			RequestTimer.mark("write");
+		});
+
+		assertThat(response.getHeader(ServerTimingFilter.SERVER_TIMING))
+				.matches("validation;dur=[0-9.]+, write;dur=[0-9.]+, total;dur=[0-9.]+");
+		// Faster than the threshold
+		assertThat(slowRequestLog.getSlowRequests()).isEmpty();
+	}
+
+	/**
+	 * Test case for {@link RequestTimer#record(String, long)} method adding up the marks of a repeated phase
+	 */
+	@Test(description = "Test case for record method adding up the marks of a repeated phase")
+	public void recordTestRepeatedPhase() {
+
+		final RequestTimer timer = new RequestTimer("POST /transactions/batch", 0, 0);
+		timer.record("binding", 1_000_000);
+		timer.record("write", 1_500_000);
+		timer.record("observers", 1_750_000);
+		timer.record("write", 3_000_000);
+		timer.finish(4_000_000);
+
+		assertThat(timer.getPhases()).containsExactly(entry("binding", 1d), entry("write", 1.75),
+				entry("observers", 0.25));
+		assertThat(timer.serverTiming(10_000_000))
+				.isEqualTo("binding;dur=1.0, write;dur=1.75, observers;dur=0.25, total;dur=4.0");
+		assertThat(timer.serverTiming(10_000_000)).isNull();
+	}
+
+	/**
+	 * Test case for {@link SlowRequestLog#offer(RequestTimer)} method sampling the slow requests into the ring
+	 */
+	@Test(description = "Test case for offer method sampling the slow requests into the ring")
+	public void offerTestSampledRing() {
+
+		final SlowRequestLog slowRequestLog = new SlowRequestLog(1, 2, 2);
+		for (int i = 0; i < 8; i++) {
+			final RequestTimer timer = new RequestTimer("GET /statistics", i, 0);
+			timer.finish(i == 0 ? 500_000 : 2_000_000);
+			slowRequestLog.offer(timer);
+		}
+
+		// 7 slow requests, the 1st, 3rd, 5th and 7th sampled, the last 2 kept
+		assertThat(slowRequestLog.getSlowRequestCount()).isEqualTo(7L);
+		assertThat(slowRequestLog.getSlowRequests()).extracting("startedAt").containsExactly(7L, 5L);
+		assertThat(new SlowRequestLog(0, 0, 2).offer(new RequestTimer("GET /statistics", 0, 0))).isFalse();
+	}
+
+}
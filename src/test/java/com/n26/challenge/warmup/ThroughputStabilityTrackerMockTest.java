@@ -0,0 +1,93 @@
+package com.n26.challenge.warmup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.util.Collections;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.testng.annotations.Test;
+
+/**
+ * Test class for the warm-up exit criteria ({@link ThroughputStabilityTracker})
+ * and the {@link ReadinessHealthIndicator}.
+ *
+ * @author Santiago Alzate S.
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ThroughputStabilityTrackerMockTest {
+
+	/**
+	 * Test case for {@link ThroughputStabilityTracker} with invalid criteria
+	 */
+	@Test(description = "Test case for the tracker with invalid criteria",
+			expectedExceptions = IllegalArgumentException.class,
+			expectedExceptionsMessageRegExp = "The stability threshold and rounds must be positive.")
+	public void trackerTestInvalidCriteria() {
+
+		new ThroughputStabilityTracker(0, 3);
+		fail("An exception should have been thrown");
+	}
+
+	/**
+	 * Test case for {@link ThroughputStabilityTracker#isStable()} while the throughput is still growing
+	 */
+	@Test(description = "Test case for isStable method while the throughput is still growing")
+	public void isStableTestGrowingThroughput() {
+
+		final ThroughputStabilityTracker tracker = new ThroughputStabilityTracker(10, 2);
+		tracker.record(100);
+		tracker.record(200);
+		tracker.record(400);
+		tracker.record(800);
+
+		assertThat(tracker.isStable()).isFalse();
+		assertThat(tracker.getRounds()).isEqualTo(4);
+		assertThat(tracker.getLastThroughput()).isEqualTo(800d);
+	}
+
+	/**
+	 * Test case for {@link ThroughputStabilityTracker#isStable()} once consecutive rounds are within the threshold
+	 */
+	@Test(description = "Test case for isStable method once consecutive rounds are within the threshold")
+	public void isStableTestStableThroughput() {
+
+		final ThroughputStabilityTracker tracker = new ThroughputStabilityTracker(10, 2);
+		tracker.record(100);
+		tracker.record(1000);
+		tracker.record(1050);
+		assertThat(tracker.isStable()).as("Only one stable round so far").isFalse();
+
+		tracker.record(1000);
+		assertThat(tracker.isStable()).isTrue();
+
+		// A spike resets the consecutive stable rounds
+		tracker.record(2000);
+		assertThat(tracker.isStable()).isFalse();
+	}
+
+	/**
+	 * Test case for {@link ReadinessHealthIndicator} while warming up and once ready
+	 */
+	@Test(description = "Test case for the readiness indicator while warming up and once ready")
+	public void readinessTestWarmUpAndReady() {
+
+		final ReadinessHealthIndicator readiness = new ReadinessHealthIndicator();
+		readiness.markWarmingUp();
+
+		Health health = readiness.health();
+		assertThat(readiness.isReady()).isFalse();
+		assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+		assertThat(health.getDetails()).containsEntry("phase", "warming-up");
+
+		readiness.markReady(Collections.<String, Object>singletonMap("warmupExit", "stable"));
+
+		health = readiness.health();
+		assertThat(readiness.isReady()).isTrue();
+		assertThat(health.getStatus()).isEqualTo(Status.UP);
+		assertThat(health.getDetails()).containsEntry("phase", "ready").containsEntry("warmupExit", "stable");
+	}
+
+}